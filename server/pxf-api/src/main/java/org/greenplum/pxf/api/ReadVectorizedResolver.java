@@ -19,6 +19,8 @@ package org.greenplum.pxf.api;
  * under the License.
  */
 
+import org.greenplum.pxf.api.io.Writable;
+
 import java.util.List;
 
 /**
@@ -36,4 +38,17 @@ public interface ReadVectorizedResolver {
      */
     List<List<OneField>> getFieldsForBatch(OneRow batch);
 
+    /**
+     * Serializes the batch directly into the records sent to Greenplum,
+     * without resolving it into lists of {@link OneField}. Resolvers that
+     * can't serialize the batch for the current request return null, and
+     * the batch is resolved with {@link #getFieldsForBatch(OneRow)} instead.
+     *
+     * @param batch unresolved batch
+     * @return the serialized records of the batch, or null
+     */
+    default Writable serializeBatch(OneRow batch) {
+        return null;
+    }
+
 }
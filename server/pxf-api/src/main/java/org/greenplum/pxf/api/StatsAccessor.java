@@ -28,15 +28,23 @@ import org.greenplum.pxf.api.model.Accessor;
 public interface StatsAccessor extends Accessor {
 
     /**
-     * Method which reads needed statistics for current split
+     * Method which reads needed statistics for current split. When the
+     * statistics can't answer the aggregate of the request, for example
+     * because they are missing for part of the split, the rows of the split
+     * are read with {@link #readNextObject()} instead.
+     *
+     * @return true if the aggregate is answered from the statistics, false if the split has to be read
      * @throws Exception when unable to retrieve statistics
      */
-    void retrieveStats() throws Exception;
+    boolean retrieveStats() throws Exception;
 
     /**
-     * Returns next tuple based on statistics information without actual reading of data
+     * Returns next tuple based on statistics information without actual reading of data.
+     * For column aggregates, the tuples carry the partial aggregates of the split in the
+     * aggregated column, Greenplum computes the final aggregate over them.
      * @return next row without reading it from disk
+     * @throws Exception when unable to emit the next row
      */
-    OneRow emitAggObject();
+    OneRow emitAggObject() throws Exception;
 
 }
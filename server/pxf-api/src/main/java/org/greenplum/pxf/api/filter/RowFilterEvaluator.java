@@ -0,0 +1,538 @@
+package org.greenplum.pxf.api.filter;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluates a filter against the resolved fields of a row, so that rows that
+ * Greenplum would discard can be dropped by PXF before they are serialized
+ * and sent over the network.
+ * <p>
+ * The filter is compiled once into a tree of conditions that are evaluated
+ * with SQL three-valued logic; a row is kept only when the filter evaluates
+ * to true. Predicates that can't be evaluated exactly the way Greenplum
+ * would evaluate them (unsupported data types or operators, range
+ * comparisons on text that depend on the collation, columns that are not
+ * projected) are left out of the compiled filter. Leaving a predicate out
+ * only ever makes the filter keep more rows: unsupported operands of an AND
+ * are dropped, while an OR with an unsupported operand is dropped as a whole
+ * (the other way around under a NOT). Greenplum applies the complete filter
+ * to the rows it receives, the evaluator only removes rows early.
+ * <p>
+ * Any value that can't be converted to the type of its column keeps the row.
+ */
+public class RowFilterEvaluator {
+
+    /**
+     * The property of the server that enables the evaluation of the filter
+     * against the rows read by PXF
+     */
+    public static final String PXF_FILTER_RESIDUAL_ENABLED_PROPERTY = "pxf.filter.residual.enabled";
+
+    private static final Logger LOG = LoggerFactory.getLogger(RowFilterEvaluator.class);
+
+    private static final EnumSet<DataType> INTEGRAL_TYPES =
+            EnumSet.of(DataType.SMALLINT, DataType.INTEGER, DataType.BIGINT);
+
+    private static final EnumSet<DataType> FLOATING_POINT_TYPES =
+            EnumSet.of(DataType.REAL, DataType.FLOAT8);
+
+    private static final EnumSet<DataType> TEXT_TYPES =
+            EnumSet.of(DataType.TEXT, DataType.VARCHAR, DataType.BPCHAR);
+
+    private final List<ColumnDescriptor> columnDescriptors;
+    private final boolean[] referencedColumns;
+    private final Condition condition;
+
+    /**
+     * Compiles the filter for the given columns
+     *
+     * @param columnDescriptors the columns of the table
+     * @param filterString      the serialized filter
+     * @throws Exception when the filter string can't be parsed
+     */
+    public RowFilterEvaluator(List<ColumnDescriptor> columnDescriptors, String filterString) throws Exception {
+        this.columnDescriptors = columnDescriptors;
+        this.referencedColumns = new boolean[columnDescriptors.size()];
+        Node root = new FilterParser().parse(filterString);
+        this.condition = compile(root, true);
+    }
+
+    /**
+     * Returns true when no part of the filter could be compiled, and every
+     * row is kept
+     *
+     * @return true when the evaluator keeps every row
+     */
+    public boolean isEmpty() {
+        return condition == null;
+    }
+
+    /**
+     * Returns true when the value of the column is needed to evaluate the
+     * filter
+     *
+     * @param index the index of the column
+     * @return true when the filter references the column
+     */
+    public boolean isColumnReferenced(int index) {
+        return index < referencedColumns.length && referencedColumns[index];
+    }
+
+    /**
+     * Evaluates the filter for a row with one field per column of the table
+     *
+     * @param fields the resolved fields of the row
+     * @return false when the row is rejected by the filter, true otherwise
+     */
+    public boolean test(List<OneField> fields) {
+        if (condition == null || fields == null || fields.size() != columnDescriptors.size()) {
+            return true;
+        }
+        try {
+            return condition.evaluate(fields) == Boolean.TRUE;
+        } catch (RuntimeException e) {
+            LOG.trace("Unable to evaluate filter, keeping the row", e);
+            return true;
+        }
+    }
+
+    /**
+     * Compiles the node into a condition, or returns null when the node can't
+     * be evaluated. In a positive context (not under a NOT) operands of an AND
+     * can be left out, in a negative context operands of an OR can be left
+     * out; both only make the filter keep more rows.
+     */
+    private Condition compile(Node node, boolean positive) {
+        if (!(node instanceof OperatorNode)) {
+            return null;
+        }
+
+        OperatorNode operatorNode = (OperatorNode) node;
+        Operator operator = operatorNode.getOperator();
+        switch (operator) {
+            case AND:
+            case OR: {
+                Condition left = compile(operatorNode.getLeft(), positive);
+                Condition right = compile(operatorNode.getRight(), positive);
+                boolean canDropOperand = (operator == Operator.AND) == positive;
+                if (left == null || right == null) {
+                    return canDropOperand ? (left != null ? left : right) : null;
+                }
+                return operator == Operator.AND ? and(left, right) : or(left, right);
+            }
+            case NOT: {
+                Condition child = compile(operatorNode.getLeft(), !positive);
+                return child == null ? null : not(child);
+            }
+            default:
+                try {
+                    return compilePredicate(operatorNode);
+                } catch (RuntimeException e) {
+                    LOG.debug("Predicate {} will not be evaluated: {}", operator, e.getMessage());
+                    return null;
+                }
+        }
+    }
+
+    private Condition compilePredicate(OperatorNode operatorNode) {
+        Operator operator = operatorNode.getOperator();
+        int index = operatorNode.getColumnIndexOperand().index();
+        if (index >= columnDescriptors.size() || !columnDescriptors.get(index).isProjected()) {
+            return null;
+        }
+        ColumnDescriptor column = columnDescriptors.get(index);
+
+        Condition result;
+        if (operator == Operator.IS_NULL) {
+            result = fields -> fields.get(index).val == null;
+        } else if (operator == Operator.IS_NOT_NULL) {
+            result = fields -> fields.get(index).val != null;
+        } else {
+            OperandNode operand = operatorNode.getValueOperand();
+            if (operand instanceof ScalarOperandNode) {
+                result = compileComparison(index, column, operator, (ScalarOperandNode) operand);
+            } else if (operand instanceof CollectionOperandNode && operator == Operator.IN) {
+                result = compileIn(index, column, (CollectionOperandNode) operand);
+            } else {
+                result = null;
+            }
+        }
+
+        if (result != null) {
+            referencedColumns[index] = true;
+        }
+        return result;
+    }
+
+    private Condition compileComparison(int index, ColumnDescriptor column, Operator operator, ScalarOperandNode operand) {
+        ValueType valueType = ValueType.of(column, operand.getDataType());
+        if (valueType == null) {
+            return null;
+        }
+        if (operator == Operator.NOOP && valueType == ValueType.BOOLEAN) {
+            // a boolean column used as a predicate on its own
+            operator = Operator.EQUALS;
+        }
+
+        if (operator == Operator.LIKE) {
+            if (valueType != ValueType.TEXT) {
+                return null;
+            }
+            Pattern pattern = likePattern(operand.getValue());
+            return fields -> {
+                Object value = fields.get(index).val;
+                return value == null ? null : pattern.matcher((String) valueType.convert(value, column)).matches();
+            };
+        }
+
+        if (!valueType.supports(operator)) {
+            return null;
+        }
+        Object constant = valueType.convertConstant(operand.getValue(), operand.getDataType());
+        Operator comparison = operator;
+        return fields -> {
+            Object value = fields.get(index).val;
+            if (value == null) {
+                return null;
+            }
+            int cmp = valueType.compare(valueType.convert(value, column), constant);
+            switch (comparison) {
+                case LESS_THAN:
+                    return cmp < 0;
+                case GREATER_THAN:
+                    return cmp > 0;
+                case LESS_THAN_OR_EQUAL:
+                    return cmp <= 0;
+                case GREATER_THAN_OR_EQUAL:
+                    return cmp >= 0;
+                case EQUALS:
+                    return cmp == 0;
+                default:
+                    return cmp != 0;
+            }
+        };
+    }
+
+    private Condition compileIn(int index, ColumnDescriptor column, CollectionOperandNode operand) {
+        DataType elementType = operand.getDataType().getTypeElem() != null
+                ? operand.getDataType().getTypeElem()
+                : operand.getDataType();
+        ValueType valueType = ValueType.of(column, elementType);
+        if (valueType == null || operand.getData().isEmpty()) {
+            return null;
+        }
+
+        List<Object> constants = new ArrayList<>(operand.getData().size());
+        for (String data : operand.getData()) {
+            constants.add(valueType.convertConstant(data, elementType));
+        }
+
+        if (valueType.isHashable()) {
+            Set<Object> set = new HashSet<>(constants);
+            return fields -> {
+                Object value = fields.get(index).val;
+                return value == null ? null : set.contains(valueType.convert(value, column));
+            };
+        }
+        return fields -> {
+            Object value = fields.get(index).val;
+            if (value == null) {
+                return null;
+            }
+            Object converted = valueType.convert(value, column);
+            for (Object constant : constants) {
+                if (valueType.compare(converted, constant) == 0) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static Condition and(Condition left, Condition right) {
+        return fields -> {
+            Boolean l = left.evaluate(fields);
+            if (l == Boolean.FALSE) {
+                return false;
+            }
+            Boolean r = right.evaluate(fields);
+            if (r == Boolean.FALSE) {
+                return false;
+            }
+            return l == null || r == null ? null : Boolean.TRUE;
+        };
+    }
+
+    private static Condition or(Condition left, Condition right) {
+        return fields -> {
+            Boolean l = left.evaluate(fields);
+            if (l == Boolean.TRUE) {
+                return true;
+            }
+            Boolean r = right.evaluate(fields);
+            if (r == Boolean.TRUE) {
+                return true;
+            }
+            return l == null || r == null ? null : Boolean.FALSE;
+        };
+    }
+
+    private static Condition not(Condition child) {
+        return fields -> {
+            Boolean result = child.evaluate(fields);
+            return result == null ? null : !result;
+        };
+    }
+
+    /**
+     * Translates a LIKE pattern, with backslash as the escape character, into
+     * a regular expression
+     */
+    static Pattern likePattern(String like) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < like.length(); i++) {
+            char c = like.charAt(i);
+            if (c == '\\') {
+                if (++i == like.length()) {
+                    throw new IllegalArgumentException("LIKE pattern must not end with escape character");
+                }
+                regex.append(Pattern.quote(String.valueOf(like.charAt(i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * A compiled part of the filter. Returns true, false, or null when the
+     * result is unknown.
+     */
+    @FunctionalInterface
+    private interface Condition {
+        Boolean evaluate(List<OneField> fields);
+    }
+
+    /**
+     * The representation that values of a column and the constant they are
+     * compared with are converted to
+     */
+    private enum ValueType {
+        LONG, DECIMAL, DOUBLE, TEXT, BOOLEAN, DATE;
+
+        /**
+         * Returns the representation for comparing a column with a constant
+         * of the given type, or null when the comparison is not supported
+         */
+        static ValueType of(ColumnDescriptor column, DataType constantType) {
+            DataType columnType = column.getDataType();
+            boolean integralConstant = INTEGRAL_TYPES.contains(constantType);
+            boolean floatingPointConstant = FLOATING_POINT_TYPES.contains(constantType);
+            boolean numericConstant = constantType == DataType.NUMERIC;
+
+            if (INTEGRAL_TYPES.contains(columnType)) {
+                return integralConstant ? LONG : numericConstant ? DECIMAL : floatingPointConstant ? DOUBLE : null;
+            } else if (FLOATING_POINT_TYPES.contains(columnType)) {
+                return integralConstant || numericConstant || floatingPointConstant ? DOUBLE : null;
+            } else if (columnType == DataType.NUMERIC) {
+                return integralConstant || numericConstant ? DECIMAL : floatingPointConstant ? DOUBLE : null;
+            } else if (TEXT_TYPES.contains(columnType)) {
+                return TEXT_TYPES.contains(constantType) ? TEXT : null;
+            } else if (columnType == DataType.BOOLEAN) {
+                return constantType == DataType.BOOLEAN ? BOOLEAN : null;
+            } else if (columnType == DataType.DATE) {
+                return constantType == DataType.DATE ? DATE : null;
+            }
+            return null;
+        }
+
+        /**
+         * Text is only compared for equality, ordering depends on the
+         * collation of the database; booleans are only compared for equality
+         */
+        boolean supports(Operator operator) {
+            if (this == TEXT || this == BOOLEAN) {
+                return operator == Operator.EQUALS || operator == Operator.NOT_EQUALS;
+            }
+            return operator == Operator.LESS_THAN || operator == Operator.GREATER_THAN ||
+                    operator == Operator.LESS_THAN_OR_EQUAL || operator == Operator.GREATER_THAN_OR_EQUAL ||
+                    operator == Operator.EQUALS || operator == Operator.NOT_EQUALS;
+        }
+
+        boolean isHashable() {
+            return this == LONG || this == TEXT || this == BOOLEAN || this == DATE;
+        }
+
+        /**
+         * Converts the value of a field, as produced by a resolver, for the
+         * given column
+         */
+        Object convert(Object value, ColumnDescriptor column) {
+            DataType columnType = column.getDataType();
+            switch (this) {
+                case LONG:
+                    return toLong(value, columnType);
+                case DECIMAL: {
+                    BigDecimal decimal = toDecimal(value);
+                    Integer[] modifiers = column.columnTypeModifiers();
+                    if (columnType == DataType.NUMERIC && modifiers != null && modifiers.length > 1 && modifiers[1] != null) {
+                        // Greenplum rounds the input to the scale of the column
+                        decimal = decimal.setScale(modifiers[1], RoundingMode.HALF_UP);
+                    }
+                    return decimal;
+                }
+                case DOUBLE:
+                    return toDouble(value, columnType);
+                case TEXT: {
+                    String text = value.toString();
+                    // trailing spaces are not significant for bpchar
+                    return columnType == DataType.BPCHAR ? rtrim(text) : text;
+                }
+                case BOOLEAN:
+                    return toBoolean(value);
+                default:
+                    return toDate(value);
+            }
+        }
+
+        /**
+         * Converts a constant of the filter
+         */
+        Object convertConstant(String value, DataType constantType) {
+            switch (this) {
+                case LONG:
+                    return Long.parseLong(value);
+                case DECIMAL:
+                    return new BigDecimal(value);
+                case DOUBLE:
+                    return toDouble(value, constantType);
+                case TEXT:
+                    return constantType == DataType.BPCHAR ? rtrim(value) : value;
+                case BOOLEAN:
+                    return toBoolean(value);
+                default:
+                    return toDate(value);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        int compare(Object value, Object constant) {
+            switch (this) {
+                case DOUBLE:
+                    return compareDoubles((Double) value, (Double) constant);
+                case TEXT:
+                case BOOLEAN:
+                    return value.equals(constant) ? 0 : 1;
+                default:
+                    return ((Comparable<Object>) value).compareTo(constant);
+            }
+        }
+
+        private static long toLong(Object value, DataType columnType) {
+            long result;
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                result = ((Number) value).longValue();
+            } else {
+                result = Long.parseLong(value.toString().trim());
+            }
+            // out of range values fail in Greenplum, keep the row
+            if ((columnType == DataType.INTEGER && (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE)) ||
+                    (columnType == DataType.SMALLINT && (result < Short.MIN_VALUE || result > Short.MAX_VALUE))) {
+                throw new NumberFormatException(String.format("value %d is out of range for type %s", result, columnType));
+            }
+            return result;
+        }
+
+        private static BigDecimal toDecimal(Object value) {
+            if (value instanceof BigDecimal) {
+                return (BigDecimal) value;
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+                return BigDecimal.valueOf(((Number) value).longValue());
+            }
+            return new BigDecimal(value.toString().trim());
+        }
+
+        private static double toDouble(Object value, DataType type) {
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+            String text = value.toString().trim();
+            // a real is stored with single precision
+            return type == DataType.REAL ? Float.parseFloat(text) : Double.parseDouble(text);
+        }
+
+        private static boolean toBoolean(Object value) {
+            if (value instanceof Boolean) {
+                return (Boolean) value;
+            }
+            switch (value.toString().trim().toLowerCase()) {
+                case "t":
+                case "true":
+                case "y":
+                case "yes":
+                case "on":
+                case "1":
+                    return true;
+                case "f":
+                case "false":
+                case "n":
+                case "no":
+                case "off":
+                case "0":
+                    return false;
+                default:
+                    throw new IllegalArgumentException(String.format("invalid input syntax for type boolean: %s", value));
+            }
+        }
+
+        private static LocalDate toDate(Object value) {
+            if (value instanceof LocalDate) {
+                return (LocalDate) value;
+            } else if (value instanceof java.sql.Date) {
+                return ((java.sql.Date) value).toLocalDate();
+            }
+            return LocalDate.parse(value.toString().trim());
+        }
+
+        /**
+         * Compares two doubles the way Greenplum does: zeros are equal, and
+         * NaN is equal to itself and greater than any other value
+         */
+        private static int compareDoubles(double a, double b) {
+            if (a < b) {
+                return -1;
+            } else if (a > b) {
+                return 1;
+            } else if (a == b) {
+                return 0;
+            }
+            return Double.isNaN(a) ? (Double.isNaN(b) ? 0 : 1) : -1;
+        }
+
+        private static String rtrim(String value) {
+            int end = value.length();
+            while (end > 0 && value.charAt(end - 1) == ' ') {
+                end--;
+            }
+            return value.substring(0, end);
+        }
+    }
+}
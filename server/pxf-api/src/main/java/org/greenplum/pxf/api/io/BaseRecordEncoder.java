@@ -0,0 +1,43 @@
+package org.greenplum.pxf.api.io;
+
+import java.util.Arrays;
+
+/**
+ * Base class for record encoders, holds the buffer that the records are
+ * serialized into.
+ */
+abstract class BaseRecordEncoder implements RecordEncoder {
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    protected byte[] buffer = new byte[INITIAL_CAPACITY];
+    protected int position;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Writable flush() {
+        BufferWritable writable = new BufferWritable(buffer, position);
+        position = 0;
+        return writable;
+    }
+
+    /**
+     * Ensures that the buffer can hold the given number of additional bytes
+     *
+     * @param length the number of bytes to add
+     */
+    protected void ensureCapacity(int length) {
+        int required = position + length;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+
+    protected void put(byte[] value, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(value, offset, buffer, position, length);
+        position += length;
+    }
+}
@@ -0,0 +1,151 @@
+package org.greenplum.pxf.api.io;
+
+import org.greenplum.pxf.api.model.GreenplumCSV;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializes records as UTF-8 encoded lines of delimited text, following
+ * the format options of the table. Text values are quoted only when they
+ * contain the quote, delimiter or newline characters.
+ */
+public class CsvRecordEncoder extends BaseRecordEncoder {
+
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private final GreenplumCSV greenplumCSV;
+    private final byte[] delimiter;
+    private final byte[] newline;
+    private final byte[] valueOfNull;
+    private final byte[] byteaPrefix;
+    private final int quote;
+    private final int delimiterChar;
+
+    private int column;
+
+    /**
+     * Constructs an encoder for the format options of the table
+     *
+     * @param greenplumCSV the format options of the table
+     * @param format       the format of the table, bytea values are prefixed
+     *                     with a single backslash for the CSV format and with
+     *                     two backslashes otherwise
+     */
+    public CsvRecordEncoder(GreenplumCSV greenplumCSV, String format) {
+        this.greenplumCSV = greenplumCSV;
+        this.delimiter = String.valueOf(greenplumCSV.getDelimiter()).getBytes(StandardCharsets.UTF_8);
+        this.newline = greenplumCSV.getNewline().getBytes(StandardCharsets.UTF_8);
+        this.valueOfNull = greenplumCSV.getValueOfNull().getBytes(StandardCharsets.UTF_8);
+        this.byteaPrefix = ("csv".equalsIgnoreCase(format) ? "\\x" : "\\\\x").getBytes(StandardCharsets.UTF_8);
+        // UTF-8 text can be scanned byte by byte for ASCII quote and delimiter characters only
+        this.quote = greenplumCSV.getQuote() < 0x80 ? greenplumCSV.getQuote() : -1;
+        this.delimiterChar = greenplumCSV.getDelimiter() != null && greenplumCSV.getDelimiter() < 0x80
+                ? greenplumCSV.getDelimiter() : -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void beginRecord() {
+        column = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endRecord() {
+        put(newline, 0, newline.length);
+    }
+
+    @Override
+    public void writeNull() {
+        startColumn();
+        put(valueOfNull, 0, valueOfNull.length);
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        startColumn();
+        byte[] bytes = value ? TRUE : FALSE;
+        put(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void writeShort(short value) {
+        writeAscii(Short.toString(value));
+    }
+
+    @Override
+    public void writeInt(int value) {
+        writeAscii(Integer.toString(value));
+    }
+
+    @Override
+    public void writeLong(long value) {
+        writeAscii(Long.toString(value));
+    }
+
+    @Override
+    public void writeFloat(float value) {
+        writeAscii(Float.toString(value));
+    }
+
+    @Override
+    public void writeDouble(double value) {
+        writeAscii(Double.toString(value));
+    }
+
+    @Override
+    public void writeBytes(byte[] value, int offset, int length) {
+        startColumn();
+        put(byteaPrefix, 0, byteaPrefix.length);
+        ensureCapacity(length * 2);
+        for (int i = offset; i < offset + length; i++) {
+            buffer[position++] = HEX_DIGITS[(value[i] >>> 4) & 0x0F];
+            buffer[position++] = HEX_DIGITS[value[i] & 0x0F];
+        }
+    }
+
+    @Override
+    public void writeText(String value) {
+        startColumn();
+        byte[] bytes = greenplumCSV.toCsvField(value, true, true, true).getBytes(StandardCharsets.UTF_8);
+        put(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void writeUtf8Text(byte[] value, int offset, int length) {
+        if (quote == -1 || delimiterChar == -1) {
+            writeText(new String(value, offset, length, StandardCharsets.UTF_8));
+            return;
+        }
+        for (int i = offset; i < offset + length; i++) {
+            byte b = value[i];
+            if (b == quote || b == delimiterChar || b == '\n' || b == '\r') {
+                writeText(new String(value, offset, length, StandardCharsets.UTF_8));
+                return;
+            }
+        }
+        startColumn();
+        put(value, offset, length);
+    }
+
+    private void writeAscii(String value) {
+        startColumn();
+        int length = value.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void startColumn() {
+        if (column++ > 0) {
+            put(delimiter, 0, delimiter.length);
+        }
+    }
+}
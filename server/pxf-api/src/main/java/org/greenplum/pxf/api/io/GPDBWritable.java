@@ -55,7 +55,7 @@ public class GPDBWritable implements Writable {
     /*
      * Enum of the Database type
      */
-    private enum DBType {
+    enum DBType {
         BIGINT(8, 8),
         BOOLEAN(1, 1),
         FLOAT8(8, 8),
@@ -91,7 +91,7 @@ public class GPDBWritable implements Writable {
      * Constants
      */
     private static final int PREV_VERSION = 1;
-    private static final int VERSION = 2; /* for backward compatibility */
+    static final int VERSION = 2; /* for backward compatibility */
 
     /*
      * Local variables
@@ -352,32 +352,7 @@ public class GPDBWritable implements Writable {
 
         for (int i = 0; i < numCol; i++) {
             /* Get the enum type */
-            DBType coldbtype;
-            switch (DataType.get(colType[i])) {
-                case BIGINT:
-                    coldbtype = DBType.BIGINT;
-                    break;
-                case BOOLEAN:
-                    coldbtype = DBType.BOOLEAN;
-                    break;
-                case FLOAT8:
-                    coldbtype = DBType.FLOAT8;
-                    break;
-                case INTEGER:
-                    coldbtype = DBType.INTEGER;
-                    break;
-                case REAL:
-                    coldbtype = DBType.REAL;
-                    break;
-                case SMALLINT:
-                    coldbtype = DBType.SMALLINT;
-                    break;
-                case BYTEA:
-                    coldbtype = DBType.BYTEA;
-                    break;
-                default:
-                    coldbtype = DBType.TEXT;
-            }
+            DBType coldbtype = getDBType(colType[i]);
             enumType[i] = (byte) (coldbtype.ordinal());
 
             /* Get the actual value, and set the null bit */
@@ -483,6 +458,34 @@ public class GPDBWritable implements Writable {
         out.write(padbytes, 0, endpadding);
     }
 
+    /**
+     * Returns the type used to serialize values of the given Greenplum type.
+     * Types other than the fixed length types and bytea are serialized as text.
+     *
+     * @param oid the Greenplum type
+     * @return the serialization type
+     */
+    static DBType getDBType(int oid) {
+        switch (DataType.get(oid)) {
+            case BIGINT:
+                return DBType.BIGINT;
+            case BOOLEAN:
+                return DBType.BOOLEAN;
+            case FLOAT8:
+                return DBType.FLOAT8;
+            case INTEGER:
+                return DBType.INTEGER;
+            case REAL:
+                return DBType.REAL;
+            case SMALLINT:
+                return DBType.SMALLINT;
+            case BYTEA:
+                return DBType.BYTEA;
+            default:
+                return DBType.TEXT;
+        }
+    }
+
     /**
      * Private helper to convert boolean array to byte array
      */
@@ -503,7 +506,7 @@ public class GPDBWritable implements Writable {
     /**
      * Private helper to determine the size of the null byte array
      */
-    private static int getNullByteArraySize(int colCnt) {
+    static int getNullByteArraySize(int colCnt) {
         return (colCnt / 8) + (colCnt % 8 != 0 ? 1 : 0);
     }
 
@@ -840,11 +843,18 @@ public class GPDBWritable implements Writable {
      * the C code uses (see gphdfs/src/protocol_formatter/common.c).
      */
     private void initializeEightByteAlignment() {
+        alignmentOfEightBytes = getEightByteAlignment();
+    }
+
+    /**
+     * Returns the alignment of eight byte types, which can be overridden
+     * with the greenplum.alignment system property
+     *
+     * @return the alignment of eight byte types
+     */
+    static int getEightByteAlignment() {
         String alignment = System.getProperty("greenplum.alignment");
-        if (alignment == null) {
-            return;
-        }
-        alignmentOfEightBytes = Integer.parseInt(alignment);
+        return alignment == null ? 8 : Integer.parseInt(alignment);
     }
 
     /**
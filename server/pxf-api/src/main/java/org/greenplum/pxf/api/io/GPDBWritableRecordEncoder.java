@@ -0,0 +1,184 @@
+package org.greenplum.pxf.api.io;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializes records in the same binary form as {@link GPDBWritable}.
+ * The column types of the records are the types of the Greenplum table.
+ */
+public class GPDBWritableRecordEncoder extends BaseRecordEncoder {
+
+    private final byte[] header;
+    private final int nullBytesOffset;
+    private final int columnCount;
+    private final int eightByteAlignment;
+    private final Charset databaseEncoding;
+    private final boolean utf8Encoding;
+
+    private int recordStart;
+    private int column;
+
+    /**
+     * Constructs an encoder for records of the given column types
+     *
+     * @param columnTypes      the types of the columns of the table
+     * @param databaseEncoding the encoding of the database
+     */
+    public GPDBWritableRecordEncoder(int[] columnTypes, Charset databaseEncoding) {
+        this.columnCount = columnTypes.length;
+        this.databaseEncoding = databaseEncoding;
+        this.utf8Encoding = StandardCharsets.UTF_8.equals(databaseEncoding);
+        this.eightByteAlignment = GPDBWritable.getEightByteAlignment();
+
+        // Total Length | Version | Error Flag | # of columns | Col type |...| Col type | Null Bit array
+        nullBytesOffset = 4 + 2 + 1 + 2 + columnCount;
+        header = new byte[nullBytesOffset + GPDBWritable.getNullByteArraySize(columnCount)];
+        header[4] = (byte) (GPDBWritable.VERSION >>> 8);
+        header[5] = (byte) GPDBWritable.VERSION;
+        header[7] = (byte) (columnCount >>> 8);
+        header[8] = (byte) columnCount;
+        for (int i = 0; i < columnCount; i++) {
+            header[9 + i] = (byte) GPDBWritable.getDBType(columnTypes[i]).ordinal();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void beginRecord() {
+        recordStart = position;
+        column = 0;
+        // the header has no null bits set
+        put(header, 0, header.length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endRecord() {
+        if (column != columnCount) {
+            throw new IllegalStateException(String.format("Record has %d fields but the schema size is %d",
+                    column, columnCount));
+        }
+        align(8);
+        putInt(recordStart, position - recordStart);
+    }
+
+    @Override
+    public void writeNull() {
+        buffer[recordStart + nullBytesOffset + (column >>> 3)] |= 1 << (7 - (column & 7));
+        column++;
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) (value ? 1 : 0);
+        column++;
+    }
+
+    @Override
+    public void writeShort(short value) {
+        align(2);
+        ensureCapacity(2);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+        column++;
+    }
+
+    @Override
+    public void writeInt(int value) {
+        align(4);
+        ensureCapacity(4);
+        putInt(position, value);
+        position += 4;
+        column++;
+    }
+
+    @Override
+    public void writeLong(long value) {
+        align(8);
+        ensureCapacity(8);
+        putInt(position, (int) (value >>> 32));
+        putInt(position + 4, (int) value);
+        position += 8;
+        column++;
+    }
+
+    @Override
+    public void writeFloat(float value) {
+        writeInt(Float.floatToIntBits(value));
+    }
+
+    @Override
+    public void writeDouble(double value) {
+        writeLong(Double.doubleToLongBits(value));
+    }
+
+    @Override
+    public void writeBytes(byte[] value, int offset, int length) {
+        align(4);
+        ensureCapacity(4 + length);
+        putInt(position, length);
+        position += 4;
+        put(value, offset, length);
+        column++;
+    }
+
+    @Override
+    public void writeText(String value) {
+        byte[] bytes = value.getBytes(databaseEncoding);
+        writeTextBytes(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void writeUtf8Text(byte[] value, int offset, int length) {
+        if (utf8Encoding) {
+            writeTextBytes(value, offset, length);
+        } else {
+            writeText(new String(value, offset, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Writes text in the database encoding; text values are '\0' terminated
+     */
+    private void writeTextBytes(byte[] value, int offset, int length) {
+        align(4);
+        ensureCapacity(4 + length + 1);
+        putInt(position, length + 1);
+        position += 4;
+        System.arraycopy(value, offset, buffer, position, length);
+        position += length;
+        buffer[position++] = 0;
+        column++;
+    }
+
+    /**
+     * Pads the record with zeros up to the given alignment, relative to the
+     * beginning of the record
+     */
+    private void align(int alignment) {
+        if (alignment == 8) {
+            alignment = eightByteAlignment;
+        }
+        int offset = position - recordStart;
+        int padding = ((offset + alignment - 1) & ~(alignment - 1)) - offset;
+        if (padding > 0) {
+            ensureCapacity(padding);
+            for (int i = 0; i < padding; i++) {
+                buffer[position++] = 0;
+            }
+        }
+    }
+
+    private void putInt(int index, int value) {
+        buffer[index] = (byte) (value >>> 24);
+        buffer[index + 1] = (byte) (value >>> 16);
+        buffer[index + 2] = (byte) (value >>> 8);
+        buffer[index + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,80 @@
+package org.greenplum.pxf.api.io;
+
+/**
+ * Serializes records directly into the format that is sent to Greenplum,
+ * without building a {@link Writable} for every record. Resolvers that can
+ * read the values of a whole batch use an encoder to skip the boxing of the
+ * values into OneFields.
+ * <p>
+ * A record is written by calling {@link #beginRecord()}, then one of the
+ * write methods for every column of the table, in order, and then
+ * {@link #endRecord()}. The value written for a column must match the type
+ * of the column in the table: booleans, integers and floating points for
+ * columns of the same type, bytes for bytea columns, and text for every
+ * other type.
+ */
+public interface RecordEncoder {
+
+    /**
+     * Starts a new record
+     */
+    void beginRecord();
+
+    /**
+     * Ends the current record
+     */
+    void endRecord();
+
+    /**
+     * Writes a null value for the next column
+     */
+    void writeNull();
+
+    void writeBoolean(boolean value);
+
+    void writeShort(short value);
+
+    void writeInt(int value);
+
+    void writeLong(long value);
+
+    void writeFloat(float value);
+
+    void writeDouble(double value);
+
+    /**
+     * Writes the value of a bytea column
+     *
+     * @param value  the buffer holding the value
+     * @param offset the offset of the value in the buffer
+     * @param length the length of the value
+     */
+    void writeBytes(byte[] value, int offset, int length);
+
+    /**
+     * Writes the value of a column in its text form
+     *
+     * @param value the text
+     */
+    void writeText(String value);
+
+    /**
+     * Writes the value of a column in its text form, from UTF-8 encoded
+     * bytes. Encoders avoid decoding the bytes whenever they can.
+     *
+     * @param value  the buffer holding the UTF-8 encoded text
+     * @param offset the offset of the text in the buffer
+     * @param length the length of the text in bytes
+     */
+    void writeUtf8Text(byte[] value, int offset, int length);
+
+    /**
+     * Returns the records written since the last call as a single
+     * {@link Writable}. The encoder reuses its buffer for the next records,
+     * so the returned writable must be written out before the next record
+     * begins.
+     *
+     * @return the serialized records
+     */
+    Writable flush();
+}
@@ -81,6 +81,12 @@ public class RequestContext {
      */
     private EnumAggregationType aggType;
 
+    /**
+     * The indexes of the columns the aggregate is grouped by, empty when the
+     * aggregate is not grouped
+     */
+    private List<Integer> aggGroupBy = new ArrayList<>();
+
     /**
      * The name of the server configuration for this request.
      */
@@ -21,14 +21,19 @@ package org.greenplum.pxf.api.utilities;
 
 public enum EnumAggregationType {
 
-    COUNT("count", true);
+    COUNT("count", true, false),
+    MIN("min", true, true),
+    MAX("max", true, true),
+    SUM("sum", true, true);
 
     private String aggOperationCode;
     private boolean optimizationSupported;
+    private boolean columnAggregate;
 
-    private EnumAggregationType(String aggOperationCode, boolean optimizationSupported) {
+    private EnumAggregationType(String aggOperationCode, boolean optimizationSupported, boolean columnAggregate) {
         this.aggOperationCode = aggOperationCode;
         this.optimizationSupported = optimizationSupported;
+        this.columnAggregate = columnAggregate;
     }
 
     public String getAggOperationCode() {
@@ -39,6 +44,17 @@ public enum EnumAggregationType {
         return this.optimizationSupported;
     }
 
+    /**
+     * Returns true if the aggregate is computed over the values of a single
+     * column, which is then the only projected column of the request besides
+     * the columns the aggregate is grouped by
+     *
+     * @return true for column aggregates, false for COUNT(*)
+     */
+    public boolean isColumnAggregate() {
+        return this.columnAggregate;
+    }
+
     public static EnumAggregationType getAggregationType(String aggOperationCode) {
         for (EnumAggregationType at : values()) {
             if (at.getAggOperationCode().equals(aggOperationCode)) {
@@ -0,0 +1,213 @@
+package org.greenplum.pxf.api.utilities;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The threads and the memory that plugins use for the work they do in
+ * parallel with the thread that serves a request, such as prefetching,
+ * decompressing or compressing data. The threads and the memory are shared by
+ * all the requests of the service, so that the number of threads and the
+ * amount of data buffered ahead of the readers and writers stay bounded no
+ * matter how many requests are served at once.
+ * <p>
+ * A plugin submits its tasks to an executor returned by
+ * {@link #newExecutor(int)}, that runs a bounded number of the tasks of the
+ * plugin at once on the shared threads. The memory is reserved with
+ * {@link #tryReserveMemory(long)}, that never waits: a plugin that can't
+ * reserve memory does its work on the thread that serves the request instead
+ * of buffering data ahead of it.
+ */
+@Component
+public class PluginTaskExecutor implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PluginTaskExecutor.class);
+
+    private final ThreadPoolExecutor pool;
+    private final long memoryBudget;
+    private final AtomicLong reservedMemory = new AtomicLong();
+
+    /**
+     * Constructs the PluginTaskExecutor class
+     *
+     * @param threads      the number of threads shared by the plugins
+     * @param memoryBudget the amount of memory shared by the plugins for the data they buffer
+     */
+    public PluginTaskExecutor(@Value("${pxf.plugin-task.threads:16}") int threads,
+                              @Value("${pxf.plugin-task.memory-budget:512MB}") DataSize memoryBudget) {
+        LOG.info("Creating plugin task executor with {} threads and a memory budget of {} bytes", threads, memoryBudget.toBytes());
+        this.pool = (ThreadPoolExecutor) Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                .setNameFormat("pxf-plugin-task-%d")
+                .setDaemon(true)
+                .build());
+        this.memoryBudget = memoryBudget.toBytes();
+    }
+
+    /**
+     * Returns an executor for the tasks of a single reader or writer, that
+     * runs at most the given number of its tasks at once on the shared
+     * threads. Shutting the executor down only discards the tasks of the
+     * executor, the shared threads keep running.
+     *
+     * @param parallelism the maximum number of tasks of the executor that run at once
+     * @return the executor
+     */
+    public ExecutorService newExecutor(int parallelism) {
+        return new BoundedExecutor(Math.max(1, parallelism));
+    }
+
+    /**
+     * Reserves memory from the shared budget, if the budget has room for it
+     *
+     * @param bytes the number of bytes to reserve
+     * @return true if the memory was reserved, false otherwise
+     */
+    public boolean tryReserveMemory(long bytes) {
+        while (true) {
+            long reserved = reservedMemory.get();
+            if (reserved + bytes > memoryBudget) {
+                LOG.debug("Not reserving {} bytes, {} bytes of the budget of {} are reserved", bytes, reserved, memoryBudget);
+                return false;
+            }
+            if (reservedMemory.compareAndSet(reserved, reserved + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns memory reserved with {@link #tryReserveMemory(long)} to the shared budget
+     *
+     * @param bytes the number of bytes to release
+     */
+    public void releaseMemory(long bytes) {
+        reservedMemory.addAndGet(-bytes);
+    }
+
+    /**
+     * @return the number of bytes of the shared budget that are reserved
+     */
+    public long getReservedMemory() {
+        return reservedMemory.get();
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * An executor that queues its tasks and runs at most a given number of
+     * them at once on the shared pool. Every running slot drains the queue of
+     * the executor, so the tasks run in submission order.
+     */
+    private class BoundedExecutor extends AbstractExecutorService {
+
+        private final int parallelism;
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+        private int running;
+        private boolean shutdown;
+
+        BoundedExecutor(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            synchronized (this) {
+                if (shutdown) {
+                    throw new RejectedExecutionException("Executor has been shut down");
+                }
+                tasks.add(command);
+                if (running == parallelism) {
+                    return;
+                }
+                running++;
+            }
+            try {
+                pool.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    running--;
+                    tasks.remove(command);
+                }
+                throw e;
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    task = tasks.poll();
+                    if (task == null) {
+                        running--;
+                        notifyAll();
+                        return;
+                    }
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    LOG.warn("Plugin task failed", e);
+                } finally {
+                    // a task that was cancelled while it ran must not interrupt the next one
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        @Override
+        public synchronized void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public synchronized List<Runnable> shutdownNow() {
+            shutdown = true;
+            List<Runnable> pending = new ArrayList<>(tasks);
+            tasks.clear();
+            return pending;
+        }
+
+        @Override
+        public synchronized boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public synchronized boolean isTerminated() {
+            return shutdown && running == 0;
+        }
+
+        @Override
+        public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isTerminated()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return true;
+        }
+    }
+}
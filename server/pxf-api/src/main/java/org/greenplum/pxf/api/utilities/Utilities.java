@@ -33,6 +33,7 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -225,18 +226,39 @@ public class Utilities {
 
     /**
      * Determines whether components can use aggregate optimized implementations.
+     * Aggregates grouped by columns are not supported.
      *
      * @param requestContext input protocol data
      * @return true if aggregate optimizations can be applicable to the current context
      */
     public static boolean aggregateOptimizationsSupported(RequestContext requestContext) {
-        boolean isStatsAccessor = implementsInterface(requestContext.getAccessor(), StatsAccessor.class);
-        /* Make sure filter is not present, aggregate operation supports optimization and accessor implements StatsAccessor interface */
-        return (isStatsAccessor
+        return aggregateOptimizationsSupported(requestContext, false);
+    }
+
+    /**
+     * Determines whether components can use aggregate optimized implementations.
+     *
+     * @param requestContext   input protocol data
+     * @param groupBySupported whether aggregates grouped by columns are supported
+     * @return true if aggregate optimizations can be applicable to the current context
+     */
+    public static boolean aggregateOptimizationsSupported(RequestContext requestContext, boolean groupBySupported) {
+        EnumAggregationType aggType = requestContext.getAggType();
+        List<Integer> groupBy = requestContext.getAggGroupBy();
+        /* Make sure filter is not present, aggregate operation supports optimization and accessor implements StatsAccessor interface.
+         * COUNT(*) projects no columns, column aggregates project the aggregated column only, both also project the grouping columns */
+        return (aggType != null
+                && aggType.isOptimizationSupported()
                 && !requestContext.hasFilter()
-                && (requestContext.getAggType() != null)
-                && requestContext.getAggType().isOptimizationSupported()
-                && requestContext.getNumAttrsProjected() == 0);
+                && (groupBy.isEmpty() || groupBySupported && isProjected(requestContext, groupBy))
+                && requestContext.getNumAttrsProjected() == (aggType.isColumnAggregate() ? 1 : 0) + groupBy.size()
+                && implementsInterface(requestContext.getAccessor(), StatsAccessor.class));
+    }
+
+    private static boolean isProjected(RequestContext requestContext, List<Integer> columnIndexes) {
+        List<ColumnDescriptor> columns = requestContext.getTupleDescription();
+        return columnIndexes.stream()
+                .allMatch(index -> index >= 0 && index < columns.size() && columns.get(index).isProjected());
     }
 
     /**
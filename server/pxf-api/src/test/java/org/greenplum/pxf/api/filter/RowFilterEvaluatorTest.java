@@ -0,0 +1,220 @@
+package org.greenplum.pxf.api.filter;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RowFilterEvaluatorTest {
+
+    private static final List<ColumnDescriptor> COLUMNS = Arrays.asList(
+            new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null),
+            new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null),
+            new ColumnDescriptor("amt", DataType.FLOAT8.getOID(), 2, "float8", null),
+            new ColumnDescriptor("dec", DataType.NUMERIC.getOID(), 3, "numeric", new Integer[]{5, 2}),
+            new ColumnDescriptor("b", DataType.BOOLEAN.getOID(), 4, "bool", null),
+            new ColumnDescriptor("cdate", DataType.DATE.getOID(), 5, "date", null),
+            new ColumnDescriptor("code", DataType.BPCHAR.getOID(), 6, "bpchar", new Integer[]{5}),
+            new ColumnDescriptor("r", DataType.REAL.getOID(), 7, "real", null),
+            new ColumnDescriptor("tm", DataType.TIMESTAMP.getOID(), 8, "timestamp", null)
+    );
+
+    @Test
+    public void testIntegerComparisons() throws Exception {
+        // id > 990
+        RowFilterEvaluator evaluator = new RowFilterEvaluator(COLUMNS, "a0c23s3d990o2");
+        assertTrue(evaluator.test(row(991, "a")));
+        assertFalse(evaluator.test(row(990, "a")));
+        // values from text are parsed
+        assertTrue(evaluator.test(row("991", "a")));
+        assertFalse(evaluator.test(row(" 10 ", "a")));
+        assertFalse(evaluator.test(row(null, "a")));
+
+        // id <= 10
+        evaluator = new RowFilterEvaluator(COLUMNS, "a0c20s2d10o3");
+        assertTrue(evaluator.test(row(10L, "a")));
+        assertFalse(evaluator.test(row(11, "a")));
+
+        // id = 10.5
+        evaluator = new RowFilterEvaluator(COLUMNS, "a0c1700s4d10.5o5");
+        assertFalse(evaluator.test(row(10, "a")));
+    }
+
+    @Test
+    public void testThreeValuedLogic() throws Exception {
+        // id > 5 OR name IS NULL
+        RowFilterEvaluator evaluator = new RowFilterEvaluator(COLUMNS, "a0c23s1d5o2a1o8l1");
+        assertTrue(evaluator.test(row(1, null)));
+        assertTrue(evaluator.test(row(null, null)));
+        assertFalse(evaluator.test(row(null, "a")));
+        assertFalse(evaluator.test(row(1, "a")));
+
+        // NOT (id > 5): null stays null
+        evaluator = new RowFilterEvaluator(COLUMNS, "a0c23s1d5o2l2");
+        assertTrue(evaluator.test(row(1, "a")));
+        assertFalse(evaluator.test(row(6, "a")));
+        assertFalse(evaluator.test(row(null, "a")));
+
+        // id > 5 AND name IS NOT NULL
+        evaluator = new RowFilterEvaluator(COLUMNS, "a0c23s1d5o2a1o9l0");
+        assertTrue(evaluator.test(row(6, "a")));
+        assertFalse(evaluator.test(row(6, null)));
+        assertFalse(evaluator.test(row(null, "a")));
+    }
+
+    @Test
+    public void testTextEqualityAndLike() throws Exception {
+        // name = 'foo'
+        RowFilterEvaluator evaluator = new RowFilterEvaluator(COLUMNS, "a1c25s3dfooo5");
+        assertTrue(evaluator.test(row(1, "foo")));
+        assertFalse(evaluator.test(row(1, "foo ")));
+        assertFalse(evaluator.test(row(1, "Foo")));
+
+        // name LIKE 'na_e%'
+        evaluator = new RowFilterEvaluator(COLUMNS, "a1c25s5dna_e%o7");
+        assertTrue(evaluator.test(row(1, "name-1")));
+        assertTrue(evaluator.test(row(1, "nake")));
+        assertFalse(evaluator.test(row(1, "nam")));
+        assertFalse(evaluator.test(row(1, "Name")));
+
+        // name LIKE '100\%'
+        evaluator = new RowFilterEvaluator(COLUMNS, "a1c25s5d100\\%o7");
+        assertTrue(evaluator.test(row(1, "100%")));
+        assertFalse(evaluator.test(row(1, "1000")));
+    }
+
+    @Test
+    public void testTextRangeComparisonIsNotEvaluated() throws Exception {
+        // name > 'foo' depends on the collation of the database
+        RowFilterEvaluator evaluator = new RowFilterEvaluator(COLUMNS, "a1c25s3dfooo2");
+        assertTrue(evaluator.isEmpty());
+        assertTrue(evaluator.test(row(1, "a")));
+
+        // id > 5 AND name > 'foo': only id is evaluated
+        evaluator = new RowFilterEvaluator(COLUMNS, "a0c23s1d5o2a1c25s3dfooo2l0");
+        assertFalse(evaluator.isEmpty());
+        assertTrue(evaluator.test(row(6, "a")));
+        assertFalse(evaluator.test(row(5, "z")));
+
+        // id > 5 OR name > 'foo': nothing can be evaluated
+        evaluator = new RowFilterEvaluator(COLUMNS, "a0c23s1d5o2a1c25s3dfooo2l1");
+        assertTrue(evaluator.isEmpty());
+
+        // NOT (id > 5 AND name > 'foo'): the AND can't be reduced under a NOT
+        evaluator = new RowFilterEvaluator(COLUMNS, "a0c23s1d5o2a1c25s3dfooo2l0l2");
+        assertTrue(evaluator.isEmpty());
+
+        // NOT (id > 5 OR name > 'foo'): NOT (id > 5) is implied
+        evaluator = new RowFilterEvaluator(COLUMNS, "a0c23s1d5o2a1c25s3dfooo2l1l2");
+        assertTrue(evaluator.test(row(1, "a")));
+        assertFalse(evaluator.test(row(6, "a")));
+    }
+
+    @Test
+    public void testInOperator() throws Exception {
+        // id IN (194, 82756)
+        RowFilterEvaluator evaluator = new RowFilterEvaluator(COLUMNS, "a0m1007s3d194s5d82756o10");
+        assertTrue(evaluator.test(row(194, "a")));
+        assertTrue(evaluator.test(row("82756", "a")));
+        assertFalse(evaluator.test(row(195, "a")));
+        assertFalse(evaluator.test(row(null, "a")));
+    }
+
+    @Test
+    public void testOtherTypes() throws Exception {
+        // amt >= 1.5
+        RowFilterEvaluator evaluator = new RowFilterEvaluator(COLUMNS, "a2c701s3d1.5o4");
+        assertTrue(evaluator.test(fields(2, 1.5)));
+        assertTrue(evaluator.test(fields(2, "NaN")));
+        assertFalse(evaluator.test(fields(2, 1.4)));
+
+        // dec = 1.01, values are rounded to the scale of the column
+        evaluator = new RowFilterEvaluator(COLUMNS, "a3c1700s4d1.01o5");
+        assertTrue(evaluator.test(fields(3, new BigDecimal("1.010"))));
+        assertTrue(evaluator.test(fields(3, "1.005")));
+        assertFalse(evaluator.test(fields(3, "1.02")));
+
+        // b
+        evaluator = new RowFilterEvaluator(COLUMNS, "a4c16s4dtrueo0");
+        assertTrue(evaluator.test(fields(4, true)));
+        assertTrue(evaluator.test(fields(4, "t")));
+        assertFalse(evaluator.test(fields(4, "f")));
+
+        // cdate < '2020-01-15'
+        evaluator = new RowFilterEvaluator(COLUMNS, "a5c1082s10d2020-01-15o1");
+        assertTrue(evaluator.test(fields(5, "2020-01-14")));
+        assertTrue(evaluator.test(fields(5, java.sql.Date.valueOf("2019-12-31"))));
+        assertFalse(evaluator.test(fields(5, "2020-01-15")));
+
+        // code = 'ab' with a bpchar constant, trailing spaces are not significant
+        evaluator = new RowFilterEvaluator(COLUMNS, "a6c1042s3dab o5");
+        assertTrue(evaluator.test(fields(6, "ab   ")));
+        assertFalse(evaluator.test(fields(6, " ab")));
+
+        // r = 0.1::real
+        evaluator = new RowFilterEvaluator(COLUMNS, "a7c700s3d0.1o5");
+        assertTrue(evaluator.test(fields(7, 0.1f)));
+        assertTrue(evaluator.test(fields(7, "0.1")));
+        // r = 0.1::float8
+        evaluator = new RowFilterEvaluator(COLUMNS, "a7c701s3d0.1o5");
+        assertFalse(evaluator.test(fields(7, 0.1f)));
+
+        // tm > '2020-01-01 00:00:00' is not evaluated
+        evaluator = new RowFilterEvaluator(COLUMNS, "a8c1114s19d2020-01-01 00:00:00o2");
+        assertTrue(evaluator.isEmpty());
+    }
+
+    @Test
+    public void testUnconvertibleValuesKeepTheRow() throws Exception {
+        // id > 990
+        RowFilterEvaluator evaluator = new RowFilterEvaluator(COLUMNS, "a0c23s3d990o2");
+        assertTrue(evaluator.test(row("abc", "a")));
+        // out of range for an int4 column
+        assertTrue(evaluator.test(row("99999999999", "a")));
+        // the row doesn't match the table
+        assertTrue(evaluator.test(Arrays.asList(new OneField(DataType.INTEGER.getOID(), 1))));
+    }
+
+    @Test
+    public void testColumnsThatAreNotProjectedAreNotEvaluated() throws Exception {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        for (ColumnDescriptor column : COLUMNS) {
+            columns.add(new ColumnDescriptor(column));
+        }
+        columns.get(0).setProjected(false);
+
+        RowFilterEvaluator evaluator = new RowFilterEvaluator(columns, "a0c23s3d990o2");
+        assertTrue(evaluator.isEmpty());
+        assertFalse(evaluator.isColumnReferenced(0));
+    }
+
+    @Test
+    public void testInvalidFilter() {
+        assertThrows(FilterParser.FilterStringSyntaxException.class,
+                () -> new RowFilterEvaluator(COLUMNS, "a0c23s3d990"));
+    }
+
+    private List<OneField> row(Object id, Object name) {
+        List<OneField> fields = fields(0, id);
+        fields.set(1, new OneField(DataType.TEXT.getOID(), name));
+        return fields;
+    }
+
+    private List<OneField> fields(int index, Object value) {
+        List<OneField> fields = new ArrayList<>();
+        for (ColumnDescriptor column : COLUMNS) {
+            fields.add(new OneField(column.columnTypeCode(), null));
+        }
+        fields.get(index).val = value;
+        return fields;
+    }
+}
@@ -0,0 +1,82 @@
+package org.greenplum.pxf.api.io;
+
+import org.greenplum.pxf.api.model.GreenplumCSV;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CsvRecordEncoderTest {
+
+    @Test
+    public void testCsvRecords() throws IOException {
+        CsvRecordEncoder encoder = new CsvRecordEncoder(new GreenplumCSV(), "csv");
+
+        encoder.beginRecord();
+        encoder.writeBoolean(true);
+        encoder.writeShort((short) -2);
+        encoder.writeInt(3);
+        encoder.writeLong(4L);
+        encoder.writeFloat(5.5f);
+        encoder.writeDouble(-6.25);
+        encoder.writeBytes(new byte[]{9, (byte) 0xAB, 0x01}, 1, 2);
+        encoder.endRecord();
+
+        encoder.beginRecord();
+        encoder.writeNull();
+        encoder.writeUtf8Text(bytes("plain åb"), 0, 9);
+        encoder.writeUtf8Text(bytes("a,b"), 0, 3);
+        encoder.writeUtf8Text(bytes("say \"hi\""), 0, 8);
+        encoder.writeUtf8Text(bytes("line\nbreak"), 0, 10);
+        encoder.writeText("x,y");
+        encoder.writeText("y");
+        encoder.endRecord();
+
+        assertEquals("true,-2,3,4,5.5,-6.25,\\xab01\n" +
+                        ",plain åb,\"a,b\",\"say \"\"hi\"\"\",\"line\nbreak\",\"x,y\",y\n",
+                write(encoder.flush()));
+    }
+
+    @Test
+    public void testTextRecords() throws IOException {
+        GreenplumCSV greenplumCSV = new GreenplumCSV()
+                .withDelimiter("|")
+                .withValueOfNull("\\N")
+                .withNewline("\r\n");
+        CsvRecordEncoder encoder = new CsvRecordEncoder(greenplumCSV, "text");
+
+        encoder.beginRecord();
+        encoder.writeNull();
+        encoder.writeBytes(new byte[]{0x5c}, 0, 1);
+        encoder.writeUtf8Text(bytes("a,b"), 0, 3);
+        encoder.endRecord();
+
+        assertEquals("\\N|\\\\x5c|a,b\r\n", write(encoder.flush()));
+    }
+
+    @Test
+    public void testNonAsciiDelimiter() throws IOException {
+        CsvRecordEncoder encoder = new CsvRecordEncoder(new GreenplumCSV().withDelimiter("§"), "csv");
+
+        encoder.beginRecord();
+        encoder.writeUtf8Text(bytes("a§b"), 0, 4);
+        encoder.writeUtf8Text(bytes("c"), 0, 1);
+        encoder.endRecord();
+
+        assertEquals("\"a§b\"§c\n", write(encoder.flush()));
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String write(Writable writable) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writable.write(new DataOutputStream(out));
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
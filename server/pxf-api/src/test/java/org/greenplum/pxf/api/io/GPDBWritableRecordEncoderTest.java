@@ -0,0 +1,135 @@
+package org.greenplum.pxf.api.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GPDBWritableRecordEncoderTest {
+
+    private static final int[] TYPES = {
+            DataType.BOOLEAN.getOID(),
+            DataType.SMALLINT.getOID(),
+            DataType.INTEGER.getOID(),
+            DataType.BIGINT.getOID(),
+            DataType.REAL.getOID(),
+            DataType.FLOAT8.getOID(),
+            DataType.BYTEA.getOID(),
+            DataType.TEXT.getOID(),
+            DataType.NUMERIC.getOID(),
+            DataType.DATE.getOID()
+    };
+
+    @Test
+    public void testRecordsMatchGPDBWritable() throws IOException {
+        GPDBWritableRecordEncoder encoder = new GPDBWritableRecordEncoder(TYPES, StandardCharsets.UTF_8);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+
+        encoder.beginRecord();
+        encoder.writeBoolean(true);
+        encoder.writeShort((short) -2);
+        encoder.writeInt(3);
+        encoder.writeLong(Long.MIN_VALUE);
+        encoder.writeFloat(5.5f);
+        encoder.writeDouble(-6.25);
+        encoder.writeBytes(new byte[]{9, 1, 2, 3}, 1, 3);
+        encoder.writeUtf8Text("xåby".getBytes(StandardCharsets.UTF_8), 1, 3);
+        encoder.writeText("12.345");
+        encoder.writeText("2020-01-31");
+        encoder.endRecord();
+
+        GPDBWritable record = new GPDBWritable(TYPES, StandardCharsets.UTF_8);
+        record.setBoolean(0, true);
+        record.setShort(1, (short) -2);
+        record.setInt(2, 3);
+        record.setLong(3, Long.MIN_VALUE);
+        record.setFloat(4, 5.5f);
+        record.setDouble(5, -6.25);
+        record.setBytes(6, new byte[]{1, 2, 3});
+        record.setString(7, "åb");
+        record.setString(8, "12.345");
+        record.setString(9, "2020-01-31");
+        record.write(new DataOutputStream(expected));
+
+        // nulls in both bytes of the null bitmap
+        encoder.beginRecord();
+        encoder.writeNull();
+        encoder.writeShort((short) 1);
+        encoder.writeNull();
+        encoder.writeLong(4L);
+        encoder.writeNull();
+        encoder.writeNull();
+        encoder.writeNull();
+        encoder.writeText("");
+        encoder.writeNull();
+        encoder.writeNull();
+        encoder.endRecord();
+
+        record = new GPDBWritable(TYPES, StandardCharsets.UTF_8);
+        record.setShort(1, (short) 1);
+        record.setLong(3, 4L);
+        record.setString(7, "");
+        record.write(new DataOutputStream(expected));
+
+        assertArrayEquals(expected.toByteArray(), write(encoder.flush()));
+    }
+
+    @Test
+    public void testTextInDatabaseEncoding() throws IOException {
+        Charset latin1 = StandardCharsets.ISO_8859_1;
+        int[] types = {DataType.TEXT.getOID(), DataType.VARCHAR.getOID()};
+        GPDBWritableRecordEncoder encoder = new GPDBWritableRecordEncoder(types, latin1);
+
+        encoder.beginRecord();
+        encoder.writeUtf8Text("café".getBytes(StandardCharsets.UTF_8), 0, 5);
+        encoder.writeText("naïve");
+        encoder.endRecord();
+
+        GPDBWritable record = new GPDBWritable(types, latin1);
+        record.setString(0, "café");
+        record.setString(1, "naïve");
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        record.write(new DataOutputStream(expected));
+
+        assertArrayEquals(expected.toByteArray(), write(encoder.flush()));
+    }
+
+    @Test
+    public void testBufferIsReused() throws IOException {
+        int[] types = {DataType.INTEGER.getOID()};
+        GPDBWritableRecordEncoder encoder = new GPDBWritableRecordEncoder(types, StandardCharsets.UTF_8);
+
+        encoder.beginRecord();
+        encoder.writeInt(1);
+        encoder.endRecord();
+        byte[] first = write(encoder.flush());
+
+        encoder.beginRecord();
+        encoder.writeInt(1);
+        encoder.endRecord();
+        assertArrayEquals(first, write(encoder.flush()));
+    }
+
+    @Test
+    public void testWrongNumberOfColumns() {
+        GPDBWritableRecordEncoder encoder = new GPDBWritableRecordEncoder(TYPES, StandardCharsets.UTF_8);
+
+        encoder.beginRecord();
+        encoder.writeBoolean(false);
+        Exception e = assertThrows(IllegalStateException.class, encoder::endRecord);
+        assertEquals("Record has 1 fields but the schema size is 10", e.getMessage());
+    }
+
+    private byte[] write(Writable writable) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writable.write(new DataOutputStream(out));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,107 @@
+package org.greenplum.pxf.api.utilities;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PluginTaskExecutorTest {
+
+    private PluginTaskExecutor taskExecutor;
+
+    @BeforeEach
+    public void setup() {
+        taskExecutor = new PluginTaskExecutor(4, DataSize.ofBytes(100));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        taskExecutor.destroy();
+    }
+
+    @Test
+    public void testNewExecutor_RunsAtMostParallelismTasksAtOnce() throws Exception {
+        ExecutorService executor = taskExecutor.newExecutor(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int value = i;
+            futures.add(executor.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(5);
+                running.decrementAndGet();
+                return value;
+            }));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertThat(futures.get(i).get(10, TimeUnit.SECONDS)).isEqualTo(i);
+        }
+        assertThat(maxRunning.get()).isBetween(1, 2);
+    }
+
+    @Test
+    public void testNewExecutor_ShutdownNowOnlyDiscardsItsOwnTasks() throws Exception {
+        ExecutorService executor = taskExecutor.newExecutor(1);
+        ExecutorService other = taskExecutor.newExecutor(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        executor.submit(() -> null);
+        started.await();
+
+        assertThat(executor.shutdownNow()).hasSize(1);
+        assertThat(executor.isShutdown()).isTrue();
+        assertThatThrownBy(() -> executor.submit(() -> null))
+                .isInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(other.submit(() -> "done").get(10, TimeUnit.SECONDS)).isEqualTo("done");
+    }
+
+    @Test
+    public void testNewExecutor_CancelledTaskDoesNotInterruptNextTask() throws Exception {
+        ExecutorService executor = taskExecutor.newExecutor(1);
+        CountDownLatch started = new CountDownLatch(1);
+        Future<?> cancelled = executor.submit(() -> {
+            started.countDown();
+            Thread.sleep(10_000);
+            return null;
+        });
+        Future<Boolean> next = executor.submit(() -> Thread.currentThread().isInterrupted());
+        started.await();
+        cancelled.cancel(true);
+
+        assertThat(next.get(10, TimeUnit.SECONDS)).isFalse();
+    }
+
+    @Test
+    public void testTryReserveMemory() {
+        assertThat(taskExecutor.tryReserveMemory(60)).isTrue();
+        assertThat(taskExecutor.tryReserveMemory(50)).isFalse();
+        assertThat(taskExecutor.tryReserveMemory(40)).isTrue();
+        assertThat(taskExecutor.getReservedMemory()).isEqualTo(100);
+
+        taskExecutor.releaseMemory(60);
+        assertThat(taskExecutor.getReservedMemory()).isEqualTo(40);
+        assertThat(taskExecutor.tryReserveMemory(50)).isTrue();
+    }
+}
@@ -24,11 +24,14 @@ import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.ReadVectorizedResolver;
 import org.greenplum.pxf.api.StatsAccessor;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.model.Resolver;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -77,7 +80,8 @@ public class UtilitiesTest {
         }
 
         @Override
-        public void retrieveStats() {
+        public boolean retrieveStats() {
+            return true;
         }
 
         @Override
@@ -324,6 +328,68 @@ public class UtilitiesTest {
         assertFalse(Utilities.aggregateOptimizationsSupported(mockCtxProjection));
     }
 
+    @Test
+    public void useStatsForColumnAggregates() {
+        RequestContext context = mock(RequestContext.class);
+        when(context.getAccessor()).thenReturn(StatsAccessorImpl.class.getName());
+        when(context.getNumAttrsProjected()).thenReturn(1);
+        for (EnumAggregationType aggType : new EnumAggregationType[]{EnumAggregationType.MIN, EnumAggregationType.MAX, EnumAggregationType.SUM}) {
+            when(context.getAggType()).thenReturn(aggType);
+            assertTrue(Utilities.aggregateOptimizationsSupported(context));
+        }
+
+        //Column aggregates need exactly the aggregated column to be projected
+        when(context.getNumAttrsProjected()).thenReturn(0);
+        assertFalse(Utilities.aggregateOptimizationsSupported(context));
+        when(context.getNumAttrsProjected()).thenReturn(2);
+        assertFalse(Utilities.aggregateOptimizationsSupported(context));
+
+        //Do not use stats when input data has filter
+        when(context.getNumAttrsProjected()).thenReturn(1);
+        when(context.hasFilter()).thenReturn(true);
+        assertFalse(Utilities.aggregateOptimizationsSupported(context));
+    }
+
+    @Test
+    public void useStatsForGroupedAggregates() {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("a", DataType.INTEGER.getOID(), 0, "int4", null));
+        columns.add(new ColumnDescriptor("b", DataType.TEXT.getOID(), 1, "text", null));
+        columns.add(new ColumnDescriptor("c", DataType.FLOAT8.getOID(), 2, "float8", null, false));
+        RequestContext context = new RequestContext();
+        context.setAccessor(StatsAccessorImpl.class.getName());
+        context.setTupleDescription(columns);
+        context.setAggType(EnumAggregationType.MAX);
+        context.setAggGroupBy(Collections.singletonList(1));
+        context.setNumAttrsProjected(2);
+
+        // only accessors that support grouping can use the grouped aggregates
+        assertTrue(Utilities.aggregateOptimizationsSupported(context, true));
+        assertFalse(Utilities.aggregateOptimizationsSupported(context, false));
+        assertFalse(Utilities.aggregateOptimizationsSupported(context));
+
+        context.setAggType(EnumAggregationType.COUNT);
+        assertFalse(Utilities.aggregateOptimizationsSupported(context, true));
+        context.setNumAttrsProjected(1);
+        assertTrue(Utilities.aggregateOptimizationsSupported(context, true));
+
+        // the grouping columns are projected
+        context.setAggGroupBy(Collections.singletonList(2));
+        assertFalse(Utilities.aggregateOptimizationsSupported(context, true));
+        context.setAggGroupBy(Collections.singletonList(3));
+        assertFalse(Utilities.aggregateOptimizationsSupported(context, true));
+    }
+
+    @Test
+    public void getAggregationType() {
+        assertEquals(EnumAggregationType.COUNT, EnumAggregationType.getAggregationType("count"));
+        assertEquals(EnumAggregationType.MIN, EnumAggregationType.getAggregationType("min"));
+        assertEquals(EnumAggregationType.MAX, EnumAggregationType.getAggregationType("max"));
+        assertEquals(EnumAggregationType.SUM, EnumAggregationType.getAggregationType("sum"));
+        assertNull(EnumAggregationType.getAggregationType("avg"));
+        assertNull(EnumAggregationType.getAggregationType(null));
+    }
+
     /* TODO move to the proper class
     @Test
     public void useVectorization() {
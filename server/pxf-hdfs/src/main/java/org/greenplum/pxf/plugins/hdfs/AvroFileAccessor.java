@@ -37,8 +37,10 @@ import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.JobConf;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
 import org.greenplum.pxf.api.utilities.SpringContext;
 import org.greenplum.pxf.plugins.hdfs.avro.AvroUtilities;
+import org.greenplum.pxf.plugins.hdfs.avro.ParallelAvroRecordReader;
 
 import java.io.IOException;
 
@@ -55,22 +57,33 @@ public class AvroFileAccessor extends HdfsSplittableDataAccessor {
     private static final String SNAPPY_CODEC = "snappy";
     private static final String BZIP2_CODEC = "bzip2";
     private static final String XZ_CODEC = "xz";
+
+    public static final String PXF_AVRO_PARALLEL_DECODE_ENABLED_PROPERTY = "pxf.avro.parallel-decode.enabled";
+    public static final String PXF_AVRO_PARALLEL_DECODE_THREADS_PROPERTY = "pxf.avro.parallel-decode.threads";
+    public static final String PXF_AVRO_PARALLEL_DECODE_MEMORY_BUDGET_PROPERTY = "pxf.avro.parallel-decode.memory-budget";
+    public static final String PXF_AVRO_PARALLEL_DECODE_MAX_RECORDS_PROPERTY = "pxf.avro.parallel-decode.max-records";
+    private static final int DEFAULT_PARALLEL_DECODE_THREADS = 4;
+    private static final long DEFAULT_PARALLEL_DECODE_MEMORY_BUDGET = 64 * 1024 * 1024;
+    private static final long DEFAULT_PARALLEL_DECODE_MAX_RECORDS = 100_000;
+
     private AvroWrapper<GenericRecord> avroWrapper;
     private DataFileWriter<GenericRecord> writer;
     private long rowsWritten, rowsRead;
     private Schema schema;
     private final AvroUtilities avroUtilities;
+    private final PluginTaskExecutor taskExecutor;
 
     /**
      * Constructs a new instance of the AvroFileAccessor
      */
     public AvroFileAccessor() {
-        this(SpringContext.getBean(AvroUtilities.class));
+        this(SpringContext.getBean(AvroUtilities.class), SpringContext.getBean(PluginTaskExecutor.class));
     }
 
-    AvroFileAccessor(AvroUtilities avroUtilities) {
+    AvroFileAccessor(AvroUtilities avroUtilities, PluginTaskExecutor taskExecutor) {
         super(new AvroInputFormat<GenericRecord>());
         this.avroUtilities = avroUtilities;
+        this.taskExecutor = taskExecutor;
     }
 
     /*
@@ -95,10 +108,19 @@ public class AvroFileAccessor extends HdfsSplittableDataAccessor {
         schema = avroUtilities.obtainSchema(context, hcfsType);
     }
 
+    /**
+     * Opens the file for read. The schema passed to the AvroInputFormat is
+     * the reader schema; it only keeps the fields of the projected columns,
+     * and Avro skips the values of the other fields while decoding the
+     * records.
+     *
+     * @return true if the resource is successfully opened
+     * @throws Exception if opening the resource failed
+     */
     @Override
     public boolean openForRead() throws Exception {
-        // Pass the schema to the AvroInputFormat
-        AvroJob.setInputSchema(jobConf, schema);
+        // Pass the projected schema to the AvroInputFormat
+        AvroJob.setInputSchema(jobConf, avroUtilities.buildProjectedSchema(schema, context.getTupleDescription()));
 
         // The avroWrapper required for the iteration
         avroWrapper = new AvroWrapper<>();
@@ -106,9 +128,32 @@ public class AvroFileAccessor extends HdfsSplittableDataAccessor {
         return super.openForRead();
     }
 
+    /**
+     * Returns the reader for the split. When parallel decoding is enabled,
+     * the blocks of the split are decompressed and decoded on the threads
+     * shared by the service while the records are read, otherwise the blocks are decoded
+     * one at a time by the Avro record reader.
+     *
+     * @param jobConf the hadoop jobconf to use for the selected InputFormat
+     * @param split   the input split to be read by the accessor
+     * @return the reader for the split
+     * @throws IOException if the reader could not be created
+     */
     @Override
     protected Object getReader(JobConf jobConf, InputSplit split) throws IOException {
-        return new AvroRecordReader<>(jobConf, (FileSplit) split);
+        if (!configuration.getBoolean(PXF_AVRO_PARALLEL_DECODE_ENABLED_PROPERTY, false)) {
+            return new AvroRecordReader<>(jobConf, (FileSplit) split);
+        }
+
+        int threads = configuration.getInt(PXF_AVRO_PARALLEL_DECODE_THREADS_PROPERTY, DEFAULT_PARALLEL_DECODE_THREADS);
+        long memoryBudget = configuration.getLong(PXF_AVRO_PARALLEL_DECODE_MEMORY_BUDGET_PROPERTY, DEFAULT_PARALLEL_DECODE_MEMORY_BUDGET);
+        long maxRecords = configuration.getLong(PXF_AVRO_PARALLEL_DECODE_MAX_RECORDS_PROPERTY, DEFAULT_PARALLEL_DECODE_MAX_RECORDS);
+        LOG.debug("{}-{}: Decoding Avro blocks with {} threads, memory budget = {}, max records = {}",
+                context.getTransactionId(), context.getSegmentId(), threads, memoryBudget, maxRecords);
+
+        // keep every thread busy while the records of the current block are consumed
+        return new ParallelAvroRecordReader<GenericRecord>(jobConf, (FileSplit) split, taskExecutor, threads,
+                2 * threads, maxRecords, memoryBudget);
     }
 
     /**
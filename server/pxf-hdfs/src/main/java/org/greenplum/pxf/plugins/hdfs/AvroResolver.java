@@ -37,6 +37,7 @@ import org.greenplum.pxf.api.error.BadRecordException;
 import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.api.utilities.SpringContext;
 import org.greenplum.pxf.plugins.hdfs.avro.AvroTypeConverter;
 import org.greenplum.pxf.plugins.hdfs.avro.AvroUtilities;
@@ -63,6 +64,9 @@ public class AvroResolver extends BasePlugin implements Resolver {
     // member kept to enable reuse, and thus avoid repeated allocation
     private BinaryDecoder decoder = null;
     private List<Schema.Field> fields = null;
+    // the schema of the records, and the position in the records of each field
+    private Schema recordSchema;
+    private int[] recordPositions;
     private final RecordkeyAdapter recordkeyAdapter = new RecordkeyAdapter();
     private String collectionDelim;
     private String mapkeyDelim;
@@ -128,6 +132,7 @@ public class AvroResolver extends BasePlugin implements Resolver {
             throw new BadRecordException(String.format("Avro record has %d fields but GPDB table has %d columns.", avroFieldsSize, numGpdbCols));
         }
 
+        int[] positions = getRecordPositions(avroRecord.getSchema());
         int currentIndex = 0;
         for (Schema.Field field : fields) {
             /*
@@ -138,14 +143,49 @@ public class AvroResolver extends BasePlugin implements Resolver {
                         context, row);
             }
 
-            DataType gpdbColType = context.getColumn(field.pos()).getDataType();
+            ColumnDescriptor columnDescriptor = context.getColumn(field.pos());
+            DataType gpdbColType = columnDescriptor.getDataType();
 
-            currentIndex += populateRecord(record,
-                    avroRecord.get(field.name()), field.schema(), gpdbColType);
+            /*
+             * Columns that are not projected resolve to null, the accessor
+             * skips their values when decoding the record
+             */
+            if (!columnDescriptor.isProjected()) {
+                currentIndex += addOneFieldToRecord(record, gpdbColType, null);
+                continue;
+            }
+
+            int position = positions[field.pos()];
+            Object fieldValue = position < 0 ? null : avroRecord.get(position);
+            currentIndex += populateRecord(record, fieldValue, field.schema(), gpdbColType);
         }
         return record;
     }
 
+    /**
+     * Returns the position in the records of each field of the schema, or -1
+     * for the fields the records don't have. The records are decoded with the
+     * projected reader schema of the accessor, so the positions of their
+     * fields can differ from the positions in the schema. The positions are
+     * computed once for every schema of the records, so the fields are not
+     * looked up by name for every value.
+     *
+     * @param schema the schema of the records
+     * @return the positions of the fields in the records
+     */
+    private int[] getRecordPositions(Schema schema) {
+        if (schema != recordSchema) {
+            int[] positions = new int[fields.size()];
+            for (Schema.Field field : fields) {
+                Schema.Field recordField = schema.getField(field.name());
+                positions[field.pos()] = recordField == null ? -1 : recordField.pos();
+            }
+            recordSchema = schema;
+            recordPositions = positions;
+        }
+        return recordPositions;
+    }
+
     /**
      * Constructs and sets the fields of a {@link OneRow}.
      *
@@ -25,12 +25,14 @@ import org.apache.hadoop.io.Writable;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * A class that provides a line reader from an input stream. Lines are
  * terminated by '\n' (LF) EOF also terminates an otherwise unterminated line.
+ * <p>
+ * Chunks are read from the stream directly into the array that is returned,
+ * so that the bytes of a chunk are copied only once.
  */
 public class ChunkReader implements Closeable {
     public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
@@ -61,22 +63,11 @@ public class ChunkReader implements Closeable {
         in.close();
     }
 
-    /*
-     * Internal class used for holding part of a chunk brought by one read()
-     * operation on the input stream. We collect several such nodes in a list by
-     * doing several read operation until we reach the chunk size -
-     * maxBytesToConsume
-     */
-    private class Node {
-        /* part of a chunk brought in a single inputstream.read() operation */
-        public byte[] slice;
-        /* the size of the slice */
-        public int len;
-    }
-
     /**
-     * Reads data in chunks of DEFAULT_CHUNK_SIZE, until we reach
-     * maxBytesToConsume.
+     * Reads a chunk of maxBytesToConsume bytes, or less when the end of the
+     * stream is reached. The bytes left in the buffer by a previous call to
+     * {@link #readLine(Writable, int)} are returned first, the rest of the
+     * chunk is read from the stream directly into the chunk.
      *
      * @param str               - output parameter, will contain the read chunk byte array
      * @param maxBytesToConsume - requested chunk size
@@ -87,59 +78,28 @@ public class ChunkReader implements Closeable {
      */
     public int readChunk(Writable str, int maxBytesToConsume) throws IOException {
         ChunkWritable cw = (ChunkWritable) str;
-        List<Node> list = new LinkedList<Node>();
-
-        long bytesConsumed = 0;
+        byte[] chunk = new byte[maxBytesToConsume];
+        int bytesConsumed = 0;
+
+        int buffered = bufferLength - bufferPosn;
+        if (buffered > 0) {
+            bytesConsumed = Math.min(buffered, maxBytesToConsume);
+            System.arraycopy(buffer, bufferPosn, chunk, 0, bytesConsumed);
+            bufferPosn += bytesConsumed;
+        }
 
-        do {
-            if (bufferLength > 0) {
-                int remaining = bufferLength - bufferPosn;
-                Node nd = new Node();
-                nd.slice = new byte[remaining];
-                nd.len = remaining;
-                System.arraycopy(buffer, bufferPosn, nd.slice, 0, nd.len);
-                list.add(nd);
-                bytesConsumed += nd.len;
-            } else {
-                Node nd = new Node();
-                nd.slice = new byte[buffer.length];
-                nd.len = in.read(nd.slice);
-                if (nd.len <= 0) {
-                    break; // EOF
-                }
-                bytesConsumed += nd.len;
-                list.add(nd);
+        while (bytesConsumed < maxBytesToConsume) {
+            int read = in.read(chunk, bytesConsumed, maxBytesToConsume - bytesConsumed);
+            if (read <= 0) {
+                break; // EOF
             }
-
-            bufferLength = bufferPosn = 0;
-
-        } while (bytesConsumed < maxBytesToConsume);
-
-        copyListToChunkWritable(cw, list, bytesConsumed);
-
-        return (int) bytesConsumed;
-    }
-
-    /**
-     * This function iterates over the list of nodes and copies data to ChunkWritable.box array
-     *
-     * @param cw            ChunkWritable Object
-     * @param nodeList      List containing the Node Object
-     * @param bytesConsumed chunk size
-     */
-    private void copyListToChunkWritable(ChunkWritable cw, List<Node> nodeList, long bytesConsumed) {
-
-        if (nodeList.isEmpty()) {
-            return;
+            bytesConsumed += read;
         }
 
-        cw.box = new byte[(int) bytesConsumed];
-        int pos = 0;
-        for (Node node : nodeList) {
-            int len = node.len;
-            System.arraycopy(node.slice, 0, cw.box, pos, len);
-            pos += len;
+        if (bytesConsumed > 0) {
+            cw.box = bytesConsumed == chunk.length ? chunk : Arrays.copyOf(chunk, bytesConsumed);
         }
+        return bytesConsumed;
     }
 
     /**
@@ -154,10 +114,10 @@ public class ChunkReader implements Closeable {
      */
     public int readLine(Writable str, int maxBytesToConsume) throws IOException {
         ChunkWritable cw = (ChunkWritable) str;
-        List<Node> list = new LinkedList<>();
+        byte[] line = null;
 
         boolean newLine = false; // length of terminating newline
-        long bytesConsumed = 0;
+        int bytesConsumed = 0;
 
         do {
             int startPosn = bufferPosn; // starting from where we left off the last time
@@ -179,19 +139,21 @@ public class ChunkReader implements Closeable {
             }
 
             int readLength = bufferPosn - startPosn;
-            bytesConsumed += readLength;
-
             if (readLength > 0) {
-                Node nd = new Node();
-                nd.slice = new byte[readLength];
-                nd.len = readLength;
-                System.arraycopy(buffer, startPosn, nd.slice, 0, nd.len);
-                list.add(nd);
+                // grow the line geometrically when it spans several buffers
+                if (line == null) {
+                    line = new byte[readLength];
+                } else if (bytesConsumed + readLength > line.length) {
+                    line = Arrays.copyOf(line, Math.max(bytesConsumed + readLength, 2 * line.length));
+                }
+                System.arraycopy(buffer, startPosn, line, bytesConsumed, readLength);
+                bytesConsumed += readLength;
             }
         } while (!newLine && bytesConsumed < maxBytesToConsume);
 
-        copyListToChunkWritable(cw, list, bytesConsumed);
-
-        return (int) bytesConsumed;
+        if (bytesConsumed > 0) {
+            cw.box = bytesConsumed == line.length ? line : Arrays.copyOf(line, bytesConsumed);
+        }
+        return bytesConsumed;
     }
 }
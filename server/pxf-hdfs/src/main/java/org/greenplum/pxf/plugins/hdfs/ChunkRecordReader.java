@@ -24,6 +24,7 @@ import static org.apache.hadoop.mapreduce.lib.input.LineRecordReader.MAX_LINE_LE
 
 import java.io.InputStream;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -42,6 +43,8 @@ import org.apache.hadoop.io.compress.SplitCompressionInputStream;
 import org.apache.hadoop.io.compress.SplittableCompressionCodec;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.RecordReader;
+import org.greenplum.pxf.plugins.hdfs.compression.DecompressedInputStream;
+import org.greenplum.pxf.plugins.hdfs.compression.ReadAheadInputStream;
 
 /**
  * ChunkRecordReader is designed for fast reading of a file split. The idea is
@@ -50,6 +53,13 @@ import org.apache.hadoop.mapred.RecordReader;
  * the chunk is a class hardcoded parameter - CHUNK_SIZE. This behaviour sets
  * this reader apart from the other readers which will fetch one record and stop
  * when reaching a record delimiter.
+ * <p>
+ * Records are delimited by LF, so the reader is only suitable for data whose
+ * records end with LF or CRLF; the CR of a CRLF delimiter is part of the
+ * chunk and is handled by Greenplum. The reader works with any
+ * {@link FileSystem} and with compressed files. Given an executor, the reader
+ * decompresses compressed files on its threads, ahead of the reads of the
+ * chunks, see {@link DecompressedInputStream}.
  */
 public class ChunkRecordReader implements
         RecordReader<LongWritable, ChunkWritable> {
@@ -58,7 +68,6 @@ public class ChunkRecordReader implements
     private long start;
     private long pos;
     private long end;
-    private long fileLength;
     private ChunkReader in;
     private FSDataInputStream fileIn;
     private final Seekable filePosition;
@@ -66,6 +75,8 @@ public class ChunkRecordReader implements
     private CompressionCodec codec;
     private Decompressor decompressor;
     private static final int CHUNK_SIZE = 1024 * 1024;
+    // the last byte returned by next(), or LF when nothing was returned yet
+    private byte lastByte = '\n';
 
     /**
      * Translates the FSDataInputStream into a DFSInputStream.
@@ -101,7 +112,27 @@ public class ChunkRecordReader implements
      *             creating input stream to read from it
      */
     public ChunkRecordReader(Configuration job, FileSplit split)
-            throws IOException, IncompatibleInputStreamException {
+            throws IOException {
+        this(job, split, null, 0);
+    }
+
+    /**
+     * Constructs a ChunkRecordReader instance that decompresses compressed
+     * files on the threads of an executor.
+     *
+     * @param job the job configuration
+     * @param split contains the file name, begin byte of the split and the
+     *            bytes length
+     * @param executor the executor that decompresses the file, or null to
+     *            decompress the file on the calling thread
+     * @param threads the number of threads of the executor that decompress
+     *            the blocks of block compressed files in parallel
+     * @throws IOException if an I/O error occurs when accessing the file or
+     *             creating input stream to read from it
+     */
+    public ChunkRecordReader(Configuration job, FileSplit split,
+                             ExecutorService executor, int threads)
+            throws IOException {
         maxLineLength = job.getInt(MAX_LINE_LENGTH, Integer.MAX_VALUE);
         validateLength(maxLineLength);
         start = split.getStart();
@@ -113,17 +144,27 @@ public class ChunkRecordReader implements
         // openForWrite the file and seek to the start of the split
         final FileSystem fs = file.getFileSystem(job);
         fileIn = fs.open(file, ChunkReader.DEFAULT_BUFFER_SIZE);
-        fileLength = getInputStream().getFileLength();
         if (isCompressedInput()) {
             decompressor = CodecPool.getDecompressor(codec);
             if (codec instanceof SplittableCompressionCodec) {
                 final SplitCompressionInputStream cIn = ((SplittableCompressionCodec) codec).createInputStream(
                         fileIn, decompressor, start, end,
                         SplittableCompressionCodec.READ_MODE.BYBLOCK);
-                in = new ChunkReader(cIn);
                 start = cIn.getAdjustedStart();
                 end = cIn.getAdjustedEnd();
-                filePosition = cIn; // take pos from compressed stream
+                if (executor != null) {
+                    ReadAheadInputStream readAheadIn = new ReadAheadInputStream(cIn, cIn, executor);
+                    in = new ChunkReader(readAheadIn);
+                    filePosition = readAheadIn;
+                } else {
+                    in = new ChunkReader(cIn);
+                    filePosition = cIn; // take pos from compressed stream
+                }
+            } else if (executor != null) {
+                DecompressedInputStream dIn = DecompressedInputStream.create(
+                        fileIn, codec, decompressor, executor, threads);
+                in = new ChunkReader(dIn);
+                filePosition = dIn;
             } else {
                 in = new ChunkReader(codec.createInputStream(fileIn,
                         decompressor));
@@ -145,6 +186,29 @@ public class ChunkRecordReader implements
         this.pos = start;
     }
 
+    /**
+     * Skips lines from the current position of the split, used to skip the
+     * header lines of the file.
+     *
+     * @param count the number of lines to skip
+     * @return the number of lines skipped, less than count when the end of
+     * the file was reached
+     * @throws IOException if an I/O error occurred while reading the lines
+     */
+    public synchronized int skipLines(int count) throws IOException {
+        ChunkWritable line = new ChunkWritable();
+        int skipped = 0;
+        while (skipped < count) {
+            int size = in.readLine(line, maxBytesToConsume(pos));
+            if (size == 0) {
+                break;
+            }
+            pos += size;
+            skipped++;
+        }
+        return skipped;
+    }
+
     /**
      * Used by the client of this class to create the 'key' output parameter for
      * next() method.
@@ -210,23 +274,21 @@ public class ChunkRecordReader implements
                         Math.max(maxBytesToConsume(pos), maxLineLength));
             }
             if (newSize == 0) {
+                /*
+                 * in case text file last character is not a linefeed, end the
+                 * last record with a chunk of its own, instead of copying the
+                 * last chunk
+                 */
+                if (lastByte != '\n') {
+                    lastByte = '\n';
+                    value.box = new byte[]{'\n'};
+                    return true;
+                }
                 break;
             }
 
             pos += newSize;
-
-            if (pos == fileLength) { /*
-                                      * in case text file last character is not
-                                      * a linefeed
-                                      */
-                if (value.box[value.box.length - 1] != '\n') {
-                    int newLen = value.box.length + 1;
-                    byte[] tmp = new byte[newLen];
-                    System.arraycopy(value.box, 0, tmp, 0, newLen - 1);
-                    tmp[newLen - 1] = '\n';
-                    value.box = tmp;
-                }
-            }
+            lastByte = value.box[newSize - 1];
 
             return true;
         }
@@ -3,11 +3,13 @@ package org.greenplum.pxf.plugins.hdfs;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.mapreduce.MRJobConfig;
 import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.Utilities;
+import org.greenplum.pxf.plugins.hdfs.filesystem.DirectLocalFileSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +42,14 @@ public enum HcfsType {
                     ? "/"
                     : "/" + StringUtils.removeEnd(StringUtils.removeStart(basePath, "/"), "/") + "/";
         }
+
+        @Override
+        protected void configureFileSystem(Configuration configuration) {
+            if (configuration.getBoolean(CONFIG_KEY_FILE_DIRECT_READ, false)) {
+                // read local files without checksums and with large buffers
+                configuration.set(FILE_IMPL_PROPERTY, DirectLocalFileSystem.class.getName());
+            }
+        }
     },
     GS,
     HDFS,
@@ -51,10 +61,12 @@ public enum HcfsType {
     WASBS;
 
     public static final String CONFIG_KEY_BASE_PATH = "pxf.fs.basePath";
+    public static final String CONFIG_KEY_FILE_DIRECT_READ = "pxf.fs.file.direct-read.enabled";
 
     protected Logger LOG = LoggerFactory.getLogger(this.getClass());
 
     private static final String FILE_SCHEME = "file";
+    private static final String FILE_IMPL_PROPERTY = "fs.file.impl";
     protected String prefix;
 
     HcfsType() {
@@ -177,6 +189,22 @@ public enum HcfsType {
         return getDataUriForPrefix(configuration, path, this.prefix);
     }
 
+    /**
+     * Configures the filesystem of the given data URI, for the plugins that
+     * read a data URI resolved by the fragmenter without resolving the type
+     * of the filesystem themselves. The filesystem must be configured before
+     * it is first accessed, as it is cached for the duration of the request.
+     *
+     * @param configuration the configuration used for HCFS operations
+     * @param dataUri       the fully resolved data URI
+     */
+    public static void configureFileSystem(Configuration configuration, String dataUri) {
+        String scheme = new Path(dataUri).toUri().getScheme();
+        if (StringUtils.isNotBlank(scheme)) {
+            fromString(scheme.toUpperCase()).configureFileSystem(configuration);
+        }
+    }
+
     /**
      * Returns the normalized data source for the given protocol
      *
@@ -224,10 +252,19 @@ public enum HcfsType {
             uri = StringUtils.removeEnd(defaultFS.toString(), "/") + "/" + normalizedBasePath + normalizedDataSource;
         }
 
+        configureFileSystem(configuration);
         disableSecureTokenRenewal(uri, configuration);
         return uri;
     }
 
+    /**
+     * Configures the implementation of the filesystem, before it is accessed
+     *
+     * @param configuration configuration used for HCFS operations
+     */
+    protected void configureFileSystem(Configuration configuration) {
+    }
+
     /**
      * Validates the basePath and normalizes it for the appropriate filesystem
      *
@@ -69,6 +69,7 @@ public abstract class HdfsAtomicDataAccessor extends BasePlugin implements Acces
         }
 
         URI uri = URI.create(context.getDataSource());
+        HcfsType.configureFileSystem(configuration, context.getDataSource());
         // input data stream, FileSystem.get actually
         // returns an FSDataInputStream
         FileSystem fs = FileSystem.get(uri, configuration);
@@ -3,13 +3,18 @@ package org.greenplum.pxf.plugins.hdfs;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.InvalidInputException;
 import org.apache.hadoop.mapred.JobConf;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.plugins.hdfs.utilities.PxfInputFormat;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -17,6 +22,11 @@ import java.util.stream.Collectors;
  * adds support for profiles that require files without
  * splits. The list of fragments will be the list of files
  * at the storage layer.
+ * <p>
+ * When the {@code pxf.text.multi.splittable.enabled} property is set, the
+ * uncompressed files read by the {@link QuotedLineBreakAccessor} are split
+ * like the {@link HdfsDataFragmenter} splits them; the accessor finds the
+ * first record of every split.
  */
 public class HdfsFileFragmenter extends HdfsDataFragmenter {
 
@@ -27,6 +37,10 @@ public class HdfsFileFragmenter extends HdfsDataFragmenter {
      */
     @Override
     public List<Fragment> getFragments() throws Exception {
+        if (isSplittable()) {
+            return getSplitFragments();
+        }
+
         JobConf jobConf = getJobConf();
         String fileName = hcfsType.getDataUri(context);
         Path path = new Path(fileName);
@@ -53,4 +67,46 @@ public class HdfsFileFragmenter extends HdfsDataFragmenter {
 
         return fragments;
     }
+
+    /**
+     * Returns the fragments of the splits of the uncompressed files, and a
+     * fragment for every compressed file, which is read as a whole.
+     */
+    private List<Fragment> getSplitFragments() throws Exception {
+        Path path = new Path(hcfsType.getDataUri(context));
+        List<InputSplit> splits;
+        try {
+            splits = getSplits(path);
+        } catch (InvalidInputException e) {
+            if (StringUtils.equalsIgnoreCase("true", context.getOption(IGNORE_MISSING_PATH_OPTION))) {
+                LOG.debug("Ignoring InvalidInputException", e);
+                return fragments;
+            }
+            throw e;
+        }
+
+        CompressionCodecFactory codecFactory = new CompressionCodecFactory(getJobConf());
+        Set<Path> compressedFiles = new HashSet<>();
+        for (InputSplit split : splits) {
+            FileSplit fsp = (FileSplit) split;
+            if (codecFactory.getCodec(fsp.getPath()) == null) {
+                fragments.add(new Fragment(fsp.getPath().toString(), new HcfsFragmentMetadata(fsp)));
+            } else if (compressedFiles.add(fsp.getPath())) {
+                fragments.add(new Fragment(fsp.getPath().toUri().toString()));
+            }
+        }
+        LOG.debug("Total number of fragments = {}", fragments.size());
+
+        return fragments;
+    }
+
+    /**
+     * Returns whether the files are split. Files read as a single row, and
+     * files whose lines are not delimited by LF, are never split.
+     */
+    private boolean isSplittable() {
+        return configuration.getBoolean(QuotedLineBreakAccessor.PXF_TEXT_MULTI_SPLITTABLE_PROPERTY, false) &&
+                !StringUtils.equalsIgnoreCase("true", context.getOption("FILE_AS_ROW")) &&
+                context.getGreenplumCSV().getNewline().endsWith("\n");
+    }
 }
@@ -61,12 +61,12 @@ public abstract class HdfsSplittableDataAccessor extends BasePlugin implements A
 
     @Override
     public void afterPropertiesSet() {
+        // Check if the underlying configuration is for HDFS, this configures the filesystem
+        hcfsType = HcfsType.getHcfsType(context);
+
         // variable required for the splits iteration logic
         jobConf = new JobConf(configuration, HdfsSplittableDataAccessor.class);
 
-        // Check if the underlying configuration is for HDFS
-        hcfsType = HcfsType.getHcfsType(context);
-
         // Parse fileSplit from context
         fileSplit = HdfsUtilities.parseFileSplit(context.getDataSource(), context.getFragmentMetadata());
     }
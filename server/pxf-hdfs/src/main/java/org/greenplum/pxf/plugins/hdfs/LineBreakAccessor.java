@@ -25,12 +25,17 @@ import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.LineRecordReader;
 import org.apache.hadoop.mapred.TextInputFormat;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.filter.RowFilterEvaluator;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
+import org.greenplum.pxf.api.utilities.SpringContext;
 import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 
 import java.io.DataOutputStream;
@@ -38,6 +43,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
 
 /**
  * A PXF Accessor for reading delimited plain text records.
@@ -46,19 +52,34 @@ public class LineBreakAccessor extends HdfsSplittableDataAccessor {
 
     private static final int DEFAULT_BUFFER_SIZE = 8192;
     public static final String PXF_CHUNK_RECORD_READER_ENABLED = "pxf.reader.chunk-record-reader.enabled";
-    public static final boolean PXF_CHUNK_RECORD_READER_DEFAULT = false;
+    public static final boolean PXF_CHUNK_RECORD_READER_DEFAULT = true;
+    public static final String PXF_PARALLEL_DECOMPRESSION_ENABLED_PROPERTY = "pxf.reader.decompression.parallel.enabled";
+    public static final String PXF_PARALLEL_DECOMPRESSION_THREADS_PROPERTY = "pxf.reader.decompression.threads";
+    private static final int DEFAULT_PARALLEL_DECOMPRESSION_THREADS = 4;
 
     private int skipHeaderCount;
     private DataOutputStream dos;
     private FSDataOutputStream fsdos;
     private FileSystem fs;
     private Path file;
+    private final PluginTaskExecutor taskExecutor;
+    private ExecutorService decompressionExecutor;
 
     /**
      * Constructs a LineBreakAccessor.
      */
     public LineBreakAccessor() {
+        this(SpringContext.getBean(PluginTaskExecutor.class));
+    }
+
+    /**
+     * Constructs a LineBreakAccessor.
+     *
+     * @param taskExecutor the executor that decompresses the files
+     */
+    LineBreakAccessor(PluginTaskExecutor taskExecutor) {
         super(new TextInputFormat());
+        this.taskExecutor = taskExecutor;
     }
 
     @Override
@@ -74,20 +95,63 @@ public class LineBreakAccessor extends HdfsSplittableDataAccessor {
     protected Object getReader(JobConf jobConf, InputSplit split)
             throws IOException {
 
-        // Disable the ChunkRecordReader by default, but it can be enabled by
-        // setting the `pxf.reader.chunk-record-reader.enabled` property to true
-        if (configuration.getBoolean(PXF_CHUNK_RECORD_READER_ENABLED, PXF_CHUNK_RECORD_READER_DEFAULT)) {
-            try {
-                return new ChunkRecordReader(jobConf, (FileSplit) split);
-            } catch (IncompatibleInputStreamException e) {
-                // ignore and fallback to using LineRecordReader
-                LOG.debug("Failed to use ChunkRecordReader, falling back to LineRecordReader : " + e.getMessage());
+        if (useChunkRecordReader()) {
+            int threads = 0;
+            if (useParallelDecompression((FileSplit) split)) {
+                threads = configuration.getInt(PXF_PARALLEL_DECOMPRESSION_THREADS_PROPERTY, DEFAULT_PARALLEL_DECOMPRESSION_THREADS);
+                LOG.debug("{}-{}: Decompressing {} with {} threads",
+                        context.getTransactionId(), context.getSegmentId(), ((FileSplit) split).getPath(), threads);
+                decompressionExecutor = taskExecutor.newExecutor(threads);
             }
+            ChunkRecordReader chunkRecordReader = new ChunkRecordReader(jobConf, (FileSplit) split, decompressionExecutor, threads);
+            // the header lines are skipped by the reader, chunks are not lines
+            chunkRecordReader.skipLines(skipHeaderCount);
+            skipHeaderCount = 0;
+            return chunkRecordReader;
         }
         return new LineRecordReader(jobConf, (FileSplit) split,
                 context.getGreenplumCSV().getNewline().getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Returns whether the split is read in chunks of many lines that are
+     * passed through to Greenplum as they are. The ChunkRecordReader is used
+     * by default, it can be disabled by setting the
+     * `pxf.reader.chunk-record-reader.enabled` property to false. It is only
+     * used when Greenplum receives the data as text, the lines of the data
+     * end with LF (or CRLF), and the rows are not filtered by PXF.
+     *
+     * @return true if the ChunkRecordReader is used to read the split
+     */
+    private boolean useChunkRecordReader() {
+        if (!configuration.getBoolean(PXF_CHUNK_RECORD_READER_ENABLED, PXF_CHUNK_RECORD_READER_DEFAULT)) {
+            return false;
+        }
+        if (context.getOutputFormat() != OutputFormat.TEXT ||
+                !context.getGreenplumCSV().getNewline().endsWith("\n")) {
+            LOG.debug("Not using ChunkRecordReader for output format {}", context.getOutputFormat());
+            return false;
+        }
+        if (context.hasFilter() && configuration.getBoolean(RowFilterEvaluator.PXF_FILTER_RESIDUAL_ENABLED_PROPERTY, false)) {
+            LOG.debug("Not using ChunkRecordReader, the rows are filtered by PXF");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether a compressed split is decompressed on other threads
+     * than the thread that reads its chunks, when the
+     * `pxf.reader.decompression.parallel.enabled` property is set to true.
+     *
+     * @param split the split to read
+     * @return true if the split is decompressed on other threads
+     */
+    private boolean useParallelDecompression(FileSplit split) {
+        return configuration.getBoolean(PXF_PARALLEL_DECOMPRESSION_ENABLED_PROPERTY, false) &&
+                new CompressionCodecFactory(jobConf).getCodec(split.getPath()) != null;
+    }
+
     @Override
     public OneRow readNextObject() throws IOException {
         while (skipHeaderCount > 0) {
@@ -98,6 +162,17 @@ public class LineBreakAccessor extends HdfsSplittableDataAccessor {
         return super.readNextObject();
     }
 
+    @Override
+    public void closeForRead() throws Exception {
+        try {
+            super.closeForRead();
+        } finally {
+            if (decompressionExecutor != null) {
+                decompressionExecutor.shutdownNow();
+            }
+        }
+    }
+
     /**
      * Opens file for write.
      */
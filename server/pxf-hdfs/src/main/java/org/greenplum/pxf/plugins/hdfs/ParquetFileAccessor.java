@@ -28,19 +28,25 @@ import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapreduce.RecordWriter;
 import org.apache.parquet.HadoopReadOptions;
 import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.ParquetProperties;
 import org.apache.parquet.column.ParquetProperties.WriterVersion;
 import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroup;
 import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.compat.RowGroupFilter;
 import org.apache.parquet.format.converter.ParquetMetadataConverter;
 import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.hadoop.ParquetFileWriter;
 import org.apache.parquet.hadoop.ParquetOutputFormat;
 import org.apache.parquet.hadoop.ParquetReader;
 import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.api.ReadSupport;
 import org.apache.parquet.hadoop.example.GroupWriteSupport;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
-import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.InputFile;
 import org.apache.parquet.schema.MessageType;
 import org.apache.parquet.schema.MessageTypeParser;
 import org.apache.parquet.schema.PrimitiveType;
@@ -48,6 +54,7 @@ import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
 import org.apache.parquet.schema.Type;
 import org.apache.parquet.schema.Types;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.StatsAccessor;
 import org.greenplum.pxf.api.error.UnsupportedTypeException;
 import org.greenplum.pxf.api.filter.FilterParser;
 import org.greenplum.pxf.api.filter.InOperatorTransformer;
@@ -56,12 +63,17 @@ import org.greenplum.pxf.api.filter.Operator;
 import org.greenplum.pxf.api.filter.TreeTraverser;
 import org.greenplum.pxf.api.filter.TreeVisitor;
 import org.greenplum.pxf.api.io.DataType;
-import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
+import org.greenplum.pxf.api.utilities.SpringContext;
+import org.greenplum.pxf.api.utilities.Utilities;
 import org.greenplum.pxf.plugins.hdfs.filter.BPCharOperatorTransformer;
+import org.greenplum.pxf.plugins.hdfs.parquet.ParquetDirectWriter;
 import org.greenplum.pxf.plugins.hdfs.parquet.ParquetOperatorPruner;
 import org.greenplum.pxf.plugins.hdfs.parquet.ParquetRecordFilterBuilder;
+import org.greenplum.pxf.plugins.hdfs.parquet.ParquetStatisticsAggregator;
+import org.greenplum.pxf.plugins.hdfs.parquet.PrefetchingInputFile;
 import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 
 import java.io.IOException;
@@ -69,6 +81,7 @@ import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
@@ -93,12 +106,23 @@ import static org.apache.parquet.schema.LogicalTypeAnnotation.stringType;
 
 /**
  * Parquet file accessor.
- * Unit of operation is record.
+ * Unit of operation is record. Aggregate queries without a filter are
+ * answered from the statistics of the row groups of the split, see
+ * {@link ParquetStatisticsAggregator}; the row groups are only read when
+ * their statistics can't answer the aggregate.
  */
-public class ParquetFileAccessor extends BasePlugin implements Accessor {
+public class ParquetFileAccessor extends BasePlugin implements StatsAccessor {
+
+    public static final String PXF_PARQUET_PREFETCH_ENABLED_PROPERTY = "pxf.parquet.prefetch.enabled";
+    public static final String PXF_PARQUET_PREFETCH_THREADS_PROPERTY = "pxf.parquet.prefetch.threads";
+    public static final String PXF_PARQUET_PREFETCH_MEMORY_BUDGET_PROPERTY = "pxf.parquet.prefetch.memory-budget";
+    public static final String PXF_PARQUET_PREFETCH_MAX_GAP_PROPERTY = "pxf.parquet.prefetch.max-gap";
 
     private static final int DEFAULT_ROWGROUP_SIZE = 8 * 1024 * 1024;
     private static final CompressionCodecName DEFAULT_COMPRESSION = CompressionCodecName.SNAPPY;
+    private static final int DEFAULT_PREFETCH_THREADS = 4;
+    private static final long DEFAULT_PREFETCH_MEMORY_BUDGET = 256 * 1024 * 1024;
+    private static final long DEFAULT_PREFETCH_MAX_GAP = 1024 * 1024;
 
     // From org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe
     public static final int[] PRECISION_TO_BYTE_COUNT = new int[38];
@@ -128,11 +152,17 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
     );
 
     private static final TreeTraverser TRAVERSER = new TreeTraverser();
+    private static final String AGGREGATE_ROW_KEY = "aggregate";
     private static final TreeVisitor IN_OPERATOR_TRANSFORMER = new InOperatorTransformer();
+    private static final List<RowGroupFilter.FilterLevel> FILTER_LEVELS = Arrays.asList(
+            RowGroupFilter.FilterLevel.STATISTICS, RowGroupFilter.FilterLevel.DICTIONARY);
 
+    private final PluginTaskExecutor taskExecutor;
     private ParquetReader<Group> fileReader;
+    private PrefetchingInputFile prefetchingInputFile;
     private CompressionCodecName codecName;
     private RecordWriter<Void, Group> recordWriter;
+    private ParquetDirectWriter directWriter;
     private GroupWriteSupport groupWriteSupport;
     private FileSystem fs;
     private Path file;
@@ -142,6 +172,35 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
     private long rowsRead, totalRowsRead, totalRowsWritten;
     private WriterVersion parquetVersion;
     private long totalReadTimeInNanos;
+    private FileSplit fileSplit;
+    private ParquetMetadata footer;
+    private MessageType readSchema;
+    private boolean useStats;
+    private Group aggregateGroup;
+    // the number of rows left to emit from the statistics, or -1 before they are retrieved
+    private long aggregateRowsLeft;
+
+    /**
+     * Constructs a new instance of the ParquetFileAccessor
+     */
+    public ParquetFileAccessor() {
+        this(SpringContext.getBean(PluginTaskExecutor.class));
+    }
+
+    /**
+     * Constructs a new instance of the ParquetFileAccessor
+     *
+     * @param taskExecutor the executor that prefetches the data of the file
+     */
+    public ParquetFileAccessor(PluginTaskExecutor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        useStats = Utilities.aggregateOptimizationsSupported(context);
+    }
 
     /**
      * Opens the resource for read.
@@ -151,29 +210,104 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
     @Override
     public boolean openForRead() throws IOException {
         file = new Path(context.getDataSource());
-        FileSplit fileSplit = HdfsUtilities.parseFileSplit(context.getDataSource(), context.getFragmentMetadata());
+        HcfsType.configureFileSystem(configuration, context.getDataSource());
+        fileSplit = HdfsUtilities.parseFileSplit(context.getDataSource(), context.getFragmentMetadata());
 
+        // Read the footer of the parquet file, including the row groups in the split
+        footer = readFooter(file, fileSplit);
         // Read the original schema from the parquet file
-        MessageType originalSchema = getSchema(file, fileSplit);
+        MessageType originalSchema = footer.getFileMetaData().getSchema();
         // Get a map of the column name to Types for the given schema
         Map<String, Type> originalFieldsMap = getOriginalFieldsMap(originalSchema);
         // Get the read schema. This is either the full set or a subset (in
         // case of column projection) of the greenplum schema.
-        MessageType readSchema = buildReadSchema(originalFieldsMap, originalSchema);
+        readSchema = buildReadSchema(originalFieldsMap, originalSchema);
+        aggregateRowsLeft = -1;
+        // Aggregates only read the rows when the statistics can't answer them
+        if (!useStats) {
+            openFileReader(originalSchema, originalFieldsMap);
+        }
+        context.setMetadata(readSchema);
+        return true;
+    }
+
+    /**
+     * Opens the reader for the row groups of the split
+     *
+     * @param originalSchema    the original schema of the parquet file
+     * @param originalFieldsMap a map of field names to types
+     * @throws IOException if opening the reader failed
+     */
+    private void openFileReader(MessageType originalSchema, Map<String, Type> originalFieldsMap) throws IOException {
         // Get the record filter in case of predicate push-down
         FilterCompat.Filter recordFilter = getRecordFilter(context.getFilterString(), originalFieldsMap);
 
         // add column projection
         configuration.set(PARQUET_READ_SCHEMA, readSchema.toString());
 
-        fileReader = ParquetReader.builder(new GroupReadSupport(), file)
+        ParquetReader.Builder<Group> readerBuilder;
+        if (configuration.getBoolean(PXF_PARQUET_PREFETCH_ENABLED_PROPERTY, false)) {
+            // Only schedule I/O for the row groups that survive the statistics
+            // and dictionary filters
+            List<BlockMetaData> blocks = footer.getBlocks();
+            if (recordFilter != FilterCompat.NOOP) {
+                try (ParquetFileReader parquetFileReader = openParquetFileReader(file, fileSplit)) {
+                    blocks = RowGroupFilter.filterRowGroups(FILTER_LEVELS, recordFilter, blocks, parquetFileReader);
+                }
+            }
+            readerBuilder = getPrefetchingReaderBuilder(HadoopInputFile.fromPath(file, configuration), blocks, readSchema);
+        } else {
+            readerBuilder = ParquetReader.builder(new GroupReadSupport(), file);
+        }
+
+        fileReader = readerBuilder
                 .withConf(configuration)
                 // Create reader for a given split, read a range in file
                 .withFileRange(fileSplit.getStart(), fileSplit.getStart() + fileSplit.getLength())
                 .withFilter(recordFilter)
                 .build();
-        context.setMetadata(readSchema);
-        return true;
+    }
+
+    /**
+     * Computes the aggregate of the request from the statistics of the row
+     * groups of the split. When the statistics can't answer it, the reader is
+     * opened and the rows are read instead.
+     *
+     * @return true if the aggregate is answered from the statistics
+     * @throws IOException if opening the reader failed
+     */
+    @Override
+    public boolean retrieveStats() throws IOException {
+        if (useStats) {
+            aggregateGroup = new SimpleGroup(readSchema);
+            aggregateRowsLeft = ParquetStatisticsAggregator.aggregate(context.getAggType(), footer.getBlocks(), aggregateGroup);
+            if (aggregateRowsLeft != ParquetStatisticsAggregator.UNAVAILABLE) {
+                return true;
+            }
+            MessageType originalSchema = footer.getFileMetaData().getSchema();
+            openFileReader(originalSchema, getOriginalFieldsMap(originalSchema));
+        }
+        return false;
+    }
+
+    /**
+     * Emits the aggregate computed from the statistics. COUNT(*) is emitted
+     * as null rows, column aggregates as a single row.
+     *
+     * @return the next row of the aggregate, or null when all rows were emitted
+     */
+    @Override
+    public OneRow emitAggObject() {
+        if (aggregateRowsLeft < 0) {
+            throw new IllegalStateException("retrieveStats() should be called before calling emitAggObject()");
+        }
+        if (aggregateRowsLeft == 0) {
+            return null;
+        }
+        aggregateRowsLeft--;
+        rowsRead++;
+        // all the rows share the key, they are resolved once
+        return new OneRow(AGGREGATE_ROW_KEY, aggregateGroup);
     }
 
     /**
@@ -207,11 +341,50 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
         totalRowsRead += rowsRead;
 
         logReadStats(totalRowsRead, totalReadTimeInNanos);
-        if (fileReader != null) {
-            fileReader.close();
+        try {
+            if (fileReader != null) {
+                fileReader.close();
+            }
+        } finally {
+            if (prefetchingInputFile != null) {
+                LOG.debug("{}-{}: {} reads served from prefetched ranges, {} reads served from {}",
+                        context.getTransactionId(), context.getSegmentId(),
+                        prefetchingInputFile.getPrefetchedReads(), prefetchingInputFile.getDirectReads(),
+                        context.getDataSource());
+                prefetchingInputFile.close();
+            }
         }
     }
 
+    /**
+     * Returns a reader builder that reads the file through a
+     * {@link PrefetchingInputFile}. The column chunks of the projected columns
+     * are fetched in parallel, and the next row group is fetched while the
+     * current one is being read. This hides most of the latency of object
+     * stores, where every column chunk would otherwise be a separate
+     * synchronous request.
+     *
+     * @param inputFile  the file to read
+     * @param blocks     the row groups that are going to be read
+     * @param readSchema the projected schema
+     * @return the reader builder
+     */
+    private ParquetReader.Builder<Group> getPrefetchingReaderBuilder(InputFile inputFile, List<BlockMetaData> blocks, MessageType readSchema) {
+        int threads = configuration.getInt(PXF_PARQUET_PREFETCH_THREADS_PROPERTY, DEFAULT_PREFETCH_THREADS);
+        long memoryBudget = configuration.getLong(PXF_PARQUET_PREFETCH_MEMORY_BUDGET_PROPERTY, DEFAULT_PREFETCH_MEMORY_BUDGET);
+        long maxGap = configuration.getLong(PXF_PARQUET_PREFETCH_MAX_GAP_PROPERTY, DEFAULT_PREFETCH_MAX_GAP);
+        LOG.debug("{}-{}: Prefetching {} row groups with {} threads, memory budget = {}, max gap = {}",
+                context.getTransactionId(), context.getSegmentId(), blocks.size(), threads, memoryBudget, maxGap);
+
+        prefetchingInputFile = new PrefetchingInputFile(inputFile, blocks, readSchema, maxGap, memoryBudget, taskExecutor, threads);
+        return new ParquetReader.Builder<Group>(prefetchingInputFile) {
+            @Override
+            protected ReadSupport<Group> getReadSupport() {
+                return new GroupReadSupport();
+            }
+        };
+    }
+
     /**
      * Opens the resource for write.
      * Uses compression codec based on user input which
@@ -251,7 +424,7 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
         // We get the parquet schema and set it to the metadata in the request context
         // to avoid computing the schema again in the Resolver
         context.setMetadata(schema);
-        createParquetWriter();
+        createParquetWriter(schema);
         return true;
     }
 
@@ -264,7 +437,11 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
      */
     @Override
     public boolean writeNextObject(OneRow onerow) throws IOException, InterruptedException {
-        recordWriter.write(null, (Group) onerow.getData());
+        if (directWriter != null) {
+            directWriter.write((Object[]) onerow.getData());
+        } else {
+            recordWriter.write(null, (Group) onerow.getData());
+        }
         totalRowsWritten++;
         return true;
     }
@@ -280,6 +457,9 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
         if (recordWriter != null) {
             recordWriter.close(null);
         }
+        if (directWriter != null) {
+            directWriter.close();
+        }
         LOG.debug("{}-{}: writer closed, wrote a TOTAL of {} rows to {} on server {}",
                 context.getTransactionId(),
                 context.getSegmentId(),
@@ -327,26 +507,19 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
     }
 
     /**
-     * Reads the original schema from the parquet file.
+     * Reads the footer of the parquet file, with the metadata for the row
+     * groups that belong to the split.
      *
      * @param parquetFile the path to the parquet file
      * @param fileSplit   the file split we are accessing
-     * @return the original schema from the parquet file
-     * @throws IOException when there's an IOException while reading the schema
+     * @return the footer of the parquet file
+     * @throws IOException when there's an IOException while reading the footer
      */
-    private MessageType getSchema(Path parquetFile, FileSplit fileSplit) throws IOException {
+    private ParquetMetadata readFooter(Path parquetFile, FileSplit fileSplit) throws IOException {
 
         final long then = System.nanoTime();
-        ParquetMetadataConverter.MetadataFilter filter = ParquetMetadataConverter.range(
-                fileSplit.getStart(), fileSplit.getStart() + fileSplit.getLength());
-        ParquetReadOptions parquetReadOptions = HadoopReadOptions
-                .builder(configuration)
-                .withMetadataFilter(filter)
-                .build();
-        HadoopInputFile inputFile = HadoopInputFile.fromPath(parquetFile, configuration);
-        try (ParquetFileReader parquetFileReader =
-                     ParquetFileReader.open(inputFile, parquetReadOptions)) {
-            FileMetaData metadata = parquetFileReader.getFileMetaData();
+        try (ParquetFileReader parquetFileReader = openParquetFileReader(parquetFile, fileSplit)) {
+            ParquetMetadata footer = parquetFileReader.getFooter();
             if (LOG.isDebugEnabled()) {
                 LOG.debug("{}-{}: Reading file {} with {} records in {} RowGroups",
                         context.getTransactionId(), context.getSegmentId(),
@@ -356,12 +529,31 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
             final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - then);
             LOG.debug("{}-{}: Read schema in {} ms", context.getTransactionId(),
                     context.getSegmentId(), millis);
-            return metadata.getSchema();
+            return footer;
         } catch (Exception e) {
             throw new IOException(e);
         }
     }
 
+    /**
+     * Opens a reader for the parquet file that only sees the metadata of the
+     * row groups that belong to the split.
+     *
+     * @param parquetFile the path to the parquet file
+     * @param fileSplit   the file split we are accessing
+     * @return the reader for the parquet file
+     * @throws IOException when the file can't be opened
+     */
+    private ParquetFileReader openParquetFileReader(Path parquetFile, FileSplit fileSplit) throws IOException {
+        ParquetMetadataConverter.MetadataFilter filter = ParquetMetadataConverter.range(
+                fileSplit.getStart(), fileSplit.getStart() + fileSplit.getLength());
+        ParquetReadOptions parquetReadOptions = HadoopReadOptions
+                .builder(configuration)
+                .withMetadataFilter(filter)
+                .build();
+        return ParquetFileReader.open(HadoopInputFile.fromPath(parquetFile, configuration), parquetReadOptions);
+    }
+
     /**
      * Builds a map of names to Types from the original schema, the map allows
      * easy access from a given column name to the schema {@link Type}.
@@ -369,7 +561,7 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
      * @param originalSchema the original schema of the parquet file
      * @return a map of field names to types
      */
-    private Map<String, Type> getOriginalFieldsMap(MessageType originalSchema) {
+    public static Map<String, Type> getOriginalFieldsMap(MessageType originalSchema) {
         Map<String, Type> originalFields = new HashMap<>(originalSchema.getFieldCount() * 2);
 
         // We need to add the original name and lower cased name to
@@ -407,7 +599,7 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
         return new MessageType(originalSchema.getName(), projectedFields);
     }
 
-    private void createParquetWriter() throws IOException, InterruptedException {
+    private void createParquetWriter(MessageType schema) throws IOException, InterruptedException {
 
         String fileName = filePrefix + codecName.getExtension() + ".parquet";
         LOG.debug("{}-{}: Creating file {}", context.getTransactionId(),
@@ -422,8 +614,23 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
         configuration.set(WRITER_VERSION, parquetVersion.toString());
         configuration.setLong(BLOCK_SIZE, rowGroupSize);
 
-        recordWriter = new ParquetOutputFormat<>(groupWriteSupport)
-                .getRecordWriter(configuration, file, codecName, ParquetFileWriter.Mode.CREATE);
+        if (ParquetDirectWriter.isEnabled(context)) {
+            int threads = configuration.getInt(ParquetDirectWriter.PXF_PARQUET_WRITE_COMPRESSION_THREADS_PROPERTY,
+                    ParquetDirectWriter.DEFAULT_COMPRESSION_THREADS);
+            LOG.debug("{}-{}: Encoding values directly, compressing pages with {} threads",
+                    context.getTransactionId(), context.getSegmentId(), threads);
+            ParquetProperties properties = ParquetProperties.builder()
+                    .withPageSize(pageSize)
+                    .withDictionaryPageSize(dictionarySize)
+                    .withDictionaryEncoding(enableDictionary)
+                    .withWriterVersion(parquetVersion)
+                    .build();
+            directWriter = new ParquetDirectWriter(configuration, file, schema, codecName,
+                    properties, rowGroupSize, taskExecutor, threads);
+        } else {
+            recordWriter = new ParquetOutputFormat<>(groupWriteSupport)
+                    .getRecordWriter(configuration, file, codecName, ParquetFileWriter.Mode.CREATE);
+        }
     }
 
     /**
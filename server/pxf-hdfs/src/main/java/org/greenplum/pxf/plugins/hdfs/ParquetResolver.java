@@ -34,6 +34,8 @@ import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.model.Resolver;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.api.utilities.Utilities;
+import org.greenplum.pxf.plugins.hdfs.parquet.ParquetComplexTypeSerializer;
+import org.greenplum.pxf.plugins.hdfs.parquet.ParquetDirectWriter;
 import org.greenplum.pxf.plugins.hdfs.parquet.ParquetTypeConverter;
 
 import java.io.IOException;
@@ -55,6 +57,8 @@ public class ParquetResolver extends BasePlugin implements Resolver {
 
     private MessageType schema;
     private SimpleGroupFactory groupFactory;
+    private boolean directWrite;
+    private final ParquetComplexTypeSerializer complexTypeSerializer = new ParquetComplexTypeSerializer();
     private List<ColumnDescriptor> columnDescriptors;
     private final ObjectMapper mapper = new ObjectMapper();
 
@@ -81,7 +85,8 @@ public class ParquetResolver extends BasePlugin implements Resolver {
                 oneField = resolvePrimitive(group, columnIndex, schema.getType(columnIndex), 0);
                 columnIndex++;
             } else {
-                throw new UnsupportedOperationException("Parquet complex type support is not yet available.");
+                oneField = resolveComplex(group, columnIndex, schema.getType(columnIndex), columnDescriptor);
+                columnIndex++;
             }
             output.add(oneField);
         }
@@ -89,7 +94,10 @@ public class ParquetResolver extends BasePlugin implements Resolver {
     }
 
     /**
-     * Constructs and sets the fields of a {@link OneRow}.
+     * Constructs and sets the fields of a {@link OneRow}. When the accessor
+     * encodes the values directly into the column writers (see
+     * {@link ParquetDirectWriter}), the row is an array with the Parquet
+     * representation of every value, otherwise the row is a {@link Group}.
      *
      * @param record list of {@link OneField}
      * @return the constructed {@link OneRow}
@@ -98,7 +106,8 @@ public class ParquetResolver extends BasePlugin implements Resolver {
     @Override
     public OneRow setFields(List<OneField> record) throws IOException {
         validateSchema();
-        Group group = groupFactory.newGroup();
+        Group group = directWrite ? null : groupFactory.newGroup();
+        Object[] values = directWrite ? new Object[record.size()] : null;
         for (int i = 0; i < record.size(); i++) {
             OneField field = record.get(i);
             ColumnDescriptor columnDescriptor = columnDescriptors.get(i);
@@ -112,41 +121,66 @@ public class ParquetResolver extends BasePlugin implements Resolver {
             if (columnDescriptor.getDataType() == DataType.BPCHAR && field.val instanceof String) {
                 field.val = Utilities.rightTrimWhiteSpace((String) field.val);
             }
-            fillGroup(i, field, group, schema.getType(i));
+            Object value = getParquetValue(field, schema.getType(i));
+            if (directWrite) {
+                values[i] = value;
+            } else if (value != null) {
+                fillGroup(i, value, group);
+            }
         }
-        return new OneRow(null, group);
+        return new OneRow(null, directWrite ? values : group);
     }
 
-    private void fillGroup(int index, OneField field, Group group, Type type) throws IOException {
+    private void fillGroup(int index, Object value, Group group) {
+        if (value instanceof Integer) {
+            group.add(index, (Integer) value);
+        } else if (value instanceof Long) {
+            group.add(index, (Long) value);
+        } else if (value instanceof Double) {
+            group.add(index, (Double) value);
+        } else if (value instanceof Float) {
+            group.add(index, (Float) value);
+        } else if (value instanceof Boolean) {
+            group.add(index, (Boolean) value);
+        } else {
+            group.add(index, (Binary) value);
+        }
+    }
+
+    /**
+     * Converts the value of the field into its Parquet representation for the
+     * given type: an Integer, Long, Float, Double, Boolean or {@link Binary}.
+     *
+     * @param field the field from Greenplum
+     * @param type  the Parquet type of the column
+     * @return the Parquet value, or null when the value is null
+     * @throws IOException when the type is not supported
+     */
+    private Object getParquetValue(OneField field, Type type) throws IOException {
         if (field.val == null)
-            return;
+            return null;
         switch (type.asPrimitiveType().getPrimitiveTypeName()) {
             case BINARY:
                 if (type.getLogicalTypeAnnotation() instanceof StringLogicalTypeAnnotation)
-                    group.add(index, (String) field.val);
+                    return Binary.fromString((String) field.val);
                 else
-                    group.add(index, Binary.fromReusedByteArray((byte[]) field.val));
-                break;
+                    return Binary.fromReusedByteArray((byte[]) field.val);
             case INT32:
                 if (type.getLogicalTypeAnnotation() instanceof DateLogicalTypeAnnotation) {
                     String dateString = (String) field.val;
-                    group.add(index, ParquetTypeConverter.getDaysFromEpochFromDateString(dateString));
+                    return ParquetTypeConverter.getDaysFromEpochFromDateString(dateString);
                 } else if (type.getLogicalTypeAnnotation() instanceof IntLogicalTypeAnnotation &&
                         ((IntLogicalTypeAnnotation) type.getLogicalTypeAnnotation()).getBitWidth() == 16) {
-                    group.add(index, (Short) field.val);
+                    return (int) (Short) field.val;
                 } else {
-                    group.add(index, (Integer) field.val);
+                    return (Integer) field.val;
                 }
-                break;
             case INT64:
-                group.add(index, (Long) field.val);
-                break;
+                return (Long) field.val;
             case DOUBLE:
-                group.add(index, (Double) field.val);
-                break;
+                return (Double) field.val;
             case FLOAT:
-                group.add(index, (Float) field.val);
-                break;
+                return (Float) field.val;
             case FIXED_LEN_BYTE_ARRAY:
                 // From org.apache.hadoop.hive.ql.io.parquet.write.DataWritableWriter.DecimalDataWriter#decimalToBinary
                 String value = (String) field.val;
@@ -165,7 +199,7 @@ public class ParquetResolver extends BasePlugin implements Resolver {
                     // exceeded the precision. To make the behavior consistent
                     // with Hive's behavior when storing on a Parquet-backed
                     // table, we store the value as null.
-                    return;
+                    return null;
                 }
 
                 byte[] decimalBytes = hiveDecimal.bigIntegerBytesScaled(scale);
@@ -174,33 +208,29 @@ public class ParquetResolver extends BasePlugin implements Resolver {
                 int precToBytes = ParquetFileAccessor.PRECISION_TO_BYTE_COUNT[precision - 1];
                 if (precToBytes == decimalBytes.length) {
                     // No padding needed.
-                    group.add(index, Binary.fromReusedByteArray(decimalBytes));
-                } else {
-                    byte[] tgt = new byte[precToBytes];
-                    if (hiveDecimal.signum() == -1) {
-                        // For negative number, initializing bits to 1
-                        for (int i = 0; i < precToBytes; i++) {
-                            tgt[i] |= 0xFF;
-                        }
+                    return Binary.fromReusedByteArray(decimalBytes);
+                }
+                byte[] tgt = new byte[precToBytes];
+                if (hiveDecimal.signum() == -1) {
+                    // For negative number, initializing bits to 1
+                    for (int i = 0; i < precToBytes; i++) {
+                        tgt[i] |= 0xFF;
                     }
-                    System.arraycopy(decimalBytes, 0, tgt, precToBytes - decimalBytes.length, decimalBytes.length); // Padding leading zeroes/ones.
-                    group.add(index, Binary.fromReusedByteArray(tgt));
                 }
+                System.arraycopy(decimalBytes, 0, tgt, precToBytes - decimalBytes.length, decimalBytes.length); // Padding leading zeroes/ones.
+                return Binary.fromReusedByteArray(tgt);
                 // end -- org.apache.hadoop.hive.ql.io.parquet.write.DataWritableWriter.DecimalDataWriter#decimalToBinary
-                break;
             case INT96:  // SQL standard timestamp string value with or without time zone literals: https://www.postgresql.org/docs/9.4/datatype-datetime.html
                 String timestamp = (String) field.val;
                 if (TIMESTAMP_PATTERN.matcher(timestamp).find()) {
                     // Note: this conversion convert type "timestamp with time zone" will lose timezone information
                     // while preserving the correct value. (as Parquet doesn't support timestamp with time zone.
-                    group.add(index, ParquetTypeConverter.getBinaryFromTimestampWithTimeZone(timestamp));
+                    return ParquetTypeConverter.getBinaryFromTimestampWithTimeZone(timestamp);
                 } else {
-                    group.add(index, ParquetTypeConverter.getBinaryFromTimestamp(timestamp));
+                    return ParquetTypeConverter.getBinaryFromTimestamp(timestamp);
                 }
-                break;
             case BOOLEAN:
-                group.add(index, (Boolean) field.val);
-                break;
+                return (Boolean) field.val;
             default:
                 throw new IOException("Not supported type " + type.asPrimitiveType().getPrimitiveTypeName());
         }
@@ -215,7 +245,29 @@ public class ParquetResolver extends BasePlugin implements Resolver {
             if (schema == null)
                 throw new RuntimeException("No schema detected in request context");
             groupFactory = new SimpleGroupFactory(schema);
+            directWrite = ParquetDirectWriter.isEnabled(context);
+        }
+    }
+
+    /**
+     * Resolves a LIST, MAP or STRUCT column. LIST columns are serialized into
+     * Greenplum arrays when the Greenplum column is an array type, all other
+     * complex columns are serialized into JSON text.
+     *
+     * @param group            the record
+     * @param columnIndex      the index of the column in the read schema
+     * @param type             the parquet type of the column
+     * @param columnDescriptor the Greenplum column
+     * @return the resolved field
+     */
+    private OneField resolveComplex(Group group, int columnIndex, Type type, ColumnDescriptor columnDescriptor) {
+        DataType dataType = columnDescriptor.getDataType();
+        if (dataType.isArrayType() && ParquetComplexTypeSerializer.isList(type)) {
+            return new OneField(dataType.getOID(),
+                    complexTypeSerializer.serializeList(group, columnIndex, type.asGroupType()));
         }
+        return new OneField(DataType.TEXT.getOID(),
+                complexTypeSerializer.serializeJson(group, columnIndex, type));
     }
 
     private OneField resolvePrimitive(Group group, int columnIndex, Type type, int level) {
@@ -21,11 +21,17 @@ package org.greenplum.pxf.plugins.hdfs;
 
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.FileSplit;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.Charset;
 import java.util.LinkedList;
 import java.util.Queue;
 
@@ -33,9 +39,18 @@ import java.util.Queue;
  * A (atomic) PXF Accessor for reading \n delimited files with quoted
  * field delimiter, line delimiter, and quotes. This accessor supports
  * multi-line records, that are read from a single source (non-parallel).
+ * <p>
+ * When the {@code pxf.text.multi.splittable.enabled} property is set, the
+ * {@link HdfsFileFragmenter} splits uncompressed files, and the accessor
+ * reads the records that start in its split with a
+ * {@link QuotedLineSplitReader}.
  */
 public class QuotedLineBreakAccessor extends HdfsAtomicDataAccessor {
 
+    public static final String PXF_TEXT_MULTI_SPLITTABLE_PROPERTY = "pxf.text.multi.splittable.enabled";
+    public static final String PXF_TEXT_MULTI_VERIFICATION_WINDOW_PROPERTY = "pxf.text.multi.splittable.verification-window";
+    private static final int DEFAULT_VERIFICATION_WINDOW = 1024 * 1024;
+
     private static final String UNSUPPORTED_ERR_MESSAGE = "Profile '%s' does not support write operation.";
 
     private boolean fileAsRow;
@@ -43,6 +58,7 @@ public class QuotedLineBreakAccessor extends HdfsAtomicDataAccessor {
     private int skipHeaderCount;
     BufferedReader reader;
     Queue<String> lineQueue;
+    QuotedLineSplitReader splitReader;
 
     @Override
     public void afterPropertiesSet() {
@@ -63,6 +79,9 @@ public class QuotedLineBreakAccessor extends HdfsAtomicDataAccessor {
 
     @Override
     public boolean openForRead() throws Exception {
+        if (isSplit()) {
+            return openSplitForRead();
+        }
         if (!super.openForRead()) {
             return false;
         }
@@ -76,6 +95,9 @@ public class QuotedLineBreakAccessor extends HdfsAtomicDataAccessor {
      */
     @Override
     public OneRow readNextObject() throws IOException {
+        if (splitReader != null) {
+            return readNextSplitObject();
+        }
 
         if (super.readNextObject() == null) /* check if working segment */ {
             return null;
@@ -118,6 +140,54 @@ public class QuotedLineBreakAccessor extends HdfsAtomicDataAccessor {
         return new OneRow(null, nextLine);
     }
 
+    @Override
+    public void closeForRead() throws Exception {
+        if (splitReader != null) {
+            splitReader.close();
+            return;
+        }
+        super.closeForRead();
+    }
+
+    /**
+     * Returns whether the fragment is a split of the file, that starts at the
+     * first record after its start. Files are split by the fragmenter when
+     * the {@code pxf.text.multi.splittable.enabled} property is set, the
+     * fragments of whole files have no metadata.
+     */
+    private boolean isSplit() {
+        return configuration.getBoolean(PXF_TEXT_MULTI_SPLITTABLE_PROPERTY, false) &&
+                !fileAsRow &&
+                context.getFragmentMetadata() != null;
+    }
+
+    private boolean openSplitForRead() throws IOException {
+        FileSplit split = HdfsUtilities.parseFileSplit(context.getDataSource(), context.getFragmentMetadata());
+        FileSystem fs = FileSystem.get(URI.create(context.getDataSource()), configuration);
+
+        Character escape = context.getGreenplumCSV().getEscape();
+        boolean csv = StringUtils.equalsIgnoreCase(context.getFormat(), "csv") ||
+                (escape != null && escape != '\\');
+        int verificationWindow = configuration.getInt(PXF_TEXT_MULTI_VERIFICATION_WINDOW_PROPERTY, DEFAULT_VERIFICATION_WINDOW);
+
+        splitReader = new QuotedLineSplitReader(fs.open(new Path(context.getDataSource())),
+                split.getStart(), split.getStart() + split.getLength(),
+                context.getGreenplumCSV(), csv, verificationWindow, Charset.defaultCharset());
+        return true;
+    }
+
+    private OneRow readNextSplitObject() throws IOException {
+        while (skipHeaderCount > 0) {
+            if (splitReader.readLine() == null) {
+                return null;
+            }
+            skipHeaderCount--;
+        }
+
+        String nextLine = splitReader.readLine();
+        return nextLine == null ? null : new OneRow(null, nextLine);
+    }
+
     /**
      * Read one line ahead, to determine when the last line occurs
      *
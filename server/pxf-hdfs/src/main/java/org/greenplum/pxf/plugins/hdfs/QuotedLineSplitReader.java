@@ -0,0 +1,389 @@
+package org.greenplum.pxf.plugins.hdfs;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.greenplum.pxf.api.model.GreenplumCSV;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the lines of the records that start in a split of a delimited text
+ * file, whose records may span several lines when quoted fields contain line
+ * feeds. The lines are returned one by one, like {@link QuotedLineBreakAccessor}
+ * returns the lines of a whole file, and Greenplum puts the records back
+ * together.
+ * <p>
+ * A record belongs to the split it starts in; the split starting at byte 0
+ * reads from the start of the file, the other splits start at the first
+ * record that starts after the first byte of the split. Records are
+ * delimited by LF (or CRLF) outside of quoted fields, following the rules of
+ * Greenplum: in CSV, every quote character toggles the quoted state, unless
+ * it is escaped inside a quoted field; in TEXT, the escape character escapes
+ * the next byte, including a line feed.
+ * <p>
+ * The quoted state at the start of a split is not known. The reader scans
+ * the split with one state machine per possible state (outside or inside of
+ * a quoted field, after an escape character or not), and drops the machines
+ * that see a quote that cannot be one in well-formed CSV: an opening quote
+ * that does not follow a delimiter, a newline or a quote, or a closing quote
+ * that is not followed by one. A quoted field is assumed not to be longer
+ * than verificationWindow bytes, so the machines that stay inside a quoted
+ * field for longer are dropped as well; on data without quotes, this is what
+ * tells the machines apart. When the remaining machines agree on the first
+ * record of the split after a verification scan of at least
+ * verificationWindow bytes, that record is the start of the split.
+ * Otherwise, the split is ambiguous, and the reader scans the file
+ * sequentially from its start to find the record.
+ * <p>
+ * The quote, escape and delimiter characters are single byte characters, and
+ * their bytes never appear inside multibyte characters in the encodings
+ * supported by Greenplum.
+ */
+public class QuotedLineSplitReader implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QuotedLineSplitReader.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int LF = '\n';
+    private static final int CR = '\r';
+    private static final int NONE = -1;
+
+    private final FSDataInputStream in;
+    private final long start;
+    private final long end;
+    private final int verificationWindow;
+    private final Charset charset;
+    // the quote character, NONE for TEXT
+    private final int quote;
+    // the escape character, NONE when the escape character is the quote
+    private final int escape;
+    private final int delimiter;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    // the position in the file of the first byte of the buffer
+    private long bufferStart;
+    private int bufferLength;
+    private int bufferPosn;
+
+    private byte[] line = new byte[256];
+    private State state;
+    private boolean atRecordStart;
+    private boolean done;
+
+    /**
+     * Constructs a QuotedLineSplitReader
+     *
+     * @param in                 the input stream of the file
+     * @param start              the position of the first byte of the split
+     * @param end                the position after the last byte of the split
+     * @param greenplumCSV       the format of the table
+     * @param csv                true if the format of the table is CSV, false if it is TEXT
+     * @param verificationWindow the minimum number of bytes scanned to find the first record of a split, and
+     *                           the maximum length of a quoted field while it is scanned
+     * @param charset            the charset to decode the lines with
+     */
+    public QuotedLineSplitReader(FSDataInputStream in, long start, long end, GreenplumCSV greenplumCSV,
+                                 boolean csv, int verificationWindow, Charset charset) {
+        this.in = in;
+        this.start = start;
+        this.end = end;
+        this.verificationWindow = verificationWindow;
+        this.charset = charset;
+
+        Character escapeChar = greenplumCSV.getEscape();
+        int escapeByte = escapeChar == null ? NONE : escapeChar;
+        if (csv) {
+            quote = greenplumCSV.getQuote();
+            // the quote character is a toggle when it is also the escape character
+            escape = escapeByte == quote ? NONE : escapeByte;
+        } else {
+            quote = NONE;
+            escape = escapeByte;
+        }
+        Character delimiterChar = greenplumCSV.getDelimiter();
+        delimiter = delimiterChar == null ? NONE : delimiterChar;
+    }
+
+    /**
+     * Reads the next line of the records of the split.
+     *
+     * @return the line, without its line terminator, or null when all the
+     * records of the split were read
+     * @throws IOException if an I/O error occurs
+     */
+    public String readLine() throws IOException {
+        if (state == null) {
+            long recordStart = findFirstRecordStart();
+            LOG.debug("First record of split [{}, {}) starts at {}", start, end, recordStart);
+            seek(recordStart);
+            state = new State(false, false);
+            atRecordStart = true;
+        }
+        if (done || (atRecordStart && position() > end)) {
+            done = true;
+            return null;
+        }
+
+        int length = 0;
+        boolean lineFeed = false;
+        int c;
+        while ((c = read()) != NONE) {
+            atRecordStart = advance(state, c, NONE, false);
+            if (c == LF) {
+                lineFeed = true;
+                break;
+            }
+            if (length == line.length) {
+                line = Arrays.copyOf(line, 2 * length);
+            }
+            line[length++] = (byte) c;
+        }
+
+        if (!lineFeed) {
+            done = true;
+            if (length == 0) {
+                return null;
+            }
+        } else if (length > 0 && line[length - 1] == CR) {
+            length--;
+        }
+        return new String(line, 0, length, charset);
+    }
+
+    /**
+     * Closes the input stream.
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Finds the position of the first record that starts in the split
+     *
+     * @return the position of the first record, or the length of the file
+     * when no record starts in the split
+     */
+    long findFirstRecordStart() throws IOException {
+        if (start == 0) {
+            return 0;
+        }
+
+        seek(start - 1);
+        int prev = read();
+        List<State> states = new ArrayList<>();
+        states.add(new State(false, false));
+        if (quote != NONE) {
+            states.add(new State(true, false));
+        }
+        if (escape != NONE && prev == escape) {
+            // the previous byte either escapes the first byte of the split or is escaped itself
+            states.add(new State(quote != NONE, true));
+        }
+        for (State s : states) {
+            // a field that is quoted at the start of the split was opened before it
+            s.quoteStart = start;
+        }
+
+        // scan at least the verification window, and at most the split if the window is smaller
+        long limit = Math.max(start + verificationWindow, end);
+        long pos = start;
+        int c;
+        while ((c = read()) != NONE) {
+            pos++;
+            boolean alive = false;
+            for (State s : states) {
+                if (s.alive) {
+                    boolean inQuote = s.inQuote;
+                    if (advance(s, c, prev, true) && s.recordStart == NONE) {
+                        s.recordStart = pos;
+                    }
+                    if (s.inQuote && !inQuote) {
+                        s.quoteStart = pos;
+                    } else if (s.inQuote && pos - s.quoteStart > verificationWindow) {
+                        // a quoted field longer than the window is not plausible
+                        s.alive = false;
+                    }
+                    alive |= s.alive;
+                }
+            }
+            prev = c;
+            if (!alive || (pos >= start + verificationWindow && agreedRecordStart(states) != NONE)) {
+                break;
+            }
+            // past the limit, the machines that found a record and still disagree are ambiguous,
+            // while a machine inside a quoted field is dropped once the field is too long
+            if ((quote == NONE || pos >= limit) && allFoundRecordStart(states)) {
+                break;
+            }
+        }
+
+        if (c == NONE) {
+            for (State s : states) {
+                if (s.inQuote) {
+                    // a quoted field is not left open at the end of the file
+                    s.alive = false;
+                } else if (s.recordStart == NONE) {
+                    s.recordStart = pos;
+                }
+            }
+        }
+
+        long recordStart = agreedRecordStart(states);
+        if (recordStart == NONE) {
+            LOG.info("Unable to find the first record of split [{}, {}) with a verification scan, scanning the file from its start",
+                    start, end);
+            recordStart = findFirstRecordStartSequentially();
+        }
+        return recordStart;
+    }
+
+    /**
+     * Finds the first record that starts in the split by scanning the file
+     * from its start, where the quoted state is known.
+     */
+    private long findFirstRecordStartSequentially() throws IOException {
+        seek(0);
+        State s = new State(false, false);
+        long pos = 0;
+        int c;
+        while ((c = read()) != NONE) {
+            pos++;
+            if (advance(s, c, NONE, false) && pos > start) {
+                return pos;
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * @return the position of the first record that all the remaining
+     * machines found, or NONE if no machine remains, or the machines do not
+     * agree on it yet
+     */
+    private long agreedRecordStart(List<State> states) {
+        long recordStart = NONE;
+        for (State s : states) {
+            if (!s.alive) {
+                continue;
+            }
+            if (s.recordStart == NONE || (recordStart != NONE && recordStart != s.recordStart)) {
+                return NONE;
+            }
+            recordStart = s.recordStart;
+        }
+        return recordStart;
+    }
+
+    private boolean allFoundRecordStart(List<State> states) {
+        for (State s : states) {
+            if (s.alive && s.recordStart == NONE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Advances a state machine by one byte.
+     *
+     * @param s      the state machine
+     * @param c      the byte
+     * @param prev   the previous byte, NONE if it is not known
+     * @param verify true to drop the machine when it sees a quote that
+     *               cannot be one in well-formed CSV
+     * @return true if the byte is a line feed that ends a record
+     */
+    private boolean advance(State s, int c, int prev, boolean verify) {
+        if (quote == NONE) {
+            if (s.lastWasEscape) {
+                s.lastWasEscape = false;
+                return false;
+            }
+            if (c == escape) {
+                s.lastWasEscape = true;
+                return false;
+            }
+            return c == LF;
+        }
+
+        if (s.pendingClose) {
+            s.pendingClose = false;
+            if (!isFieldBoundary(c)) {
+                s.alive = false;
+            }
+        }
+        if (s.inQuote && c == escape) {
+            s.lastWasEscape = !s.lastWasEscape;
+        }
+        if (c == quote && !s.lastWasEscape) {
+            s.inQuote = !s.inQuote;
+            if (verify) {
+                if (!s.inQuote) {
+                    s.pendingClose = true;
+                } else if (prev != NONE && !isFieldBoundary(prev)) {
+                    s.alive = false;
+                }
+            }
+        }
+        if (c != escape) {
+            s.lastWasEscape = false;
+        }
+        return c == LF && !s.inQuote;
+    }
+
+    private boolean isFieldBoundary(int c) {
+        return c == delimiter || c == LF || c == CR || c == quote;
+    }
+
+    private int read() throws IOException {
+        if (bufferPosn == bufferLength) {
+            bufferStart += bufferLength;
+            bufferPosn = 0;
+            bufferLength = 0;
+            int n = in.read(buffer, 0, buffer.length);
+            if (n <= 0) {
+                return NONE;
+            }
+            bufferLength = n;
+        }
+        return buffer[bufferPosn++] & 0xff;
+    }
+
+    private void seek(long pos) throws IOException {
+        in.seek(pos);
+        bufferStart = pos;
+        bufferPosn = 0;
+        bufferLength = 0;
+    }
+
+    private long position() {
+        return bufferStart + bufferPosn;
+    }
+
+    /**
+     * The state of the scan of the records, at a position of the file
+     */
+    private static class State {
+        private boolean inQuote;
+        private boolean lastWasEscape;
+        // the last byte was a closing quote, the next one must end the field
+        private boolean pendingClose;
+        private boolean alive = true;
+        // the position of the first record found from this state
+        private long recordStart = NONE;
+        // the position after the last quote that put this state inside a quoted field
+        private long quoteStart;
+
+        State(boolean inQuote, boolean lastWasEscape) {
+            this.inQuote = inQuote;
+            this.lastWasEscape = lastWasEscape;
+        }
+    }
+}
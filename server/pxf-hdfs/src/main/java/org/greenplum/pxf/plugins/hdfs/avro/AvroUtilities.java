@@ -1,6 +1,9 @@
 package org.greenplum.pxf.plugins.hdfs.avro;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.apache.avro.Schema;
 import org.apache.avro.file.DataFileReader;
 import org.apache.avro.generic.GenericDatumReader;
@@ -29,16 +32,24 @@ import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public final class AvroUtilities {
 
     private static final Logger LOG = LoggerFactory.getLogger(AvroUtilities.class);
     private static final String COMMON_NAMESPACE = "public.avro";
+    private static final long SCHEMA_CACHE_EXPIRATION_SECONDS = 60;
+    private static final long SCHEMA_CACHE_MAX_SIZE = 1000;
 
     private AvroSchemaFileReaderFactory schemaFileReaderFactory;
     private final FileSearcher fileSearcher;
     private PgUtilities pgUtilities;
+    private final Cache<String, Schema> schemaCache = CacheBuilder.newBuilder()
+            .expireAfterAccess(SCHEMA_CACHE_EXPIRATION_SECONDS, TimeUnit.SECONDS)
+            .maximumSize(SCHEMA_CACHE_MAX_SIZE)
+            .build();
 
     public interface FileSearcher {
         File searchForFile(String filename);
@@ -86,14 +97,107 @@ public final class AvroUtilities {
         String schemaFile = userProvidedSchema != null ? userProvidedSchema : context.getDataSource();
 
         try {
-            schema = readOrGenerateAvroSchema(context, hcfsType, userProvidedSchema);
+            String cacheKey = getSchemaCacheKey(context, hcfsType, userProvidedSchema);
+            if (cacheKey == null) {
+                schema = readOrGenerateAvroSchema(context, hcfsType, userProvidedSchema);
+            } else {
+                schema = schemaCache.get(cacheKey, () -> readOrGenerateAvroSchema(context, hcfsType, userProvidedSchema));
+            }
         } catch (Exception e) {
-            throw new RuntimeException(String.format("Failed to obtain Avro schema from '%s'", schemaFile), e);
+            Throwable cause = e instanceof ExecutionException || e instanceof UncheckedExecutionException ? e.getCause() : e;
+            throw new RuntimeException(String.format("Failed to obtain Avro schema from '%s'", schemaFile), cause);
         }
         context.setMetadata(schema);
         return schema;
     }
 
+    /**
+     * Returns the key of the schema in the schema cache, or null when the
+     * schema is not cached. Schemas provided by the user are cached for the
+     * duration of a query: the fragments of the query share the schema,
+     * instead of each reading the schema file again. The key includes the
+     * modification time of the schema file, so a file replaced during the
+     * transaction is read again. Schemas read from the data files or
+     * generated for writes are not cached, fetching the status of the data
+     * file would cost as much as reading its header.
+     *
+     * @param context            the context for the request
+     * @param hcfsType           the type of hadoop-compatible filesystem we are accessing
+     * @param userProvidedSchema the schema provided by the user, if any
+     * @return the key of the schema, or null
+     * @throws IOException when the status of the file can't be read
+     */
+    private String getSchemaCacheKey(RequestContext context, HcfsType hcfsType, String userProvidedSchema) throws IOException {
+        if (context.getTransactionId() == null || userProvidedSchema == null) {
+            return null;
+        }
+        return String.format("%s:%s:%s:%s:%d",
+                context.getTransactionId(),
+                context.getServerName(),
+                context.getUser(),
+                userProvidedSchema,
+                getModificationTime(context.getConfiguration(), hcfsType, userProvidedSchema));
+    }
+
+    /**
+     * Returns the modification time of the schema file provided by the user.
+     * The file is looked up on the local disk first, the same way the schema
+     * file readers do.
+     *
+     * @param configuration the configuration for the request
+     * @param hcfsType      the type of hadoop-compatible filesystem we are accessing
+     * @param schemaFile    the schema file provided by the user
+     * @return the modification time of the file
+     * @throws IOException when the status of the file can't be read
+     */
+    private long getModificationTime(Configuration configuration, HcfsType hcfsType, String schemaFile) throws IOException {
+        File file = fileSearcher.searchForFile(schemaFile);
+        if (file != null) {
+            return file.lastModified();
+        }
+        Path path = new Path(hcfsType.getDataUri(configuration, schemaFile));
+        return path.getFileSystem(configuration).getFileStatus(path).getModificationTime();
+    }
+
+    /**
+     * Builds the reader schema for a read with column projection. The reader
+     * schema only keeps the fields of the record schema that map to projected
+     * columns, so the decoder skips the values of the other fields instead of
+     * materializing them. The fields map to the columns of the table by
+     * position. The record schema is returned unchanged when every column is
+     * projected, or when its fields don't map one to one to the columns.
+     *
+     * @param schema           the record schema of the Avro data
+     * @param tupleDescription the columns of the table
+     * @return the projected reader schema
+     */
+    public Schema buildProjectedSchema(Schema schema, List<ColumnDescriptor> tupleDescription) {
+        if (schema.getType() != Schema.Type.RECORD ||
+                tupleDescription == null ||
+                schema.getFields().size() != tupleDescription.size() ||
+                tupleDescription.stream().allMatch(ColumnDescriptor::isProjected)) {
+            return schema;
+        }
+
+        List<Schema.Field> projectedFields = new ArrayList<>();
+        for (Schema.Field field : schema.getFields()) {
+            if (tupleDescription.get(field.pos()).isProjected()) {
+                // a field can only belong to one schema, so it is copied
+                projectedFields.add(new Schema.Field(field, field.schema()));
+            }
+        }
+        LOG.debug("Projecting {} out of {} fields of Avro schema {}",
+                projectedFields.size(), schema.getFields().size(), schema.getFullName());
+
+        // the reader schema keeps the name of the record to resolve against the writer schema
+        Schema projectedSchema = Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(), schema.isError());
+        projectedSchema.setFields(projectedFields);
+        for (String alias : schema.getAliases()) {
+            projectedSchema.addAlias(alias);
+        }
+        return projectedSchema;
+    }
+
     /**
      * Parse a Postgres external format into a given Avro schema
      *
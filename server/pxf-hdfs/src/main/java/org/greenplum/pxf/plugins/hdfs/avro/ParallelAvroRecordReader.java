@@ -0,0 +1,345 @@
+package org.greenplum.pxf.plugins.hdfs.avro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.SeekableByteArrayInput;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.mapred.AvroJob;
+import org.apache.avro.mapred.AvroWrapper;
+import org.apache.avro.mapred.FsInput;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A {@link RecordReader} for Avro container files that decompresses and
+ * decodes the blocks of a split in parallel. The blocks of the split are read
+ * in file order on the calling thread, and each block is decompressed and
+ * decoded into records by a task on the threads of the
+ * {@link PluginTaskExecutor}, so that several blocks are decoded while the
+ * records of the current block are consumed. Records are returned in file
+ * order.
+ * <p>
+ * A split owns the blocks whose preceding sync marker starts in the split,
+ * the same blocks {@link org.apache.avro.mapred.AvroRecordReader} reads. The
+ * blocks that are read ahead are limited in count, in the number of records
+ * they decode into, and in their total size in the file, which is also
+ * reserved from the memory budget shared by the service.
+ * <p>
+ * This class is not thread-safe; it is meant to be used by a single reader.
+ */
+public class ParallelAvroRecordReader<T> implements RecordReader<AvroWrapper<T>, NullWritable> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelAvroRecordReader.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // a zig-zag encoded long takes at most 10 bytes
+    private static final int MAX_VARINT_SIZE = 10;
+
+    private final JobConf jobConf;
+    private final Schema readerSchema;
+    private final DataFileStream.Header header;
+    private final PluginTaskExecutor taskExecutor;
+    private final ExecutorService executor;
+    private final int maxBlocksInFlight;
+    private final long maxRecordsInFlight;
+    private final long memoryBudget;
+    private final long start;
+    private final long end;
+    private final long fileLength;
+    private final InputStream in;
+    private final Deque<PendingBlock> pendingBlocks = new ArrayDeque<>();
+
+    private long position;
+    private long bufferedBytes;
+    private long recordsInFlight;
+    private byte[] nextBlock;
+    private long nextBlockCount;
+    private boolean endOfSplit;
+    private List<T> currentRecords;
+    private int currentIndex;
+
+    /**
+     * Creates a new reader for the split
+     *
+     * @param jobConf           the job configuration, with the reader schema set by {@link AvroJob#setInputSchema}
+     * @param split              the split to read
+     * @param taskExecutor       the executor that decodes the blocks, and provides the shared memory budget
+     * @param threads            the maximum number of blocks that are decoded at once
+     * @param maxBlocksInFlight  the maximum number of blocks that are read ahead
+     * @param maxRecordsInFlight the maximum number of records in the blocks that are read ahead
+     * @param memoryBudget       the maximum total size, in the file, of the blocks that are read ahead
+     * @throws IOException when the header of the file can't be read
+     */
+    public ParallelAvroRecordReader(JobConf jobConf,
+                                    FileSplit split,
+                                    PluginTaskExecutor taskExecutor,
+                                    int threads,
+                                    int maxBlocksInFlight,
+                                    long maxRecordsInFlight,
+                                    long memoryBudget) throws IOException {
+        this.jobConf = jobConf;
+        this.readerSchema = AvroJob.getInputSchema(jobConf);
+        this.taskExecutor = taskExecutor;
+        this.executor = taskExecutor.newExecutor(threads);
+        this.maxBlocksInFlight = Math.max(1, maxBlocksInFlight);
+        this.maxRecordsInFlight = maxRecordsInFlight;
+        this.memoryBudget = memoryBudget;
+        this.start = split.getStart();
+        this.end = split.getStart() + split.getLength();
+
+        // the header and the first sync marker of the split are located by
+        // the Avro reader, the blocks are then read without decoding them
+        try (DataFileReader<T> headerReader = new DataFileReader<>(new FsInput(split.getPath(), jobConf), newDatumReader())) {
+            header = headerReader.getHeader();
+            headerReader.sync(start);
+            position = headerReader.previousSync();
+        }
+
+        FileSystem fs = split.getPath().getFileSystem(jobConf);
+        fileLength = fs.getFileStatus(split.getPath()).getLen();
+        FSDataInputStream fileStream = fs.open(split.getPath());
+        fileStream.seek(position);
+        in = new BufferedInputStream(fileStream, BUFFER_SIZE);
+        LOG.debug("Reading Avro blocks of {} from position {} to {} with up to {} blocks in flight",
+                split.getPath(), position, end, this.maxBlocksInFlight);
+    }
+
+    @Override
+    public boolean next(AvroWrapper<T> wrapper, NullWritable ignore) throws IOException {
+        while (currentRecords == null || currentIndex >= currentRecords.size()) {
+            currentRecords = null;
+            fill();
+            PendingBlock block = pendingBlocks.poll();
+            if (block == null) {
+                return false;
+            }
+            release(block);
+            currentRecords = await(block.records);
+            currentIndex = 0;
+        }
+        wrapper.datum(currentRecords.get(currentIndex++));
+        return true;
+    }
+
+    @Override
+    public AvroWrapper<T> createKey() {
+        return new AvroWrapper<>(null);
+    }
+
+    @Override
+    public NullWritable createValue() {
+        return NullWritable.get();
+    }
+
+    @Override
+    public long getPos() {
+        return position;
+    }
+
+    @Override
+    public float getProgress() {
+        if (end == start) {
+            return 0.0f;
+        }
+        return Math.min(1.0f, (position - start) / (float) (end - start));
+    }
+
+    /**
+     * Cancels the blocks that are still being decoded and closes the file
+     *
+     * @throws IOException when the file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        for (PendingBlock block : pendingBlocks) {
+            block.records.cancel(true);
+            release(block);
+        }
+        pendingBlocks.clear();
+        currentRecords = null;
+        in.close();
+    }
+
+    /**
+     * Reads blocks ahead of the reader and submits them for decoding, as long
+     * as the blocks in flight stay within their maximum count, their maximum
+     * number of records and the memory budgets. A block is always submitted
+     * when none is in flight, so a block larger than the budgets is still
+     * read.
+     *
+     * @throws IOException when the blocks can't be read
+     */
+    private void fill() throws IOException {
+        while (pendingBlocks.size() < maxBlocksInFlight) {
+            if (nextBlock == null) {
+                nextBlock = readRawBlock();
+                if (nextBlock == null) {
+                    return;
+                }
+            }
+            boolean reserved = false;
+            if (!pendingBlocks.isEmpty()) {
+                if (bufferedBytes + nextBlock.length > memoryBudget ||
+                        recordsInFlight + nextBlockCount > maxRecordsInFlight ||
+                        !taskExecutor.tryReserveMemory(nextBlock.length)) {
+                    return;
+                }
+                reserved = true;
+            }
+            byte[] block = nextBlock;
+            nextBlock = null;
+            bufferedBytes += block.length;
+            recordsInFlight += nextBlockCount;
+            pendingBlocks.add(new PendingBlock(block.length, nextBlockCount, reserved, executor.submit(() -> decode(block))));
+        }
+    }
+
+    private void release(PendingBlock block) {
+        bufferedBytes -= block.size;
+        recordsInFlight -= block.recordCount;
+        if (block.reserved) {
+            taskExecutor.releaseMemory(block.size);
+        }
+    }
+
+    /**
+     * Reads the next block of the split as it is stored in the file: the
+     * number of records, the size of the data, the data and the sync marker.
+     * The number of records of the block is kept in {@code nextBlockCount}.
+     *
+     * @return the bytes of the block, or null when the split has no more blocks
+     * @throws IOException when the block can't be read
+     */
+    private byte[] readRawBlock() throws IOException {
+        // the block belongs to the next split when its sync marker starts past the end
+        if (endOfSplit || position >= fileLength || position >= end + DataFileConstants.SYNC_SIZE) {
+            endOfSplit = true;
+            return null;
+        }
+
+        ByteArrayOutputStream prefix = new ByteArrayOutputStream(2 * MAX_VARINT_SIZE);
+        long blockCount = readLong(prefix);
+        long blockSize = readLong(prefix);
+        if (blockCount < 0 || blockSize < 0 || blockSize > Integer.MAX_VALUE - prefix.size() - DataFileConstants.SYNC_SIZE) {
+            throw new IOException(String.format("Invalid Avro block at position %d: %d records of %d bytes",
+                    position, blockCount, blockSize));
+        }
+
+        byte[] block = Arrays.copyOf(prefix.toByteArray(), prefix.size() + (int) blockSize + DataFileConstants.SYNC_SIZE);
+        readFully(block, prefix.size(), block.length - prefix.size());
+        position += block.length;
+        nextBlockCount = blockCount;
+        return block;
+    }
+
+    /**
+     * Decompresses and decodes the records of a block. Every block is decoded
+     * by its own reader, with its own instance of the codec of the file.
+     *
+     * @param block the bytes of the block
+     * @return the records of the block
+     * @throws IOException when the block can't be decoded
+     */
+    private List<T> decode(byte[] block) throws IOException {
+        List<T> records = new ArrayList<>();
+        try (DataFileReader<T> blockReader = DataFileReader.openReader(new SeekableByteArrayInput(block), newDatumReader(), header, false)) {
+            while (blockReader.hasNext()) {
+                records.add(blockReader.next());
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Creates a reader for the datums of the file, with the data model and
+     * the reader schema of the job, like the Avro record reader does
+     */
+    @SuppressWarnings("unchecked")
+    private DatumReader<T> newDatumReader() {
+        GenericData dataModel = AvroJob.createInputDataModel(jobConf);
+        return dataModel.createDatumReader(readerSchema);
+    }
+
+    private List<T> await(Future<List<T>> records) throws IOException {
+        try {
+            return records.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for decoded Avro blocks");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    /**
+     * Reads a zig-zag encoded long, copying its bytes to the given stream
+     */
+    private long readLong(ByteArrayOutputStream copy) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 7 * MAX_VARINT_SIZE; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException(String.format("Unexpected end of Avro file at position %d", position));
+            }
+            copy.write(b);
+            value |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return (value >>> 1) ^ -(value & 1);
+            }
+        }
+        throw new IOException(String.format("Invalid long encoding in Avro block at position %d", position));
+    }
+
+    private void readFully(byte[] buffer, int offset, int length) throws IOException {
+        while (length > 0) {
+            int read = in.read(buffer, offset, length);
+            if (read < 0) {
+                throw new EOFException(String.format("Unexpected end of Avro file at position %d", position));
+            }
+            offset += read;
+            length -= read;
+        }
+    }
+
+    private class PendingBlock {
+        private final long size;
+        private final long recordCount;
+        // whether the size of the block is reserved from the shared memory budget
+        private final boolean reserved;
+        private final Future<List<T>> records;
+
+        PendingBlock(long size, long recordCount, boolean reserved, Future<List<T>> records) {
+            this.size = size;
+            this.recordCount = recordCount;
+            this.reserved = reserved;
+            this.records = records;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package org.greenplum.pxf.plugins.hdfs.compression;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A stream of the decompressed data of a BGZF file, that inflates the blocks
+ * of the file in parallel. A BGZF file is a gzip file made of gzip members of
+ * at most 64KB, whose header stores the size of the member in a "BC" extra
+ * subfield, so that the members can be found without inflating them. The
+ * files written by bgzip and by the BGZF writers of htslib and Biopython are
+ * BGZF files, and they are valid gzip files.
+ * <p>
+ * The blocks are read in file order on the calling thread, and each block is
+ * inflated by a task on the given executor, so that several blocks are
+ * inflated while the data of the current block is read. The data is returned
+ * in file order.
+ * <p>
+ * This class is not thread-safe; it is meant to be used by a single reader.
+ */
+public class BgzfInputStream extends DecompressedInputStream {
+
+    private static final int ID1 = 0x1f;
+    private static final int ID2 = 0x8b;
+    private static final int CM_DEFLATE = 8;
+    // the header of a block only has the extra field
+    private static final int FLG_FEXTRA = 4;
+    // ID1, ID2, CM, FLG, MTIME, XFL, OS and XLEN
+    private static final int FIXED_HEADER_SIZE = 12;
+    // CRC32 and ISIZE
+    private static final int TRAILER_SIZE = 8;
+    private static final int MAX_BLOCK_SIZE = 64 * 1024;
+
+    private final FSDataInputStream in;
+    private final ExecutorService executor;
+    private final int maxPendingBlocks;
+    private final Deque<PendingBlock> pendingBlocks = new ArrayDeque<>();
+    private final byte[] header = new byte[FIXED_HEADER_SIZE];
+    // the position in the file of the next block to read
+    private long nextBlockPosition;
+    private boolean endOfFile;
+    private boolean closed;
+
+    private byte[] block = new byte[0];
+    private int blockLength;
+    private int offset;
+    private long position;
+
+    /**
+     * Returns whether a file is a BGZF file, whose first gzip member has a
+     * "BC" extra subfield
+     *
+     * @param in the stream of the file
+     * @return true if the file is a BGZF file
+     * @throws IOException if the file can't be read
+     */
+    public static boolean isBgzf(FSDataInputStream in) throws IOException {
+        byte[] header = new byte[FIXED_HEADER_SIZE + 6];
+        try {
+            in.readFully(0, header);
+        } catch (EOFException e) {
+            return false;
+        }
+        return (header[0] & 0xff) == ID1 && (header[1] & 0xff) == ID2
+                && header[2] == CM_DEFLATE && header[3] == FLG_FEXTRA
+                && readShort(header, 10) >= 6
+                && header[12] == 'B' && header[13] == 'C' && readShort(header, 14) == 2;
+    }
+
+    /**
+     * Creates a stream of the decompressed data of a BGZF file
+     *
+     * @param in               the stream of the file, at its start
+     * @param executor         the executor that inflates the blocks
+     * @param maxPendingBlocks the maximum number of blocks inflated ahead of the reads
+     * @throws IOException if the position of the stream can't be read
+     */
+    public BgzfInputStream(FSDataInputStream in, ExecutorService executor, int maxPendingBlocks) throws IOException {
+        this.in = in;
+        this.executor = executor;
+        this.maxPendingBlocks = Math.max(1, maxPendingBlocks);
+        this.nextBlockPosition = in.getPos();
+        this.position = nextBlockPosition;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextBlock()) {
+            return -1;
+        }
+        int n = Math.min(len, blockLength - offset);
+        System.arraycopy(block, offset, b, off, n);
+        offset += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return blockLength - offset;
+    }
+
+    /**
+     * @return the position in the file of the end of the block being read
+     */
+    @Override
+    public long getPos() {
+        return position;
+    }
+
+    /**
+     * Cancels the blocks that are inflated ahead and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (PendingBlock pendingBlock : pendingBlocks) {
+            pendingBlock.data.cancel(true);
+        }
+        pendingBlocks.clear();
+        in.close();
+    }
+
+    /**
+     * Makes the current block a block with unread data
+     *
+     * @return false if the end of the file was reached
+     */
+    private boolean nextBlock() throws IOException {
+        while (offset == blockLength) {
+            while (!endOfFile && pendingBlocks.size() < maxPendingBlocks) {
+                readBlock();
+            }
+            PendingBlock pendingBlock = pendingBlocks.poll();
+            if (pendingBlock == null) {
+                return false;
+            }
+            block = await(pendingBlock.data);
+            blockLength = pendingBlock.size;
+            offset = 0;
+            position = pendingBlock.end;
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next block of the file and submits the task that inflates it
+     */
+    private void readBlock() throws IOException {
+        long blockPosition = nextBlockPosition;
+        int n = in.read(header, 0, 1);
+        if (n < 0) {
+            endOfFile = true;
+            return;
+        }
+        readFully(header, 1, FIXED_HEADER_SIZE - 1, blockPosition);
+        if ((header[0] & 0xff) != ID1 || (header[1] & 0xff) != ID2 || header[2] != CM_DEFLATE
+                || header[3] != FLG_FEXTRA) {
+            throw new IOException(String.format("Invalid BGZF block header at position %d", blockPosition));
+        }
+
+        int extraLength = readShort(header, 10);
+        byte[] extra = new byte[extraLength];
+        readFully(extra, 0, extraLength, blockPosition);
+        int blockSize = findBlockSize(extra) + 1;
+        int dataLength = blockSize - FIXED_HEADER_SIZE - extraLength - TRAILER_SIZE;
+        if (dataLength < 0) {
+            throw new IOException(String.format("Invalid BGZF block size %d at position %d", blockSize, blockPosition));
+        }
+
+        byte[] data = new byte[dataLength + TRAILER_SIZE];
+        readFully(data, 0, data.length, blockPosition);
+        int crc = readInt(data, dataLength);
+        int size = readInt(data, dataLength + 4);
+        if (size < 0 || size > MAX_BLOCK_SIZE) {
+            throw new IOException(String.format("Invalid BGZF block data size %d at position %d", size, blockPosition));
+        }
+
+        nextBlockPosition = blockPosition + blockSize;
+        Future<byte[]> inflated = executor.submit(() -> inflate(data, dataLength, crc, size, blockPosition));
+        pendingBlocks.add(new PendingBlock(inflated, size, nextBlockPosition));
+    }
+
+    /**
+     * Finds the size of the block, minus one, in the "BC" subfield of the
+     * extra field of the header of the block
+     */
+    private int findBlockSize(byte[] extra) throws IOException {
+        int i = 0;
+        while (i + 4 <= extra.length) {
+            int length = readShort(extra, i + 2);
+            if (extra[i] == 'B' && extra[i + 1] == 'C' && length == 2 && i + 6 <= extra.length) {
+                return readShort(extra, i + 4);
+            }
+            i += 4 + length;
+        }
+        throw new IOException(String.format("Missing BGZF block size at position %d", nextBlockPosition));
+    }
+
+    /**
+     * Inflates the data of a block and checks its size and CRC
+     */
+    private static byte[] inflate(byte[] data, int dataLength, int crc, int size, long blockPosition) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data, 0, dataLength);
+            // one more byte to detect blocks larger than their size
+            byte[] result = new byte[size + 1];
+            int length = 0;
+            while (!inflater.finished()) {
+                int n = inflater.inflate(result, length, result.length - length);
+                if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new EOFException(String.format("Truncated BGZF block at position %d", blockPosition));
+                }
+                length += n;
+                if (length > size) {
+                    break;
+                }
+            }
+            if (length != size) {
+                throw new IOException(String.format("Invalid BGZF block data size at position %d, expected %d bytes",
+                        blockPosition, size));
+            }
+            CRC32 crc32 = new CRC32();
+            crc32.update(result, 0, size);
+            if ((int) crc32.getValue() != crc) {
+                throw new IOException(String.format("CRC mismatch in BGZF block at position %d", blockPosition));
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IOException(String.format("Invalid deflate data in BGZF block at position %d", blockPosition), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private byte[] await(Future<byte[]> data) throws IOException {
+        try {
+            return data.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for inflated BGZF blocks");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    private void readFully(byte[] buffer, int offset, int length, long blockPosition) throws IOException {
+        while (length > 0) {
+            int read = in.read(buffer, offset, length);
+            if (read < 0) {
+                throw new EOFException(String.format("Unexpected end of BGZF file in block at position %d", blockPosition));
+            }
+            offset += read;
+            length -= read;
+        }
+    }
+
+    private static int readShort(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xff) | (buffer[offset + 1] & 0xff) << 8;
+    }
+
+    private static int readInt(byte[] buffer, int offset) {
+        return readShort(buffer, offset) | readShort(buffer, offset + 2) << 16;
+    }
+
+    private static class PendingBlock {
+        private final Future<byte[]> data;
+        private final int size;
+        // the position in the file of the end of the block
+        private final long end;
+
+        PendingBlock(Future<byte[]> data, int size, long end) {
+            this.data = data;
+            this.size = size;
+            this.end = end;
+        }
+    }
+}
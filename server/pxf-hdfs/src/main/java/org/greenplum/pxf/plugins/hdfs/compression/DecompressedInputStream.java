@@ -0,0 +1,79 @@
+package org.greenplum.pxf.plugins.hdfs.compression;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.Seekable;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.hadoop.io.compress.GzipCodec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A stream of the decompressed data of a compressed file, that decompresses
+ * the file on other threads than the thread reading the stream. Like the
+ * Hadoop compression streams, the position of the stream is the position in
+ * the compressed file, and the stream can't seek.
+ */
+public abstract class DecompressedInputStream extends InputStream implements Seekable {
+
+    /**
+     * Creates a stream that decompresses a whole file with the given codec.
+     * Gzip files made of BGZF blocks are decompressed block by block in
+     * parallel, the other files are decompressed by the codec on a single
+     * thread, ahead of the reads of the stream.
+     *
+     * @param fileIn       the stream of the compressed file, at its start
+     * @param codec        the codec of the file
+     * @param decompressor the decompressor of the codec
+     * @param executor     the executor that runs the decompression tasks
+     * @param threads      the number of threads of the executor that decompress BGZF blocks
+     * @return the stream of the decompressed data
+     * @throws IOException if the file can't be read
+     */
+    public static DecompressedInputStream create(FSDataInputStream fileIn, CompressionCodec codec,
+                                                 Decompressor decompressor, ExecutorService executor,
+                                                 int threads) throws IOException {
+        if (codec instanceof GzipCodec && BgzfInputStream.isBgzf(fileIn)) {
+            return new BgzfInputStream(fileIn, executor, 2 * threads);
+        }
+        return new ReadAheadInputStream(codec.createInputStream(fileIn, decompressor), fileIn, executor);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n;
+        do {
+            n = read(b, 0, 1);
+        } while (n == 0);
+        return n < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public abstract int read(byte[] b, int off, int len) throws IOException;
+
+    /**
+     * @return the position in the compressed file of the end of the data
+     * that was returned by the last read
+     */
+    @Override
+    public abstract long getPos() throws IOException;
+
+    /**
+     * This method is not supported
+     */
+    @Override
+    public void seek(long pos) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * This method is not supported
+     */
+    @Override
+    public boolean seekToNewSource(long targetPos) {
+        throw new UnsupportedOperationException();
+    }
+}
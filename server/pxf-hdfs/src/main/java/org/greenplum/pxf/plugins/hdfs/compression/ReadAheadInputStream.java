@@ -0,0 +1,257 @@
+package org.greenplum.pxf.plugins.hdfs.compression;
+
+import org.apache.hadoop.fs.Seekable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A stream that reads another stream ahead on the threads of an executor, so
+ * that the data of a compressed file is decompressed while the data that was
+ * already decompressed is parsed. The data is read into a fixed number of
+ * buffers, that are handed over to the reader of the stream and recycled once
+ * it is done with them.
+ * <p>
+ * The wrapped stream is read by tasks that fill the free buffers and end when
+ * there is no free buffer left; a new task is submitted when the reader frees
+ * a buffer. A reader that doesn't keep up with the data never holds a thread
+ * of the executor.
+ * <p>
+ * Every buffer is filled by a single read of the wrapped stream, and keeps
+ * the position of the position source after that read, so that the position
+ * of this stream is the position the source had when the data being read was
+ * decompressed. The splittable Hadoop codecs rely on short reads at the
+ * boundaries of their blocks to report their position.
+ * <p>
+ * This class is not thread-safe; it is meant to be used by a single reader.
+ */
+public class ReadAheadInputStream extends DecompressedInputStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int BUFFER_COUNT = 16;
+
+    private final InputStream in;
+    private final Seekable positionSource;
+    private final ExecutorService executor;
+    private final BlockingQueue<byte[]> freeBuffers = new ArrayBlockingQueue<>(BUFFER_COUNT);
+    // the filled buffers, and the end of the stream or its failure
+    private final BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(BUFFER_COUNT + 1);
+    private final Object lock = new Object();
+    private volatile boolean closed;
+
+    // guarded by lock: whether a task is submitted, whether it reads the
+    // wrapped stream, and whether the end of the stream or a failure was reached
+    private boolean producing;
+    private boolean running;
+    private boolean finished;
+    private Future<?> producer;
+
+    private Chunk current;
+    private int offset;
+    private long position;
+    private boolean endOfStream;
+    private Throwable failure;
+
+    /**
+     * Creates a stream that starts reading the given stream ahead
+     *
+     * @param in             the stream to read
+     * @param positionSource the source of the position of the stream
+     * @param executor       the executor that runs the reads of the stream
+     * @throws IOException if the position of the source can't be read
+     */
+    public ReadAheadInputStream(InputStream in, Seekable positionSource, ExecutorService executor) throws IOException {
+        this.in = in;
+        this.positionSource = positionSource;
+        this.executor = executor;
+        this.position = positionSource.getPos();
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            freeBuffers.add(new byte[BUFFER_SIZE]);
+        }
+        schedule();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int n = Math.min(len, current.length - offset);
+        System.arraycopy(current.data, offset, b, off, n);
+        offset += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current == null ? 0 : current.length - offset;
+    }
+
+    @Override
+    public long getPos() {
+        return position;
+    }
+
+    /**
+     * Stops reading ahead and closes the wrapped stream, once the task
+     * reading it is done with it.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean interrupted = false;
+        synchronized (lock) {
+            if (producer != null) {
+                producer.cancel(true);
+            }
+            // a task that didn't start yet won't read the stream once it sees the close
+            while (running) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        in.close();
+    }
+
+    /**
+     * Makes the current chunk a chunk with unread data
+     *
+     * @return false if the end of the stream was reached
+     */
+    private boolean nextChunk() throws IOException {
+        while (current == null || offset == current.length) {
+            if (current != null) {
+                freeBuffers.add(current.data);
+                current = null;
+                schedule();
+            }
+            if (failure != null) {
+                throw failure instanceof IOException ? (IOException) failure : new IOException(failure);
+            }
+            if (endOfStream) {
+                return false;
+            }
+
+            Chunk chunk;
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for decompressed data");
+            }
+            if (chunk.data == null) {
+                failure = chunk.failure;
+                endOfStream = failure == null;
+            } else {
+                current = chunk;
+                offset = 0;
+                position = chunk.position;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Submits a task that reads the stream into the free buffers, unless one
+     * is already submitted, or the end of the stream was reached
+     */
+    private void schedule() {
+        synchronized (lock) {
+            if (producing || finished || closed) {
+                return;
+            }
+            producing = true;
+            try {
+                producer = executor.submit(this::produce);
+            } catch (RejectedExecutionException e) {
+                producing = false;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Reads the stream into the free buffers until there is no free buffer
+     * left, or until the end of the stream, a failure or the close of this
+     * stream.
+     */
+    private void produce() {
+        synchronized (lock) {
+            if (closed) {
+                producing = false;
+                return;
+            }
+            running = true;
+        }
+        Chunk last = null;
+        try {
+            byte[] buffer;
+            while (!closed && (buffer = freeBuffers.poll()) != null) {
+                int n;
+                do {
+                    n = in.read(buffer, 0, buffer.length);
+                } while (n == 0);
+                if (n < 0) {
+                    last = new Chunk(null, 0, 0, null);
+                    break;
+                }
+                chunks.add(new Chunk(buffer, n, positionSource.getPos(), null));
+            }
+        } catch (IOException | RuntimeException e) {
+            last = new Chunk(null, 0, 0, e);
+        }
+        synchronized (lock) {
+            if (last != null) {
+                finished = true;
+                // there is always room for the end, the queue holds one more chunk than there are buffers
+                chunks.add(last);
+            }
+            producing = false;
+            running = false;
+            lock.notifyAll();
+        }
+        // the reader may have freed a buffer after the last poll, while this task was still submitted
+        if (!freeBuffers.isEmpty()) {
+            schedule();
+        }
+    }
+
+    /**
+     * The data of a read of the wrapped stream, or its end or failure when
+     * there is no data
+     */
+    private static class Chunk {
+        private final byte[] data;
+        private final int length;
+        private final long position;
+        private final Throwable failure;
+
+        Chunk(byte[] data, int length, long position, Throwable failure) {
+            this.data = data;
+            this.length = length;
+            this.position = position;
+            this.failure = failure;
+        }
+    }
+}
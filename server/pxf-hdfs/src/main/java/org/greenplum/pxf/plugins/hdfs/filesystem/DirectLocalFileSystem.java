@@ -0,0 +1,54 @@
+package org.greenplum.pxf.plugins.hdfs.filesystem;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * A local filesystem that reads files through a {@link java.nio.channels.FileChannel}
+ * into a large direct buffer. Unlike the {@link org.apache.hadoop.fs.LocalFileSystem}
+ * that Hadoop uses for the file scheme by default, it doesn't read nor verify
+ * the .crc checksum files, and it doesn't copy the data through a
+ * {@link java.io.BufferedInputStream}. Reads larger than the buffer and reads
+ * into a {@link java.nio.ByteBuffer} go straight to the channel.
+ * <p>
+ * The files are written like {@link RawLocalFileSystem} writes them, without
+ * checksum files.
+ */
+public class DirectLocalFileSystem extends RawLocalFileSystem {
+
+    public static final String PXF_FS_FILE_READ_BUFFER_SIZE_PROPERTY = "pxf.fs.file.direct-read.buffer-size";
+    private static final int DEFAULT_READ_BUFFER_SIZE = 1024 * 1024;
+
+    private int readBufferSize = DEFAULT_READ_BUFFER_SIZE;
+
+    @Override
+    public void initialize(URI uri, Configuration conf) throws IOException {
+        super.initialize(uri, conf);
+        readBufferSize = conf.getInt(PXF_FS_FILE_READ_BUFFER_SIZE_PROPERTY, DEFAULT_READ_BUFFER_SIZE);
+        if (readBufferSize <= 0) {
+            throw new IllegalArgumentException(String.format("Property %s has invalid value %d",
+                    PXF_FS_FILE_READ_BUFFER_SIZE_PROPERTY, readBufferSize));
+        }
+    }
+
+    /**
+     * Opens a file for reading. The buffer size requested by the caller is
+     * ignored, the files are read with a buffer of the size of the
+     * `pxf.fs.file.direct-read.buffer-size` property.
+     */
+    @Override
+    public FSDataInputStream open(Path f, int bufferSize) throws IOException {
+        FileStatus status = getFileStatus(f);
+        if (status.isDirectory()) {
+            throw new FileNotFoundException(String.format("%s is a directory", f));
+        }
+        return new FSDataInputStream(new DirectLocalInputStream(pathToFile(f), readBufferSize, statistics));
+    }
+}
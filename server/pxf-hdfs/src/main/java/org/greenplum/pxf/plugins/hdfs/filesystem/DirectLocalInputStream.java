@@ -0,0 +1,190 @@
+package org.greenplum.pxf.plugins.hdfs.filesystem;
+
+import org.apache.hadoop.fs.ByteBufferReadable;
+import org.apache.hadoop.fs.FSExceptionMessages;
+import org.apache.hadoop.fs.FSInputStream;
+import org.apache.hadoop.fs.FileSystem;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A stream of a local file, read with positional reads of a {@link FileChannel}
+ * into a direct buffer. The reads of the stream that are at least as large as
+ * the buffer, the reads into a {@link ByteBuffer} and the positional reads go
+ * straight to the channel when the buffer is empty.
+ * <p>
+ * This class is not thread-safe, except for its positional reads.
+ */
+class DirectLocalInputStream extends FSInputStream implements ByteBufferReadable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final FileSystem.Statistics statistics;
+    // the position in the file of the next byte of the stream
+    private long position;
+    private boolean closed;
+
+    DirectLocalInputStream(File file, int bufferSize, FileSystem.Statistics statistics) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.buffer.limit(0);
+        this.statistics = statistics;
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkNotClosed();
+        if (!buffer.hasRemaining() && fill() < 0) {
+            return -1;
+        }
+        position++;
+        return buffer.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkNotClosed();
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            if (len >= buffer.capacity()) {
+                return readFromChannel(ByteBuffer.wrap(b, off, len));
+            }
+            if (fill() < 0) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, buffer.remaining());
+        buffer.get(b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        checkNotClosed();
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return readFromChannel(dst);
+        }
+        int n = Math.min(dst.remaining(), buffer.remaining());
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(slice.position() + n);
+        dst.put(slice);
+        buffer.position(buffer.position() + n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int read(long pos, byte[] b, int off, int len) throws IOException {
+        checkNotClosed();
+        if (len == 0) {
+            return 0;
+        }
+        int n = channel.read(ByteBuffer.wrap(b, off, len), pos);
+        incrementBytesRead(n);
+        return n;
+    }
+
+    @Override
+    public void seek(long pos) throws IOException {
+        checkNotClosed();
+        if (pos < 0) {
+            throw new EOFException(FSExceptionMessages.NEGATIVE_SEEK);
+        }
+        // keep the buffer when the new position is in it
+        long bufferStart = position - buffer.position();
+        if (pos >= bufferStart && pos <= bufferStart + buffer.limit()) {
+            buffer.position((int) (pos - bufferStart));
+        } else {
+            buffer.limit(0);
+        }
+        position = pos;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        checkNotClosed();
+        if (n <= 0) {
+            return 0;
+        }
+        long skipped = Math.min(n, Math.max(0, channel.size() - position));
+        seek(position + skipped);
+        return skipped;
+    }
+
+    @Override
+    public long getPos() {
+        return position;
+    }
+
+    @Override
+    public boolean seekToNewSource(long targetPos) {
+        return false;
+    }
+
+    @Override
+    public int available() throws IOException {
+        checkNotClosed();
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, channel.size() - position));
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+
+    /**
+     * Fills the buffer from the current position of the stream
+     *
+     * @return the number of bytes read, or -1 at the end of the file
+     */
+    private int fill() throws IOException {
+        buffer.clear();
+        int n;
+        try {
+            n = channel.read(buffer, position);
+        } finally {
+            buffer.flip();
+        }
+        incrementBytesRead(n);
+        return n;
+    }
+
+    /**
+     * Reads from the current position of the stream into the given buffer,
+     * bypassing the buffer of the stream
+     */
+    private int readFromChannel(ByteBuffer dst) throws IOException {
+        int n = channel.read(dst, position);
+        if (n > 0) {
+            position += n;
+            // the buffer of the stream is empty, it starts at the new position
+            buffer.limit(0);
+        }
+        incrementBytesRead(n);
+        return n;
+    }
+
+    private void incrementBytesRead(int n) {
+        if (n > 0 && statistics != null) {
+            statistics.incrementBytesRead(n);
+        }
+    }
+
+    private void checkNotClosed() throws IOException {
+        if (closed) {
+            throw new IOException(FSExceptionMessages.STREAM_IS_CLOSED);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package org.greenplum.pxf.plugins.hdfs.orc;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument.TruthValue;
+import org.apache.hadoop.mapred.InvalidInputException;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.orc.ColumnStatistics;
+import org.apache.orc.DoubleColumnStatistics;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+import org.apache.orc.StripeInformation;
+import org.apache.orc.StripeStatistics;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.impl.RecordReaderImpl;
+import org.apache.orc.impl.SchemaEvolution;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.HdfsDataFragmenter;
+import org.greenplum.pxf.plugins.hdfs.utilities.PxfInputFormat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.greenplum.pxf.plugins.hdfs.orc.ORCVectorizedAccessor.MAP_BY_POSITION_OPTION;
+
+/**
+ * Fragmenter for ORC files. Instead of following HDFS block boundaries,
+ * this fragmenter reads the tail of every file and emits fragments that
+ * consist of whole stripes, grouping consecutive stripes together until the
+ * target fragment size is reached. When a filter is pushed down, the file
+ * and stripe statistics are evaluated against it; stripes that can't contain
+ * matching rows are dropped before any segment is involved, and files with
+ * no remaining stripes produce no fragments at all.
+ * <p>
+ * The resulting fragments carry the byte range spanned by their stripes, so
+ * {@link ORCVectorizedAccessor} reads exactly those stripes.
+ */
+public class ORCFragmenter extends HdfsDataFragmenter {
+
+    public static final String PXF_ORC_FRAGMENT_SIZE_PROPERTY = "pxf.orc.fragment.size";
+    static final String FRAGMENT_SIZE_OPTION = "FRAGMENT_SIZE";
+    static final int DEFAULT_FRAGMENT_SIZE = 128 * 1024 * 1024;
+
+    private long fragmentSize;
+    private boolean positionalAccess;
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        int defaultFragmentSize = configuration.getInt(PXF_ORC_FRAGMENT_SIZE_PROPERTY, DEFAULT_FRAGMENT_SIZE);
+        fragmentSize = context.getOption(FRAGMENT_SIZE_OPTION, defaultFragmentSize, true);
+        positionalAccess = context.getOption(MAP_BY_POSITION_OPTION, false);
+    }
+
+    /**
+     * Gets the fragments for a data source URI that can appear as a file name,
+     * a directory name or a wildcard. Every fragment is a contiguous run of
+     * whole stripes of a single file.
+     */
+    @Override
+    public List<Fragment> getFragments() throws Exception {
+        JobConf jobConf = getJobConf();
+        Path path = new Path(hcfsType.getDataUri(context));
+
+        PxfInputFormat pxfInputFormat = new PxfInputFormat();
+        PxfInputFormat.setInputPaths(jobConf, path);
+
+        FileStatus[] fileStatusArray;
+        try {
+            fileStatusArray = pxfInputFormat.listStatus(jobConf);
+        } catch (InvalidInputException e) {
+            if (StringUtils.equalsIgnoreCase("true", context.getOption(IGNORE_MISSING_PATH_OPTION))) {
+                LOG.debug("Ignoring InvalidInputException", e);
+                return fragments;
+            }
+            throw e;
+        }
+
+        int totalStripes = 0, prunedStripes = 0;
+        for (FileStatus fileStatus : fileStatusArray) {
+            if (fileStatus.getLen() == 0) {
+                continue;
+            }
+
+            try (Reader reader = ORCTailCache.createReader(fileStatus, configuration)) {
+                List<StripeInformation> stripes = reader.getStripes();
+                boolean[] matchingStripes = filterStripes(reader, stripes.size());
+                totalStripes += stripes.size();
+                for (boolean matching : matchingStripes) {
+                    prunedStripes += matching ? 0 : 1;
+                }
+
+                addFragments(fileStatus.getPath().toUri().toString(), stripes, matchingStripes);
+            }
+        }
+
+        LOG.debug("Total number of fragments = {}, stripes = {}, pruned stripes = {}",
+                fragments.size(), totalStripes, prunedStripes);
+        return fragments;
+    }
+
+    /**
+     * Groups the matching stripes of a file into fragments. A fragment is
+     * closed when adding the next stripe would exceed the target size, or
+     * when the next stripe was pruned.
+     *
+     * @param filepath        the path of the file
+     * @param stripes         all the stripes of the file
+     * @param matchingStripes for every stripe, true if it survived pruning
+     */
+    private void addFragments(String filepath, List<StripeInformation> stripes, boolean[] matchingStripes) {
+        long start = -1, end = -1;
+
+        for (int i = 0; i < stripes.size(); i++) {
+            StripeInformation stripe = stripes.get(i);
+            long stripeStart = stripe.getOffset();
+            long stripeEnd = stripeStart + stripe.getLength();
+
+            if (start >= 0 && (!matchingStripes[i] || stripeEnd - start > fragmentSize)) {
+                fragments.add(new Fragment(filepath, new HcfsFragmentMetadata(start, end - start)));
+                start = -1;
+            }
+            if (!matchingStripes[i]) {
+                continue;
+            }
+            if (start < 0) {
+                start = stripeStart;
+            }
+            end = stripeEnd;
+        }
+
+        if (start >= 0) {
+            fragments.add(new Fragment(filepath, new HcfsFragmentMetadata(start, end - start)));
+        }
+    }
+
+    /**
+     * Evaluates the pushed-down filter against the statistics of the file
+     * and of its stripes. If there is no filter, or the filter can't be
+     * evaluated, all stripes match.
+     *
+     * @param reader      the reader of the file
+     * @param stripeCount the number of stripes in the file
+     * @return for every stripe, true if it may contain matching rows
+     */
+    private boolean[] filterStripes(Reader reader, int stripeCount) {
+        boolean[] matchingStripes = new boolean[stripeCount];
+        Arrays.fill(matchingStripes, true);
+
+        String filterString = context.getFilterString();
+        if (StringUtils.isBlank(filterString) || stripeCount == 0) {
+            return matchingStripes;
+        }
+
+        try {
+            TypeDescription schema = reader.getSchema();
+            SearchArgument searchArgument = ORCVectorizedAccessor.getSearchArgument(filterString, schema,
+                    context.getTupleDescription(), positionalAccess, configuration);
+            if (searchArgument == null) {
+                return matchingStripes;
+            }
+            SchemaEvolution evolution = new SchemaEvolution(schema, schema, reader.options());
+            int[] filterColumns = RecordReaderImpl.mapSargColumnsToOrcInternalColIdx(searchArgument.getLeaves(), evolution);
+
+            if (!mayMatch(searchArgument, filterColumns, schema, reader.getStatistics(), reader.getWriterVersion())) {
+                Arrays.fill(matchingStripes, false);
+                return matchingStripes;
+            }
+
+            List<StripeStatistics> stripeStatistics = reader.getStripeStatistics();
+            for (int i = 0; i < stripeCount && i < stripeStatistics.size(); i++) {
+                matchingStripes[i] = mayMatch(searchArgument, filterColumns, schema,
+                        stripeStatistics.get(i).getColumnStatistics(), reader.getWriterVersion());
+            }
+        } catch (Exception e) {
+            LOG.warn(String.format("Unable to prune stripes for filter %s, all stripes will be returned",
+                    filterString), e);
+            Arrays.fill(matchingStripes, true);
+        }
+        return matchingStripes;
+    }
+
+    /**
+     * Returns true unless the statistics show that no row satisfies the
+     * search argument
+     */
+    private boolean mayMatch(SearchArgument searchArgument,
+                             int[] filterColumns,
+                             TypeDescription schema,
+                             ColumnStatistics[] statistics,
+                             OrcFile.WriterVersion writerVersion) {
+        List<PredicateLeaf> leaves = searchArgument.getLeaves();
+        TruthValue[] truthValues = new TruthValue[leaves.size()];
+        for (int i = 0; i < truthValues.length; i++) {
+            int columnId = filterColumns[i];
+            truthValues[i] = columnId > 0 && columnId < statistics.length &&
+                    hasReliableStatistics(schema.findSubtype(columnId), statistics[columnId], writerVersion)
+                    ? RecordReaderImpl.evaluatePredicate(statistics[columnId], leaves.get(i), null)
+                    : TruthValue.YES_NO_NULL;
+        }
+        return searchArgument.evaluate(truthValues).isNeeded();
+    }
+
+    /**
+     * Returns false for statistics that the ORC reader doesn't use for
+     * predicate push-down either
+     */
+    private boolean hasReliableStatistics(TypeDescription type, ColumnStatistics statistics,
+                                          OrcFile.WriterVersion writerVersion) {
+        switch (type.getCategory()) {
+            case TIMESTAMP:
+            case DECIMAL:
+                // the statistics of files written before ORC-135 are not reliable
+                return writerVersion.includes(OrcFile.WriterVersion.ORC_135);
+            case FLOAT:
+            case DOUBLE:
+                // NaN values are not reflected in the minimum and maximum
+                return statistics instanceof DoubleColumnStatistics &&
+                        !Double.isNaN(((DoubleColumnStatistics) statistics).getSum());
+            default:
+                return true;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package org.greenplum.pxf.plugins.hdfs.orc;
+
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.ColumnStatistics;
+import org.apache.orc.DateColumnStatistics;
+import org.apache.orc.DecimalColumnStatistics;
+import org.apache.orc.DoubleColumnStatistics;
+import org.apache.orc.IntegerColumnStatistics;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+import org.apache.orc.StripeInformation;
+import org.apache.orc.StripeStatistics;
+import org.apache.orc.TypeDescription;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Answers aggregates from the statistics of the stripes of an ORC file.
+ * COUNT(*) is answered with the number of rows of the stripes, MIN and MAX
+ * with the minimum and maximum of the column across the stripes, and SUM with
+ * the sum of the column when the statistics keep it. Every stripe whose
+ * offset falls in the range of the fragment is accounted for, the same
+ * stripes the record reader would read for the fragment.
+ * <p>
+ * Only the statistics of integer, floating point, decimal and date columns
+ * are used; the minimum and maximum of strings follow the byte order rather
+ * than the collation of the database, and timestamps depend on the time zone
+ * of the writer.
+ */
+final class ORCStatisticsAggregator {
+
+    /**
+     * Returned when the statistics can't answer the aggregate
+     */
+    static final long UNAVAILABLE = -1;
+
+    private ORCStatisticsAggregator() {
+    }
+
+    /**
+     * Computes the aggregate for the stripes in the given range of the file,
+     * and fills the first row of the batch with it. For COUNT(*), all the
+     * columns of the batch are set to null and the returned number of rows
+     * is the row count of the stripes. For column aggregates, the first
+     * column of the batch is the aggregated column; a single row is returned,
+     * unless the column only has nulls in the range.
+     *
+     * @param aggType the aggregate to compute
+     * @param reader  the reader of the ORC file
+     * @param column  the aggregated column in the schema of the file, or null for COUNT(*)
+     * @param start   the start of the range of the fragment
+     * @param length  the length of the range of the fragment
+     * @param batch   the batch the aggregate is written to
+     * @return the number of rows of the aggregate, or {@link #UNAVAILABLE}
+     * @throws IOException when the statistics of the stripes can't be read
+     */
+    static long aggregate(EnumAggregationType aggType,
+                          Reader reader,
+                          TypeDescription column,
+                          long start,
+                          long length,
+                          VectorizedRowBatch batch) throws IOException {
+        List<StripeInformation> stripes = reader.getStripes();
+
+        if (!aggType.isColumnAggregate()) {
+            long rowCount = 0;
+            for (StripeInformation stripe : stripes) {
+                if (inRange(stripe, start, length)) {
+                    rowCount += stripe.getNumberOfRows();
+                }
+            }
+            for (ColumnVector columnVector : batch.cols) {
+                columnVector.noNulls = false;
+                columnVector.isRepeating = true;
+                columnVector.isNull[0] = true;
+            }
+            return rowCount;
+        }
+
+        if (column == null || batch.cols.length != 1 || !hasUsableStatistics(column, reader.getWriterVersion())) {
+            return UNAVAILABLE;
+        }
+        List<StripeStatistics> stripeStatistics = reader.getStripeStatistics();
+        if (stripeStatistics.size() != stripes.size()) {
+            return UNAVAILABLE;
+        }
+
+        Accumulator accumulator = new Accumulator(aggType);
+        for (int i = 0; i < stripes.size(); i++) {
+            if (!inRange(stripes.get(i), start, length)) {
+                continue;
+            }
+            ColumnStatistics[] statistics = stripeStatistics.get(i).getColumnStatistics();
+            if (column.getId() >= statistics.length || !accumulator.add(column, statistics[column.getId()])) {
+                return UNAVAILABLE;
+            }
+        }
+        if (!accumulator.hasValue) {
+            return 0;
+        }
+        return accumulator.write(column, batch.cols[0]) ? 1 : UNAVAILABLE;
+    }
+
+    /**
+     * Returns true if the stripe is read by the fragment with the given
+     * range, following the rule of the ORC record reader
+     */
+    private static boolean inRange(StripeInformation stripe, long start, long length) {
+        return stripe.getOffset() >= start && stripe.getOffset() < start + length;
+    }
+
+    /**
+     * Returns true for the types whose statistics can answer aggregates
+     */
+    private static boolean hasUsableStatistics(TypeDescription column, OrcFile.WriterVersion writerVersion) {
+        switch (column.getCategory()) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+            case DATE:
+                return true;
+            case DECIMAL:
+                // the statistics of files written before ORC-135 are not reliable
+                return writerVersion.includes(OrcFile.WriterVersion.ORC_135);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Combines the statistics of the stripes into the partial aggregate of
+     * the fragment
+     */
+    private static class Accumulator {
+
+        private final EnumAggregationType aggType;
+        private boolean hasValue;
+        private long longValue;
+        private double doubleValue;
+        private HiveDecimal decimalValue;
+
+        Accumulator(EnumAggregationType aggType) {
+            this.aggType = aggType;
+        }
+
+        /**
+         * Adds the statistics of a stripe, returns false if they can't
+         * answer the aggregate
+         */
+        boolean add(TypeDescription column, ColumnStatistics statistics) {
+            if (statistics.getNumberOfValues() == 0) {
+                // the column only has nulls in this stripe
+                return true;
+            }
+            switch (column.getCategory()) {
+                case BYTE:
+                case SHORT:
+                case INT:
+                case LONG:
+                    if (!(statistics instanceof IntegerColumnStatistics)) {
+                        return false;
+                    }
+                    IntegerColumnStatistics integerStatistics = (IntegerColumnStatistics) statistics;
+                    if (aggType == EnumAggregationType.SUM) {
+                        if (!integerStatistics.isSumDefined()) {
+                            return false;
+                        }
+                        try {
+                            addLong(integerStatistics.getSum());
+                        } catch (ArithmeticException e) {
+                            return false;
+                        }
+                    } else {
+                        addLong(aggType == EnumAggregationType.MIN ? integerStatistics.getMinimum() : integerStatistics.getMaximum());
+                    }
+                    return true;
+                case DATE:
+                    if (!(statistics instanceof DateColumnStatistics) || aggType == EnumAggregationType.SUM) {
+                        return false;
+                    }
+                    DateColumnStatistics dateStatistics = (DateColumnStatistics) statistics;
+                    addLong(aggType == EnumAggregationType.MIN ? dateStatistics.getMinimumDayOfEpoch() : dateStatistics.getMaximumDayOfEpoch());
+                    return true;
+                case FLOAT:
+                case DOUBLE:
+                    if (!(statistics instanceof DoubleColumnStatistics)) {
+                        return false;
+                    }
+                    DoubleColumnStatistics doubleStatistics = (DoubleColumnStatistics) statistics;
+                    // NaN values are not reflected in the minimum and maximum,
+                    // and the sum of float columns loses precision as a float
+                    if (Double.isNaN(doubleStatistics.getSum()) ||
+                            (aggType == EnumAggregationType.SUM && column.getCategory() == TypeDescription.Category.FLOAT)) {
+                        return false;
+                    }
+                    addDouble(aggType == EnumAggregationType.SUM ? doubleStatistics.getSum() :
+                            aggType == EnumAggregationType.MIN ? doubleStatistics.getMinimum() : doubleStatistics.getMaximum());
+                    return true;
+                case DECIMAL:
+                    if (!(statistics instanceof DecimalColumnStatistics)) {
+                        return false;
+                    }
+                    DecimalColumnStatistics decimalStatistics = (DecimalColumnStatistics) statistics;
+                    HiveDecimal value = aggType == EnumAggregationType.SUM ? decimalStatistics.getSum() :
+                            aggType == EnumAggregationType.MIN ? decimalStatistics.getMinimum() : decimalStatistics.getMaximum();
+                    // the sum is not kept when it overflows
+                    if (value == null) {
+                        return false;
+                    }
+                    addDecimal(value);
+                    return decimalValue != null;
+                default:
+                    return false;
+            }
+        }
+
+        private void addLong(long value) {
+            if (!hasValue) {
+                longValue = value;
+            } else if (aggType == EnumAggregationType.SUM) {
+                longValue = Math.addExact(longValue, value);
+            } else if (aggType == EnumAggregationType.MIN) {
+                longValue = Math.min(longValue, value);
+            } else {
+                longValue = Math.max(longValue, value);
+            }
+            hasValue = true;
+        }
+
+        private void addDouble(double value) {
+            if (!hasValue) {
+                doubleValue = value;
+            } else if (aggType == EnumAggregationType.SUM) {
+                doubleValue += value;
+            } else if (aggType == EnumAggregationType.MIN) {
+                doubleValue = Math.min(doubleValue, value);
+            } else {
+                doubleValue = Math.max(doubleValue, value);
+            }
+            hasValue = true;
+        }
+
+        private void addDecimal(HiveDecimal value) {
+            if (!hasValue) {
+                decimalValue = value;
+            } else if (aggType == EnumAggregationType.SUM) {
+                // null when the sum exceeds the maximum precision
+                decimalValue = decimalValue.add(value);
+            } else if (aggType == EnumAggregationType.MIN) {
+                decimalValue = decimalValue.compareTo(value) <= 0 ? decimalValue : value;
+            } else {
+                decimalValue = decimalValue.compareTo(value) >= 0 ? decimalValue : value;
+            }
+            hasValue = true;
+        }
+
+        /**
+         * Writes the aggregate to the first row of the column vector,
+         * returns false if it doesn't fit the type of the column
+         */
+        boolean write(TypeDescription column, ColumnVector columnVector) {
+            columnVector.noNulls = true;
+            columnVector.isRepeating = false;
+            switch (column.getCategory()) {
+                case BYTE:
+                    return writeLong(columnVector, Byte.MIN_VALUE, Byte.MAX_VALUE);
+                case SHORT:
+                    return writeLong(columnVector, Short.MIN_VALUE, Short.MAX_VALUE);
+                case INT:
+                    return writeLong(columnVector, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                case LONG:
+                case DATE:
+                    return writeLong(columnVector, Long.MIN_VALUE, Long.MAX_VALUE);
+                case FLOAT:
+                case DOUBLE:
+                    ((DoubleColumnVector) columnVector).vector[0] = doubleValue;
+                    return true;
+                case DECIMAL:
+                    DecimalColumnVector decimalColumnVector = (DecimalColumnVector) columnVector;
+                    // the vector sets the value to null when it exceeds the precision of the column
+                    decimalColumnVector.set(0, decimalValue);
+                    return !decimalColumnVector.isNull[0];
+                default:
+                    return false;
+            }
+        }
+
+        private boolean writeLong(ColumnVector columnVector, long minValue, long maxValue) {
+            if (longValue < minValue || longValue > maxValue) {
+                return false;
+            }
+            ((LongColumnVector) columnVector).vector[0] = longValue;
+            return true;
+        }
+    }
+}
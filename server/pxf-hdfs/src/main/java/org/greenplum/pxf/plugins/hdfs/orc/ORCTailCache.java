@@ -0,0 +1,140 @@
+package org.greenplum.pxf.plugins.hdfs.orc;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.orc.OrcFile;
+import org.apache.orc.OrcProto;
+import org.apache.orc.Reader;
+import org.apache.orc.impl.OrcTail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the tails (postscript, footer and metadata) of ORC files, so that
+ * the fragmenter and the accessors of every fragment of a file don't fetch
+ * and parse the tail again. The cache is shared by all queries; entries are
+ * keyed by the path, length and modification time of the file, so a file
+ * that is replaced never hits a stale tail. The statistics of the cache are
+ * published to the meter registry of the service as the {@code pxf.orc.tail}
+ * cache.
+ */
+final class ORCTailCache {
+
+    static final String PXF_ORC_TAIL_CACHE_ENABLED_PROPERTY = "pxf.orc.tail-cache.enabled";
+
+    // the total size of the serialized tails in the cache
+    private static final long MAX_CACHE_BYTES = 64L * 1024 * 1024;
+
+    private static final Cache<Key, OrcTail> CACHE = GuavaCacheMetrics.monitor(Metrics.globalRegistry,
+            CacheBuilder.newBuilder()
+                    .maximumWeight(MAX_CACHE_BYTES)
+                    .weigher((Key key, OrcTail tail) -> tail.getSerializedTail().remaining())
+                    .expireAfterAccess(1, TimeUnit.HOURS)
+                    .recordStats()
+                    .build(),
+            "pxf.orc.tail");
+
+    private ORCTailCache() {
+    }
+
+    /**
+     * Creates a reader for the ORC file, using the cached tail of the file
+     * when there is one, and caching the tail read by the reader otherwise.
+     *
+     * @param fileStatus    the status of the ORC file
+     * @param configuration the configuration of the server
+     * @return the reader of the file
+     * @throws IOException when unable to read the tail of the file
+     */
+    static Reader createReader(FileStatus fileStatus, Configuration configuration) throws IOException {
+        Path file = fileStatus.getPath();
+        OrcFile.ReaderOptions options = OrcFile.readerOptions(configuration)
+                .filesystem(file.getFileSystem(configuration))
+                .maxLength(fileStatus.getLen());
+        if (!configuration.getBoolean(PXF_ORC_TAIL_CACHE_ENABLED_PROPERTY, true)) {
+            return OrcFile.createReader(file, options);
+        }
+
+        Key key = new Key(file.toString(), fileStatus.getLen(), fileStatus.getModificationTime());
+        OrcTail tail = CACHE.getIfPresent(key);
+        if (tail != null) {
+            return OrcFile.createReader(file, options.orcTail(tail));
+        }
+
+        Reader reader = OrcFile.createReader(file, options);
+        CACHE.put(key, new OrcTail(reader.getFileTail(), getSerializedTail(reader),
+                fileStatus.getModificationTime()));
+        return reader;
+    }
+
+    /**
+     * Returns the serialized tail of the file, starting at the stripe
+     * statistics. The buffer read by the reader may hold more bytes than the
+     * tail, but {@link OrcTail} expects the buffer to start at the stripe
+     * statistics.
+     *
+     * @param reader the reader of the file
+     * @return the serialized tail of the file
+     */
+    private static ByteBuffer getSerializedTail(Reader reader) {
+        OrcProto.FileTail fileTail = reader.getFileTail();
+        OrcProto.PostScript postScript = fileTail.getPostscript();
+        long tailLength = 1 + fileTail.getPostscriptLength() + postScript.getFooterLength()
+                + postScript.getMetadataLength() + postScript.getStripeStatisticsLength();
+        ByteBuffer buffer = reader.getSerializedFileFooter().duplicate();
+        buffer.position(buffer.limit() - (int) tailLength);
+        return buffer.slice();
+    }
+
+    /**
+     * Returns the hit and miss counts of the cache
+     *
+     * @return the statistics of the cache
+     */
+    static CacheStats stats() {
+        return CACHE.stats();
+    }
+
+    /**
+     * Discards all the cached tails
+     */
+    static void invalidateAll() {
+        CACHE.invalidateAll();
+    }
+
+    private static final class Key {
+        private final String path;
+        private final long length;
+        private final long modificationTime;
+
+        Key(String path, long length, long modificationTime) {
+            this.path = path;
+            this.length = length;
+            this.modificationTime = modificationTime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return length == key.length &&
+                    modificationTime == key.modificationTime &&
+                    path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, length, modificationTime);
+        }
+    }
+}
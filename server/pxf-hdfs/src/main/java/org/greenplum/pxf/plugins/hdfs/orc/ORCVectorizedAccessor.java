@@ -1,25 +1,36 @@
 package org.greenplum.pxf.plugins.hdfs.orc;
 
+import com.google.common.cache.CacheStats;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.mapred.FileSplit;
+import org.apache.orc.CompressionKind;
+import org.apache.orc.OrcConf;
 import org.apache.orc.OrcFile;
 import org.apache.orc.Reader;
 import org.apache.orc.RecordReader;
 import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.StatsAccessor;
+import org.greenplum.pxf.api.error.UnsupportedTypeException;
 import org.greenplum.pxf.api.filter.FilterParser;
 import org.greenplum.pxf.api.filter.Node;
 import org.greenplum.pxf.api.filter.Operator;
 import org.greenplum.pxf.api.filter.SupportedOperatorPruner;
 import org.greenplum.pxf.api.filter.TreeTraverser;
 import org.greenplum.pxf.api.filter.TreeVisitor;
-import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.Utilities;
+import org.greenplum.pxf.plugins.hdfs.HcfsType;
 import org.greenplum.pxf.plugins.hdfs.filter.BPCharOperatorTransformer;
 import org.greenplum.pxf.plugins.hdfs.filter.SearchArgumentBuilder;
 import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
@@ -31,10 +42,17 @@ import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.IntStream;
 
-public class ORCVectorizedAccessor extends BasePlugin implements Accessor {
+/**
+ * Accessor for ORC files that reads and writes batches of rows. Aggregate
+ * queries without a filter are answered from the statistics of the stripes
+ * of the fragment, see {@link ORCStatisticsAggregator}; the stripes are only
+ * read when their statistics can't answer the aggregate.
+ */
+public class ORCVectorizedAccessor extends BasePlugin implements StatsAccessor {
 
     public static final EnumSet<Operator> SUPPORTED_OPERATORS =
             EnumSet.of(
@@ -57,7 +75,10 @@ public class ORCVectorizedAccessor extends BasePlugin implements Accessor {
     private static final TreeTraverser TRAVERSER = new TreeTraverser();
 
     static final String MAP_BY_POSITION_OPTION = "MAP_BY_POSITION";
-    private static final String UNSUPPORTED_ERR_MESSAGE = "Write operation is not supported";
+    static final String COMPRESSION_CODEC_OPTION = "COMPRESSION_CODEC";
+    static final String STRIPE_SIZE_OPTION = "STRIPE_SIZE";
+    static final String BLOOM_FILTER_COLUMNS_OPTION = "BLOOM_FILTER_COLUMNS";
+    private static final CompressionKind DEFAULT_COMPRESSION = CompressionKind.ZLIB;
 
     /**
      * True if the accessor accesses the columns defined in the
@@ -72,29 +93,55 @@ public class ORCVectorizedAccessor extends BasePlugin implements Accessor {
     private RecordReader recordReader;
     private VectorizedRowBatch batch;
     private List<ColumnDescriptor> columnDescriptors;
+    private Writer fileWriter;
+    private Path file;
+    private long totalRowsWritten;
+    private FileSplit fileSplit;
+    private TypeDescription readSchema;
+    private boolean useStats;
+    // the number of rows left to emit from the statistics, or -1 before they are retrieved
+    private long aggregateRowsLeft;
 
     @Override
     public void afterPropertiesSet() {
         super.afterPropertiesSet();
         columnDescriptors = context.getTupleDescription();
         positionalAccess = context.getOption(MAP_BY_POSITION_OPTION, false);
+        useStats = Utilities.aggregateOptimizationsSupported(context);
     }
 
     @Override
     public boolean openForRead() throws IOException {
         Path file = new Path(context.getDataSource());
-        FileSplit fileSplit = HdfsUtilities.parseFileSplit(context.getDataSource(), context.getFragmentMetadata());
+        HcfsType.configureFileSystem(configuration, context.getDataSource());
+        fileSplit = HdfsUtilities.parseFileSplit(context.getDataSource(), context.getFragmentMetadata());
 
-        fileReader = OrcFile.createReader(file, OrcFile
-                .readerOptions(configuration)
-                .filesystem(file.getFileSystem(configuration)));
+        FileSystem fs = file.getFileSystem(configuration);
+        fileReader = ORCTailCache.createReader(fs.getFileStatus(file), configuration);
 
         // The original schema from the file
         TypeDescription schema = fileReader.getSchema();
         // Add column projection to the Reader.Options
-        TypeDescription readSchema = buildReadSchema(schema);
+        readSchema = buildReadSchema(schema);
+        aggregateRowsLeft = -1;
+        // Aggregates only read the rows when the statistics can't answer them
+        if (!useStats) {
+            openRecordReader(schema);
+        }
+        context.setMetadata(readSchema);
+        return true;
+    }
+
+    /**
+     * Opens the record reader for the stripes of the fragment
+     *
+     * @param schema the original schema from the file
+     * @throws IOException when the record reader can't be opened
+     */
+    private void openRecordReader(TypeDescription schema) throws IOException {
         // Get the record filter in case of predicate push-down
-        SearchArgument searchArgument = getSearchArgument(context.getFilterString(), schema);
+        SearchArgument searchArgument = getSearchArgument(context.getFilterString(), schema,
+                columnDescriptors, positionalAccess, configuration);
 
         // Build the reader options
         Reader.Options options = fileReader
@@ -110,8 +157,6 @@ public class ORCVectorizedAccessor extends BasePlugin implements Accessor {
         batch = readSchema.createRowBatch();
         // Keep track of time here since the fileReader.rows call will read data
         totalReadTimeInNanos += Duration.between(start, Instant.now()).toNanos();
-        context.setMetadata(readSchema);
-        return true;
     }
 
     /**
@@ -132,9 +177,59 @@ public class ORCVectorizedAccessor extends BasePlugin implements Accessor {
         return null; // all batches are exhausted
     }
 
+    /**
+     * Computes the aggregate of the request from the statistics of the
+     * stripes of the fragment. When the statistics can't answer it, the
+     * record reader is opened and the rows are read instead.
+     *
+     * @return true if the aggregate is answered from the statistics
+     * @throws IOException when the statistics or the rows can't be read
+     */
+    @Override
+    public boolean retrieveStats() throws IOException {
+        if (useStats) {
+            TypeDescription schema = fileReader.getSchema();
+            batch = readSchema.createRowBatch();
+            aggregateRowsLeft = ORCStatisticsAggregator.aggregate(context.getAggType(), fileReader,
+                    getAggregatedColumn(schema), fileSplit.getStart(), fileSplit.getLength(), batch);
+            if (aggregateRowsLeft != ORCStatisticsAggregator.UNAVAILABLE) {
+                return true;
+            }
+            openRecordReader(schema);
+        }
+        return false;
+    }
+
+    /**
+     * Emits the aggregate computed from the statistics. COUNT(*) is emitted
+     * as batches of null rows, column aggregates as a single row.
+     *
+     * @return the next batch of the aggregate, or null when all rows were emitted
+     */
+    @Override
+    public OneRow emitAggObject() {
+        if (aggregateRowsLeft < 0) {
+            throw new IllegalStateException("retrieveStats() should be called before calling emitAggObject()");
+        }
+        if (aggregateRowsLeft == 0) {
+            return null;
+        }
+        int size = (int) Math.min(aggregateRowsLeft, batch.getMaxSize());
+        aggregateRowsLeft -= size;
+        totalRowsRead += size;
+        batch.size = size;
+        // batches of the same size resolve to the same rows
+        return new OneRow(new LongWritable(size), batch);
+    }
+
     @Override
     public void closeForRead() throws IOException {
         logReadStats(totalRowsRead, totalReadTimeInNanos);
+        if (LOG.isDebugEnabled()) {
+            CacheStats tailCacheStats = ORCTailCache.stats();
+            LOG.debug("{}-{}: ORC tail cache hits = {}, misses = {}", context.getTransactionId(),
+                    context.getSegmentId(), tailCacheStats.hitCount(), tailCacheStats.missCount());
+        }
         if (recordReader != null) {
             recordReader.close();
         }
@@ -143,31 +238,223 @@ public class ORCVectorizedAccessor extends BasePlugin implements Accessor {
         }
     }
 
+    /**
+     * Opens the resource for write. The ORC schema is generated from the
+     * columns of the Greenplum table; the compression codec defaults to
+     * ZLIB and the stripe size to the value of orc.stripe.size in the
+     * server configuration.
+     *
+     * @return true if the resource is successfully opened
+     * @throws IOException if opening the resource failed
+     */
     @Override
-    public boolean openForWrite() {
-        throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+    public boolean openForWrite() throws IOException {
+        CompressionKind compressionKind = getCompressionKind(context.getOption(COMPRESSION_CODEC_OPTION));
+        String stripeSizeOption = context.getOption(STRIPE_SIZE_OPTION);
+        long stripeSize = stripeSizeOption != null
+                ? Long.parseLong(stripeSizeOption)
+                : OrcConf.STRIPE_SIZE.getLong(configuration);
+        String bloomFilterColumns = context.getOption(BLOOM_FILTER_COLUMNS_OPTION);
+
+        TypeDescription schema = buildWriteSchema(columnDescriptors);
+        // the resolver fills the batch of the schema with the records it receives
+        context.setMetadata(schema);
+
+        HcfsType hcfsType = HcfsType.getHcfsType(context);
+        String extension = compressionKind == CompressionKind.NONE ? "" : "." + compressionKind.name().toLowerCase(Locale.ROOT);
+        file = new Path(hcfsType.getUriForWrite(context) + extension + ".orc");
+        FileSystem fs = file.getFileSystem(configuration);
+        HdfsUtilities.validateFile(file, fs);
+        LOG.debug("{}-{}: Creating file {} with schema {}, COMPRESSION_CODEC = {}, STRIPE_SIZE = {}, BLOOM_FILTER_COLUMNS = {}",
+                context.getTransactionId(), context.getSegmentId(), file, schema,
+                compressionKind, stripeSize, bloomFilterColumns);
+
+        OrcFile.WriterOptions options = OrcFile.writerOptions(configuration)
+                .fileSystem(fs)
+                .setSchema(schema)
+                .compress(compressionKind)
+                .stripeSize(stripeSize);
+        if (StringUtils.isNotBlank(bloomFilterColumns)) {
+            options.bloomFilterColumns(bloomFilterColumns);
+        }
+        fileWriter = OrcFile.createWriter(file, options);
+        return true;
     }
 
+    /**
+     * Writes the batch of the resolver to the file once it is full. The
+     * resolver adds one record to the batch for every call of
+     * {@link ORCVectorizedResolver#setFields(List)}.
+     *
+     * @param onerow the row holding the batch
+     * @return true if the row was written successfully
+     * @throws IOException if writing to the file failed
+     */
     @Override
-    public boolean writeNextObject(OneRow onerow) {
-        throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+    public boolean writeNextObject(OneRow onerow) throws IOException {
+        batch = (VectorizedRowBatch) onerow.getData();
+        if (batch.size == batch.getMaxSize()) {
+            flushBatch();
+        }
+        return true;
     }
 
     @Override
-    public void closeForWrite() {
-        throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+    public void closeForWrite() throws IOException {
+        if (fileWriter == null) {
+            return;
+        }
+        if (batch != null && batch.size > 0) {
+            flushBatch();
+        }
+        fileWriter.close();
+        LOG.debug("{}-{}: writer closed, wrote a TOTAL of {} rows to {} on server {}",
+                context.getTransactionId(),
+                context.getSegmentId(),
+                totalRowsWritten,
+                file,
+                context.getServerName());
+    }
+
+    private void flushBatch() throws IOException {
+        fileWriter.addRowBatch(batch);
+        totalRowsWritten += batch.size;
+        batch.reset();
+    }
+
+    /**
+     * Returns the {@link CompressionKind} for the given codec name, or the
+     * default if the name is null
+     *
+     * @param name the name of the codec
+     * @return the {@link CompressionKind} for the given name
+     */
+    private CompressionKind getCompressionKind(String name) {
+        if (name == null) return DEFAULT_COMPRESSION;
+
+        String upperName = name.toUpperCase(Locale.ROOT);
+        if (upperName.equals("UNCOMPRESSED")) return CompressionKind.NONE;
+        try {
+            return CompressionKind.valueOf(upperName);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Invalid codec: %s ", name));
+        }
+    }
+
+    /**
+     * Given the column descriptors that we receive from Greenplum, builds
+     * the schema of the ORC file to write
+     *
+     * @param columns the columns of the Greenplum table
+     * @return the write schema
+     */
+    private TypeDescription buildWriteSchema(List<ColumnDescriptor> columns) {
+        TypeDescription writeSchema = TypeDescription.createStruct();
+        for (ColumnDescriptor column : columns) {
+            DataType dataType = DataType.get(column.columnTypeCode());
+            TypeDescription t = dataType.isArrayType()
+                    ? getArrayTypeDescription(column, dataType.getTypeElem())
+                    : getTypeDescription(column, dataType);
+            writeSchema.addField(column.columnName(), t);
+        }
+        return writeSchema;
+    }
+
+    private TypeDescription getTypeDescription(ColumnDescriptor column, DataType dataType) {
+        Integer[] modifiers = column.columnTypeModifiers();
+        switch (dataType) {
+            case BOOLEAN:
+                return TypeDescription.createBoolean();
+            case SMALLINT:
+                return TypeDescription.createShort();
+            case INTEGER:
+                return TypeDescription.createInt();
+            case BIGINT:
+                return TypeDescription.createLong();
+            case REAL:
+                return TypeDescription.createFloat();
+            case FLOAT8:
+                return TypeDescription.createDouble();
+            case TEXT:
+                return TypeDescription.createString();
+            case VARCHAR:
+                return modifiers != null && modifiers.length > 0
+                        ? TypeDescription.createVarchar().withMaxLength(modifiers[0])
+                        : TypeDescription.createString();
+            case BPCHAR:
+                return modifiers != null && modifiers.length > 0
+                        ? TypeDescription.createChar().withMaxLength(modifiers[0])
+                        : TypeDescription.createString();
+            case BYTEA:
+                return TypeDescription.createBinary();
+            case DATE:
+                return TypeDescription.createDate();
+            case TIMESTAMP:
+                return TypeDescription.createTimestamp();
+            case NUMERIC:
+                int precision = HiveDecimal.SYSTEM_DEFAULT_PRECISION;
+                int scale = HiveDecimal.SYSTEM_DEFAULT_SCALE;
+                if (modifiers != null && modifiers.length > 1) {
+                    precision = modifiers[0];
+                    scale = modifiers[1];
+                }
+                if (precision > HiveDecimal.MAX_PRECISION) {
+                    throw new UnsupportedTypeException(String.format(
+                            "Column %s of type numeric(%d,%d) exceeds the maximum ORC decimal precision of %d",
+                            column.columnName(), precision, scale, HiveDecimal.MAX_PRECISION));
+                }
+                return TypeDescription.createDecimal().withScale(scale).withPrecision(precision);
+            default:
+                throw new UnsupportedTypeException(
+                        String.format("Type %d is not supported", column.columnTypeCode()));
+        }
+    }
+
+    /**
+     * Returns the ORC list type for an array column. The elements of
+     * character arrays are written as strings.
+     */
+    private TypeDescription getArrayTypeDescription(ColumnDescriptor column, DataType elementType) {
+        TypeDescription child;
+        switch (elementType) {
+            case BOOLEAN:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case REAL:
+            case FLOAT8:
+            case BYTEA:
+                child = getTypeDescription(column, elementType);
+                break;
+            case TEXT:
+            case VARCHAR:
+            case BPCHAR:
+                child = TypeDescription.createString();
+                break;
+            default:
+                throw new UnsupportedTypeException(
+                        String.format("Type %d is not supported", column.columnTypeCode()));
+        }
+        return TypeDescription.createList(child);
     }
 
     /**
      * Given a filter string, builds the SearchArgument object to perform
      * predicated pushdown for ORC
      *
-     * @param filterString   the serialized filter string from the query predicate
-     * @param originalSchema the original schema for the ORC file
+     * @param filterString      the serialized filter string from the query predicate
+     * @param originalSchema    the original schema for the ORC file
+     * @param columnDescriptors the columns of the Greenplum table
+     * @param positionalAccess  true if columns are matched by position
+     * @param configuration     the configuration of the server
      * @return null if filter string is null, the built SearchArgument otherwise
      * @throws IOException when a filter parsing error occurs
      */
-    private SearchArgument getSearchArgument(String filterString, TypeDescription originalSchema) throws IOException {
+    static SearchArgument getSearchArgument(String filterString,
+                                            TypeDescription originalSchema,
+                                            List<ColumnDescriptor> columnDescriptors,
+                                            boolean positionalAccess,
+                                            Configuration configuration) throws IOException {
         if (StringUtils.isBlank(filterString)) {
             return null;
         }
@@ -208,6 +495,35 @@ public class ORCVectorizedAccessor extends BasePlugin implements Accessor {
         return searchArgumentBuilder.getFilterBuilder().build();
     }
 
+    /**
+     * Returns the type of the aggregated column in the original schema, the
+     * only projected column of column aggregates
+     *
+     * @param originalSchema the original schema for the ORC file
+     * @return the type of the aggregated column, or null if it is not in the file
+     */
+    private TypeDescription getAggregatedColumn(TypeDescription originalSchema) {
+        if (!context.getAggType().isColumnAggregate()) {
+            return null;
+        }
+        List<String> fieldNames = originalSchema.getFieldNames();
+        for (int i = 0; i < columnDescriptors.size(); i++) {
+            ColumnDescriptor columnDescriptor = columnDescriptors.get(i);
+            if (!columnDescriptor.isProjected()) continue;
+            if (positionalAccess) {
+                return i < fieldNames.size() ? originalSchema.getChildren().get(i) : null;
+            }
+            String columnName = columnDescriptor.columnName();
+            for (int j = 0; j < fieldNames.size(); j++) {
+                if (fieldNames.get(j).equals(columnName) || fieldNames.get(j).toLowerCase().equals(columnName)) {
+                    return originalSchema.getChildren().get(j);
+                }
+            }
+            return null;
+        }
+        return null;
+    }
+
     /**
      * Given the column descriptors that we receive from Greenplum, builds
      * the read schema that will perform column projection
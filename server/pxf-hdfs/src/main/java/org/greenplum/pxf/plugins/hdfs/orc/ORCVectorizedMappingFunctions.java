@@ -369,7 +369,7 @@ class ORCVectorizedMappingFunctions {
      * @param timestamp the timestamp object
      * @return the string representation of the timestamp
      */
-    private static String timestampToString(Timestamp timestamp) {
+    static String timestampToString(Timestamp timestamp) {
         Instant instant = timestamp.toInstant();
         String timestampString = instant
                 .atZone(ZoneId.systemDefault())
@@ -1,8 +1,16 @@
 package org.greenplum.pxf.plugins.hdfs.orc;
 
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ListColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.orc.TypeDescription;
+import org.greenplum.pxf.api.GreenplumDateTime;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.ReadVectorizedResolver;
@@ -10,10 +18,17 @@ import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.error.UnsupportedTypeException;
 import org.greenplum.pxf.api.function.TriFunction;
 import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.io.Writable;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.model.Resolver;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hdfs.utilities.PgUtilities;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -88,10 +103,17 @@ import static org.greenplum.pxf.plugins.hdfs.orc.ORCVectorizedAccessor.MAP_BY_PO
  * | array<varchar>    | VARCHAR[]      | 1015          |
  * | array<binary>     | BYTEA[]        | 1001          |
  * ------------------------------------------------------
- *
+ * <p>
+ * On write, records are added to a VectorizedRowBatch of the schema that
+ * {@link ORCVectorizedAccessor} generated for the Greenplum table, using the
+ * same mapping. VARCHAR and BPCHAR columns without a length are written as
+ * strings, and so are the elements of character arrays. Only one-dimensional
+ * arrays are supported.
  */
 public class ORCVectorizedResolver extends BasePlugin implements ReadVectorizedResolver, Resolver {
 
+    public static final String PXF_ORC_READ_DIRECT_ENABLED_PROPERTY = "pxf.orc.read.direct.enabled";
+
     /**
      * The schema used to read the ORC file.
      */
@@ -127,6 +149,26 @@ public class ORCVectorizedResolver extends BasePlugin implements ReadVectorizedR
 
     private List<List<OneField>> cachedBatch;
 
+    /**
+     * Serializes batches directly into the records sent to Greenplum, when
+     * the request allows it
+     */
+    private ORCVectorizedSerializer serializer;
+
+    private boolean directSerializationEnabled;
+
+    /**
+     * The batch the records are added to on write. The accessor writes the
+     * batch to the file and resets it once it is full.
+     */
+    private VectorizedRowBatch writeBatch;
+
+    private TypeDescription[] writeTypes;
+
+    // we intentionally create a new instance of PgUtilities here due to unnecessary complexity
+    // required for dependency injection
+    private static final PgUtilities pgUtilities = new PgUtilities();
+
     private static final String UNSUPPORTED_ERR_MESSAGE = "Current operation is not supported";
 
     /**
@@ -137,6 +179,8 @@ public class ORCVectorizedResolver extends BasePlugin implements ReadVectorizedR
         super.afterPropertiesSet();
         columnDescriptors = context.getTupleDescription();
         positionalAccess = context.getOption(MAP_BY_POSITION_OPTION, false);
+        directSerializationEnabled = configuration == null ||
+                configuration.getBoolean(PXF_ORC_READ_DIRECT_ENABLED_PROPERTY, true);
     }
 
     /**
@@ -198,6 +242,34 @@ public class ORCVectorizedResolver extends BasePlugin implements ReadVectorizedR
         return resolvedBatch;
     }
 
+    /**
+     * Serializes the VectorizedRowBatch directly into the records sent to
+     * Greenplum. Returns null when the {@code pxf.orc.read.direct.enabled}
+     * property is false, when the table has a single column and the output is
+     * text, or when the type of a column doesn't match the type in the ORC
+     * file; the batch is then resolved with
+     * {@link #getFieldsForBatch(OneRow)}.
+     *
+     * @param batch unresolved batch
+     * @return the serialized records of the batch, or null
+     */
+    @Override
+    public Writable serializeBatch(OneRow batch) {
+        if (!directSerializationEnabled) {
+            return null;
+        }
+        if (serializer == null) {
+            ensureFunctionsAreInitialized();
+            serializer = ORCVectorizedSerializer.create(context, readSchema, readFields, typeOidMappings, positionalAccess);
+            if (serializer == null) {
+                LOG.debug("Batches for this request can't be serialized directly");
+                directSerializationEnabled = false;
+                return null;
+            }
+        }
+        return serializer.serialize((VectorizedRowBatch) batch.getData());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -207,11 +279,25 @@ public class ORCVectorizedResolver extends BasePlugin implements ReadVectorizedR
     }
 
     /**
-     * {@inheritDoc}
+     * Adds the record to the batch that is written by the accessor
+     *
+     * @param record list of {@link OneField}
+     * @return the row holding the batch
      */
     @Override
     public OneRow setFields(List<OneField> record) {
-        throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+        ensureWriteBatchIsInitialized();
+        if (record.size() != writeTypes.length) {
+            throw new PxfRuntimeException(String.format("Expected %d fields in the record, but got %d",
+                    writeTypes.length, record.size()));
+        }
+
+        int row = writeBatch.size;
+        for (int i = 0; i < writeTypes.length; i++) {
+            setValue(writeBatch.cols[i], writeTypes[i], row, record.get(i).val);
+        }
+        writeBatch.size++;
+        return new OneRow(null, writeBatch);
     }
 
     /**
@@ -305,6 +391,102 @@ public class ORCVectorizedResolver extends BasePlugin implements ReadVectorizedR
         }
     }
 
+    /**
+     * Ensures that the batch for write is initialized from the write schema
+     * that the accessor stored in the request context.
+     */
+    private void ensureWriteBatchIsInitialized() {
+        if (writeBatch != null) return;
+        if (!(context.getMetadata() instanceof TypeDescription))
+            throw new PxfRuntimeException("No schema detected in request context");
+
+        TypeDescription writeSchema = (TypeDescription) context.getMetadata();
+        writeTypes = writeSchema.getChildren().toArray(new TypeDescription[0]);
+        writeBatch = writeSchema.createRowBatch();
+    }
+
+    /**
+     * Sets the value at the given row of the column vector. Values are
+     * expected in the form produced by the GPDBWritable format: Java boxed
+     * types for booleans, integers and floating points, byte arrays for
+     * bytea, and the Greenplum text representation for everything else.
+     */
+    private void setValue(ColumnVector vector, TypeDescription type, int row, Object value) {
+        if (value == null) {
+            vector.noNulls = false;
+            vector.isNull[row] = true;
+            return;
+        }
+        vector.isNull[row] = false;
+
+        switch (type.getCategory()) {
+            case BOOLEAN:
+                boolean bool = value instanceof Boolean ? (Boolean) value : pgUtilities.parseBoolLiteral(value.toString());
+                ((LongColumnVector) vector).vector[row] = bool ? 1 : 0;
+                break;
+            case SHORT:
+            case INT:
+            case LONG:
+                ((LongColumnVector) vector).vector[row] = value instanceof Number
+                        ? ((Number) value).longValue()
+                        : Long.parseLong(value.toString());
+                break;
+            case FLOAT:
+            case DOUBLE:
+                ((DoubleColumnVector) vector).vector[row] = value instanceof Number
+                        ? ((Number) value).doubleValue()
+                        : Double.parseDouble(value.toString());
+                break;
+            case STRING:
+            case VARCHAR:
+            case CHAR:
+                byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                ((BytesColumnVector) vector).setRef(row, bytes, 0, bytes.length);
+                break;
+            case BINARY:
+                // GPDBWritable allocates a new array for every bytea value
+                if (value instanceof byte[]) {
+                    byte[] binary = (byte[]) value;
+                    ((BytesColumnVector) vector).setRef(row, binary, 0, binary.length);
+                } else {
+                    ByteBuffer buffer = pgUtilities.parseByteaLiteral(value.toString());
+                    ((BytesColumnVector) vector).setRef(row, buffer.array(),
+                            buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                }
+                break;
+            case DATE:
+                ((LongColumnVector) vector).vector[row] =
+                        LocalDate.parse(value.toString(), GreenplumDateTime.DATE_FORMATTER).toEpochDay();
+                break;
+            case TIMESTAMP:
+                LocalDateTime dateTime = LocalDateTime.parse(value.toString(), GreenplumDateTime.DATETIME_FORMATTER);
+                ((TimestampColumnVector) vector).set(row, Timestamp.valueOf(dateTime));
+                break;
+            case DECIMAL:
+                // values that don't fit the precision and scale of the column are set to null
+                ((DecimalColumnVector) vector).set(row, HiveDecimal.create(value.toString()));
+                break;
+            case LIST:
+                setListValue((ListColumnVector) vector, type.getChildren().get(0), row, value.toString());
+                break;
+            default:
+                throw new UnsupportedTypeException(
+                        String.format("Unable to write value of ORC type '%s'", type));
+        }
+    }
+
+    private void setListValue(ListColumnVector vector, TypeDescription elementType, int row, String value) {
+        String[] elements = value.equals("{}") ? new String[0] : pgUtilities.splitArray(value);
+        int offset = vector.childCount;
+        vector.offsets[row] = offset;
+        vector.lengths[row] = elements.length;
+        vector.childCount += elements.length;
+        vector.child.ensureSize(vector.childCount, true);
+        for (int i = 0; i < elements.length; i++) {
+            setValue(vector.child, elementType, offset + i, elements[i]);
+        }
+    }
+
     private List<List<OneField>> prepareResolvedBatch(int batchSize) {
 
         if (cachedBatch == null) {
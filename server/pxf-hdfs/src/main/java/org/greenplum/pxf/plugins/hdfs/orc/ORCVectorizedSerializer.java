@@ -0,0 +1,266 @@
+package org.greenplum.pxf.plugins.hdfs.orc;
+
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ListColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.TypeDescription;
+import org.greenplum.pxf.api.io.CsvRecordEncoder;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.io.GPDBWritableRecordEncoder;
+import org.greenplum.pxf.api.io.RecordEncoder;
+import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializes ORC VectorizedRowBatches straight into the records sent to
+ * Greenplum. The values are read row by row from the column vectors and
+ * written with a {@link RecordEncoder}, producing the same records that the
+ * bridge writes for the fields resolved by
+ * {@link ORCVectorizedResolver#getFieldsForBatch}, without boxing every value
+ * into a OneField. Repeating vectors and vectors without nulls skip the
+ * per-row checks.
+ */
+class ORCVectorizedSerializer {
+
+    private static final EnumSet<DataType> STRING_TYPES = EnumSet.of(
+            DataType.VARCHAR, DataType.BPCHAR, DataType.TEXT, DataType.NUMERIC,
+            DataType.TIMESTAMP, DataType.TIMESTAMP_WITH_TIME_ZONE, DataType.DATE);
+
+    private static final EnumSet<DataType> STRING_ARRAY_TYPES = EnumSet.of(
+            DataType.BPCHARARRAY, DataType.VARCHARARRAY, DataType.TEXTARRAY);
+
+    /**
+     * Writes the value at a row of a column vector that is not null
+     */
+    @FunctionalInterface
+    private interface ValueWriter {
+        void write(ColumnVector vector, int row);
+    }
+
+    /**
+     * Converts the value at a row of a column vector to its text form
+     */
+    @FunctionalInterface
+    private interface TextConverter {
+        String convert(ColumnVector vector, int row);
+    }
+
+    private final RecordEncoder encoder;
+
+    /**
+     * The index of the column vector for every column of the Greenplum
+     * table, or -1 when the column is not projected or missing in the file
+     */
+    private final int[] vectorIndexes;
+
+    /**
+     * For every column, either the writer for its values, or the converter
+     * of its values to text
+     */
+    private final ValueWriter[] writers;
+    private final TextConverter[] converters;
+
+    /**
+     * The text of repeating vectors, converted once per batch
+     */
+    private final String[] repeatedText;
+
+    private ORCVectorizedSerializer(RecordEncoder encoder, int[] vectorIndexes,
+                                    ValueWriter[] writers, TextConverter[] converters) {
+        this.encoder = encoder;
+        this.vectorIndexes = vectorIndexes;
+        this.writers = writers;
+        this.converters = converters;
+        this.repeatedText = new String[vectorIndexes.length];
+    }
+
+    /**
+     * Creates a serializer for the request. Columns are matched to the
+     * columns of the ORC file the same way
+     * {@link ORCVectorizedResolver#getFieldsForBatch} matches them.
+     *
+     * @param context          the request context
+     * @param readSchema       the schema used to read the ORC file
+     * @param readFields       the fields of the read schema by name
+     * @param typeOidMappings  the Greenplum types of the fields of the read schema
+     * @param positionalAccess true if columns are matched by position
+     * @return the serializer, or null when the batches of the request can't
+     * be serialized directly
+     */
+    static ORCVectorizedSerializer create(RequestContext context,
+                                          TypeDescription readSchema,
+                                          Map<String, TypeDescription> readFields,
+                                          int[] typeOidMappings,
+                                          boolean positionalAccess) {
+        List<ColumnDescriptor> columnDescriptors = context.getTupleDescription();
+        int columnCount = columnDescriptors.size();
+        if (columnCount == 0) {
+            return null;
+        }
+
+        RecordEncoder encoder;
+        if (context.getOutputFormat() == OutputFormat.GPDBWritable) {
+            int[] columnTypes = columnDescriptors.stream().mapToInt(ColumnDescriptor::columnTypeCode).toArray();
+            encoder = new GPDBWritableRecordEncoder(columnTypes, context.getDatabaseEncoding());
+        } else if (columnCount > 1 && context.getGreenplumCSV().getDelimiter() != null) {
+            // records with a single field are written without quoting or delimiting
+            encoder = new CsvRecordEncoder(context.getGreenplumCSV(), context.getFormat());
+        } else {
+            return null;
+        }
+
+        int[] vectorIndexes = new int[columnCount];
+        ValueWriter[] writers = new ValueWriter[columnCount];
+        TextConverter[] converters = new TextConverter[columnCount];
+
+        // index to the projected columns
+        int columnIndex = 0;
+        for (int i = 0; i < columnCount; i++) {
+            ColumnDescriptor columnDescriptor = columnDescriptors.get(i);
+            vectorIndexes[i] = -1;
+            if (!columnDescriptor.isProjected()) {
+                continue;
+            }
+            TypeDescription orcColumn = positionalAccess
+                    ? columnIndex < readSchema.getChildren().size() ? readSchema.getChildren().get(columnIndex) : null
+                    : readFields.get(columnDescriptor.columnName());
+            if (orcColumn == null) {
+                continue;
+            }
+            if (!isTypeInSchema(typeOidMappings[columnIndex], columnDescriptor.columnTypeCode())) {
+                // the bridge reports the mismatch when resolving the batch
+                return null;
+            }
+
+            int oid = typeOidMappings[columnIndex];
+            switch (orcColumn.getCategory()) {
+                case BOOLEAN:
+                    writers[i] = (v, row) -> encoder.writeBoolean(((LongColumnVector) v).vector[row] == 1);
+                    break;
+                case BYTE:
+                case SHORT:
+                    writers[i] = (v, row) -> encoder.writeShort((short) ((LongColumnVector) v).vector[row]);
+                    break;
+                case INT:
+                    writers[i] = (v, row) -> encoder.writeInt((int) ((LongColumnVector) v).vector[row]);
+                    break;
+                case LONG:
+                    writers[i] = (v, row) -> encoder.writeLong(((LongColumnVector) v).vector[row]);
+                    break;
+                case FLOAT:
+                    writers[i] = (v, row) -> encoder.writeFloat((float) ((DoubleColumnVector) v).vector[row]);
+                    break;
+                case DOUBLE:
+                    writers[i] = (v, row) -> encoder.writeDouble(((DoubleColumnVector) v).vector[row]);
+                    break;
+                case STRING:
+                case VARCHAR:
+                case CHAR:
+                    writers[i] = (v, row) -> {
+                        BytesColumnVector bcv = (BytesColumnVector) v;
+                        encoder.writeUtf8Text(bcv.vector[row], bcv.start[row], bcv.length[row]);
+                    };
+                    break;
+                case BINARY:
+                    writers[i] = (v, row) -> {
+                        BytesColumnVector bcv = (BytesColumnVector) v;
+                        encoder.writeBytes(bcv.vector[row], bcv.start[row], bcv.length[row]);
+                    };
+                    break;
+                case DATE:
+                    converters[i] = (v, row) -> dateToString(((LongColumnVector) v).vector[row]);
+                    break;
+                case TIMESTAMP:
+                    converters[i] = (v, row) -> ORCVectorizedMappingFunctions
+                            .timestampToString(((TimestampColumnVector) v).asScratchTimestamp(row));
+                    break;
+                case DECIMAL:
+                    converters[i] = (v, row) -> ((DecimalColumnVector) v).vector[row].toString();
+                    break;
+                case LIST:
+                    converters[i] = (v, row) -> ORCVectorizedMappingFunctions
+                            .serializeListRow((ListColumnVector) v, row, oid);
+                    break;
+                default:
+                    return null;
+            }
+            vectorIndexes[i] = columnIndex++;
+        }
+        return new ORCVectorizedSerializer(encoder, vectorIndexes, writers, converters);
+    }
+
+    /**
+     * Serializes all the rows of the batch
+     *
+     * @param batch the batch
+     * @return the serialized records
+     */
+    Writable serialize(VectorizedRowBatch batch) {
+        int columnCount = vectorIndexes.length;
+        ColumnVector[] vectors = new ColumnVector[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            ColumnVector vector = vectorIndexes[i] == -1 ? null : batch.cols[vectorIndexes[i]];
+            vectors[i] = vector;
+            repeatedText[i] = converters[i] != null && vector.isRepeating && (vector.noNulls || !vector.isNull[0])
+                    ? converters[i].convert(vector, 0)
+                    : null;
+        }
+
+        for (int row = 0; row < batch.size; row++) {
+            encoder.beginRecord();
+            for (int i = 0; i < columnCount; i++) {
+                ColumnVector vector = vectors[i];
+                if (vector == null) {
+                    encoder.writeNull();
+                    continue;
+                }
+                int rowId = vector.isRepeating ? 0 : row;
+                if (!vector.noNulls && vector.isNull[rowId]) {
+                    encoder.writeNull();
+                } else if (writers[i] != null) {
+                    writers[i].write(vector, rowId);
+                } else {
+                    String text = vector.isRepeating ? repeatedText[i] : converters[i].convert(vector, rowId);
+                    if (text == null) {
+                        encoder.writeNull();
+                    } else {
+                        encoder.writeText(text);
+                    }
+                }
+            }
+            encoder.endRecord();
+        }
+        return encoder.flush();
+    }
+
+    /**
+     * Returns true if values of the ORC type can be written to the column,
+     * following the rules of the bridge
+     */
+    private static boolean isTypeInSchema(int orcOid, int columnOid) {
+        DataType orcType = DataType.get(orcOid);
+        DataType columnType = DataType.get(columnOid);
+        return columnType != DataType.UNSUPPORTED_TYPE && (orcType == columnType
+                || (STRING_TYPES.contains(orcType) && STRING_TYPES.contains(columnType))
+                || (STRING_ARRAY_TYPES.contains(orcType) && STRING_ARRAY_TYPES.contains(columnType)));
+    }
+
+    private static String dateToString(long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        // LocalDate prints years outside of 1 - 9999 with a sign, unlike java.sql.Date
+        return date.getYear() >= 1 && date.getYear() <= 9999 ? date.toString() : Date.valueOf(date).toString();
+    }
+}
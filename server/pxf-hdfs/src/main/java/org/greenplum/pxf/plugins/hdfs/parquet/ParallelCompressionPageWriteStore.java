@@ -0,0 +1,302 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.DictionaryPage;
+import org.apache.parquet.column.page.PageWriteStore;
+import org.apache.parquet.column.page.PageWriter;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.hadoop.CodecFactory;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.schema.MessageType;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link PageWriteStore} that compresses the pages of every column on the
+ * threads of the {@link PluginTaskExecutor}, while the column writers keep
+ * encoding the next values on the request thread. Pages of the same column
+ * are compressed in order, one at a time, with a compressor that belongs to
+ * the column; pages of different columns are compressed in parallel.
+ * <p>
+ * The compressed pages of a row group are kept in memory until the row group
+ * is written with {@link #flushToFileWriter(ParquetFileWriter)}. The pages
+ * are reserved from the memory budget shared by the service until then; a
+ * page that doesn't fit in the shared budget is compressed on the request
+ * thread. Data pages V2 are written as data pages V1 with the same levels and
+ * values, {@link ParquetFileWriter} has no public method to write them.
+ */
+class ParallelCompressionPageWriteStore implements PageWriteStore {
+
+    private final MessageType schema;
+    private final PluginTaskExecutor taskExecutor;
+    private final ExecutorService executor;
+    private final Map<ColumnDescriptor, ColumnPageWriter> writers = new HashMap<>();
+    private final List<CodecFactory> codecFactories = new ArrayList<>();
+    // the memory reserved from the shared budget for the pages of the row group
+    private long reservedMemory;
+
+    ParallelCompressionPageWriteStore(Configuration configuration,
+                                      MessageType schema,
+                                      CompressionCodecName codecName,
+                                      int pageSize,
+                                      PluginTaskExecutor taskExecutor,
+                                      int threads) {
+        this.schema = schema;
+        this.taskExecutor = taskExecutor;
+        this.executor = taskExecutor.newExecutor(threads);
+        for (ColumnDescriptor path : schema.getColumns()) {
+            // compressors are not thread-safe, every column gets its own
+            CodecFactory codecFactory = new CodecFactory(configuration, pageSize);
+            codecFactories.add(codecFactory);
+            writers.put(path, new ColumnPageWriter(path, codecFactory.getCompressor(codecName)));
+        }
+    }
+
+    @Override
+    public PageWriter getPageWriter(ColumnDescriptor path) {
+        return writers.get(path);
+    }
+
+    /**
+     * Waits for the pages of the current row group to be compressed, and
+     * writes them to the file, one column chunk at a time.
+     *
+     * @param fileWriter the writer of the file, with a started block
+     * @throws IOException when compressing or writing a page fails
+     */
+    void flushToFileWriter(ParquetFileWriter fileWriter) throws IOException {
+        for (ColumnDescriptor path : schema.getColumns()) {
+            writers.get(path).writeToFileWriter(fileWriter);
+        }
+        releaseMemory();
+    }
+
+    /**
+     * Discards the pages that are still being compressed, and releases the
+     * compressors and the memory reserved for the pages
+     */
+    void close() {
+        executor.shutdownNow();
+        codecFactories.forEach(CodecFactory::release);
+        releaseMemory();
+    }
+
+    private void releaseMemory() {
+        taskExecutor.releaseMemory(reservedMemory);
+        reservedMemory = 0;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for page compression");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * A data page waiting to be written to the file
+     */
+    private static class PendingPage {
+        private final CompletableFuture<BytesInput> compressedBytes;
+        private final int uncompressedSize;
+        private final int valueCount;
+        private final int rowCount;
+        private final Statistics<?> statistics;
+        private final Encoding rlEncoding;
+        private final Encoding dlEncoding;
+        private final Encoding valuesEncoding;
+
+        PendingPage(CompletableFuture<BytesInput> compressedBytes, int uncompressedSize, int valueCount, int rowCount,
+                    Statistics<?> statistics, Encoding rlEncoding, Encoding dlEncoding, Encoding valuesEncoding) {
+            this.compressedBytes = compressedBytes;
+            this.uncompressedSize = uncompressedSize;
+            this.valueCount = valueCount;
+            this.rowCount = rowCount;
+            this.statistics = statistics;
+            this.rlEncoding = rlEncoding;
+            this.dlEncoding = dlEncoding;
+            this.valuesEncoding = valuesEncoding;
+        }
+    }
+
+    private class ColumnPageWriter implements PageWriter {
+
+        private final ColumnDescriptor path;
+        private final CompressionCodecFactory.BytesInputCompressor compressor;
+        private final List<PendingPage> pages = new ArrayList<>();
+        // compressed size of the buffered pages, or uncompressed size while
+        // the page is being compressed
+        private final AtomicLong bufferedSize = new AtomicLong();
+
+        private CompletableFuture<?> lastCompression = CompletableFuture.completedFuture(null);
+        private CompletableFuture<DictionaryPage> dictionaryPage;
+        private long totalValueCount;
+
+        ColumnPageWriter(ColumnDescriptor path, CompressionCodecFactory.BytesInputCompressor compressor) {
+            this.path = path;
+            this.compressor = compressor;
+        }
+
+        /**
+         * Writes a page without a row count, the column chunk is then written
+         * without column index and offset index, like
+         * {@link ParquetFileWriter} does for such pages.
+         */
+        @Override
+        @Deprecated
+        public void writePage(BytesInput bytes, int valueCount, Statistics<?> statistics,
+                              Encoding rlEncoding, Encoding dlEncoding, Encoding valuesEncoding) throws IOException {
+            writePage(bytes, valueCount, -1, statistics, rlEncoding, dlEncoding, valuesEncoding);
+        }
+
+        @Override
+        public void writePage(BytesInput bytes, int valueCount, int rowCount, Statistics<?> statistics,
+                              Encoding rlEncoding, Encoding dlEncoding, Encoding valuesEncoding) throws IOException {
+            // the column writer reuses its buffers for the next page
+            BytesInput page = BytesInput.copy(bytes);
+            int uncompressedSize = (int) page.size();
+            pages.add(new PendingPage(compress(page), uncompressedSize, valueCount, rowCount,
+                    statistics, rlEncoding, dlEncoding, valuesEncoding));
+            totalValueCount += valueCount;
+        }
+
+        /**
+         * Writes a data page V2 as a data page V1: the levels of a page V2 are
+         * RLE encoded without their length, a page V1 has the length of the
+         * RLE encoded levels before them, and no levels at all for a column
+         * whose maximum level is 0.
+         */
+        @Override
+        public void writePageV2(int rowCount, int nullCount, int valueCount, BytesInput repetitionLevels,
+                                BytesInput definitionLevels, Encoding dataEncoding, BytesInput data,
+                                Statistics<?> statistics) throws IOException {
+            ByteArrayOutputStream page = new ByteArrayOutputStream();
+            Encoding rlEncoding = writeLevels(page, repetitionLevels, path.getMaxRepetitionLevel());
+            Encoding dlEncoding = writeLevels(page, definitionLevels, path.getMaxDefinitionLevel());
+            data.writeAllTo(page);
+            writePage(BytesInput.from(page), valueCount, rowCount, statistics, rlEncoding, dlEncoding, dataEncoding);
+        }
+
+        // BIT_PACKED is deprecated, the column writers V1 still use it for columns without levels
+        @SuppressWarnings("deprecation")
+        private Encoding writeLevels(ByteArrayOutputStream page, BytesInput levels, int maxLevel) throws IOException {
+            if (maxLevel == 0) {
+                return Encoding.BIT_PACKED;
+            }
+            BytesInput.concat(BytesInput.fromInt((int) levels.size()), levels).writeAllTo(page);
+            return Encoding.RLE;
+        }
+
+        @Override
+        public void writeDictionaryPage(DictionaryPage page) throws IOException {
+            DictionaryPage copy = page.copy();
+            dictionaryPage = compress(copy.getBytes()).thenApply(compressed -> new DictionaryPage(
+                    compressed, copy.getUncompressedSize(), copy.getDictionarySize(), copy.getEncoding()));
+        }
+
+        @Override
+        public long getMemSize() {
+            return bufferedSize.get();
+        }
+
+        @Override
+        public long allocatedSize() {
+            return bufferedSize.get();
+        }
+
+        @Override
+        public String memUsageString(String prefix) {
+            return String.format("%s %s: %d bytes in %d pages", prefix, path, bufferedSize.get(), pages.size());
+        }
+
+        void writeToFileWriter(ParquetFileWriter fileWriter) throws IOException {
+            fileWriter.startColumn(path, totalValueCount, compressor.getCodecName());
+            if (dictionaryPage != null) {
+                fileWriter.writeDictionaryPage(await(dictionaryPage));
+            }
+            for (PendingPage page : pages) {
+                writeDataPage(fileWriter, page);
+            }
+            fileWriter.endColumn();
+
+            pages.clear();
+            dictionaryPage = null;
+            totalValueCount = 0;
+            bufferedSize.set(0);
+        }
+
+        @SuppressWarnings("deprecation")
+        private void writeDataPage(ParquetFileWriter fileWriter, PendingPage page) throws IOException {
+            if (page.rowCount < 0) {
+                fileWriter.writeDataPage(page.valueCount, page.uncompressedSize, await(page.compressedBytes),
+                        page.statistics, page.rlEncoding, page.dlEncoding, page.valuesEncoding);
+            } else {
+                fileWriter.writeDataPage(page.valueCount, page.uncompressedSize, await(page.compressedBytes),
+                        page.statistics, page.rowCount, page.rlEncoding, page.dlEncoding, page.valuesEncoding);
+            }
+        }
+
+        /**
+         * Compresses the bytes on the shared threads, after the previous page
+         * of this column has been compressed. When the shared memory budget
+         * has no room for the page, the page is compressed on the calling
+         * thread instead.
+         */
+        private CompletableFuture<BytesInput> compress(BytesInput bytes) throws IOException {
+            long size = bytes.size();
+            bufferedSize.addAndGet(size);
+            if (compressor.getCodecName() == CompressionCodecName.UNCOMPRESSED) {
+                return CompletableFuture.completedFuture(bytes);
+            }
+
+            CompletableFuture<BytesInput> compression;
+            if (taskExecutor.tryReserveMemory(size)) {
+                reservedMemory += size;
+                compression = lastCompression.thenApplyAsync(ignored -> {
+                    try {
+                        return compressNow(bytes, size);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor);
+            } else {
+                await(lastCompression);
+                compression = CompletableFuture.completedFuture(compressNow(bytes, size));
+            }
+            lastCompression = compression;
+            return compression;
+        }
+
+        private BytesInput compressNow(BytesInput bytes, long size) throws IOException {
+            // the compressor reuses its output buffer
+            BytesInput compressed = BytesInput.copy(compressor.compress(bytes));
+            bufferedSize.addAndGet(compressed.size() - size);
+            return compressed;
+        }
+    }
+}
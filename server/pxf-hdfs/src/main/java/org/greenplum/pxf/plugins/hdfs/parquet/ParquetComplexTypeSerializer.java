@@ -0,0 +1,298 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.greenplum.pxf.api.error.PxfRuntimeException;
+import org.greenplum.pxf.plugins.hdfs.utilities.PgArrayBuilder;
+import org.greenplum.pxf.plugins.hdfs.utilities.PgUtilities;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+import static org.apache.parquet.schema.LogicalTypeAnnotation.ListLogicalTypeAnnotation;
+import static org.apache.parquet.schema.LogicalTypeAnnotation.MapKeyValueTypeAnnotation;
+import static org.apache.parquet.schema.LogicalTypeAnnotation.MapLogicalTypeAnnotation;
+import static org.apache.parquet.schema.Type.Repetition.REPEATED;
+
+/**
+ * Serializes Parquet nested and repeated types (LIST, MAP and STRUCT) into
+ * their Greenplum text representation. LIST columns map to Greenplum arrays,
+ * MAP and STRUCT columns (and LIST columns mapped to text) map to JSON.
+ * <p>
+ * Values are written straight from the {@link Group} into the output buffer
+ * (a {@link PgArrayBuilder} or a streaming {@link JsonGenerator}), without
+ * building intermediate Java collections or JSON trees.
+ * <p>
+ * LIST types are resolved following the backward-compatibility rules from
+ * the Parquet format specification, so both the standard 3-level structure
+ * and the legacy 2-level structures written by older writers are supported.
+ */
+public class ParquetComplexTypeSerializer {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final PgUtilities pgUtilities = new PgUtilities();
+
+    /**
+     * Returns true if the given type is annotated as a LIST
+     *
+     * @param type the parquet type
+     * @return true if the type is a LIST, false otherwise
+     */
+    public static boolean isList(Type type) {
+        return !type.isPrimitive() && type.getLogicalTypeAnnotation() instanceof ListLogicalTypeAnnotation;
+    }
+
+    /**
+     * Returns true if the given type is annotated as a MAP
+     *
+     * @param type the parquet type
+     * @return true if the type is a MAP, false otherwise
+     */
+    public static boolean isMap(Type type) {
+        LogicalTypeAnnotation annotation = type.getLogicalTypeAnnotation();
+        return !type.isPrimitive() &&
+                (annotation instanceof MapLogicalTypeAnnotation || annotation instanceof MapKeyValueTypeAnnotation);
+    }
+
+    /**
+     * Serializes the LIST at the given field of the group into Postgres
+     * array syntax. Nested lists become multi-dimensional arrays, and group
+     * elements become JSON strings.
+     *
+     * @param group      the group containing the list
+     * @param fieldIndex the index of the list field in the group
+     * @param listType   the LIST type
+     * @return the Postgres array text, or null when the list is null
+     */
+    public String serializeList(Group group, int fieldIndex, GroupType listType) {
+        if (group.getFieldRepetitionCount(fieldIndex) == 0) {
+            return null;
+        }
+
+        PgArrayBuilder pgArrayBuilder = new PgArrayBuilder(pgUtilities);
+        writeArray(pgArrayBuilder, group.getGroup(fieldIndex, 0), listType);
+        return pgArrayBuilder.toString();
+    }
+
+    /**
+     * Serializes the given field of the group (a LIST, MAP, STRUCT or a
+     * repeated field) into JSON.
+     *
+     * @param group      the group containing the field
+     * @param fieldIndex the index of the field in the group
+     * @param type       the type of the field
+     * @return the JSON text, or null when the field is null
+     */
+    public String serializeJson(Group group, int fieldIndex, Type type) {
+        int repetitionCount = group.getFieldRepetitionCount(fieldIndex);
+        if (repetitionCount == 0 && type.getRepetition() != REPEATED) {
+            return null;
+        }
+
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            writeJsonField(generator, group, fieldIndex, type, repetitionCount);
+        } catch (IOException e) {
+            throw new PxfRuntimeException(String.format("Failed to serialize parquet type %s", type.getName()), e);
+        }
+        return writer.toString();
+    }
+
+    private void writeArray(PgArrayBuilder pgArrayBuilder, Group listGroup, GroupType listType) {
+        Type repeatedType = listType.getType(0);
+        Type elementType = getListElementType(listType);
+        int size = listGroup.getFieldRepetitionCount(0);
+
+        pgArrayBuilder.startArray();
+        for (int i = 0; i < size; i++) {
+            if (elementType == repeatedType) {
+                // 2-level list, the repeated field is the element itself
+                addArrayElement(pgArrayBuilder, listGroup, 0, i, elementType);
+            } else {
+                // 3-level list, the element is the only field of the repeated group
+                Group repeatedGroup = listGroup.getGroup(0, i);
+                if (repeatedGroup.getFieldRepetitionCount(0) == 0) {
+                    pgArrayBuilder.addElementNoEscaping("NULL");
+                } else {
+                    addArrayElement(pgArrayBuilder, repeatedGroup, 0, 0, elementType);
+                }
+            }
+        }
+        pgArrayBuilder.endArray();
+    }
+
+    private void addArrayElement(PgArrayBuilder pgArrayBuilder, Group group, int fieldIndex, int index, Type elementType) {
+        if (isList(elementType)) {
+            PgArrayBuilder nested = new PgArrayBuilder(pgUtilities);
+            writeArray(nested, group.getGroup(fieldIndex, index), elementType.asGroupType());
+            pgArrayBuilder.addElementNoEscaping(nested.toString());
+        } else if (!elementType.isPrimitive()) {
+            StringWriter writer = new StringWriter();
+            try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+                writeJsonValue(generator, group, fieldIndex, index, elementType);
+            } catch (IOException e) {
+                throw new PxfRuntimeException(String.format("Failed to serialize parquet type %s", elementType.getName()), e);
+            }
+            pgArrayBuilder.addElement(writer.toString());
+        } else {
+            Object value = ParquetTypeConverter.from(elementType.asPrimitiveType())
+                    .getValue(group, fieldIndex, index, elementType);
+            if (value instanceof byte[]) {
+                pgArrayBuilder.addElementNoEscaping(pgUtilities.encodeAndEscapeByteaHex(ByteBuffer.wrap((byte[]) value)));
+            } else if (value instanceof String) {
+                pgArrayBuilder.addElement((String) value);
+            } else {
+                pgArrayBuilder.addElementNoEscaping(String.valueOf(value));
+            }
+        }
+    }
+
+    /**
+     * Writes all the values of a field. Repeated fields that are not part of
+     * a LIST are written as JSON arrays.
+     */
+    private void writeJsonField(JsonGenerator generator, Group group, int fieldIndex, Type type, int repetitionCount) throws IOException {
+        if (type.getRepetition() == REPEATED) {
+            generator.writeStartArray();
+            for (int i = 0; i < repetitionCount; i++) {
+                writeJsonValue(generator, group, fieldIndex, i, type);
+            }
+            generator.writeEndArray();
+        } else if (repetitionCount == 0) {
+            generator.writeNull();
+        } else {
+            writeJsonValue(generator, group, fieldIndex, 0, type);
+        }
+    }
+
+    private void writeJsonValue(JsonGenerator generator, Group group, int fieldIndex, int index, Type type) throws IOException {
+        if (type.isPrimitive()) {
+            writeJsonPrimitive(generator, ParquetTypeConverter.from(type.asPrimitiveType())
+                    .getValue(group, fieldIndex, index, type));
+            return;
+        }
+
+        GroupType groupType = type.asGroupType();
+        Group value = group.getGroup(fieldIndex, index);
+        if (isList(groupType)) {
+            writeJsonList(generator, value, groupType);
+        } else if (isMap(groupType)) {
+            writeJsonMap(generator, value, groupType);
+        } else {
+            generator.writeStartObject();
+            for (int i = 0; i < groupType.getFieldCount(); i++) {
+                Type fieldType = groupType.getType(i);
+                generator.writeFieldName(fieldType.getName());
+                writeJsonField(generator, value, i, fieldType, value.getFieldRepetitionCount(i));
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeJsonList(JsonGenerator generator, Group listGroup, GroupType listType) throws IOException {
+        Type repeatedType = listType.getType(0);
+        Type elementType = getListElementType(listType);
+        int size = listGroup.getFieldRepetitionCount(0);
+
+        generator.writeStartArray();
+        for (int i = 0; i < size; i++) {
+            if (elementType == repeatedType) {
+                writeJsonValue(generator, listGroup, 0, i, elementType);
+            } else {
+                Group repeatedGroup = listGroup.getGroup(0, i);
+                if (repeatedGroup.getFieldRepetitionCount(0) == 0) {
+                    generator.writeNull();
+                } else {
+                    writeJsonValue(generator, repeatedGroup, 0, 0, elementType);
+                }
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    private void writeJsonMap(JsonGenerator generator, Group mapGroup, GroupType mapType) throws IOException {
+        int size = mapGroup.getFieldRepetitionCount(0);
+        GroupType keyValueType = mapType.getType(0).asGroupType();
+        Type keyType = keyValueType.getType(0);
+        Type valueType = keyValueType.getFieldCount() > 1 ? keyValueType.getType(1) : null;
+
+        generator.writeStartObject();
+        for (int i = 0; i < size; i++) {
+            Group keyValue = mapGroup.getGroup(0, i);
+            generator.writeFieldName(getMapKey(keyValue, keyType));
+            if (valueType == null || keyValue.getFieldRepetitionCount(1) == 0) {
+                generator.writeNull();
+            } else {
+                writeJsonValue(generator, keyValue, 1, 0, valueType);
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Returns the text of a map key. JSON member names are text, so binary
+     * keys are decoded as UTF-8 whether or not they are annotated as strings.
+     */
+    private String getMapKey(Group keyValue, Type keyType) {
+        PrimitiveType primitiveType = keyType.asPrimitiveType();
+        if (primitiveType.getPrimitiveTypeName() == PrimitiveType.PrimitiveTypeName.BINARY) {
+            return keyValue.getBinary(0, 0).toStringUsingUTF8();
+        }
+        return String.valueOf(ParquetTypeConverter.from(primitiveType).getValue(keyValue, 0, 0, keyType));
+    }
+
+    private void writeJsonPrimitive(JsonGenerator generator, Object value) throws IOException {
+        if (value instanceof String) {
+            generator.writeString((String) value);
+        } else if (value instanceof Integer) {
+            generator.writeNumber((Integer) value);
+        } else if (value instanceof Long) {
+            generator.writeNumber((Long) value);
+        } else if (value instanceof Short) {
+            generator.writeNumber((Short) value);
+        } else if (value instanceof Double) {
+            generator.writeNumber((Double) value);
+        } else if (value instanceof Float) {
+            generator.writeNumber((Float) value);
+        } else if (value instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof byte[]) {
+            generator.writeBinary((byte[]) value);
+        } else {
+            // dates are serialized using their string representation
+            generator.writeString(String.valueOf(value));
+        }
+    }
+
+    /**
+     * Returns the type of the elements of the given LIST type, following the
+     * backward-compatibility rules for LIST in the Parquet format
+     * specification. When the repeated field is itself the element, the
+     * repeated type is returned.
+     *
+     * @param listType the LIST type
+     * @return the type of the elements in the list
+     */
+    static Type getListElementType(GroupType listType) {
+        Type repeatedType = listType.getType(0);
+        if (repeatedType.isPrimitive()) {
+            return repeatedType;
+        }
+        GroupType repeatedGroup = repeatedType.asGroupType();
+        if (repeatedGroup.getFieldCount() > 1 ||
+                "array".equals(repeatedGroup.getName()) ||
+                (listType.getName() + "_tuple").equals(repeatedGroup.getName())) {
+            return repeatedType;
+        }
+        return repeatedGroup.getType(0);
+    }
+}
@@ -0,0 +1,221 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnWriteStore;
+import org.apache.parquet.column.ColumnWriter;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.column.ParquetProperties.WriterVersion;
+import org.apache.parquet.column.impl.ColumnWriteStoreV1;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetOutputFormat;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.util.HadoopOutputFile;
+import org.apache.parquet.io.ParquetEncodingException;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes rows into a Parquet file by encoding the values of every row
+ * straight into the column writers, without building a
+ * {@link org.apache.parquet.example.data.Group} for every row and without
+ * going through a record consumer. The pages produced by the column writers
+ * are compressed on the threads shared by the service (see
+ * {@link ParallelCompressionPageWriteStore}), so encoding and compression of
+ * different columns overlap.
+ * <p>
+ * Rows are arrays with the Parquet representation of every top-level field
+ * (an Integer, Long, Float, Double, Boolean or {@link Binary}, or null), as
+ * produced by {@link org.greenplum.pxf.plugins.hdfs.ParquetResolver}. Only
+ * schemas with primitive top-level fields are supported.
+ */
+public class ParquetDirectWriter {
+
+    public static final String PXF_PARQUET_WRITE_DIRECT_ENABLED_PROPERTY = "pxf.parquet.write.direct.enabled";
+    public static final String PXF_PARQUET_WRITE_COMPRESSION_THREADS_PROPERTY = "pxf.parquet.write.compression-threads";
+    public static final int DEFAULT_COMPRESSION_THREADS = 4;
+
+    // From org.apache.parquet.hadoop.InternalParquetRecordWriter
+    private static final int MINIMUM_RECORD_COUNT_FOR_CHECK = 100;
+    private static final int MAXIMUM_RECORD_COUNT_FOR_CHECK = 10000;
+
+    private final MessageType schema;
+    private final ParquetProperties properties;
+    private final long rowGroupSize;
+    private final ParquetFileWriter fileWriter;
+    private final ParallelCompressionPageWriteStore pageStore;
+    private final List<ColumnDescriptor> columns;
+    private final ColumnWriter[] columnWriters;
+    private final int[] maxDefinitionLevels;
+
+    private ColumnWriteStore columnStore;
+    private long recordCount;
+    private long nextRowGroupSize;
+    private long recordCountForNextMemCheck = MINIMUM_RECORD_COUNT_FOR_CHECK;
+
+    /**
+     * Returns true when the rows for the request are encoded directly into
+     * the column writers. Direct encoding is enabled with the
+     * {@code pxf.parquet.write.direct.enabled} property, and is only
+     * available for Parquet version 1.0 files.
+     *
+     * @param context the request context
+     * @return true when rows are written with the direct writer
+     */
+    public static boolean isEnabled(RequestContext context) {
+        Configuration configuration = context.getConfiguration();
+        if (configuration == null || !configuration.getBoolean(PXF_PARQUET_WRITE_DIRECT_ENABLED_PROPERTY, false)) {
+            return false;
+        }
+        String parquetVersion = context.getOption("PARQUET_VERSION");
+        return parquetVersion == null ||
+                WriterVersion.fromString(parquetVersion.toLowerCase()) == WriterVersion.PARQUET_1_0;
+    }
+
+    /**
+     * Creates the file and a writer for it
+     *
+     * @param configuration the configuration
+     * @param file          the path of the file
+     * @param schema        the schema of the file
+     * @param codecName     the compression codec for the pages
+     * @param properties    the properties for the column writers
+     * @param rowGroupSize  the target size of a row group
+     * @param taskExecutor  the executor that compresses the pages
+     * @param threads       the maximum number of pages that are compressed at once
+     * @throws IOException when the file can't be created
+     */
+    public ParquetDirectWriter(Configuration configuration,
+                               Path file,
+                               MessageType schema,
+                               CompressionCodecName codecName,
+                               ParquetProperties properties,
+                               long rowGroupSize,
+                               PluginTaskExecutor taskExecutor,
+                               int threads) throws IOException {
+        this.schema = schema;
+        this.properties = properties;
+        this.rowGroupSize = rowGroupSize;
+        this.nextRowGroupSize = rowGroupSize;
+        this.columns = schema.getColumns();
+        if (columns.size() != schema.getFieldCount()) {
+            throw new UnsupportedOperationException("Only schemas with primitive fields can be written directly");
+        }
+
+        int maxPaddingSize = configuration.getInt(ParquetOutputFormat.MAX_PADDING_BYTES, ParquetWriter.MAX_PADDING_SIZE_DEFAULT);
+        this.fileWriter = new ParquetFileWriter(HadoopOutputFile.fromPath(file, configuration), schema,
+                ParquetFileWriter.Mode.CREATE, rowGroupSize, maxPaddingSize,
+                properties.getColumnIndexTruncateLength(), properties.getStatisticsTruncateLength(),
+                properties.getPageWriteChecksumEnabled());
+        this.fileWriter.start();
+        this.pageStore = new ParallelCompressionPageWriteStore(configuration, schema, codecName, properties.getPageSizeThreshold(), taskExecutor, threads);
+        this.columnWriters = new ColumnWriter[columns.size()];
+        this.maxDefinitionLevels = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            maxDefinitionLevels[i] = columns.get(i).getMaxDefinitionLevel();
+        }
+        initStore();
+    }
+
+    /**
+     * Writes a row. Values are written with repetition level 0, a null value
+     * for a repeated field is written as an empty list.
+     *
+     * @param values the Parquet values for every field of the schema
+     * @throws IOException when flushing a row group fails
+     */
+    public void write(Object[] values) throws IOException {
+        for (int i = 0; i < columnWriters.length; i++) {
+            Object value = values[i];
+            ColumnWriter columnWriter = columnWriters[i];
+            int maxDefinitionLevel = maxDefinitionLevels[i];
+
+            if (value == null) {
+                if (maxDefinitionLevel == 0) {
+                    throw new ParquetEncodingException(String.format("null value for required field %s",
+                            schema.getFieldName(i)));
+                }
+                columnWriter.writeNull(0, maxDefinitionLevel - 1);
+            } else if (value instanceof Integer) {
+                columnWriter.write((int) value, 0, maxDefinitionLevel);
+            } else if (value instanceof Long) {
+                columnWriter.write((long) value, 0, maxDefinitionLevel);
+            } else if (value instanceof Double) {
+                columnWriter.write((double) value, 0, maxDefinitionLevel);
+            } else if (value instanceof Float) {
+                columnWriter.write((float) value, 0, maxDefinitionLevel);
+            } else if (value instanceof Boolean) {
+                columnWriter.write((boolean) value, 0, maxDefinitionLevel);
+            } else {
+                columnWriter.write((Binary) value, 0, maxDefinitionLevel);
+            }
+        }
+        columnStore.endRecord();
+        recordCount++;
+        checkBlockSizeReached();
+    }
+
+    /**
+     * Flushes the last row group and writes the footer of the file
+     *
+     * @throws IOException when writing to the file fails
+     */
+    public void close() throws IOException {
+        try {
+            flushRowGroup();
+            fileWriter.end(Collections.emptyMap());
+        } finally {
+            pageStore.close();
+        }
+    }
+
+    // From org.apache.parquet.hadoop.InternalParquetRecordWriter#checkBlockSizeReached
+    private void checkBlockSizeReached() throws IOException {
+        if (recordCount < recordCountForNextMemCheck) {
+            return;
+        }
+
+        long memSize = columnStore.getBufferedSize();
+        long recordSize = memSize / recordCount;
+        if (memSize > (nextRowGroupSize - 2 * recordSize)) {
+            long flushedRecordCount = recordCount;
+            flushRowGroup();
+            initStore();
+            recordCountForNextMemCheck = Math.min(
+                    Math.max(MINIMUM_RECORD_COUNT_FOR_CHECK, flushedRecordCount / 2),
+                    MAXIMUM_RECORD_COUNT_FOR_CHECK);
+        } else {
+            recordCountForNextMemCheck = Math.min(
+                    Math.max(MINIMUM_RECORD_COUNT_FOR_CHECK, (recordCount + (long) (nextRowGroupSize / ((float) recordSize))) / 2),
+                    recordCount + MAXIMUM_RECORD_COUNT_FOR_CHECK);
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (recordCount > 0) {
+            // writes the last page of every column, and the dictionary pages
+            columnStore.flush();
+            fileWriter.startBlock(recordCount);
+            pageStore.flushToFileWriter(fileWriter);
+            fileWriter.endBlock();
+            recordCount = 0;
+            nextRowGroupSize = Math.min(fileWriter.getNextRowGroupSize(), rowGroupSize);
+        }
+        columnStore.close();
+    }
+
+    private void initStore() {
+        columnStore = new ColumnWriteStoreV1(schema, pageStore, properties);
+        for (int i = 0; i < columns.size(); i++) {
+            columnWriters[i] = columnStore.getColumnWriter(columns.get(i));
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.InvalidInputException;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.parquet.HadoopReadOptions;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.compat.RowGroupFilter;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+import org.greenplum.pxf.api.filter.FilterParser;
+import org.greenplum.pxf.api.filter.InOperatorTransformer;
+import org.greenplum.pxf.api.filter.Node;
+import org.greenplum.pxf.api.filter.TreeTraverser;
+import org.greenplum.pxf.api.filter.TreeVisitor;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.HdfsDataFragmenter;
+import org.greenplum.pxf.plugins.hdfs.ParquetFileAccessor;
+import org.greenplum.pxf.plugins.hdfs.filter.BPCharOperatorTransformer;
+import org.greenplum.pxf.plugins.hdfs.utilities.PxfInputFormat;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fragmenter for Parquet files. Instead of following HDFS block boundaries,
+ * this fragmenter reads the footer of every file and emits fragments that
+ * consist of whole row groups, grouping consecutive row groups together until
+ * the target fragment size is reached. When a filter is pushed down, row
+ * groups whose statistics can't satisfy the filter are dropped before any
+ * segment is involved, and files with no remaining row groups produce no
+ * fragments at all.
+ * <p>
+ * The resulting fragments carry the byte range spanned by their row groups,
+ * so {@link ParquetFileAccessor} reads exactly those row groups.
+ */
+public class ParquetFragmenter extends HdfsDataFragmenter {
+
+    public static final String PXF_PARQUET_FRAGMENT_SIZE_PROPERTY = "pxf.parquet.fragment.size";
+    static final String FRAGMENT_SIZE_OPTION = "FRAGMENT_SIZE";
+    static final int DEFAULT_FRAGMENT_SIZE = 128 * 1024 * 1024;
+
+    private static final TreeTraverser TRAVERSER = new TreeTraverser();
+    private static final TreeVisitor IN_OPERATOR_TRANSFORMER = new InOperatorTransformer();
+    private static final List<RowGroupFilter.FilterLevel> FILTER_LEVELS = Collections.singletonList(RowGroupFilter.FilterLevel.STATISTICS);
+
+    private long fragmentSize;
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        int defaultFragmentSize = configuration.getInt(PXF_PARQUET_FRAGMENT_SIZE_PROPERTY, DEFAULT_FRAGMENT_SIZE);
+        fragmentSize = context.getOption(FRAGMENT_SIZE_OPTION, defaultFragmentSize, true);
+    }
+
+    /**
+     * Gets the fragments for a data source URI that can appear as a file name,
+     * a directory name or a wildcard. Every fragment is a contiguous run of
+     * whole row groups of a single file.
+     */
+    @Override
+    public List<Fragment> getFragments() throws Exception {
+        JobConf jobConf = getJobConf();
+        Path path = new Path(hcfsType.getDataUri(context));
+
+        PxfInputFormat pxfInputFormat = new PxfInputFormat();
+        PxfInputFormat.setInputPaths(jobConf, path);
+
+        FileStatus[] fileStatusArray;
+        try {
+            fileStatusArray = pxfInputFormat.listStatus(jobConf);
+        } catch (InvalidInputException e) {
+            if (StringUtils.equalsIgnoreCase("true", context.getOption(IGNORE_MISSING_PATH_OPTION))) {
+                LOG.debug("Ignoring InvalidInputException", e);
+                return fragments;
+            }
+            throw e;
+        }
+
+        int totalRowGroups = 0, prunedRowGroups = 0;
+        for (FileStatus fileStatus : fileStatusArray) {
+            if (fileStatus.getLen() == 0) {
+                continue;
+            }
+
+            List<BlockMetaData> blocks;
+            List<BlockMetaData> matchingBlocks;
+            try (ParquetFileReader parquetFileReader = openReader(fileStatus)) {
+                blocks = parquetFileReader.getFooter().getBlocks();
+                matchingBlocks = filterRowGroups(blocks, parquetFileReader);
+            }
+            totalRowGroups += blocks.size();
+            prunedRowGroups += blocks.size() - matchingBlocks.size();
+
+            addFragments(fileStatus.getPath().toUri().toString(), blocks, matchingBlocks);
+        }
+
+        LOG.debug("Total number of fragments = {}, row groups = {}, pruned row groups = {}",
+                fragments.size(), totalRowGroups, prunedRowGroups);
+        return fragments;
+    }
+
+    /**
+     * Groups the matching row groups of a file into fragments. A fragment is
+     * closed when adding the next row group would exceed the target size, or
+     * when the next matching row group is not adjacent to the previous one
+     * (i.e. a row group in between was pruned).
+     *
+     * @param filepath       the path of the file
+     * @param blocks         all the row groups of the file
+     * @param matchingBlocks the row groups that survived pruning, in file order
+     */
+    private void addFragments(String filepath, List<BlockMetaData> blocks, List<BlockMetaData> matchingBlocks) {
+        Set<BlockMetaData> matching = Collections.newSetFromMap(new IdentityHashMap<>());
+        matching.addAll(matchingBlocks);
+        long start = -1, end = -1;
+
+        for (BlockMetaData block : blocks) {
+            long blockStart = block.getStartingPos();
+            long blockEnd = blockStart + block.getCompressedSize();
+            boolean isMatching = matching.contains(block);
+
+            if (start >= 0 && (!isMatching || blockEnd - start > fragmentSize)) {
+                fragments.add(new Fragment(filepath, new HcfsFragmentMetadata(start, end - start)));
+                start = -1;
+            }
+            if (!isMatching) {
+                continue;
+            }
+            if (start < 0) {
+                start = blockStart;
+            }
+            end = blockEnd;
+        }
+
+        if (start >= 0) {
+            fragments.add(new Fragment(filepath, new HcfsFragmentMetadata(start, end - start)));
+        }
+    }
+
+    /**
+     * Drops the row groups whose statistics can't satisfy the pushed-down
+     * filter. If there is no filter, or the filter can't be translated into
+     * a Parquet filter, all row groups are returned. Only the statistics of
+     * the footer are used, the dictionaries are left to the accessors.
+     *
+     * @param blocks            the row groups of the file
+     * @param parquetFileReader the reader of the file
+     * @return the row groups that may contain matching rows
+     */
+    private List<BlockMetaData> filterRowGroups(List<BlockMetaData> blocks, ParquetFileReader parquetFileReader) {
+        String filterString = context.getFilterString();
+        if (StringUtils.isBlank(filterString) || blocks.isEmpty()) {
+            return blocks;
+        }
+
+        List<ColumnDescriptor> tupleDescription = context.getTupleDescription();
+        MessageType schema = parquetFileReader.getFileMetaData().getSchema();
+        Map<String, Type> originalFieldsMap = ParquetFileAccessor.getOriginalFieldsMap(schema);
+        ParquetRecordFilterBuilder filterBuilder = new ParquetRecordFilterBuilder(
+                tupleDescription, originalFieldsMap);
+        TreeVisitor pruner = new ParquetOperatorPruner(
+                tupleDescription, originalFieldsMap, ParquetFileAccessor.SUPPORTED_OPERATORS);
+        TreeVisitor bpCharTransformer = new BPCharOperatorTransformer(tupleDescription);
+
+        try {
+            Node root = new FilterParser().parse(filterString);
+            TRAVERSER.traverse(root, IN_OPERATOR_TRANSFORMER, pruner, bpCharTransformer, filterBuilder);
+            FilterCompat.Filter recordFilter = filterBuilder.getRecordFilter();
+            return RowGroupFilter.filterRowGroups(FILTER_LEVELS, recordFilter, blocks, parquetFileReader);
+        } catch (Exception e) {
+            LOG.warn(String.format("Unable to prune row groups for filter %s, all row groups will be returned",
+                    filterString), e);
+            return blocks;
+        }
+    }
+
+    /**
+     * Opens the given parquet file and reads its footer, including the
+     * metadata for all the row groups in the file.
+     *
+     * @param fileStatus the status of the parquet file
+     * @return the reader of the file
+     * @throws IOException when unable to read the footer
+     */
+    private ParquetFileReader openReader(FileStatus fileStatus) throws IOException {
+        ParquetReadOptions parquetReadOptions = HadoopReadOptions
+                .builder(configuration)
+                .withMetadataFilter(ParquetMetadataConverter.NO_FILTER)
+                .build();
+        HadoopInputFile inputFile = HadoopInputFile.fromStatus(fileStatus, configuration);
+        return ParquetFileReader.open(inputFile, parquetReadOptions);
+    }
+}
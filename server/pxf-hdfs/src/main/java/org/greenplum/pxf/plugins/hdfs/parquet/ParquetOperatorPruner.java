@@ -68,7 +68,8 @@ public class ParquetOperatorPruner extends SupportedOperatorPruner {
     }
 
     /**
-     * Returns the parquet primitive type for the given column index
+     * Returns the parquet primitive type for the given column index, or
+     * null if the column is a complex type
      *
      * @param operatorNode the operator node
      * @return the parquet primitive type for the given column index
@@ -78,6 +79,6 @@ public class ParquetOperatorPruner extends SupportedOperatorPruner {
         ColumnDescriptor columnDescriptor = columnDescriptors.get(columnIndexOperand.index());
         String filterColumnName = columnDescriptor.columnName();
         Type type = fields.get(filterColumnName);
-        return type.asPrimitiveType().getPrimitiveTypeName();
+        return type.isPrimitive() ? type.asPrimitiveType().getPrimitiveTypeName() : null;
     }
 }
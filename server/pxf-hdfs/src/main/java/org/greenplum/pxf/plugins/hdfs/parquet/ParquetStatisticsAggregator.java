@@ -0,0 +1,149 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
+
+import java.util.List;
+
+import static org.apache.parquet.schema.LogicalTypeAnnotation.DecimalLogicalTypeAnnotation;
+import static org.apache.parquet.schema.LogicalTypeAnnotation.IntLogicalTypeAnnotation;
+
+/**
+ * Answers aggregates from the statistics of the row groups of a Parquet
+ * file. COUNT(*) is answered with the number of rows of the row groups, MIN
+ * and MAX with the minimum and maximum of the column across the row groups.
+ * Parquet statistics don't keep the sum of a column, so SUM is not answered.
+ * <p>
+ * Only the statistics of signed integer, floating point, decimal and date
+ * columns are used; the minimum and maximum of strings follow the byte order
+ * rather than the collation of the database.
+ */
+public final class ParquetStatisticsAggregator {
+
+    /**
+     * Returned when the statistics can't answer the aggregate
+     */
+    public static final long UNAVAILABLE = -1;
+
+    private ParquetStatisticsAggregator() {
+    }
+
+    /**
+     * Computes the aggregate for the given row groups. For COUNT(*), the
+     * group is left empty, so every column resolves to null, and the
+     * returned number of rows is the row count of the row groups. For column
+     * aggregates, the first field of the group is the aggregated column and
+     * is set to the aggregate; a single row is returned, unless the column
+     * only has nulls in the row groups.
+     *
+     * @param aggType the aggregate to compute
+     * @param blocks  the row groups of the fragment
+     * @param group   the group the aggregate is written to
+     * @return the number of rows of the aggregate, or {@link #UNAVAILABLE}
+     */
+    public static long aggregate(EnumAggregationType aggType, List<BlockMetaData> blocks, Group group) {
+        if (!aggType.isColumnAggregate()) {
+            long rowCount = 0;
+            for (BlockMetaData block : blocks) {
+                rowCount += block.getRowCount();
+            }
+            return rowCount;
+        }
+
+        if (aggType == EnumAggregationType.SUM || group.getType().getFieldCount() != 1) {
+            return UNAVAILABLE;
+        }
+        Type type = group.getType().getType(0);
+        if (!hasUsableStatistics(type)) {
+            return UNAVAILABLE;
+        }
+        PrimitiveType primitiveType = type.asPrimitiveType();
+        ColumnPath path = ColumnPath.get(primitiveType.getName());
+
+        Statistics<?> merged = Statistics.createStats(primitiveType);
+        for (BlockMetaData block : blocks) {
+            Statistics<?> statistics = getStatistics(block, path);
+            if (statistics == null || statistics.isEmpty()) {
+                return UNAVAILABLE;
+            }
+            merged.mergeStatistics(statistics);
+        }
+        if (!merged.hasNonNullValue()) {
+            // the column only has nulls
+            return 0;
+        }
+
+        Object value = aggType == EnumAggregationType.MIN ? merged.genericGetMin() : merged.genericGetMax();
+        switch (primitiveType.getPrimitiveTypeName()) {
+            case INT32:
+                group.add(0, (Integer) value);
+                break;
+            case INT64:
+                group.add(0, (Long) value);
+                break;
+            case FLOAT:
+                if (Float.isNaN((Float) value)) {
+                    return UNAVAILABLE;
+                }
+                group.add(0, (Float) value);
+                break;
+            case DOUBLE:
+                if (Double.isNaN((Double) value)) {
+                    return UNAVAILABLE;
+                }
+                group.add(0, (Double) value);
+                break;
+            case FIXED_LEN_BYTE_ARRAY:
+                group.add(0, (Binary) value);
+                break;
+            default:
+                return UNAVAILABLE;
+        }
+        return 1;
+    }
+
+    /**
+     * Returns true for the types whose statistics can answer aggregates
+     */
+    private static boolean hasUsableStatistics(Type type) {
+        if (!type.isPrimitive() || type.isRepetition(Type.Repetition.REPEATED)) {
+            return false;
+        }
+        LogicalTypeAnnotation logicalType = type.getLogicalTypeAnnotation();
+        switch (type.asPrimitiveType().getPrimitiveTypeName()) {
+            case INT32:
+            case INT64:
+                // the statistics of unsigned integers are ordered as unsigned
+                return !(logicalType instanceof IntLogicalTypeAnnotation) ||
+                        ((IntLogicalTypeAnnotation) logicalType).isSigned();
+            case FLOAT:
+            case DOUBLE:
+                return true;
+            case FIXED_LEN_BYTE_ARRAY:
+                return logicalType instanceof DecimalLogicalTypeAnnotation;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns the statistics of the column chunk of the row group, or null
+     * if the row group has no such column chunk
+     */
+    private static Statistics<?> getStatistics(BlockMetaData block, ColumnPath path) {
+        for (ColumnChunkMetaData column : block.getColumns()) {
+            if (column.getPath().equals(path)) {
+                return column.getStatistics();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,399 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+import org.apache.parquet.schema.MessageType;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * An {@link InputFile} that schedules the I/O for the column chunks of the
+ * row groups that are going to be read. Column chunks of projected columns
+ * that are adjacent (or separated by a small gap) are coalesced into a single
+ * range, the ranges of a row group are fetched in parallel on the threads
+ * of the {@link PluginTaskExecutor}, and the ranges of the next row group are prefetched while the
+ * current row group is being decoded.
+ * <p>
+ * Reads are driven by the Parquet reader: when the reader touches a row group
+ * for the first time, the row group is fetched (if it wasn't prefetched
+ * already), the ranges of previous row groups are released, and the next row
+ * group is prefetched as long as the prefetched data stays within the memory
+ * budget of the reader, and within the memory budget shared by all the
+ * readers. Reads that fall outside of the scheduled ranges (the footer, or row
+ * groups that exceed the memory budgets) go straight to the underlying file.
+ * <p>
+ * This class is not thread-safe; it is meant to be used by a single reader.
+ */
+public class PrefetchingInputFile implements InputFile {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrefetchingInputFile.class);
+
+    // ranges larger than this are not coalesced any further
+    private static final long MAX_RANGE_SIZE = 128 * 1024 * 1024;
+
+    private final InputFile delegate;
+    private final PluginTaskExecutor taskExecutor;
+    private final ExecutorService executor;
+    private final long memoryBudget;
+    private final List<RowGroupRanges> rowGroups;
+    private final TreeMap<Long, Range> rangesByOffset = new TreeMap<>();
+
+    private long bufferedBytes;
+    private int currentRowGroup = -1;
+    private long prefetchedReads, directReads;
+
+    /**
+     * Creates a new prefetching input file
+     *
+     * @param delegate     the file to read from
+     * @param blocks       the row groups that are going to be read, in file order
+     * @param readSchema   the projected schema, only the column chunks of these columns are fetched
+     * @param maxGap       the maximum gap, in bytes, between two column chunks that are coalesced into one range
+     * @param memoryBudget the maximum number of bytes that are fetched ahead of the reader
+     * @param taskExecutor the executor that issues the reads, and provides the shared memory budget
+     * @param threads      the maximum number of reads that are issued at once
+     */
+    public PrefetchingInputFile(InputFile delegate,
+                                List<BlockMetaData> blocks,
+                                MessageType readSchema,
+                                long maxGap,
+                                long memoryBudget,
+                                PluginTaskExecutor taskExecutor,
+                                int threads) {
+        this.delegate = delegate;
+        this.taskExecutor = taskExecutor;
+        this.executor = taskExecutor.newExecutor(threads);
+        this.memoryBudget = memoryBudget;
+        this.rowGroups = new ArrayList<>(blocks.size());
+
+        for (BlockMetaData block : blocks) {
+            RowGroupRanges rowGroup = new RowGroupRanges(rowGroups.size(), coalesce(block, readSchema, maxGap));
+            rowGroups.add(rowGroup);
+            for (Range range : rowGroup.ranges) {
+                rangesByOffset.put(range.offset, range);
+            }
+        }
+    }
+
+    @Override
+    public long getLength() throws IOException {
+        return delegate.getLength();
+    }
+
+    @Override
+    public SeekableInputStream newStream() {
+        return new PrefetchingInputStream();
+    }
+
+    /**
+     * @return the number of reads that were served from prefetched ranges
+     */
+    public long getPrefetchedReads() {
+        return prefetchedReads;
+    }
+
+    /**
+     * @return the number of reads that were served by the underlying file
+     */
+    public long getDirectReads() {
+        return directReads;
+    }
+
+    /**
+     * Cancels all the outstanding reads and releases the prefetched data
+     */
+    public void close() {
+        executor.shutdownNow();
+        for (RowGroupRanges rowGroup : rowGroups) {
+            release(rowGroup);
+        }
+    }
+
+    /**
+     * Computes the coalesced byte ranges for the projected column chunks of
+     * the given row group. Column chunks are ordered by their position in the
+     * file, and consecutive column chunks are merged into a single range when
+     * the gap between them is at most {@code maxGap} bytes.
+     */
+    static List<Range> coalesce(BlockMetaData block, MessageType readSchema, long maxGap) {
+        List<ColumnChunkMetaData> chunks = new ArrayList<>();
+        for (ColumnChunkMetaData chunk : block.getColumns()) {
+            if (readSchema.containsPath(chunk.getPath().toArray())) {
+                chunks.add(chunk);
+            }
+        }
+        chunks.sort((a, b) -> Long.compare(a.getStartingPos(), b.getStartingPos()));
+
+        List<Range> ranges = new ArrayList<>();
+        long start = -1, end = -1;
+        for (ColumnChunkMetaData chunk : chunks) {
+            long chunkStart = chunk.getStartingPos();
+            long chunkEnd = chunkStart + chunk.getTotalSize();
+            if (start >= 0 && (chunkStart - end > maxGap || chunkEnd - start > MAX_RANGE_SIZE)) {
+                ranges.add(new Range(start, end - start));
+                start = -1;
+            }
+            if (start < 0) {
+                start = chunkStart;
+            }
+            end = Math.max(end, chunkEnd);
+        }
+        if (start >= 0) {
+            ranges.add(new Range(start, end - start));
+        }
+        return ranges;
+    }
+
+    /**
+     * Returns the scheduled range that contains the given position, making
+     * sure that the row group of the range is being fetched, and that the next
+     * row group is prefetched.
+     */
+    private Range getRange(long position) {
+        Map.Entry<Long, Range> entry = rangesByOffset.floorEntry(position);
+        if (entry == null || position >= entry.getValue().offset + entry.getValue().length) {
+            return null;
+        }
+
+        Range range = entry.getValue();
+        if (range.rowGroup.index != currentRowGroup) {
+            advanceTo(range.rowGroup.index);
+        }
+        return range.future != null ? range : null;
+    }
+
+    private void advanceTo(int index) {
+        LOG.debug("Reader moved to row group {}", index);
+        currentRowGroup = index;
+        for (int i = 0; i < index; i++) {
+            release(rowGroups.get(i));
+        }
+        schedule(rowGroups.get(index));
+        if (index + 1 < rowGroups.size()) {
+            schedule(rowGroups.get(index + 1));
+        }
+    }
+
+    private void schedule(RowGroupRanges rowGroup) {
+        if (rowGroup.scheduled || rowGroup.released) {
+            return;
+        }
+        if (bufferedBytes + rowGroup.size > memoryBudget || rowGroup.maxRangeSize > Integer.MAX_VALUE) {
+            LOG.debug("Not prefetching row group {} of size {}, {} bytes already buffered with a budget of {}",
+                    rowGroup.index, rowGroup.size, bufferedBytes, memoryBudget);
+            return;
+        }
+        if (!taskExecutor.tryReserveMemory(rowGroup.size)) {
+            LOG.debug("Not prefetching row group {} of size {}, the shared memory budget is exhausted",
+                    rowGroup.index, rowGroup.size);
+            return;
+        }
+
+        LOG.debug("Fetching row group {} in {} ranges, {} bytes", rowGroup.index, rowGroup.ranges.size(), rowGroup.size);
+        rowGroup.scheduled = true;
+        bufferedBytes += rowGroup.size;
+        for (Range range : rowGroup.ranges) {
+            range.future = executor.submit(() -> fetch(range));
+        }
+    }
+
+    private void release(RowGroupRanges rowGroup) {
+        if (rowGroup.released) {
+            return;
+        }
+        rowGroup.released = true;
+        if (rowGroup.scheduled) {
+            bufferedBytes -= rowGroup.size;
+            taskExecutor.releaseMemory(rowGroup.size);
+            for (Range range : rowGroup.ranges) {
+                range.future.cancel(true);
+                range.future = null;
+            }
+        }
+    }
+
+    private byte[] fetch(Range range) throws IOException {
+        byte[] buffer = new byte[(int) range.length];
+        try (SeekableInputStream in = delegate.newStream()) {
+            in.seek(range.offset);
+            in.readFully(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * A byte range of the file, a run of coalesced column chunks
+     */
+    static class Range {
+        final long offset;
+        final long length;
+        RowGroupRanges rowGroup;
+        Future<byte[]> future;
+
+        Range(long offset, long length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        byte[] get() throws IOException {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for prefetched data");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+            }
+        }
+    }
+
+    /**
+     * The ranges of a single row group
+     */
+    private static class RowGroupRanges {
+        final int index;
+        final List<Range> ranges;
+        final long size;
+        final long maxRangeSize;
+        boolean scheduled;
+        boolean released;
+
+        RowGroupRanges(int index, List<Range> ranges) {
+            this.index = index;
+            this.ranges = ranges;
+            long size = 0, maxRangeSize = 0;
+            for (Range range : ranges) {
+                range.rowGroup = this;
+                size += range.length;
+                maxRangeSize = Math.max(maxRangeSize, range.length);
+            }
+            this.size = size;
+            this.maxRangeSize = maxRangeSize;
+        }
+    }
+
+    /**
+     * A stream that serves reads from the prefetched ranges when possible, and
+     * from the underlying file otherwise.
+     */
+    private class PrefetchingInputStream extends SeekableInputStream {
+
+        private SeekableInputStream stream;
+        private long pos;
+
+        @Override
+        public long getPos() {
+            return pos;
+        }
+
+        @Override
+        public void seek(long newPos) {
+            pos = newPos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            int n;
+            Range range = getRange(pos);
+            if (range != null) {
+                byte[] data = range.get();
+                int offsetInRange = (int) (pos - range.offset);
+                n = Math.min(len, data.length - offsetInRange);
+                System.arraycopy(data, offsetInRange, b, off, n);
+                prefetchedReads++;
+            } else {
+                SeekableInputStream in = getStream();
+                in.seek(pos);
+                n = in.read(b, off, len);
+                directReads++;
+            }
+            if (n > 0) {
+                pos += n;
+            }
+            return n;
+        }
+
+        @Override
+        public void readFully(byte[] bytes) throws IOException {
+            readFully(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void readFully(byte[] bytes, int start, int len) throws IOException {
+            int read = 0;
+            while (read < len) {
+                int n = read(bytes, start + read, len - read);
+                if (n < 0) {
+                    throw new EOFException("Reached the end of stream with " + (len - read) + " bytes left to read");
+                }
+                read += n;
+            }
+        }
+
+        @Override
+        public int read(ByteBuffer buf) throws IOException {
+            if (buf.hasArray()) {
+                int n = read(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+                if (n > 0) {
+                    buf.position(buf.position() + n);
+                }
+                return n;
+            }
+            byte[] temp = new byte[buf.remaining()];
+            int n = read(temp, 0, temp.length);
+            if (n > 0) {
+                buf.put(temp, 0, n);
+            }
+            return n;
+        }
+
+        @Override
+        public void readFully(ByteBuffer buf) throws IOException {
+            while (buf.hasRemaining()) {
+                if (read(buf) < 0) {
+                    throw new EOFException("Reached the end of stream with " + buf.remaining() + " bytes left to read");
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (stream != null) {
+                stream.close();
+            }
+        }
+
+        private SeekableInputStream getStream() throws IOException {
+            if (stream == null) {
+                stream = delegate.newStream();
+            }
+            return stream;
+        }
+    }
+}
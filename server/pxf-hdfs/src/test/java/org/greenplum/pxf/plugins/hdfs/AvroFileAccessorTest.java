@@ -1,26 +1,42 @@
 package org.greenplum.pxf.plugins.hdfs;
 
 import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
 import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
 import org.greenplum.pxf.plugins.hdfs.avro.AvroUtilities;
+import org.greenplum.pxf.plugins.hdfs.utilities.PgUtilities;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class AvroFileAccessorTest {
+
+    private static final PluginTaskExecutor TASK_EXECUTOR = new PluginTaskExecutor(4, DataSize.ofMegabytes(512));
+
     AvroFileAccessor accessor;
     RequestContext context;
     String avroDirectory;
 
     @BeforeEach
     public void setup() {
-        accessor = new AvroFileAccessor(new AvroUtilities());
+        accessor = new AvroFileAccessor(new AvroUtilities(), TASK_EXECUTOR);
         context = new RequestContext();
         context.setConfig("fakeConfig");
         context.setServerName("fakeServerName");
@@ -43,6 +59,88 @@ public class AvroFileAccessorTest {
         verifySchema(schema, "example_schema");
     }
 
+    @Test
+    public void testReadWithColumnProjection() throws Exception {
+        List<ColumnDescriptor> columnDescriptors = Arrays.asList(
+                new ColumnDescriptor("id", DataType.BIGINT.getOID(), 0, "int8", null, false),
+                new ColumnDescriptor("username", DataType.TEXT.getOID(), 1, "text", null, true),
+                new ColumnDescriptor("followers", DataType.TEXTARRAY.getOID(), 2, "text[]", null, false));
+        List<List<OneField>> rows = readAll(columnDescriptors);
+
+        assertEquals(2, rows.size());
+        for (List<OneField> fields : rows) {
+            assertEquals(3, fields.size());
+            assertNull(fields.get(0).val);
+            assertNotNull(fields.get(1).val);
+            assertNull(fields.get(2).val);
+        }
+        assertEquals("john", rows.get(0).get(1).val);
+        assertEquals("jane", rows.get(1).get(1).val);
+    }
+
+    @Test
+    public void testReadWithoutColumnProjection() throws Exception {
+        List<ColumnDescriptor> columnDescriptors = Arrays.asList(
+                new ColumnDescriptor("id", DataType.BIGINT.getOID(), 0, "int8", null),
+                new ColumnDescriptor("username", DataType.TEXT.getOID(), 1, "text", null),
+                new ColumnDescriptor("followers", DataType.TEXTARRAY.getOID(), 2, "text[]", null));
+        List<List<OneField>> rows = readAll(columnDescriptors);
+
+        assertEquals(2, rows.size());
+        for (List<OneField> fields : rows) {
+            assertNotNull(fields.get(0).val);
+            assertNotNull(fields.get(1).val);
+            assertNotNull(fields.get(2).val);
+        }
+        assertEquals("john", rows.get(0).get(1).val);
+    }
+
+    @Test
+    public void testReadWithNoProjectedColumns() throws Exception {
+        List<ColumnDescriptor> columnDescriptors = Arrays.asList(
+                new ColumnDescriptor("id", DataType.BIGINT.getOID(), 0, "int8", null, false),
+                new ColumnDescriptor("username", DataType.TEXT.getOID(), 1, "text", null, false),
+                new ColumnDescriptor("followers", DataType.TEXTARRAY.getOID(), 2, "text[]", null, false));
+        context.setTupleDescription(columnDescriptors);
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, new File(context.getDataSource()).length()));
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+
+        accessor.openForRead();
+        int rows = 0;
+        OneRow oneRow;
+        while ((oneRow = accessor.readNextObject()) != null) {
+            // the records are decoded with an empty reader schema
+            assertEquals(0, ((GenericRecord) oneRow.getData()).getSchema().getFields().size());
+            rows++;
+        }
+        accessor.closeForRead();
+        assertEquals(2, rows);
+    }
+
+    private List<List<OneField>> readAll(List<ColumnDescriptor> columnDescriptors) throws Exception {
+        context.setTupleDescription(columnDescriptors);
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, new File(context.getDataSource()).length()));
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+
+        PgUtilities pgUtilities = new PgUtilities();
+        AvroUtilities avroUtilities = new AvroUtilities();
+        avroUtilities.setPgUtilities(pgUtilities);
+        AvroResolver resolver = new AvroResolver(avroUtilities, pgUtilities);
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        List<List<OneField>> rows = new ArrayList<>();
+        accessor.openForRead();
+        OneRow oneRow;
+        while ((oneRow = accessor.readNextObject()) != null) {
+            rows.add(resolver.getFields(oneRow));
+        }
+        accessor.closeForRead();
+        return rows;
+    }
+
     /**
      * Helper method for testing schema
      *
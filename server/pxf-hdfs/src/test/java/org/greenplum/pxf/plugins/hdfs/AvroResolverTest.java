@@ -189,6 +189,43 @@ public class AvroResolverTest {
         assertField(fields, 6, "row1", DataType.TEXT);
     }
 
+    @Test
+    public void testGetFields_ProjectedRecord() throws Exception {
+        List<ColumnDescriptor> columnDescriptors = createColumnDescriptors(primitiveDataTypes);
+        for (ColumnDescriptor columnDescriptor : columnDescriptors) {
+            columnDescriptor.setProjected(columnDescriptor.columnIndex() == 2 || columnDescriptor.columnIndex() == 6);
+        }
+        context.setTupleDescription(columnDescriptors);
+        schema = getAvroSchemaForPrimitiveTypes();
+        context.setMetadata(schema);
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        // the accessor decodes records with the projected reader schema
+        Schema projectedSchema = new AvroUtilities().buildProjectedSchema(schema, columnDescriptors);
+        GenericRecord genericRecord = new GenericData.Record(projectedSchema);
+        genericRecord.put(0, 23456789L);
+        genericRecord.put(1, "row1");
+        List<OneField> fields = resolver.getFields(new OneRow(null, genericRecord));
+
+        assertEquals(7, fields.size());
+        assertField(fields, 0, null, DataType.BOOLEAN);
+        assertField(fields, 1, null, DataType.BYTEA);
+        assertField(fields, 2, 23456789L, DataType.BIGINT);
+        assertField(fields, 3, null, DataType.INTEGER);
+        assertField(fields, 4, null, DataType.REAL);
+        assertField(fields, 5, null, DataType.FLOAT8);
+        assertField(fields, 6, "row1", DataType.TEXT);
+
+        genericRecord = new GenericData.Record(projectedSchema);
+        genericRecord.put(0, 1L);
+        genericRecord.put(1, "row2");
+        fields = resolver.getFields(new OneRow(null, genericRecord));
+
+        assertField(fields, 2, 1L, DataType.BIGINT);
+        assertField(fields, 6, "row2", DataType.TEXT);
+    }
+
     @Test
     public void testGetFields_PrimitiveNulls() throws Exception {
         List<ColumnDescriptor> columnDescriptors = createColumnDescriptors(primitiveDataTypes);
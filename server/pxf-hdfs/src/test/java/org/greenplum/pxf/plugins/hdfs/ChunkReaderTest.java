@@ -26,8 +26,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.stubbing.Answer;
 
+import java.io.ByteArrayInputStream;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -87,25 +90,67 @@ public class ChunkReaderTest {
     }
 
     /*
-     * Read one line
+     * Read a chunk directly from the stream
      */
     @Test
     public void readChunk() throws Exception {
         reader = new ChunkReader(mockStream);
-        when(mockStream.read((byte[]) any())).thenAnswer((Answer<Number>) invocation -> {
+        byte[] source = "OneLine\nTwoLine\n".getBytes();
+        when(mockStream.read(any(byte[].class), anyInt(), anyInt())).thenAnswer((Answer<Number>) invocation -> {
             byte[] buf = (byte[]) invocation.getArguments()[0];
-
-            byte[] source = "OneLine\nTwoLine\n".getBytes();
-            System.arraycopy(source, 0, buf, 0, source.length);
-            return source.length;
+            int off = (int) invocation.getArguments()[1];
+            int len = Math.min((int) invocation.getArguments()[2], source.length);
+            System.arraycopy(source, 0, buf, off, len);
+            return len;
         });
 
         ChunkWritable out = new ChunkWritable();
-        int maxBytesToConsume = 10; /* make readChunk return after reading the first "chunk": OneLine\nTwoLine\n */
+        int maxBytesToConsume = 10; /* the chunk stops at maxBytesToConsume, regardless of the lines */
         // read chunk
-        assertEquals("OneLine\nTwoLine\n".length()
-                , reader.readChunk(out, maxBytesToConsume));
-        assertEquals("OneLine\nTwoLine\n", new String(out.box));
+        assertEquals(maxBytesToConsume, reader.readChunk(out, maxBytesToConsume));
+        assertEquals("OneLine\nTw", new String(out.box));
+    }
+
+    /*
+     * Read a chunk after a line, then the rest of the stream
+     */
+    @Test
+    public void readChunkAfterLine() throws Exception {
+        reader = new ChunkReader(new ByteArrayInputStream("OneLine\nTwoLine\nThreeLine".getBytes()));
+
+        ChunkWritable out = new ChunkWritable();
+        assertEquals("OneLine\n".length(), reader.readLine(out, 1024));
+        assertEquals("OneLine\n", new String(out.box));
+
+        // the bytes buffered by readLine are returned first
+        assertEquals(5, reader.readChunk(out, 5));
+        assertEquals("TwoLi", new String(out.box));
+
+        // the end of the stream trims the chunk
+        assertEquals("ne\nThreeLine".length(), reader.readChunk(out, 1024));
+        assertEquals("ne\nThreeLine", new String(out.box));
+
+        assertEquals(0, reader.readChunk(out, 1024));
+        assertEquals(0, reader.readLine(out, 1024));
+    }
+
+    /*
+     * Read a line longer than the buffer of the reader
+     */
+    @Test
+    public void readLongLine() throws Exception {
+        StringBuilder line = new StringBuilder();
+        while (line.length() < 3 * ChunkReader.DEFAULT_BUFFER_SIZE) {
+            line.append("0123456789");
+        }
+        line.append('\n');
+        reader = new ChunkReader(new ByteArrayInputStream((line + "next").getBytes()));
+
+        ChunkWritable out = new ChunkWritable();
+        assertEquals(line.length(), reader.readLine(out, Integer.MAX_VALUE));
+        assertEquals(line.toString(), new String(out.box));
+        assertEquals("next".length(), reader.readLine(out, Integer.MAX_VALUE));
+        assertEquals("next", new String(out.box));
     }
 
 }
@@ -123,3 +168,4 @@ public class ChunkReaderTest {
 
 
 
+
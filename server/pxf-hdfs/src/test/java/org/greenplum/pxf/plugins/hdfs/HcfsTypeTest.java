@@ -7,6 +7,7 @@ import org.apache.hadoop.io.compress.SnappyCodec;
 import org.apache.hadoop.mapreduce.MRJobConfig;
 import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.plugins.hdfs.filesystem.DirectLocalFileSystem;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -121,6 +122,27 @@ public class HcfsTypeTest {
         assertEquals("same", type.validateAndNormalizeDataSource("same"));
     }
 
+    @Test
+    public void testFileDirectReadConfiguresTheFileSystem() {
+        configuration.set("pxf.fs.basePath", "/");
+        assertEquals(HcfsType.FILE, HcfsType.getHcfsType(context));
+        assertNull(configuration.get("fs.file.impl"));
+
+        configuration.setBoolean("pxf.fs.file.direct-read.enabled", true);
+        assertEquals(HcfsType.FILE, HcfsType.getHcfsType(context));
+        assertEquals(DirectLocalFileSystem.class.getName(), configuration.get("fs.file.impl"));
+    }
+
+    @Test
+    public void testConfigureFileSystemForDataUri() {
+        configuration.setBoolean("pxf.fs.file.direct-read.enabled", true);
+        HcfsType.configureFileSystem(configuration, "hdfs://0.0.0.0:8020/foo/bar.txt");
+        assertNull(configuration.get("fs.file.impl"));
+
+        HcfsType.configureFileSystem(configuration, "file:///foo/bar.txt");
+        assertEquals(DirectLocalFileSystem.class.getName(), configuration.get("fs.file.impl"));
+    }
+
     @Test
     public void testErrorsWhenProfileAndDefaultFSDoNotMatch() {
         context.setProfileScheme("s3a");
@@ -7,11 +7,18 @@ import org.greenplum.pxf.api.model.Fragmenter;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -22,6 +29,9 @@ public class HdfsFileFragmenterTest {
 
     private final RequestContext context = new RequestContext();
 
+    @TempDir
+    File tempDir;
+
     @BeforeEach
     public void setup() {
         Configuration configuration = new Configuration();
@@ -99,6 +109,55 @@ public class HdfsFileFragmenterTest {
         assertEquals(0, fragmentList.size());
     }
 
+    @Test
+    public void testFragmenterSplitsUncompressedFilesWhenSplittable() throws Exception {
+        byte[] data = new byte[1000];
+        Files.write(new File(tempDir, "data.csv").toPath(), data);
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(new File(tempDir, "data.csv.gz")))) {
+            out.write(data);
+        }
+
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource(tempDir.getAbsolutePath());
+        context.getConfiguration().setBoolean(QuotedLineBreakAccessor.PXF_TEXT_MULTI_SPLITTABLE_PROPERTY, true);
+        context.getConfiguration().setLong("fs.local.block.size", 256);
+        context.getConfiguration().setBoolean("fs.file.impl.disable.cache", true);
+
+        List<Fragment> fragmentList = getFragmenter(context).getFragments();
+        assertEquals(5, fragmentList.size());
+
+        long start = 0;
+        for (Fragment fragment : fragmentList) {
+            if (fragment.getSourceName().endsWith(".gz")) {
+                // compressed files are read as a whole
+                assertNull(fragment.getMetadata());
+                continue;
+            }
+            HcfsFragmentMetadata metadata = (HcfsFragmentMetadata) fragment.getMetadata();
+            assertEquals(start, metadata.getStart());
+            start += metadata.getLength();
+        }
+        assertEquals(data.length, start);
+    }
+
+    @Test
+    public void testFragmenterDoesNotSplitFileAsRow() throws Exception {
+        Files.write(new File(tempDir, "data.csv").toPath(), new byte[1000]);
+
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource(tempDir.getAbsolutePath());
+        context.addOption("FILE_AS_ROW", "true");
+        context.getConfiguration().setBoolean(QuotedLineBreakAccessor.PXF_TEXT_MULTI_SPLITTABLE_PROPERTY, true);
+        context.getConfiguration().setLong("fs.local.block.size", 256);
+        context.getConfiguration().setBoolean("fs.file.impl.disable.cache", true);
+
+        List<Fragment> fragmentList = getFragmenter(context).getFragments();
+        assertEquals(1, fragmentList.size());
+        assertNull(fragmentList.get(0).getMetadata());
+    }
+
     private Fragmenter getFragmenter(RequestContext context) {
         HdfsFileFragmenter fragmenter = new HdfsFileFragmenter();
         fragmenter.setRequestContext(context);
@@ -2,28 +2,49 @@ package org.greenplum.pxf.plugins.hdfs;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.BZip2Codec;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.filter.RowFilterEvaluator;
 import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.model.OutputFormat;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class LineBreakAccessorTest {
 
+    private static final PluginTaskExecutor TASK_EXECUTOR = new PluginTaskExecutor(4, DataSize.ofMegabytes(512));
+
     private Accessor accessor;
     private RequestContext context;
 
+    @TempDir
+    File tempDir;
+
     @BeforeEach
     public void setup() {
-        accessor = new LineBreakAccessor();
+        accessor = new LineBreakAccessor(TASK_EXECUTOR);
 
         context = new RequestContext();
         context.setConfig("default");
@@ -271,6 +292,190 @@ public class LineBreakAccessorTest {
         accessor.closeForRead();
     }
 
+    @Test
+    public void testChunkRecordReaderPassesLineFeedDataThrough() throws Exception {
+        prepareTest("csv/csv_with_line_feed.csv");
+        context.setOutputFormat(OutputFormat.TEXT);
+
+        assertEquals(readResource("csv/csv_with_line_feed.csv"), readChunks());
+    }
+
+    @Test
+    public void testChunkRecordReaderPassesCarriageReturnLineFeedDataThrough() throws Exception {
+        prepareTest("csv/csv_with_carriage_return_line_feed.csv");
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.getGreenplumCSV().withNewline("\r\n");
+
+        assertEquals(readResource("csv/csv_with_carriage_return_line_feed.csv"), readChunks());
+    }
+
+    @Test
+    public void testChunkRecordReaderSkipsHeaderLines() throws Exception {
+        prepareTest("csv/csv_with_header.csv");
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.addOption("SKIP_HEADER_COUNT", "2");
+
+        assertEquals("line3,value1,value2,value3\n", readChunks());
+    }
+
+    @Test
+    public void testChunkRecordReaderSkipsAllLines() throws Exception {
+        prepareTest("csv/csv_with_header.csv");
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.addOption("SKIP_HEADER_COUNT", "10");
+
+        assertEquals("", readChunks());
+    }
+
+    @Test
+    public void testChunkRecordReaderEndsLastLine() throws Exception {
+        File file = new File(tempDir, "no_trailing_newline.csv");
+        Files.write(file.toPath(), "a,1\nb,2".getBytes(StandardCharsets.UTF_8));
+        prepareTest(file);
+        context.setOutputFormat(OutputFormat.TEXT);
+
+        assertEquals("a,1\nb,2\n", readChunks());
+    }
+
+    @Test
+    public void testChunkRecordReaderReadsCompressedFile() throws Exception {
+        File file = new File(tempDir, "compressed.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(file))) {
+            out.write("a,1\nb,2\nc,3".getBytes(StandardCharsets.UTF_8));
+        }
+        prepareTest(file);
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.addOption("SKIP_HEADER_COUNT", "1");
+
+        assertEquals("b,2\nc,3\n", readChunks());
+    }
+
+    @Test
+    public void testChunkRecordReaderDecompressesGzipFileInParallel() throws Exception {
+        String data = generateLines(100000);
+        File file = new File(tempDir, "parallel.csv.gz");
+        try (OutputStream out = new FileOutputStream(file)) {
+            // a file of two gzip members
+            int half = data.length() / 2;
+            for (String member : new String[]{data.substring(0, half), data.substring(half)}) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out);
+                gzipOut.write(member.getBytes(StandardCharsets.UTF_8));
+                gzipOut.finish();
+            }
+        }
+        prepareTest(file);
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.getConfiguration().setBoolean(LineBreakAccessor.PXF_PARALLEL_DECOMPRESSION_ENABLED_PROPERTY, true);
+        context.getConfiguration().setInt(LineBreakAccessor.PXF_PARALLEL_DECOMPRESSION_THREADS_PROPERTY, 2);
+
+        assertEquals(data, readChunks());
+    }
+
+    @Test
+    public void testChunkRecordReaderDecompressesBzip2SplitsInParallel() throws Exception {
+        String data = generateLines(100000);
+        File file = new File(tempDir, "parallel.csv.bz2");
+        BZip2Codec codec = new BZip2Codec();
+        codec.setConf(new Configuration());
+        try (OutputStream out = codec.createOutputStream(new FileOutputStream(file))) {
+            out.write(data.getBytes(StandardCharsets.UTF_8));
+        }
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.getConfiguration().setBoolean(LineBreakAccessor.PXF_PARALLEL_DECOMPRESSION_ENABLED_PROPERTY, true);
+
+        StringBuilder result = new StringBuilder();
+        long splitSize = file.length() / 3 + 1;
+        for (long start = 0; start < file.length(); start += splitSize) {
+            context.setDataSource(file.toURI().toString());
+            context.setFragmentMetadata(new HcfsFragmentMetadata(start, Math.min(splitSize, file.length() - start)));
+            accessor = new LineBreakAccessor(TASK_EXECUTOR);
+            result.append(readChunks());
+        }
+        assertEquals(data, result.toString());
+    }
+
+    @Test
+    public void testChunkRecordReaderIsNotUsedForCarriageReturn() throws Exception {
+        prepareTest("csv/csv_with_carriage_return.csv");
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.getGreenplumCSV().withNewline("\r");
+
+        assertReadsLines();
+    }
+
+    @Test
+    public void testChunkRecordReaderIsNotUsedForGPDBWritable() throws Exception {
+        prepareTest("csv/csv_with_line_feed.csv");
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+
+        assertReadsLines();
+    }
+
+    @Test
+    public void testChunkRecordReaderIsNotUsedWithResidualFilter() throws Exception {
+        prepareTest("csv/csv_with_line_feed.csv");
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.setFilterString("a0c25s1d1o5");
+        context.getConfiguration().setBoolean(RowFilterEvaluator.PXF_FILTER_RESIDUAL_ENABLED_PROPERTY, true);
+
+        assertReadsLines();
+    }
+
+    @Test
+    public void testChunkRecordReaderIsNotUsedWhenDisabled() throws Exception {
+        prepareTest("csv/csv_with_line_feed.csv");
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.getConfiguration().setBoolean(LineBreakAccessor.PXF_CHUNK_RECORD_READER_ENABLED, false);
+
+        assertReadsLines();
+    }
+
+    private String readChunks() throws Exception {
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OneRow oneRow;
+        while ((oneRow = accessor.readNextObject()) != null) {
+            assertTrue(oneRow.getData() instanceof ChunkWritable);
+            out.write(((ChunkWritable) oneRow.getData()).box);
+        }
+        accessor.closeForRead();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private void assertReadsLines() throws Exception {
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+
+        OneRow oneRow = accessor.readNextObject();
+        assertNotNull(oneRow);
+        assertTrue(oneRow.getData() instanceof Text);
+        assertEquals("this,file", oneRow.getData().toString());
+
+        accessor.closeForRead();
+    }
+
+    private String generateLines(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(i).append(",value ").append(i * 31 % 1000).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private String readResource(String resourceName) throws Exception {
+        return new String(Files.readAllBytes(Paths.get(this.getClass().getClassLoader()
+                .getResource(resourceName).toURI())), StandardCharsets.UTF_8);
+    }
+
+    private void prepareTest(File file) throws IOException {
+        context.setDataSource(file.toURI().toString());
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, file.length()));
+    }
+
     private void prepareTest(String resourceName) throws IOException, URISyntaxException {
         String filepath = this.getClass().getClassLoader()
                 .getResource(resourceName).toURI().toString();
@@ -1,20 +1,39 @@
 package org.greenplum.pxf.plugins.hdfs;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.parquet.schema.MessageType;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ParquetFileAccessorTest {
+
+    private static final PluginTaskExecutor TASK_EXECUTOR = new PluginTaskExecutor(4, DataSize.ofMegabytes(512));
     ParquetFileAccessor accessor;
     RequestContext context;
     MessageType schema;
 
     @BeforeEach
     public void setup() {
-        accessor = new ParquetFileAccessor();
+        accessor = new ParquetFileAccessor(TASK_EXECUTOR);
         context = new RequestContext();
         context.setConfig("default");
         context.setUser("test-user");
@@ -26,4 +45,108 @@ public class ParquetFileAccessorTest {
         accessor.setRequestContext(context);
         assertNull(context.getMetadata());
     }
+
+    @Test
+    public void testCountFromStatistics() throws Exception {
+        // COUNT(*) projects the first column only
+        ParquetResolver resolver = prepareAggregate(EnumAggregationType.COUNT, 0);
+
+        assertTrue(accessor.retrieveStats());
+        int rows = 0;
+        OneRow oneRow;
+        while ((oneRow = accessor.emitAggObject()) != null) {
+            assertNull(resolver.getFields(oneRow).get(0).val);
+            rows++;
+        }
+        assertEquals(25, rows);
+        accessor.closeForRead();
+    }
+
+    @Test
+    public void testMinMaxFromStatistics() throws Exception {
+        assertEquals(1, aggregate(EnumAggregationType.MIN, 0));
+        assertEquals(25, aggregate(EnumAggregationType.MAX, 0));
+        assertEquals(1200.0, aggregate(EnumAggregationType.MIN, 2));
+        assertEquals(2600.0, aggregate(EnumAggregationType.MAX, 2));
+        assertEquals(-2147483648L, aggregate(EnumAggregationType.MIN, 3));
+        assertEquals(2147483663L, aggregate(EnumAggregationType.MAX, 3));
+        assertEquals((short) -32768, aggregate(EnumAggregationType.MIN, 4));
+        assertEquals((short) 32767, aggregate(EnumAggregationType.MAX, 4));
+    }
+
+    @Test
+    public void testFallbackToReadingWhenStatisticsCantAnswer() throws Exception {
+        // the statistics of text columns are not used
+        prepareAggregate(EnumAggregationType.MIN, 1);
+        assertFalse(accessor.retrieveStats());
+        assertEquals(25, readRows());
+        accessor.closeForRead();
+
+        // Parquet statistics don't keep the sum
+        prepareAggregate(EnumAggregationType.SUM, 0);
+        assertFalse(accessor.retrieveStats());
+        assertEquals(25, readRows());
+        accessor.closeForRead();
+    }
+
+    @Test
+    public void testEmitAggObjectBeforeRetrieveStats() throws Exception {
+        prepareAggregate(EnumAggregationType.COUNT, 0);
+
+        assertThrows(IllegalStateException.class, accessor::emitAggObject);
+        accessor.closeForRead();
+    }
+
+    private Object aggregate(EnumAggregationType aggType, int columnIndex) throws Exception {
+        ParquetResolver resolver = prepareAggregate(aggType, columnIndex);
+        assertTrue(accessor.retrieveStats());
+        OneRow oneRow = accessor.emitAggObject();
+        assertNotNull(oneRow);
+        assertNull(accessor.emitAggObject());
+        accessor.closeForRead();
+
+        List<OneField> fields = resolver.getFields(oneRow);
+        return fields.get(columnIndex).val;
+    }
+
+    private int readRows() throws Exception {
+        int rows = 0;
+        while (accessor.readNextObject() != null) {
+            rows++;
+        }
+        return rows;
+    }
+
+    private ParquetResolver prepareAggregate(EnumAggregationType aggType, int projectedIndex) throws Exception {
+        List<ColumnDescriptor> columnDescriptors = new ArrayList<>();
+        columnDescriptors.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        columnDescriptors.add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null));
+        columnDescriptors.add(new ColumnDescriptor("amt", DataType.FLOAT8.getOID(), 2, "float8", null));
+        columnDescriptors.add(new ColumnDescriptor("bg", DataType.BIGINT.getOID(), 3, "bigint", null));
+        columnDescriptors.add(new ColumnDescriptor("sml", DataType.SMALLINT.getOID(), 4, "int2", null));
+        for (int i = 0; i < columnDescriptors.size(); i++) {
+            columnDescriptors.get(i).setProjected(i == projectedIndex);
+        }
+
+        String path = Objects.requireNonNull(getClass().getClassLoader().getResource("parquet/parquet_types.parquet")).getPath();
+        context.setProfileScheme("localfile");
+        context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+        context.setDataSource(path);
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, 4196));
+        context.setTupleDescription(columnDescriptors);
+        context.setConfiguration(new Configuration());
+        context.setAggType(aggType);
+        context.setNumAttrsProjected(aggType.isColumnAggregate() ? 1 : 0);
+        context.setAccessor(ParquetFileAccessor.class.getName());
+
+        accessor = new ParquetFileAccessor(TASK_EXECUTOR);
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        assertTrue(accessor.openForRead());
+
+        ParquetResolver resolver = new ParquetResolver();
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+        return resolver;
+    }
 }
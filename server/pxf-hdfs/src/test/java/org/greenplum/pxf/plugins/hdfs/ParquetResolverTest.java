@@ -15,6 +15,7 @@ import org.apache.parquet.io.RecordReader;
 import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.pig.convert.DecimalUtils;
 import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
 import org.apache.parquet.schema.PrimitiveType;
 import org.apache.parquet.schema.Type;
 import org.greenplum.pxf.api.OneField;
@@ -521,6 +522,222 @@ public class ParquetResolverTest {
 
     }
 
+    @Test
+    public void testGetFields_List_AsArray() {
+        schema = MessageTypeParser.parseMessageType("message test {\n" +
+                "  optional group ints (LIST) {\n" +
+                "    repeated group list {\n" +
+                "      optional int32 element;\n" +
+                "    }\n" +
+                "  }\n" +
+                "  optional group strings (LIST) {\n" +
+                "    repeated group list {\n" +
+                "      optional binary element (UTF8);\n" +
+                "    }\n" +
+                "  }\n" +
+                "  optional group matrix (LIST) {\n" +
+                "    repeated group list {\n" +
+                "      optional group element (LIST) {\n" +
+                "        repeated int64 array;\n" +
+                "      }\n" +
+                "    }\n" +
+                "  }\n" +
+                "  optional group empty (LIST) {\n" +
+                "    repeated group list {\n" +
+                "      optional int32 element;\n" +
+                "    }\n" +
+                "  }\n" +
+                "}");
+        List<ColumnDescriptor> columnDescriptors = new ArrayList<>();
+        columnDescriptors.add(new ColumnDescriptor("ints", DataType.INT4ARRAY.getOID(), 0, "int4[]", null));
+        columnDescriptors.add(new ColumnDescriptor("strings", DataType.TEXTARRAY.getOID(), 1, "text[]", null));
+        columnDescriptors.add(new ColumnDescriptor("matrix", DataType.INT8ARRAY.getOID(), 2, "int8[]", null));
+        columnDescriptors.add(new ColumnDescriptor("empty", DataType.INT4ARRAY.getOID(), 3, "int4[]", null));
+        initResolver(columnDescriptors);
+
+        Group group = new SimpleGroup(schema);
+        Group ints = group.addGroup(0);
+        ints.addGroup(0).append("element", 1);
+        ints.addGroup(0);
+        ints.addGroup(0).append("element", 3);
+
+        Group strings = group.addGroup(1);
+        strings.addGroup(0).append("element", "hello world");
+        strings.addGroup(0).append("element", "a,b");
+        strings.addGroup(0).append("element", "NULL");
+
+        Group matrix = group.addGroup(2);
+        Group row1 = matrix.addGroup(0).addGroup(0);
+        row1.add(0, 1L);
+        row1.add(0, 2L);
+        Group row2 = matrix.addGroup(0).addGroup(0);
+        row2.add(0, 3L);
+        row2.add(0, 4L);
+
+        List<Group> groups = new ArrayList<>();
+        groups.add(group);
+        List<OneField> fields = assertRow(groups, 0, 4);
+
+        assertField(fields, 0, "{1,NULL,3}", DataType.INT4ARRAY);
+        assertField(fields, 1, "{\"hello world\",\"a,b\",\"NULL\"}", DataType.TEXTARRAY);
+        assertField(fields, 2, "{{1,2},{3,4}}", DataType.INT8ARRAY);
+        assertField(fields, 3, null, DataType.INT4ARRAY);
+    }
+
+    @Test
+    public void testGetFields_List_AsJson() {
+        schema = MessageTypeParser.parseMessageType("message test {\n" +
+                "  optional group ints (LIST) {\n" +
+                "    repeated int32 array;\n" +
+                "  }\n" +
+                "  optional group points (LIST) {\n" +
+                "    repeated group array {\n" +
+                "      required double x;\n" +
+                "      required double y;\n" +
+                "    }\n" +
+                "  }\n" +
+                "}");
+        List<ColumnDescriptor> columnDescriptors = new ArrayList<>();
+        columnDescriptors.add(new ColumnDescriptor("ints", DataType.TEXT.getOID(), 0, "text", null));
+        columnDescriptors.add(new ColumnDescriptor("points", DataType.TEXT.getOID(), 1, "text", null));
+        initResolver(columnDescriptors);
+
+        Group group = new SimpleGroup(schema);
+        Group ints = group.addGroup(0);
+        ints.add(0, 5);
+        ints.add(0, 6);
+        Group points = group.addGroup(1);
+        points.addGroup(0).append("x", 1.5d).append("y", 2.0d);
+        points.addGroup(0).append("x", -1.0d).append("y", 0.0d);
+
+        List<Group> groups = new ArrayList<>();
+        groups.add(group);
+        List<OneField> fields = assertRow(groups, 0, 2);
+
+        assertField(fields, 0, "[5,6]", DataType.TEXT);
+        assertField(fields, 1, "[{\"x\":1.5,\"y\":2.0},{\"x\":-1.0,\"y\":0.0}]", DataType.TEXT);
+    }
+
+    @Test
+    public void testGetFields_MapAndStruct() {
+        schema = MessageTypeParser.parseMessageType("message test {\n" +
+                "  optional int32 id;\n" +
+                "  optional group attributes (MAP) {\n" +
+                "    repeated group key_value {\n" +
+                "      required binary key (UTF8);\n" +
+                "      optional int64 value;\n" +
+                "    }\n" +
+                "  }\n" +
+                "  optional group address {\n" +
+                "    optional binary street (UTF8);\n" +
+                "    optional int32 zip;\n" +
+                "    optional group tags (LIST) {\n" +
+                "      repeated group list {\n" +
+                "        optional binary element (UTF8);\n" +
+                "      }\n" +
+                "    }\n" +
+                "    optional boolean verified;\n" +
+                "  }\n" +
+                "}");
+        List<ColumnDescriptor> columnDescriptors = new ArrayList<>();
+        columnDescriptors.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        columnDescriptors.add(new ColumnDescriptor("attributes", DataType.TEXT.getOID(), 1, "text", null));
+        columnDescriptors.add(new ColumnDescriptor("address", DataType.TEXT.getOID(), 2, "text", null));
+        initResolver(columnDescriptors);
+
+        Group group = new SimpleGroup(schema);
+        group.add(0, 1);
+        Group attributes = group.addGroup(1);
+        attributes.addGroup(0).append("key", "a").append("value", 10L);
+        attributes.addGroup(0).append("key", "b");
+        Group address = group.addGroup(2);
+        address.add(0, "1 Main \"St\"");
+        address.add(1, 94105);
+        address.addGroup(2).addGroup(0).append("element", "home");
+
+        Group nullGroup = new SimpleGroup(schema);
+        nullGroup.add(0, 2);
+
+        List<Group> groups = new ArrayList<>();
+        groups.add(group);
+        groups.add(nullGroup);
+
+        List<OneField> fields = assertRow(groups, 0, 3);
+        assertField(fields, 0, 1, DataType.INTEGER);
+        assertField(fields, 1, "{\"a\":10,\"b\":null}", DataType.TEXT);
+        assertField(fields, 2, "{\"street\":\"1 Main \\\"St\\\"\",\"zip\":94105,\"tags\":[\"home\"],\"verified\":null}", DataType.TEXT);
+
+        fields = assertRow(groups, 1, 3);
+        assertField(fields, 0, 2, DataType.INTEGER);
+        assertField(fields, 1, null, DataType.TEXT);
+        assertField(fields, 2, null, DataType.TEXT);
+    }
+
+    @Test
+    public void testGetFields_Map_StringKeys() {
+        schema = MessageTypeParser.parseMessageType("message test {\n" +
+                "  optional group labels (MAP) {\n" +
+                "    repeated group key_value {\n" +
+                "      required binary key;\n" +
+                "      optional group value (MAP) {\n" +
+                "        repeated group key_value {\n" +
+                "          required binary key (UTF8);\n" +
+                "          optional binary value (UTF8);\n" +
+                "        }\n" +
+                "      }\n" +
+                "    }\n" +
+                "  }\n" +
+                "}");
+        List<ColumnDescriptor> columnDescriptors = new ArrayList<>();
+        columnDescriptors.add(new ColumnDescriptor("labels", DataType.TEXT.getOID(), 0, "text", null));
+        initResolver(columnDescriptors);
+
+        Group group = new SimpleGroup(schema);
+        Group labels = group.addGroup(0);
+        Group keyValue = labels.addGroup(0).append("key", Binary.fromString("région"));
+        keyValue.addGroup(1).addGroup(0).append("key", "tier").append("value", "gold");
+        labels.addGroup(0).append("key", Binary.fromString("empty"));
+
+        List<Group> groups = new ArrayList<>();
+        groups.add(group);
+        List<OneField> fields = assertRow(groups, 0, 1);
+
+        assertField(fields, 0, "{\"région\":{\"tier\":\"gold\"},\"empty\":null}", DataType.TEXT);
+    }
+
+    @Test
+    public void testGetFields_Complex_With_Projection() {
+        schema = MessageTypeParser.parseMessageType("message test {\n" +
+                "  optional group ints (LIST) {\n" +
+                "    repeated group list {\n" +
+                "      optional int32 element;\n" +
+                "    }\n" +
+                "  }\n" +
+                "}");
+        List<ColumnDescriptor> columnDescriptors = new ArrayList<>();
+        columnDescriptors.add(new ColumnDescriptor("address", DataType.TEXT.getOID(), 0, "text", null));
+        columnDescriptors.add(new ColumnDescriptor("ints", DataType.INT4ARRAY.getOID(), 1, "int4[]", null));
+        columnDescriptors.get(0).setProjected(false);
+        initResolver(columnDescriptors);
+
+        Group group = new SimpleGroup(schema);
+        group.addGroup(0).addGroup(0).append("element", 7);
+
+        List<Group> groups = new ArrayList<>();
+        groups.add(group);
+        List<OneField> fields = assertRow(groups, 0, 2);
+
+        assertField(fields, 0, null, DataType.TEXT);
+        assertField(fields, 1, "{7}", DataType.INT4ARRAY);
+    }
+
+    private void initResolver(List<ColumnDescriptor> columnDescriptors) {
+        context.setMetadata(schema);
+        context.setTupleDescription(columnDescriptors);
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+    }
+
     private List<OneField> assertRow(List<Group> groups, int desiredRow, int numFields) {
         OneRow row = new OneRow(groups.get(desiredRow)); // get row
         List<OneField> fields = resolver.getFields(row);
@@ -26,9 +26,11 @@ import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.model.Resolver;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
 
 import java.io.File;
 import java.io.IOException;
@@ -61,6 +63,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ParquetWriteTest {
 
+    private static final PluginTaskExecutor TASK_EXECUTOR = new PluginTaskExecutor(4, DataSize.ofMegabytes(512));
+
     private Accessor accessor;
     private Resolver resolver;
     private RequestContext context;
@@ -76,7 +80,7 @@ public class ParquetWriteTest {
 
         columnDescriptors = new ArrayList<>();
 
-        accessor = new ParquetFileAccessor();
+        accessor = new ParquetFileAccessor(TASK_EXECUTOR);
         resolver = new ParquetResolver();
         context = new RequestContext();
         configuration = new Configuration();
@@ -7,6 +7,13 @@ import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -18,6 +25,9 @@ public class QuotedLineBreakAccessorTest {
     private QuotedLineBreakAccessor accessor;
     private RequestContext context;
 
+    @TempDir
+    File tempDir;
+
     /*
      * setup function called before each test.
      */
@@ -436,6 +446,42 @@ public class QuotedLineBreakAccessorTest {
         assertEquals("Profile 'text:multi' does not support write operation.", e.getMessage());
     }
 
+    @Test
+    public void testReadSplits() throws Exception {
+        String data = "header\n1,\"a\nb\"\n2,\"c,\"\"d\"\"\n\ne\"\n3,f\n4,\"g\nh\"\n";
+        File file = new File(tempDir, "quoted.csv");
+        Files.write(file.toPath(), data.getBytes(StandardCharsets.UTF_8));
+
+        context.setDataSource(file.toURI().toString());
+        context.setFormat("csv");
+        context.addOption("SKIP_HEADER_COUNT", "1");
+        context.getConfiguration().setBoolean(QuotedLineBreakAccessor.PXF_TEXT_MULTI_SPLITTABLE_PROPERTY, true);
+
+        List<String> lines = new ArrayList<>();
+        int splitSize = 6;
+        for (int start = 0; start < data.length(); start += splitSize) {
+            accessor = new QuotedLineBreakAccessor();
+            context.setFragmentIndex(start / splitSize);
+            context.setFragmentMetadata(new HcfsFragmentMetadata(start, Math.min(splitSize, data.length() - start)));
+            accessor.setRequestContext(context);
+            accessor.afterPropertiesSet();
+            accessor.openForRead();
+
+            OneRow oneRow;
+            while ((oneRow = accessor.readNextObject()) != null) {
+                lines.add((String) oneRow.getData());
+            }
+            accessor.closeForRead();
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (String line : data.split("\n")) {
+            expected.add(line);
+        }
+        expected.remove(0);
+        assertEquals(expected, lines);
+    }
+
     private void prepareTest(String resourceName, boolean fileAsRow) throws Exception {
         if (fileAsRow) {
             context.addOption("FILE_AS_ROW", "true");
@@ -0,0 +1,248 @@
+package org.greenplum.pxf.plugins.hdfs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.greenplum.pxf.api.model.GreenplumCSV;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QuotedLineSplitReaderTest {
+
+    private static FileSystem fs;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeAll
+    public static void setup() throws IOException {
+        fs = FileSystem.getLocal(new Configuration());
+    }
+
+    @Test
+    public void testSplitsReadTheLinesOfTheFile() throws IOException {
+        String data = generateCsv(new Random(42), 500);
+        File file = write(data);
+
+        for (long splitSize : new long[]{3, 100, 1000, file.length()}) {
+            assertEquals(lines(data), readSplits(file, splitSize, new GreenplumCSV(), true, 64), "split size " + splitSize);
+        }
+    }
+
+    @Test
+    public void testFirstRecordStartsAfterQuotedLineFeeds() throws IOException {
+        String data = "id,text\n1,\"a\nb,\"\"c\"\"\n2,d\"\n3,e\n";
+        File file = write(data);
+
+        // the split starts inside the quoted field of record 1
+        assertEquals(data.indexOf("3,e"), reader(file, data.indexOf("2,d"), data.length(), new GreenplumCSV(), true, 1024).findFirstRecordStart());
+        // a record that starts at the first byte of the split belongs to the previous split
+        assertEquals(data.indexOf("3,e"), reader(file, data.indexOf("1,"), data.length(), new GreenplumCSV(), true, 1024).findFirstRecordStart());
+        assertEquals(data.indexOf("1,"), reader(file, data.indexOf("1,") - 1, data.length(), new GreenplumCSV(), true, 1024).findFirstRecordStart());
+    }
+
+    @Test
+    public void testAmbiguousSplitIsScannedFromTheStart() throws IOException {
+        // the quote after x is invalid both inside and outside of a quoted field
+        String data = "1,\"a\nb\"\n2,x\"y\n3,z\n";
+        File file = write(data);
+
+        long start = data.indexOf("b\"");
+        List<Long> seeks = new ArrayList<>();
+        assertEquals(data.indexOf("2,"), reader(file, start, data.length(), new GreenplumCSV(), true, 1024, seeks).findFirstRecordStart());
+        assertTrue(seeks.contains(0L));
+    }
+
+    @Test
+    public void testLongQuotedFieldIsNotPlausible() throws IOException {
+        // the split starts after the quote, no quote tells whether the lines are quoted
+        String data = "1,\"first\"\n2,\"line a\nline b\nline c\nline d\"\n3,\"last\"\n";
+        File file = write(data);
+
+        long start = data.indexOf("line b");
+        // a window that holds the whole quoted field finds the record after it
+        assertEquals(data.indexOf("3,"), reader(file, start, start + 4, new GreenplumCSV(), true, 1024).findFirstRecordStart());
+        // with a smaller window, the lines are assumed not to be quoted
+        assertEquals(data.indexOf("line c"), reader(file, start, start + 4, new GreenplumCSV(), true, 4).findFirstRecordStart());
+    }
+
+    @Test
+    public void testUnquotedSplitsAreNotScannedFromTheStart() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < 2000; row++) {
+            sb.append(row).append(",alpha,beta\n");
+        }
+        String data = sb.toString();
+        File file = write(data);
+
+        List<String> result = new ArrayList<>();
+        for (long start = 0; start < file.length(); start += 1000) {
+            List<Long> seeks = new ArrayList<>();
+            try (QuotedLineSplitReader reader = reader(file, start, Math.min(start + 1000, file.length()), new GreenplumCSV(), true, 64, seeks)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    result.add(line);
+                }
+            }
+            for (long seek : seeks) {
+                assertTrue(seek >= start - 1, "split " + start + " seeks to " + seek);
+            }
+        }
+        assertEquals(lines(data), result);
+    }
+
+    @Test
+    public void testEscapeCharacter() throws IOException {
+        GreenplumCSV greenplumCSV = new GreenplumCSV().withEscapeChar('\\');
+        String data = "1,\"a\\\"\nb\"\n2,\"\\\\\"\n3,\"c\\\\\",\"\"\n4,d\n";
+        File file = write(data);
+
+        for (long splitSize = 1; splitSize <= data.length(); splitSize++) {
+            assertEquals(lines(data), readSplits(file, splitSize, greenplumCSV, true, 8), "split size " + splitSize);
+        }
+        assertEquals(data.indexOf("2,"), reader(file, data.indexOf("b\""), data.length(), greenplumCSV, true, 1024).findFirstRecordStart());
+    }
+
+    @Test
+    public void testTextFormatEscapedLineFeeds() throws IOException {
+        GreenplumCSV greenplumCSV = new GreenplumCSV().withEscapeChar('\\').withDelimiter('\t');
+        String data = "1\ta\\\nb\n2\t\\\\\n3\tc\\\\\\\nd\n";
+        File file = write(data);
+
+        for (long splitSize = 1; splitSize <= data.length(); splitSize++) {
+            assertEquals(lines(data), readSplits(file, splitSize, greenplumCSV, false, 1024), "split size " + splitSize);
+        }
+        assertEquals(data.indexOf("2\t"), reader(file, data.indexOf("b\n"), data.length(), greenplumCSV, false, 1024).findFirstRecordStart());
+    }
+
+    @Test
+    public void testCarriageReturnLineFeed() throws IOException {
+        String data = "1,\"a\r\nb\"\r\n2,c\r\n3,d";
+        File file = write(data);
+
+        for (long splitSize = 1; splitSize <= data.length(); splitSize++) {
+            assertEquals(lines(data), readSplits(file, splitSize, new GreenplumCSV(), true, 1024), "split size " + splitSize);
+        }
+    }
+
+    private List<String> readSplits(File file, long splitSize, GreenplumCSV greenplumCSV, boolean csv, int verificationWindow) throws IOException {
+        List<String> result = new ArrayList<>();
+        for (long start = 0; start < file.length(); start += splitSize) {
+            try (QuotedLineSplitReader reader = reader(file, start, Math.min(start + splitSize, file.length()), greenplumCSV, csv, verificationWindow)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    result.add(line);
+                }
+            }
+        }
+        return result;
+    }
+
+    private QuotedLineSplitReader reader(File file, long start, long end, GreenplumCSV greenplumCSV, boolean csv, int verificationWindow) throws IOException {
+        return new QuotedLineSplitReader(fs.open(new Path(file.toURI())), start, end, greenplumCSV, csv,
+                verificationWindow, StandardCharsets.UTF_8);
+    }
+
+    private QuotedLineSplitReader reader(File file, long start, long end, GreenplumCSV greenplumCSV, boolean csv,
+                                         int verificationWindow, List<Long> seeks) throws IOException {
+        FSDataInputStream in = new FSDataInputStream(new SeekRecordingInputStream(fs.open(new Path(file.toURI())), seeks));
+        return new QuotedLineSplitReader(in, start, end, greenplumCSV, csv, verificationWindow, StandardCharsets.UTF_8);
+    }
+
+    private File write(String data) throws IOException {
+        File file = new File(tempDir, "data.csv");
+        Files.write(file.toPath(), data.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private List<String> lines(String data) throws IOException {
+        List<String> result = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new StringReader(data))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                result.add(line);
+            }
+        }
+        return result;
+    }
+
+    private String generateCsv(Random random, int rows) {
+        String[] words = {"alpha", "beta", "gamma", "délta", "line\nfeed", "two\n\nfeeds", "a,b", "say \"\"hi\"\"", ""};
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < rows; row++) {
+            sb.append(row);
+            int fields = 1 + random.nextInt(4);
+            for (int field = 0; field < fields; field++) {
+                String word = words[random.nextInt(words.length)];
+                sb.append(',');
+                if (word.contains("\n") || word.contains(",") || word.contains("\"") || random.nextBoolean()) {
+                    sb.append('"').append(word).append('"');
+                } else {
+                    sb.append(word);
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Records the positions the reader seeks to
+     */
+    private static class SeekRecordingInputStream extends FSInputStream {
+        private final FSDataInputStream in;
+        private final List<Long> seeks;
+
+        SeekRecordingInputStream(FSDataInputStream in, List<Long> seeks) {
+            this.in = in;
+            this.seeks = seeks;
+        }
+
+        @Override
+        public void seek(long pos) throws IOException {
+            seeks.add(pos);
+            in.seek(pos);
+        }
+
+        @Override
+        public long getPos() throws IOException {
+            return in.getPos();
+        }
+
+        @Override
+        public boolean seekToNewSource(long targetPos) {
+            return false;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return in.read(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
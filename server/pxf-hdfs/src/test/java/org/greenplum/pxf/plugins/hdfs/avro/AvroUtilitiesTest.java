@@ -3,26 +3,35 @@ package org.greenplum.pxf.plugins.hdfs.avro;
 import org.apache.avro.Schema;
 import org.apache.hadoop.conf.Configuration;
 import org.greenplum.pxf.api.error.PxfRuntimeException;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.plugins.hdfs.HcfsType;
 import org.greenplum.pxf.plugins.hdfs.utilities.PgUtilities;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class AvroUtilitiesTest {
     private AvroSchemaFileReaderFactory avroSchemaFileReaderFactory;
@@ -34,6 +43,8 @@ public class AvroUtilitiesTest {
     private PgUtilities pgUtilities;
     private HcfsType hcfsType;
 
+    @TempDir
+    File temp; // must be non-private
 
     @BeforeEach
     public void setup() {
@@ -230,6 +241,93 @@ public class AvroUtilitiesTest {
         assertEquals("Failed to obtain Avro schema from 'user provided.avsc'", e.getMessage());
     }
 
+    @Test
+    public void testObtainSchema_OnRead_SchemaIsCachedForTheQuery() {
+        AtomicInteger reads = new AtomicInteger();
+        avroUtilities = new AvroUtilities((file) -> new File(avroDirectory + "user-provided.avsc"));
+        avroUtilities.setSchemaFileReaderFactory(countingSchemaFileReaderFactory(reads));
+
+        Schema first = avroUtilities.obtainSchema(newFragmentContext("txn-1"), hcfsType);
+        Schema second = avroUtilities.obtainSchema(newFragmentContext("txn-1"), hcfsType);
+        verifySchema(first, "user_provided_schema");
+        assertSame(first, second);
+        assertEquals(1, reads.get());
+
+        // another query reads the schema again
+        Schema third = avroUtilities.obtainSchema(newFragmentContext("txn-2"), hcfsType);
+        verifySchema(third, "user_provided_schema");
+        assertNotSame(first, third);
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testObtainSchema_OnRead_ReplacedSchemaIsReadAgain() throws IOException {
+        File schemaFile = new File(temp, "user-provided.avsc");
+        Files.copy(new File(avroDirectory + "user-provided.avsc").toPath(), schemaFile.toPath());
+        AtomicInteger reads = new AtomicInteger();
+        avroUtilities = new AvroUtilities((file) -> schemaFile);
+        avroUtilities.setSchemaFileReaderFactory(countingSchemaFileReaderFactory(reads));
+
+        Schema first = avroUtilities.obtainSchema(newFragmentContext("txn-1"), hcfsType);
+        assertEquals(1, reads.get());
+
+        // the schema file is replaced during the transaction
+        assertTrue(schemaFile.setLastModified(schemaFile.lastModified() - 60_000));
+        Schema second = avroUtilities.obtainSchema(newFragmentContext("txn-1"), hcfsType);
+        verifySchema(second, "user_provided_schema");
+        assertNotSame(first, second);
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testObtainSchema_OnRead_SchemaFromDataSourceIsNotCached() {
+        Schema first = avroUtilities.obtainSchema(newFragmentContext("txn-1", null), hcfsType);
+        Schema second = avroUtilities.obtainSchema(newFragmentContext("txn-1", null), hcfsType);
+        verifySchema(first, "example_schema");
+        assertEquals(first, second);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void testBuildProjectedSchema() {
+        context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+        schema = avroUtilities.obtainSchema(context, hcfsType);
+
+        Schema projectedSchema = avroUtilities.buildProjectedSchema(schema, Arrays.asList(
+                new ColumnDescriptor("id", DataType.BIGINT.getOID(), 0, "int8", null, false),
+                new ColumnDescriptor("username", DataType.TEXT.getOID(), 1, "text", null, true),
+                new ColumnDescriptor("followers", DataType.TEXTARRAY.getOID(), 2, "text[]", null, true)));
+
+        assertEquals(schema.getFullName(), projectedSchema.getFullName());
+        assertEquals(2, projectedSchema.getFields().size());
+        assertEquals("username", projectedSchema.getFields().get(0).name());
+        assertEquals(schema.getField("username").schema(), projectedSchema.getFields().get(0).schema());
+        assertEquals("followers", projectedSchema.getFields().get(1).name());
+        // the schema of the data is left untouched
+        assertEquals(3, schema.getFields().size());
+    }
+
+    @Test
+    public void testBuildProjectedSchema_AllColumnsProjected() {
+        context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+        schema = avroUtilities.obtainSchema(context, hcfsType);
+
+        assertSame(schema, avroUtilities.buildProjectedSchema(schema, Arrays.asList(
+                new ColumnDescriptor("id", DataType.BIGINT.getOID(), 0, "int8", null),
+                new ColumnDescriptor("username", DataType.TEXT.getOID(), 1, "text", null),
+                new ColumnDescriptor("followers", DataType.TEXTARRAY.getOID(), 2, "text[]", null))));
+    }
+
+    @Test
+    public void testBuildProjectedSchema_ColumnsDontMatchFields() {
+        context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+        schema = avroUtilities.obtainSchema(context, hcfsType);
+
+        assertSame(schema, avroUtilities.buildProjectedSchema(schema, Arrays.asList(
+                new ColumnDescriptor("id", DataType.BIGINT.getOID(), 0, "int8", null, false),
+                new ColumnDescriptor("username", DataType.TEXT.getOID(), 1, "text", null, true))));
+    }
+
     /* WRITE PATH */
 
     @Test
@@ -691,6 +789,32 @@ public class AvroUtilitiesTest {
         return schema;
     }
 
+    private AvroSchemaFileReaderFactory countingSchemaFileReaderFactory(AtomicInteger reads) {
+        return new AvroSchemaFileReaderFactory() {
+            @Override
+            public AvroSchemaFileReader getAvroSchemaFileReader(String schemaFile) {
+                reads.incrementAndGet();
+                return super.getAvroSchemaFileReader(schemaFile);
+            }
+        };
+    }
+
+    private RequestContext newFragmentContext(String transactionId) {
+        return newFragmentContext(transactionId, "user-provided.avsc");
+    }
+
+    private RequestContext newFragmentContext(String transactionId, String schemaFile) {
+        RequestContext fragmentContext = new RequestContext();
+        fragmentContext.setConfiguration(context.getConfiguration());
+        fragmentContext.setDataSource(context.getDataSource());
+        fragmentContext.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+        fragmentContext.setTransactionId(transactionId);
+        if (schemaFile != null) {
+            fragmentContext.addOption("SCHEMA", schemaFile);
+        }
+        return fragmentContext;
+    }
+
     private File dontFindLocalFile() {
         return null;
     }
@@ -0,0 +1,192 @@
+package org.greenplum.pxf.plugins.hdfs.avro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.mapred.AvroJob;
+import org.apache.avro.mapred.AvroRecordReader;
+import org.apache.avro.mapred.AvroWrapper;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelAvroRecordReaderTest {
+
+    private static final int ROWS = 5000;
+
+    @TempDir
+    File tempDir;
+
+    private File file;
+    private Schema schema;
+    private JobConf jobConf;
+    private PluginTaskExecutor taskExecutor;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        schema = SchemaBuilder.record("parallel_test").namespace("public.avro").fields()
+                .requiredInt("id")
+                .requiredString("name")
+                .optionalDouble("amount")
+                .endRecord();
+
+        // small sync interval, so the file has many blocks
+        file = new File(tempDir, "parallel.avro");
+        try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(schema))) {
+            writer.setCodec(CodecFactory.deflateCodec(6));
+            writer.setSyncInterval(2048);
+            writer.create(schema, file);
+            for (int i = 0; i < ROWS; i++) {
+                GenericRecord record = new GenericData.Record(schema);
+                record.put("id", i);
+                record.put("name", "name-" + i);
+                record.put("amount", i % 7 == 0 ? null : i * 1.5);
+                writer.append(record);
+            }
+        }
+
+        jobConf = new JobConf(new Configuration());
+        AvroJob.setInputSchema(jobConf, schema);
+        taskExecutor = new PluginTaskExecutor(3, DataSize.ofMegabytes(512));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        taskExecutor.destroy();
+    }
+
+    @Test
+    public void testReadsWholeFileInOrder() throws IOException {
+        List<GenericRecord> records = read(new ParallelAvroRecordReader<>(jobConf, split(0, file.length()), taskExecutor, 3, 6, ROWS, 64 * 1024 * 1024));
+
+        assertEquals(ROWS, records.size());
+        for (int i = 0; i < ROWS; i++) {
+            assertEquals(i, records.get(i).get("id"));
+            assertEquals("name-" + i, records.get(i).get("name").toString());
+        }
+    }
+
+    @Test
+    public void testSplitsReadTheSameRecordsAsAvroRecordReader() throws IOException {
+        long splitSize = file.length() / 7;
+        int total = 0;
+        for (long start = 0; start < file.length(); start += splitSize) {
+            FileSplit split = split(start, Math.min(splitSize, file.length() - start));
+            List<GenericRecord> expected = read(new AvroRecordReader<>(jobConf, split));
+            List<GenericRecord> actual = read(new ParallelAvroRecordReader<>(jobConf, split, taskExecutor, 3, 4, ROWS, 64 * 1024 * 1024));
+
+            assertEquals(expected, actual);
+            total += actual.size();
+        }
+        assertEquals(ROWS, total);
+    }
+
+    @Test
+    public void testBlockLargerThanMemoryBudgetIsRead() throws IOException {
+        // a budget of one byte only allows a single block in flight
+        List<GenericRecord> records = read(new ParallelAvroRecordReader<>(jobConf, split(0, file.length()), taskExecutor, 3, 6, ROWS, 1));
+
+        assertEquals(ROWS, records.size());
+        assertEquals(ROWS - 1, records.get(ROWS - 1).get("id"));
+    }
+
+    @Test
+    public void testProjectedReaderSchema() throws IOException {
+        Schema projected = SchemaBuilder.record("parallel_test").namespace("public.avro").fields()
+                .requiredString("name")
+                .endRecord();
+        AvroJob.setInputSchema(jobConf, projected);
+
+        List<GenericRecord> records = read(new ParallelAvroRecordReader<>(jobConf, split(0, file.length()), taskExecutor, 3, 6, ROWS, 64 * 1024 * 1024));
+
+        assertEquals(ROWS, records.size());
+        assertEquals(1, records.get(0).getSchema().getFields().size());
+        assertEquals("name-42", records.get(42).get("name").toString());
+    }
+
+    @Test
+    public void testRecordsInFlightAreLimited() throws IOException {
+        // every block has more than one record, only a single block is in flight
+        ParallelAvroRecordReader<GenericRecord> reader = new ParallelAvroRecordReader<>(jobConf, split(0, file.length()), taskExecutor, 3, 6, 1, 64 * 1024 * 1024);
+        AvroWrapper<GenericRecord> wrapper = reader.createKey();
+        int count = 0;
+        while (reader.next(wrapper, NullWritable.get())) {
+            assertEquals(count++, wrapper.datum().get("id"));
+            // a single block in flight is not reserved from the shared budget
+            assertEquals(0, taskExecutor.getReservedMemory());
+        }
+        reader.close();
+
+        assertEquals(ROWS, count);
+    }
+
+    @Test
+    public void testSharedMemoryBudgetExhausted() throws IOException {
+        PluginTaskExecutor exhaustedTaskExecutor = new PluginTaskExecutor(3, DataSize.ofBytes(1));
+        try {
+            List<GenericRecord> records = read(new ParallelAvroRecordReader<>(jobConf, split(0, file.length()), exhaustedTaskExecutor, 3, 6, ROWS, 64 * 1024 * 1024));
+
+            assertEquals(ROWS, records.size());
+            assertEquals(ROWS - 1, records.get(ROWS - 1).get("id"));
+            assertEquals(0, exhaustedTaskExecutor.getReservedMemory());
+        } finally {
+            exhaustedTaskExecutor.destroy();
+        }
+    }
+
+    @Test
+    public void testCloseBeforeEnd() throws IOException {
+        ParallelAvroRecordReader<GenericRecord> reader = new ParallelAvroRecordReader<>(jobConf, split(0, file.length()), taskExecutor, 3, 6, ROWS, 64 * 1024 * 1024);
+        AvroWrapper<GenericRecord> wrapper = reader.createKey();
+
+        assertTrue(reader.next(wrapper, NullWritable.get()));
+        assertEquals(0, wrapper.datum().get("id"));
+        assertTrue(taskExecutor.getReservedMemory() > 0);
+        reader.close();
+        assertEquals(0, taskExecutor.getReservedMemory());
+
+        // the shared threads keep running after the reader is closed
+        assertEquals(ROWS, read(new ParallelAvroRecordReader<>(jobConf, split(0, file.length()), taskExecutor, 3, 6, ROWS, 64 * 1024 * 1024)).size());
+    }
+
+    private FileSplit split(long start, long length) {
+        return new FileSplit(new Path(file.toURI()), start, length, (String[]) null);
+    }
+
+    private List<GenericRecord> read(RecordReader<AvroWrapper<GenericRecord>, NullWritable> reader) throws IOException {
+        List<GenericRecord> records = new ArrayList<>();
+        AvroWrapper<GenericRecord> wrapper = reader.createKey();
+        try {
+            while (reader.next(wrapper, NullWritable.get())) {
+                records.add(wrapper.datum());
+                // the Avro record reader reuses the datum of the wrapper
+                wrapper.datum(null);
+            }
+        } finally {
+            reader.close();
+        }
+        return records;
+    }
+}
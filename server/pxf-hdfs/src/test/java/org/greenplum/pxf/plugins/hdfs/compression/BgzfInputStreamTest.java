@@ -0,0 +1,194 @@
+package org.greenplum.pxf.plugins.hdfs.compression;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.GzipCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BgzfInputStreamTest {
+
+    private static final int BLOCK_DATA_SIZE = 65280;
+
+    private static FileSystem fs;
+    private ExecutorService executor;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeAll
+    public static void setupFileSystem() throws IOException {
+        fs = FileSystem.getLocal(new Configuration());
+    }
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testReadsTheDataOfTheBlocks() throws IOException {
+        byte[] data = generateData(5 * BLOCK_DATA_SIZE + 1000);
+        File file = writeBgzf(data);
+
+        // the file is a valid gzip file
+        assertArrayEquals(data, readAll(new GZIPInputStream(Files.newInputStream(file.toPath()))));
+        for (int maxPendingBlocks : new int[]{1, 2, 8}) {
+            FSDataInputStream in = open(file);
+            assertTrue(BgzfInputStream.isBgzf(in));
+            assertArrayEquals(data, readAll(new BgzfInputStream(in, executor, maxPendingBlocks)));
+        }
+    }
+
+    @Test
+    public void testPositionIsTheEndOfTheCurrentBlock() throws IOException {
+        byte[] data = generateData(2 * BLOCK_DATA_SIZE);
+        File file = writeBgzf(data);
+
+        try (BgzfInputStream in = new BgzfInputStream(open(file), executor, 4)) {
+            assertEquals(0, in.getPos());
+            byte[] buffer = new byte[BLOCK_DATA_SIZE];
+            assertEquals(BLOCK_DATA_SIZE, in.read(buffer, 0, buffer.length));
+            long firstBlockEnd = in.getPos();
+            assertTrue(firstBlockEnd > 0 && firstBlockEnd < file.length());
+            assertEquals(BLOCK_DATA_SIZE, in.read(buffer, 0, buffer.length));
+            assertTrue(in.getPos() > firstBlockEnd);
+            assertEquals(-1, in.read(buffer, 0, buffer.length));
+            assertEquals(file.length(), in.getPos());
+        }
+    }
+
+    @Test
+    public void testCorruptBlockFails() throws IOException {
+        byte[] data = generateData(3 * BLOCK_DATA_SIZE);
+        File file = writeBgzf(data);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        // flip a bit of the CRC of the first block
+        int firstBlockSize = ((bytes[16] & 0xff) | (bytes[17] & 0xff) << 8) + 1;
+        bytes[firstBlockSize - 8] ^= 1;
+        Files.write(file.toPath(), bytes);
+
+        IOException e = assertThrows(IOException.class, () -> readAll(new BgzfInputStream(open(file), executor, 4)));
+        assertEquals("CRC mismatch in BGZF block at position 0", e.getMessage());
+    }
+
+    @Test
+    public void testCreateReadsPlainGzipAhead() throws IOException {
+        byte[] data = generateData(300000);
+        File file = new File(tempDir, "plain.gz");
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(file))) {
+            out.write(data);
+        }
+        GzipCodec codec = new GzipCodec();
+        codec.setConf(new Configuration());
+
+        FSDataInputStream in = open(file);
+        assertFalse(BgzfInputStream.isBgzf(in));
+        DecompressedInputStream decompressed = DecompressedInputStream.create(in, codec, null, executor, 2);
+        assertTrue(decompressed instanceof ReadAheadInputStream);
+        assertArrayEquals(data, readAll(decompressed));
+
+        File bgzfFile = writeBgzf(data);
+        decompressed = DecompressedInputStream.create(open(bgzfFile), codec, null, executor, 2);
+        assertTrue(decompressed instanceof BgzfInputStream);
+        assertArrayEquals(data, readAll(decompressed));
+    }
+
+    private byte[] readAll(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[10000];
+            int n;
+            while ((n = stream.read(buffer)) >= 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private FSDataInputStream open(File file) throws IOException {
+        return fs.open(new Path(file.toURI()));
+    }
+
+    private byte[] generateData(int size) {
+        Random random = new Random(size);
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) ('a' + random.nextInt(4));
+        }
+        return data;
+    }
+
+    /**
+     * Writes the data in BGZF blocks, followed by the empty end of file block
+     */
+    private File writeBgzf(byte[] data) throws IOException {
+        File file = new File(tempDir, "data.bgzf.gz");
+        try (OutputStream out = new FileOutputStream(file)) {
+            for (int offset = 0; offset < data.length; offset += BLOCK_DATA_SIZE) {
+                writeBgzfBlock(out, data, offset, Math.min(BLOCK_DATA_SIZE, data.length - offset));
+            }
+            writeBgzfBlock(out, data, 0, 0);
+        }
+        return file;
+    }
+
+    private void writeBgzfBlock(OutputStream out, byte[] data, int offset, int length) throws IOException {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data, offset, length);
+        deflater.finish();
+        byte[] compressed = new byte[length + 1024];
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+        deflater.end();
+
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+        int blockSize = 18 + compressedLength + 8;
+        out.write(new byte[]{0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0});
+        writeShort(out, blockSize - 1);
+        out.write(compressed, 0, compressedLength);
+        writeShort(out, (int) crc.getValue());
+        writeShort(out, (int) (crc.getValue() >>> 16));
+        writeShort(out, length);
+        writeShort(out, length >>> 16);
+    }
+
+    private void writeShort(OutputStream out, int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+    }
+}
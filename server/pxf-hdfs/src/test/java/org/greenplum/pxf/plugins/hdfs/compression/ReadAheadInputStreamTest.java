@@ -0,0 +1,163 @@
+package org.greenplum.pxf.plugins.hdfs.compression;
+
+import org.apache.hadoop.fs.Seekable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadAheadInputStreamTest {
+
+    private static final Seekable NO_POSITION = new PositionedStream(new byte[0], 1);
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testReadsTheStream() throws IOException {
+        byte[] data = new byte[3 * 1024 * 1024 + 17];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        PositionedStream stream = new PositionedStream(data, 1000);
+
+        try (ReadAheadInputStream in = new ReadAheadInputStream(stream, stream, executor)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(data[0] & 0xff, in.read());
+            out.write(data[0]);
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer, 0, buffer.length)) >= 0) {
+                out.write(buffer, 0, n);
+                // the position of the data, not of the data read ahead
+                assertTrue(in.getPos() <= out.size() + 1000);
+                assertTrue(in.getPos() >= out.size());
+            }
+            assertArrayEquals(data, out.toByteArray());
+            assertEquals(-1, in.read());
+        }
+        assertTrue(stream.closed);
+    }
+
+    @Test
+    public void testFailureOfTheStream() throws IOException {
+        IOException failure = new IOException("disk failure");
+        InputStream stream = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() throws IOException {
+                if (count++ >= 10) {
+                    throw failure;
+                }
+                return 'a';
+            }
+        };
+
+        try (ReadAheadInputStream in = new ReadAheadInputStream(stream, NO_POSITION, executor)) {
+            assertSame(failure, assertThrows(IOException.class, () -> {
+                while (true) {
+                    in.read();
+                }
+            }));
+            assertSame(failure, assertThrows(IOException.class, in::read));
+        }
+    }
+
+    @Test
+    public void testCloseStopsReadingAhead() throws IOException {
+        // an endless stream
+        InputStream stream = new InputStream() {
+            @Override
+            public int read() {
+                return 'a';
+            }
+        };
+
+        ReadAheadInputStream in = new ReadAheadInputStream(stream, NO_POSITION, executor);
+        assertEquals('a', in.read());
+        in.close();
+        assertThrows(IOException.class, in::read);
+    }
+
+    @Test
+    public void testSlowReaderDoesNotHoldAThread() throws Exception {
+        // an endless stream
+        InputStream stream = new InputStream() {
+            @Override
+            public int read() {
+                return 'a';
+            }
+        };
+
+        try (ReadAheadInputStream in = new ReadAheadInputStream(stream, NO_POSITION, executor)) {
+            assertEquals('a', in.read());
+            // the single thread of the executor is free once the buffers are filled
+            assertEquals("done", executor.submit(() -> "done").get(10, TimeUnit.SECONDS));
+            for (int i = 0; i < 4 * 1024 * 1024; i++) {
+                assertEquals('a', in.read());
+            }
+        }
+    }
+
+    /**
+     * A stream whose reads return at most readSize bytes, positioned at the
+     * number of bytes it returned
+     */
+    private static class PositionedStream extends ByteArrayInputStream implements Seekable {
+        private final int readSize;
+        private boolean closed;
+
+        PositionedStream(byte[] data, int readSize) {
+            super(data);
+            this.readSize = readSize;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, readSize));
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public void seek(long pos) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getPos() {
+            return pos;
+        }
+
+        @Override
+        public boolean seekToNewSource(long targetPos) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.greenplum.pxf.plugins.hdfs.filesystem;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DirectLocalFileSystemTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void testFileSchemeUsesDirectLocalFileSystem() throws IOException {
+        Configuration configuration = new Configuration();
+        configuration.set("fs.file.impl", DirectLocalFileSystem.class.getName());
+        configuration.setBoolean("fs.file.impl.disable.cache", true);
+
+        try (FileSystem fs = new Path(tempDir.toURI()).getFileSystem(configuration)) {
+            assertTrue(fs instanceof DirectLocalFileSystem);
+        }
+    }
+
+    @Test
+    public void testReadsTheFile() throws IOException {
+        byte[] data = generateData(100000);
+        File file = write(data);
+
+        for (int bufferSize : new int[]{1, 1000, 64 * 1024, 1024 * 1024}) {
+            for (int readSize : new int[]{1, 999, 70000}) {
+                try (FSDataInputStream in = open(file, bufferSize)) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[readSize];
+                    int n;
+                    while ((n = in.read(buffer, 0, readSize)) >= 0) {
+                        out.write(buffer, 0, n);
+                        assertEquals(out.size(), in.getPos());
+                    }
+                    assertArrayEquals(data, out.toByteArray(), "buffer size " + bufferSize + ", read size " + readSize);
+                    assertEquals(-1, in.read());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        byte[] data = generateData(10000);
+        File file = write(data);
+
+        try (FSDataInputStream in = open(file, 1000)) {
+            assertEquals(data[0], (byte) in.read());
+            // inside the buffer
+            in.seek(500);
+            assertEquals(data[500], (byte) in.read());
+            in.seek(10);
+            assertEquals(data[10], (byte) in.read());
+            // outside of the buffer
+            in.seek(5000);
+            assertEquals(data[5000], (byte) in.read());
+            assertEquals(5001, in.getPos());
+            in.seek(3);
+            byte[] buffer = new byte[2000];
+            in.readFully(buffer);
+            assertArrayEquals(Arrays.copyOfRange(data, 3, 2003), buffer);
+
+            assertEquals(1000, in.skip(1000));
+            assertEquals(data[3003], (byte) in.read());
+            assertEquals(10000 - 3004, in.skip(100000));
+            assertEquals(-1, in.read());
+
+            assertThrows(EOFException.class, () -> in.seek(-1));
+        }
+    }
+
+    @Test
+    public void testPositionalReads() throws IOException {
+        byte[] data = generateData(10000);
+        File file = write(data);
+
+        try (FSDataInputStream in = open(file, 1000)) {
+            in.seek(20);
+            byte[] buffer = new byte[3000];
+            in.readFully(6000, buffer);
+            assertArrayEquals(Arrays.copyOfRange(data, 6000, 9000), buffer);
+            // positional reads don't move the stream
+            assertEquals(20, in.getPos());
+            assertEquals(data[20], (byte) in.read());
+            assertThrows(EOFException.class, () -> in.readFully(9000, buffer));
+        }
+    }
+
+    @Test
+    public void testByteBufferReads() throws IOException {
+        byte[] data = generateData(10000);
+        File file = write(data);
+
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(700), ByteBuffer.allocateDirect(700)}) {
+            try (FSDataInputStream in = open(file, 1000)) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                // mix buffered reads with byte buffer reads
+                out.write(in.read());
+                while (true) {
+                    buffer.clear();
+                    int n = in.read(buffer);
+                    if (n < 0) {
+                        break;
+                    }
+                    buffer.flip();
+                    byte[] bytes = new byte[n];
+                    buffer.get(bytes);
+                    out.write(bytes);
+                    assertEquals(out.size(), in.getPos());
+                }
+                assertArrayEquals(data, out.toByteArray());
+            }
+        }
+    }
+
+    @Test
+    public void testWritesWithoutChecksums() throws IOException {
+        Path path = new Path(new File(tempDir, "written.txt").toURI());
+        try (FileSystem fs = newFileSystem(1000)) {
+            try (FSDataOutputStream out = fs.create(path, false)) {
+                out.write(new byte[]{1, 2, 3});
+            }
+            FileStatus[] statuses = fs.listStatus(new Path(tempDir.toURI()));
+            assertEquals(1, statuses.length);
+            assertEquals("written.txt", statuses[0].getPath().getName());
+            assertFalse(new File(tempDir, ".written.txt.crc").exists());
+        }
+    }
+
+    @Test
+    public void testOpenMissingFileOrDirectory() throws IOException {
+        try (FileSystem fs = newFileSystem(1000)) {
+            assertThrows(FileNotFoundException.class, () -> fs.open(new Path(new File(tempDir, "missing").toURI())));
+            assertThrows(FileNotFoundException.class, () -> fs.open(new Path(tempDir.toURI())));
+        }
+    }
+
+    private FSDataInputStream open(File file, int bufferSize) throws IOException {
+        FileSystem fs = newFileSystem(bufferSize);
+        return fs.open(new Path(file.toURI()));
+    }
+
+    private FileSystem newFileSystem(int bufferSize) throws IOException {
+        Configuration configuration = new Configuration();
+        configuration.setInt(DirectLocalFileSystem.PXF_FS_FILE_READ_BUFFER_SIZE_PROPERTY, bufferSize);
+        FileSystem fs = new DirectLocalFileSystem();
+        fs.initialize(tempDir.toURI(), configuration);
+        return fs;
+    }
+
+    private File write(byte[] data) throws IOException {
+        File file = new File(tempDir, "data.bin");
+        Files.write(file.toPath(), data);
+        return file;
+    }
+
+    private byte[] generateData(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+}
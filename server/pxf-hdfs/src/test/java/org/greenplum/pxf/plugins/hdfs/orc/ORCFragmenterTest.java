@@ -0,0 +1,195 @@
+package org.greenplum.pxf.plugins.hdfs.orc;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.OrcFile;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ORCFragmenterTest {
+
+    private static final int NUM_STRIPES = 10;
+    private static final int ROWS_PER_STRIPE = 100;
+    private static final int NUM_ROWS = NUM_STRIPES * ROWS_PER_STRIPE;
+
+    private static final TypeDescription SCHEMA = TypeDescription.fromString("struct<id:int,name:string>");
+
+    @TempDir
+    static File tempDir;
+
+    private RequestContext context;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        String path = tempDir.getAbsolutePath() + "/ids.orc";
+        if (!new File(path).exists()) {
+            writeFile(path);
+        }
+
+        List<ColumnDescriptor> columnDescriptors = new ArrayList<>();
+        columnDescriptors.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        columnDescriptors.add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null));
+
+        Configuration configuration = new Configuration();
+        configuration.set("pxf.fs.basePath", "/");
+
+        context = new RequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource(path);
+        context.setTupleDescription(columnDescriptors);
+        context.setConfiguration(configuration);
+    }
+
+    @Test
+    public void testSingleFragmentForSmallFile() throws Exception {
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+
+        assertEquals(1, fragments.size());
+        assertEquals(NUM_ROWS, readRows(fragments));
+    }
+
+    @Test
+    public void testFragmentPerStripe() throws Exception {
+        context.addOption("FRAGMENT_SIZE", "1");
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+
+        assertEquals(NUM_STRIPES, fragments.size());
+        assertEquals(NUM_ROWS, readRows(fragments));
+
+        // fragments don't overlap; intermediate footers are written between the stripes
+        long previousEnd = 0;
+        for (Fragment fragment : fragments) {
+            HcfsFragmentMetadata metadata = (HcfsFragmentMetadata) fragment.getMetadata();
+            assertTrue(metadata.getStart() >= previousEnd);
+            previousEnd = metadata.getStart() + metadata.getLength();
+        }
+    }
+
+    @Test
+    public void testStripesArePrunedWithFilter() throws Exception {
+        context.addOption("FRAGMENT_SIZE", "1");
+
+        // id > 990
+        context.setFilterString("a0c23s3d990o2");
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+
+        assertEquals(1, fragments.size());
+        assertEquals(ROWS_PER_STRIPE, readRows(fragments));
+    }
+
+    @Test
+    public void testPrunedStripesSplitFragments() throws Exception {
+        // id <= 200 OR id > 900
+        context.setFilterString("a0c23s3d200o3a0c23s3d900o2l1");
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+
+        assertEquals(2, fragments.size());
+        assertEquals(3 * ROWS_PER_STRIPE, readRows(fragments));
+    }
+
+    @Test
+    public void testAllStripesPrunedWithFilter() throws Exception {
+        // id < 0
+        context.setFilterString("a0c23s1d0o1");
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+
+        assertEquals(0, fragments.size());
+    }
+
+    @Test
+    public void testUnsupportedFilterDoesNotPrune() throws Exception {
+        context.addOption("FRAGMENT_SIZE", "1");
+
+        // name LIKE 'name%' is not supported by the ORC filter
+        context.setFilterString("a1c25s5dname%o7");
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+
+        assertEquals(NUM_STRIPES, fragments.size());
+    }
+
+    @Test
+    public void testFragmentsCombineStripesUpToTargetSize() throws Exception {
+        context.addOption("FRAGMENT_SIZE", "1");
+        List<Fragment> perStripe = getFragmenter(context).getFragments();
+        HcfsFragmentMetadata first = (HcfsFragmentMetadata) perStripe.get(0).getMetadata();
+        HcfsFragmentMetadata second = (HcfsFragmentMetadata) perStripe.get(1).getMetadata();
+
+        // large enough for two stripes
+        long twoStripes = second.getStart() + second.getLength() - first.getStart();
+        context.addOption("FRAGMENT_SIZE", String.valueOf(twoStripes));
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+
+        assertTrue(fragments.size() < perStripe.size());
+        assertEquals(twoStripes, ((HcfsFragmentMetadata) fragments.get(0).getMetadata()).getLength());
+        assertEquals(NUM_ROWS, readRows(fragments));
+    }
+
+    private int readRows(List<Fragment> fragments) throws Exception {
+        int rows = 0;
+        for (Fragment fragment : fragments) {
+            context.setFragmentMetadata(fragment.getMetadata());
+            context.setFilterString(null);
+            context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+            Accessor accessor = new ORCVectorizedAccessor();
+            accessor.setRequestContext(context);
+            accessor.afterPropertiesSet();
+            accessor.openForRead();
+            OneRow row;
+            while ((row = accessor.readNextObject()) != null) {
+                rows += ((VectorizedRowBatch) row.getData()).size;
+            }
+            accessor.closeForRead();
+        }
+        return rows;
+    }
+
+    private ORCFragmenter getFragmenter(RequestContext context) {
+        ORCFragmenter fragmenter = new ORCFragmenter();
+        fragmenter.setRequestContext(context);
+        fragmenter.afterPropertiesSet();
+        return fragmenter;
+    }
+
+    private void writeFile(String path) throws Exception {
+        Writer writer = OrcFile.createWriter(new Path(path), OrcFile.writerOptions(new Configuration()).setSchema(SCHEMA));
+        VectorizedRowBatch batch = SCHEMA.createRowBatch();
+        LongColumnVector ids = (LongColumnVector) batch.cols[0];
+        BytesColumnVector names = (BytesColumnVector) batch.cols[1];
+        int id = 1;
+        for (int stripe = 0; stripe < NUM_STRIPES; stripe++) {
+            for (int row = 0; row < ROWS_PER_STRIPE; row++, id++) {
+                ids.vector[row] = id;
+                byte[] name = ("name-" + id).getBytes(StandardCharsets.UTF_8);
+                names.setRef(row, name, 0, name.length);
+            }
+            batch.size = ROWS_PER_STRIPE;
+            writer.addRowBatch(batch);
+            batch.reset();
+            // flush every batch into its own stripe
+            writer.writeIntermediateFooter();
+        }
+        writer.close();
+    }
+}
@@ -0,0 +1,107 @@
+package org.greenplum.pxf.plugins.hdfs.orc;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.Reader;
+import org.apache.orc.RecordReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class ORCTailCacheTest {
+
+    private Configuration configuration;
+    private FileStatus fileStatus;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        ORCTailCache.invalidateAll();
+        configuration = new Configuration();
+        Path path = new Path(Objects.requireNonNull(getClass().getClassLoader().getResource("orc/orc_types.orc")).getPath());
+        FileSystem fs = path.getFileSystem(configuration);
+        fileStatus = fs.getFileStatus(path);
+    }
+
+    @Test
+    public void testTailIsReused() throws Exception {
+        long hits = ORCTailCache.stats().hitCount();
+        long misses = ORCTailCache.stats().missCount();
+
+        int rows;
+        try (Reader reader = ORCTailCache.createReader(fileStatus, configuration)) {
+            rows = countRows(reader);
+        }
+        assertEquals(misses + 1, ORCTailCache.stats().missCount());
+
+        try (Reader reader = ORCTailCache.createReader(fileStatus, configuration)) {
+            assertEquals(hits + 1, ORCTailCache.stats().hitCount());
+            assertEquals(25, reader.getNumberOfRows());
+            assertEquals(rows, countRows(reader));
+        }
+    }
+
+    @Test
+    public void testStatsArePublishedToTheGlobalRegistry() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            ORCTailCache.createReader(fileStatus, configuration).close();
+            ORCTailCache.createReader(fileStatus, configuration).close();
+
+            FunctionCounter hits = registry.find("cache.gets")
+                    .tag("cache", "pxf.orc.tail")
+                    .tag("result", "hit")
+                    .functionCounter();
+            assertNotNull(hits);
+            assertEquals(ORCTailCache.stats().hitCount(), (long) hits.count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    public void testModifiedFileMissesCache() throws Exception {
+        ORCTailCache.createReader(fileStatus, configuration).close();
+        long misses = ORCTailCache.stats().missCount();
+
+        FileStatus modified = new FileStatus(fileStatus.getLen(), false, 1, fileStatus.getBlockSize(),
+                fileStatus.getModificationTime() + 1, fileStatus.getPath());
+        ORCTailCache.createReader(modified, configuration).close();
+
+        assertEquals(misses + 1, ORCTailCache.stats().missCount());
+    }
+
+    @Test
+    public void testCacheDisabled() throws Exception {
+        configuration.setBoolean("pxf.orc.tail-cache.enabled", false);
+        long hits = ORCTailCache.stats().hitCount();
+        long misses = ORCTailCache.stats().missCount();
+
+        ORCTailCache.createReader(fileStatus, configuration).close();
+        ORCTailCache.createReader(fileStatus, configuration).close();
+
+        assertEquals(hits, ORCTailCache.stats().hitCount());
+        assertEquals(misses, ORCTailCache.stats().missCount());
+    }
+
+    private int countRows(Reader reader) throws Exception {
+        int rows = 0;
+        VectorizedRowBatch batch = reader.getSchema().createRowBatch();
+        try (RecordReader recordReader = reader.rows()) {
+            while (recordReader.nextBatch(batch)) {
+                rows += batch.size;
+            }
+        }
+        return rows;
+    }
+}
@@ -1,12 +1,15 @@
 package org.greenplum.pxf.plugins.hdfs.orc;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.hadoop.io.LongWritable;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
 import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,6 +20,7 @@ import java.util.Objects;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -123,15 +127,116 @@ class ORCVectorizedAccessorTest extends ORCVectorizedBaseTest {
     }
 
     @Test
-    public void testOrcWriteIsNotSupported() {
-        Exception e = assertThrows(UnsupportedOperationException.class, () -> accessor.openForWrite());
-        assertEquals("Write operation is not supported", e.getMessage());
+    public void testCountFromStatistics() throws IOException {
+        // COUNT(*) projects the first column only
+        prepareAggregate(EnumAggregationType.COUNT, 0);
 
-        e = assertThrows(UnsupportedOperationException.class, () -> accessor.writeNextObject(new OneRow()));
-        assertEquals("Write operation is not supported", e.getMessage());
+        assertTrue(accessor.retrieveStats());
+        OneRow oneRow = accessor.emitAggObject();
+        assertNotNull(oneRow);
+        VectorizedRowBatch batch = (VectorizedRowBatch) oneRow.getData();
+        assertEquals(25, batch.size);
+        assertTrue(batch.cols[0].isRepeating);
+        assertTrue(batch.cols[0].isNull[0]);
+        assertNull(accessor.emitAggObject());
+
+        accessor.closeForRead();
+    }
+
+    @Test
+    public void testMinMaxSumFromStatistics() throws IOException {
+        // num1 has the values 1 to 12 and a null
+        assertEquals(1, aggregateLong(EnumAggregationType.MIN, 2));
+        assertEquals(12, aggregateLong(EnumAggregationType.MAX, 2));
+        assertEquals(210, aggregateLong(EnumAggregationType.SUM, 2));
+
+        // sml is a smallint column
+        assertEquals(10, aggregateLong(EnumAggregationType.MIN, 10));
+        assertEquals(1100, aggregateLong(EnumAggregationType.MAX, 10));
+
+        // dub1 is a double column
+        prepareAggregate(EnumAggregationType.MAX, 3);
+        assertTrue(accessor.retrieveStats());
+        VectorizedRowBatch batch = (VectorizedRowBatch) accessor.emitAggObject().getData();
+        assertEquals(1, batch.size);
+        assertEquals(38.0, ((DoubleColumnVector) batch.cols[0]).vector[0]);
+        assertNull(accessor.emitAggObject());
+        accessor.closeForRead();
+    }
+
+    @Test
+    public void testAggregateOfEmptyRangeHasNoRows() throws IOException {
+        // the range starts after the only stripe of the file
+        prepareAggregate(EnumAggregationType.MIN, 2, new HcfsFragmentMetadata(4, 2253));
+
+        assertTrue(accessor.retrieveStats());
+        assertNull(accessor.emitAggObject());
+        accessor.closeForRead();
+    }
+
+    @Test
+    public void testFallbackToReadingWhenStatisticsCantAnswer() throws IOException {
+        // the statistics of text columns are not used
+        prepareAggregate(EnumAggregationType.MIN, 0);
+
+        assertFalse(accessor.retrieveStats());
+        OneRow oneRow = accessor.readNextObject();
+        assertNotNull(oneRow);
+        assertEquals(25, ((VectorizedRowBatch) oneRow.getData()).size);
+        assertNull(accessor.readNextObject());
+
+        accessor.closeForRead();
+    }
 
-        e = assertThrows(UnsupportedOperationException.class, () -> accessor.closeForWrite());
-        assertEquals("Write operation is not supported", e.getMessage());
+    @Test
+    public void testEmitAggObjectBeforeRetrieveStats() throws IOException {
+        prepareAggregate(EnumAggregationType.COUNT, 0);
+
+        assertThrows(IllegalStateException.class, accessor::emitAggObject);
+        accessor.closeForRead();
+    }
+
+    @Test
+    public void testOrcWriteWithInvalidCodec() {
+        context.setRequestType(RequestContext.RequestType.WRITE_BRIDGE);
+        context.setTupleDescription(columnDescriptors);
+        context.setDataSource("/tmp/orc-invalid-codec");
+        context.addOption("COMPRESSION_CODEC", "foo");
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+
+        Exception e = assertThrows(IllegalArgumentException.class, () -> accessor.openForWrite());
+        assertEquals("Invalid codec: foo ", e.getMessage());
+    }
+
+    private long aggregateLong(EnumAggregationType aggType, int columnIndex) throws IOException {
+        prepareAggregate(aggType, columnIndex);
+        assertTrue(accessor.retrieveStats());
+        VectorizedRowBatch batch = (VectorizedRowBatch) accessor.emitAggObject().getData();
+        assertEquals(1, batch.size);
+        assertNull(accessor.emitAggObject());
+        accessor.closeForRead();
+        return ((LongColumnVector) batch.cols[0]).vector[0];
+    }
+
+    private void prepareAggregate(EnumAggregationType aggType, int projectedIndex) throws IOException {
+        prepareAggregate(aggType, projectedIndex, new HcfsFragmentMetadata(0, 2257));
+    }
+
+    private void prepareAggregate(EnumAggregationType aggType, int projectedIndex, HcfsFragmentMetadata metadata) throws IOException {
+        String path = Objects.requireNonNull(getClass().getClassLoader().getResource("orc/orc_types.orc")).getPath();
+        IntStream.range(0, columnDescriptors.size()).forEach(idx ->
+                columnDescriptors.get(idx).setProjected(idx == projectedIndex));
+        context.setDataSource(path);
+        context.setFragmentMetadata(metadata);
+        context.setTupleDescription(columnDescriptors);
+        context.setAggType(aggType);
+        context.setNumAttrsProjected(aggType.isColumnAggregate() ? 1 : 0);
+        context.setAccessor(ORCVectorizedAccessor.class.getName());
+        accessor = new ORCVectorizedAccessor();
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        assertTrue(accessor.openForRead());
     }
 
     private void runTestScenarioReadOrcTypesFile(int expectedNumCols) throws IOException {
@@ -11,14 +11,21 @@ import org.apache.orc.TypeDescription;
 import org.apache.orc.impl.SchemaEvolution;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.error.UnsupportedTypeException;
 import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.io.GPDBWritable;
+import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.OutputFormat;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Date;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -26,6 +33,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -53,6 +61,7 @@ class ORCVectorizedResolverTest extends ORCVectorizedBaseTest {
         context.setTupleDescription(columnDescriptors);
         context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
         context.setConfiguration(new Configuration());
+        context.setDatabaseEncoding(StandardCharsets.UTF_8);
     }
 
     @Test
@@ -324,13 +333,174 @@ class ORCVectorizedResolverTest extends ORCVectorizedBaseTest {
         assertDataReturned(ORC_TYPES_DATASET, fields);
     }
 
+    @Test
+    public void testSerializeBatchPrimitive() throws IOException {
+        TypeDescription schema = TypeDescription.fromString(ORC_TYPES_SCHEMA);
+        context.setMetadata(schema);
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        VectorizedRowBatch batch = readOrcFile("orc_types.orc", 25, schema);
+        OneRow batchOfRows = new OneRow(batch);
+        byte[] serialized = write(resolver.serializeBatch(batchOfRows));
+
+        assertArrayEquals(writeGPDBWritables(resolver.getFieldsForBatch(batchOfRows)), serialized);
+    }
+
+    @Test
+    public void testSerializeBatchRepeatedPrimitive() throws IOException {
+        TypeDescription schema = TypeDescription.fromString(ORC_TYPES_SCHEMA);
+        context.setMetadata(schema);
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        VectorizedRowBatch batch = readOrcFile("orc_types_repeated.orc", 3, schema);
+        OneRow batchOfRows = new OneRow(batch);
+        byte[] serialized = write(resolver.serializeBatch(batchOfRows));
+
+        assertArrayEquals(writeGPDBWritables(resolver.getFieldsForBatch(batchOfRows)), serialized);
+    }
+
+    @Test
+    public void testSerializeBatchCompoundWithProjection() throws IOException {
+        // Only project indexes 1, 4, 5, 8
+        IntStream.range(0, columnDescriptorsCompound.size()).forEach(idx ->
+                columnDescriptorsCompound
+                        .get(idx)
+                        .setProjected(idx == 1 || idx == 4 || idx == 5 || idx == 8));
+
+        TypeDescription schema = TypeDescription.fromString("struct<bool_arr:array<boolean>,int8_arr:array<bigint>,float_arr:array<float>,bytea_arr:array<binary>>");
+        context.setMetadata(schema);
+        context.setTupleDescription(columnDescriptorsCompound);
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        VectorizedRowBatch batch = readOrcFile("orc_types_compound.orc", 6, schema);
+        OneRow batchOfRows = new OneRow(batch);
+        byte[] serialized = write(resolver.serializeBatch(batchOfRows));
+
+        assertArrayEquals(writeGPDBWritables(resolver.getFieldsForBatch(batchOfRows)), serialized);
+    }
+
+    @Test
+    public void testSerializeBatchCsv() throws IOException {
+        TypeDescription schema = TypeDescription.fromString(ORC_TYPES_SCHEMA);
+        context.setMetadata(schema);
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.setFormat("csv");
+
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        VectorizedRowBatch batch = readOrcFile("orc_types.orc", 25, schema);
+        String[] lines = new String(write(resolver.serializeBatch(new OneRow(batch))), StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(25, lines.length);
+        assertEquals("row1,s_6,1,6.0,1.23456,2013-07-13 21:00:05,7.7,23456789,false,1,10,2015-03-06,abcd,abc,\\x31", lines[0]);
+        assertEquals("row12_text_null,,11,37.0,0.123456789012345679,2013-07-23 21:00:05,7.7,23456789,false,11,1100,2015-03-06,abcde,ab,\\x31", lines[11]);
+        assertEquals("row25_binary_null,s_16,11,37.0,0.123456789012345679,2013-07-23 21:00:05,7.7,23456789,false,1,1100,2015-03-06,abcde,ab,", lines[24]);
+    }
+
+    @Test
+    public void testSerializeBatchFallsBack() throws IOException {
+        TypeDescription schema = TypeDescription.fromString(ORC_TYPES_SCHEMA);
+        VectorizedRowBatch batch = readOrcFile("orc_types.orc", 25, schema);
+        context.setMetadata(schema);
+
+        // a single column of text is written without delimiting
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.setTupleDescription(columnDescriptors.subList(0, 1));
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+        assertNull(resolver.serializeBatch(new OneRow(batch)));
+
+        // the type of the column doesn't match the type in the file
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+        columnDescriptors.set(2, new ColumnDescriptor("num1", DataType.BIGINT.getOID(), 2, "int8", null));
+        context.setTupleDescription(columnDescriptors);
+        resolver = new ORCVectorizedResolver();
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+        assertNull(resolver.serializeBatch(new OneRow(batch)));
+
+        // disabled by the server configuration
+        context.setTupleDescription(columnDescriptors.subList(0, 2));
+        context.getConfiguration().setBoolean("pxf.orc.read.direct.enabled", false);
+        resolver = new ORCVectorizedResolver();
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+        assertNull(resolver.serializeBatch(new OneRow(batch)));
+    }
+
     @Test
     public void testUnsupportedFunctionality() {
         Exception e = assertThrows(UnsupportedOperationException.class, () -> resolver.getFields(new OneRow()));
         assertEquals("Current operation is not supported", e.getMessage());
+    }
 
-        e = assertThrows(UnsupportedOperationException.class, () -> resolver.setFields(Collections.singletonList(new OneField())));
-        assertEquals("Current operation is not supported", e.getMessage());
+    @Test
+    public void testSetFieldsFailsOnMissingSchema() {
+        context.setMetadata(null);
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        Exception e = assertThrows(PxfRuntimeException.class, () -> resolver.setFields(Collections.singletonList(new OneField())));
+        assertEquals("No schema detected in request context", e.getMessage());
+    }
+
+    private byte[] write(Writable writable) throws IOException {
+        assertNotNull(writable);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writable.write(new DataOutputStream(out));
+        return out.toByteArray();
+    }
+
+    /**
+     * Serializes the resolved fields the way the bridge does
+     */
+    private byte[] writeGPDBWritables(List<List<OneField>> fieldsForBatch) throws IOException {
+        int[] types = context.getTupleDescription().stream().mapToInt(ColumnDescriptor::columnTypeCode).toArray();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(out);
+        for (List<OneField> fields : fieldsForBatch) {
+            GPDBWritable record = new GPDBWritable(types, StandardCharsets.UTF_8);
+            for (int i = 0; i < types.length; i++) {
+                Object val = fields.get(i).val;
+                switch (DataType.get(types[i])) {
+                    case BOOLEAN:
+                        record.setBoolean(i, (Boolean) val);
+                        break;
+                    case SMALLINT:
+                        record.setShort(i, (Short) val);
+                        break;
+                    case INTEGER:
+                        record.setInt(i, (Integer) val);
+                        break;
+                    case BIGINT:
+                        record.setLong(i, (Long) val);
+                        break;
+                    case REAL:
+                        record.setFloat(i, (Float) val);
+                        break;
+                    case FLOAT8:
+                        record.setDouble(i, (Double) val);
+                        break;
+                    case BYTEA:
+                        record.setBytes(i, (byte[]) val);
+                        break;
+                    default:
+                        record.setString(i, val == null ? null : val.toString());
+                }
+            }
+            record.write(dos);
+        }
+        return out.toByteArray();
     }
 
     private void assertDataReturned(Object[][] expected, List<List<OneField>> fieldsForBatch) {
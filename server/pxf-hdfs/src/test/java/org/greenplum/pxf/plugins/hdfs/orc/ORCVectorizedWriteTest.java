@@ -0,0 +1,239 @@
+package org.greenplum.pxf.plugins.hdfs.orc;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.orc.CompressionKind;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.error.UnsupportedTypeException;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.HcfsType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ORCVectorizedWriteTest {
+
+    private static final int NUM_ROWS = 2500;
+
+    private List<ColumnDescriptor> columnDescriptors;
+
+    @TempDir
+    File temp; // must be non-private
+
+    @BeforeEach
+    public void setup() {
+        columnDescriptors = new ArrayList<>();
+        columnDescriptors.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        columnDescriptors.add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null));
+        columnDescriptors.add(new ColumnDescriptor("bg", DataType.BIGINT.getOID(), 2, "int8", null));
+        columnDescriptors.add(new ColumnDescriptor("amt", DataType.FLOAT8.getOID(), 3, "float8", null));
+        columnDescriptors.add(new ColumnDescriptor("r", DataType.REAL.getOID(), 4, "real", null));
+        columnDescriptors.add(new ColumnDescriptor("b", DataType.BOOLEAN.getOID(), 5, "bool", null));
+        columnDescriptors.add(new ColumnDescriptor("sml", DataType.SMALLINT.getOID(), 6, "int2", null));
+        columnDescriptors.add(new ColumnDescriptor("cdate", DataType.DATE.getOID(), 7, "date", null));
+        columnDescriptors.add(new ColumnDescriptor("dec", DataType.NUMERIC.getOID(), 8, "numeric", new Integer[]{5, 2}));
+        columnDescriptors.add(new ColumnDescriptor("tm", DataType.TIMESTAMP.getOID(), 9, "timestamp", null));
+        columnDescriptors.add(new ColumnDescriptor("bin", DataType.BYTEA.getOID(), 10, "bytea", null));
+        columnDescriptors.add(new ColumnDescriptor("c1", DataType.BPCHAR.getOID(), 11, "bpchar", new Integer[]{3}));
+        columnDescriptors.add(new ColumnDescriptor("vc", DataType.VARCHAR.getOID(), 12, "varchar", new Integer[]{10}));
+        columnDescriptors.add(new ColumnDescriptor("int_arr", DataType.INT4ARRAY.getOID(), 13, "int4[]", null));
+        columnDescriptors.add(new ColumnDescriptor("text_arr", DataType.TEXTARRAY.getOID(), 14, "text[]", null));
+    }
+
+    @Test
+    public void testWriteSchema() throws Exception {
+        RequestContext context = getContext(temp + "/schema/");
+        Path file = writeFile(context, NUM_ROWS);
+
+        try (Reader reader = OrcFile.createReader(file, OrcFile.readerOptions(new Configuration()))) {
+            assertEquals("struct<id:int,name:string,bg:bigint,amt:double,r:float,b:boolean,sml:smallint," +
+                            "cdate:date,dec:decimal(5,2),tm:timestamp,bin:binary,c1:char(3),vc:varchar(10)," +
+                            "int_arr:array<int>,text_arr:array<string>>",
+                    reader.getSchema().toString());
+            assertEquals(NUM_ROWS, reader.getNumberOfRows());
+            assertEquals(CompressionKind.ZLIB, reader.getCompressionKind());
+        }
+    }
+
+    @Test
+    public void testWriteAndReadBack() throws Exception {
+        RequestContext context = getContext(temp + "/roundtrip/");
+        Path file = writeFile(context, NUM_ROWS);
+
+        List<List<OneField>> rows = readFile(file);
+        assertEquals(NUM_ROWS, rows.size());
+        for (int i = 0; i < NUM_ROWS; i++) {
+            List<OneField> expected = getRecord(i);
+            List<OneField> actual = rows.get(i);
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                Object expectedValue = expected.get(j).val;
+                Object actualValue = actual.get(j).val;
+                if (expectedValue == null) {
+                    assertNull(actualValue, "row " + i + " column " + j);
+                } else if (expectedValue instanceof byte[]) {
+                    assertArrayEquals((byte[]) expectedValue, (byte[]) actualValue);
+                } else if (expected.get(j).type == DataType.NUMERIC.getOID()) {
+                    // trailing zeros are not kept by ORC decimals
+                    assertEquals(0, new BigDecimal((String) expectedValue).compareTo(new BigDecimal((String) actualValue)));
+                } else if (DataType.get(expected.get(j).type).isArrayType()) {
+                    // null elements are read back as lower case nulls
+                    assertEquals(((String) expectedValue).replace("NULL", "null"), actualValue, "row " + i + " column " + j);
+                } else {
+                    assertEquals(expectedValue.toString(), actualValue, "row " + i + " column " + j);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWriteOptions() throws Exception {
+        RequestContext context = getContext(temp + "/options/");
+        context.addOption("COMPRESSION_CODEC", "snappy");
+        context.addOption("STRIPE_SIZE", "65536");
+        context.addOption("BLOOM_FILTER_COLUMNS", "id,name");
+        // the writer checks the size of the stripe every 5000 rows
+        writeFile(context, NUM_ROWS * 10);
+
+        Path file = new Path(HcfsType.FILE.getUriForWrite(context) + ".snappy.orc");
+        try (Reader reader = OrcFile.createReader(file, OrcFile.readerOptions(new Configuration()))) {
+            assertEquals(CompressionKind.SNAPPY, reader.getCompressionKind());
+            assertTrue(reader.getStripes().size() > 1, "expected multiple stripes in the file");
+            assertEquals(NUM_ROWS * 10, reader.getNumberOfRows());
+        }
+    }
+
+    @Test
+    public void testWriteWithoutRows() throws Exception {
+        RequestContext context = getContext(temp + "/empty/");
+        context.addOption("COMPRESSION_CODEC", "uncompressed");
+        Path file = writeFile(context, 0);
+
+        assertTrue(file.toString().endsWith(".orc") && !file.toString().endsWith(".none.orc"));
+        try (Reader reader = OrcFile.createReader(file, OrcFile.readerOptions(new Configuration()))) {
+            assertEquals(0, reader.getNumberOfRows());
+        }
+    }
+
+    @Test
+    public void testWriteUnsupportedType() {
+        columnDescriptors.add(new ColumnDescriptor("tz", DataType.TIMESTAMP_WITH_TIME_ZONE.getOID(), 15, "timestamptz", null));
+        RequestContext context = getContext(temp + "/unsupported/");
+        ORCVectorizedAccessor accessor = new ORCVectorizedAccessor();
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+
+        Exception e = assertThrows(UnsupportedTypeException.class, accessor::openForWrite);
+        assertEquals("Type 1184 is not supported", e.getMessage());
+    }
+
+    private Path writeFile(RequestContext context, int numRows) throws Exception {
+        ORCVectorizedAccessor accessor = new ORCVectorizedAccessor();
+        ORCVectorizedResolver resolver = new ORCVectorizedResolver();
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        assertTrue(accessor.openForWrite());
+        for (int i = 0; i < numRows; i++) {
+            OneRow row = resolver.setFields(getRecord(i));
+            assertTrue(accessor.writeNextObject(row));
+        }
+        accessor.closeForWrite();
+
+        String extension = context.getOption("COMPRESSION_CODEC") == null ? ".zlib" : "";
+        return new Path(HcfsType.FILE.getUriForWrite(context) + extension + ".orc");
+    }
+
+    private List<List<OneField>> readFile(Path file) throws Exception {
+        RequestContext context = new RequestContext();
+        context.setConfig("fakeConfig");
+        context.setServerName("fakeServerName");
+        context.setUser("fakeUser");
+        context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+        context.setConfiguration(new Configuration());
+        context.setTupleDescription(columnDescriptors);
+        context.setDataSource(file.toUri().getPath());
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, new File(file.toUri().getPath()).length()));
+
+        ORCVectorizedAccessor accessor = new ORCVectorizedAccessor();
+        ORCVectorizedResolver resolver = new ORCVectorizedResolver();
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        List<List<OneField>> rows = new ArrayList<>();
+        assertTrue(accessor.openForRead());
+        OneRow batch;
+        while ((batch = accessor.readNextObject()) != null) {
+            for (List<OneField> row : resolver.getFieldsForBatch(batch)) {
+                // the values of decimals are reused by the next batch
+                List<OneField> copy = new ArrayList<>();
+                for (OneField field : row) {
+                    copy.add(new OneField(field.type, field.val == null || field.val instanceof byte[] ? field.val : field.val.toString()));
+                }
+                rows.add(copy);
+            }
+        }
+        accessor.closeForRead();
+        return rows;
+    }
+
+    private List<OneField> getRecord(int i) {
+        List<OneField> record = new ArrayList<>();
+        // every seventh row is all nulls
+        boolean isNull = i % 7 == 3;
+        record.add(new OneField(DataType.INTEGER.getOID(), isNull ? null : i));
+        record.add(new OneField(DataType.TEXT.getOID(), isNull ? null : "name-" + (i % 50)));
+        record.add(new OneField(DataType.BIGINT.getOID(), isNull ? null : i * 100000000L));
+        record.add(new OneField(DataType.FLOAT8.getOID(), isNull ? null : i * 1.5));
+        record.add(new OneField(DataType.REAL.getOID(), isNull ? null : i * 0.5f));
+        record.add(new OneField(DataType.BOOLEAN.getOID(), isNull ? null : i % 2 == 0));
+        record.add(new OneField(DataType.SMALLINT.getOID(), isNull ? null : (short) (i % 1000)));
+        record.add(new OneField(DataType.DATE.getOID(), isNull ? null : String.format("2020-01-%02d", i % 28 + 1)));
+        record.add(new OneField(DataType.NUMERIC.getOID(), isNull ? null : String.format("%d.%02d", i % 1000, i % 100)));
+        record.add(new OneField(DataType.TIMESTAMP.getOID(), isNull ? null : String.format("2013-07-14 04:%02d:00.123456", i % 60)));
+        record.add(new OneField(DataType.BYTEA.getOID(), isNull ? null : new byte[]{(byte) i, (byte) (i >> 8)}));
+        record.add(new OneField(DataType.BPCHAR.getOID(), isNull ? null : "ab" + (i % 10)));
+        record.add(new OneField(DataType.VARCHAR.getOID(), isNull ? null : "v" + i));
+        record.add(new OneField(DataType.INT4ARRAY.getOID(), isNull ? null : String.format("{%d,NULL,%d}", i, -i)));
+        record.add(new OneField(DataType.TEXTARRAY.getOID(), isNull ? null : i % 5 == 0 ? "{}" : "{\"a,b\",\"c\\\"d\"}"));
+        return record;
+    }
+
+    private RequestContext getContext(String path) {
+        Configuration configuration = new Configuration();
+        configuration.set("pxf.fs.basePath", "/");
+
+        RequestContext context = new RequestContext();
+        context.setConfig("fakeConfig");
+        context.setServerName("fakeServerName");
+        context.setUser("fakeUser");
+        context.setSegmentId(4);
+        context.setTransactionId("XID-XYZ-123456");
+        context.setRequestType(RequestContext.RequestType.WRITE_BRIDGE);
+        context.setTupleDescription(columnDescriptors);
+        context.setConfiguration(configuration);
+        context.setDataSource(path);
+        return context;
+    }
+}
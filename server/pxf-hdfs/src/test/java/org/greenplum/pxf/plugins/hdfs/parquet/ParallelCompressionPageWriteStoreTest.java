@@ -0,0 +1,186 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnWriteStore;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.GroupWriter;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.util.HadoopOutputFile;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ParallelCompressionPageWriteStoreTest {
+
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType(
+            "message test { required int32 id; optional binary name (UTF8); repeated int32 tags; }");
+
+    @TempDir
+    File temp; // must be non-private
+
+    private Configuration configuration;
+    private PluginTaskExecutor taskExecutor;
+
+    @BeforeEach
+    public void setup() {
+        configuration = new Configuration();
+        taskExecutor = new PluginTaskExecutor(4, DataSize.ofMegabytes(512));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        taskExecutor.destroy();
+    }
+
+    @Test
+    public void testWritePagesV2() throws Exception {
+        assertWritesGroups(ParquetProperties.WriterVersion.PARQUET_2_0, taskExecutor);
+    }
+
+    @Test
+    public void testWritePagesV1() throws Exception {
+        assertWritesGroups(ParquetProperties.WriterVersion.PARQUET_1_0, taskExecutor);
+    }
+
+    @Test
+    public void testWritePagesOverSharedMemoryBudget() throws Exception {
+        PluginTaskExecutor exhaustedTaskExecutor = new PluginTaskExecutor(4, DataSize.ofBytes(1));
+        try {
+            assertWritesGroups(ParquetProperties.WriterVersion.PARQUET_1_0, exhaustedTaskExecutor);
+        } finally {
+            exhaustedTaskExecutor.destroy();
+        }
+        assertEquals(0, exhaustedTaskExecutor.getReservedMemory());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testWritePageWithoutRowCount() throws Exception {
+        MessageType schema = MessageTypeParser.parseMessageType("message test { required int32 id; }");
+        ColumnDescriptor column = schema.getColumns().get(0);
+        int numRows = 100;
+
+        ByteBuffer values = ByteBuffer.allocate(4 * numRows).order(ByteOrder.LITTLE_ENDIAN);
+        Statistics<?> statistics = Statistics.createStats(column.getPrimitiveType());
+        for (int i = 0; i < numRows; i++) {
+            values.putInt(i);
+            statistics.updateStats(i);
+        }
+
+        Path path = new Path(temp.getAbsolutePath() + "/no-row-count.parquet");
+        ParquetFileWriter fileWriter = newFileWriter(path, schema);
+        ParallelCompressionPageWriteStore pageStore = new ParallelCompressionPageWriteStore(
+                configuration, schema, CompressionCodecName.SNAPPY, 1024, taskExecutor, 2);
+        try {
+            pageStore.getPageWriter(column).writePage(BytesInput.from(values.array()), numRows, statistics,
+                    Encoding.BIT_PACKED, Encoding.BIT_PACKED, Encoding.PLAIN);
+            fileWriter.startBlock(numRows);
+            pageStore.flushToFileWriter(fileWriter);
+            fileWriter.endBlock();
+            fileWriter.end(Collections.emptyMap());
+        } finally {
+            pageStore.close();
+        }
+
+        List<String> rows = readRows(path);
+        assertEquals(numRows, rows.size());
+        for (int i = 0; i < numRows; i++) {
+            assertEquals("id: " + i + "\n", rows.get(i));
+        }
+    }
+
+    private void assertWritesGroups(ParquetProperties.WriterVersion writerVersion, PluginTaskExecutor taskExecutor) throws IOException {
+        SimpleGroupFactory groupFactory = new SimpleGroupFactory(SCHEMA);
+        List<Group> groups = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Group group = groupFactory.newGroup().append("id", i);
+            if (i % 3 != 0) {
+                group.append("name", "name-" + i);
+            }
+            for (int j = 0; j < i % 4; j++) {
+                group.append("tags", i + j);
+            }
+            groups.add(group);
+        }
+
+        Path path = new Path(temp.getAbsolutePath() + "/" + writerVersion + ".parquet");
+        ParquetFileWriter fileWriter = newFileWriter(path, SCHEMA);
+        ParquetProperties properties = ParquetProperties.builder()
+                .withWriterVersion(writerVersion)
+                .withPageSize(1024)
+                .withDictionaryEncoding(true)
+                .build();
+        ParallelCompressionPageWriteStore pageStore = new ParallelCompressionPageWriteStore(
+                configuration, SCHEMA, CompressionCodecName.SNAPPY, 1024, taskExecutor, 2);
+        try {
+            ColumnWriteStore columnStore = properties.newColumnWriteStore(SCHEMA, pageStore);
+            MessageColumnIO columnIO = new ColumnIOFactory().getColumnIO(SCHEMA);
+            GroupWriter groupWriter = new GroupWriter(columnIO.getRecordWriter(columnStore), SCHEMA);
+            for (Group group : groups) {
+                groupWriter.write(group);
+            }
+            fileWriter.startBlock(groups.size());
+            columnStore.flush();
+            pageStore.flushToFileWriter(fileWriter);
+            fileWriter.endBlock();
+            columnStore.close();
+            fileWriter.end(Collections.emptyMap());
+        } finally {
+            pageStore.close();
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (Group group : groups) {
+            expected.add(group.toString());
+        }
+        assertEquals(expected, readRows(path));
+    }
+
+    private ParquetFileWriter newFileWriter(Path path, MessageType schema) throws IOException {
+        ParquetFileWriter fileWriter = new ParquetFileWriter(HadoopOutputFile.fromPath(path, configuration), schema,
+                ParquetFileWriter.Mode.CREATE, ParquetWriter.DEFAULT_BLOCK_SIZE, ParquetWriter.MAX_PADDING_SIZE_DEFAULT,
+                ParquetProperties.DEFAULT_COLUMN_INDEX_TRUNCATE_LENGTH, ParquetProperties.DEFAULT_STATISTICS_TRUNCATE_LENGTH,
+                ParquetProperties.DEFAULT_PAGE_WRITE_CHECKSUM_ENABLED);
+        fileWriter.start();
+        return fileWriter;
+    }
+
+    private List<String> readRows(Path path) throws IOException {
+        List<String> rows = new ArrayList<>();
+        try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(), path).withConf(configuration).build()) {
+            Group group;
+            while ((group = reader.read()) != null) {
+                rows.add(group.toString());
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,191 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
+import org.greenplum.pxf.plugins.hdfs.HcfsType;
+import org.greenplum.pxf.plugins.hdfs.ParquetFileAccessor;
+import org.greenplum.pxf.plugins.hdfs.ParquetResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParquetDirectWriterTest {
+
+    private static final PluginTaskExecutor TASK_EXECUTOR = new PluginTaskExecutor(4, DataSize.ofMegabytes(512));
+
+    private static final int NUM_ROWS = 5000;
+
+    private List<ColumnDescriptor> columnDescriptors;
+
+    @TempDir
+    File temp; // must be non-private
+
+    @BeforeEach
+    public void setup() {
+        columnDescriptors = new ArrayList<>();
+        columnDescriptors.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        columnDescriptors.add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null));
+        columnDescriptors.add(new ColumnDescriptor("bg", DataType.BIGINT.getOID(), 2, "int8", null));
+        columnDescriptors.add(new ColumnDescriptor("amt", DataType.FLOAT8.getOID(), 3, "float8", null));
+        columnDescriptors.add(new ColumnDescriptor("r", DataType.REAL.getOID(), 4, "real", null));
+        columnDescriptors.add(new ColumnDescriptor("b", DataType.BOOLEAN.getOID(), 5, "bool", null));
+        columnDescriptors.add(new ColumnDescriptor("sml", DataType.SMALLINT.getOID(), 6, "int2", null));
+        columnDescriptors.add(new ColumnDescriptor("cdate", DataType.DATE.getOID(), 7, "date", null));
+        columnDescriptors.add(new ColumnDescriptor("dec", DataType.NUMERIC.getOID(), 8, "numeric", new Integer[]{5, 2}));
+        columnDescriptors.add(new ColumnDescriptor("tm", DataType.TIMESTAMP.getOID(), 9, "timestamp", null));
+        columnDescriptors.add(new ColumnDescriptor("bin", DataType.BYTEA.getOID(), 10, "bytea", null));
+        columnDescriptors.add(new ColumnDescriptor("c1", DataType.BPCHAR.getOID(), 11, "bpchar", new Integer[]{3}));
+    }
+
+    @Test
+    public void testDirectWriteMatchesGroupWrite() throws Exception {
+        Path expected = writeFile(temp + "/group/", false, null);
+        Path actual = writeFile(temp + "/direct/", true, null);
+
+        assertEquals(readRows(expected), readRows(actual));
+        assertEquals(NUM_ROWS, readRows(actual).size());
+    }
+
+    @Test
+    public void testDirectWriteMultipleRowGroups() throws Exception {
+        Path expected = writeFile(temp + "/group/", false, "65536");
+        Path actual = writeFile(temp + "/direct/", true, "65536");
+
+        ParquetMetadata footer = readFooter(actual);
+        assertTrue(footer.getBlocks().size() > 1, "expected multiple row groups in the file");
+        long rows = 0;
+        for (BlockMetaData block : footer.getBlocks()) {
+            rows += block.getRowCount();
+        }
+        assertEquals(NUM_ROWS, rows);
+        // statistics are written for the column chunks
+        assertFalse(footer.getBlocks().get(0).getColumns().get(0).getStatistics().isEmpty());
+        assertEquals(readRows(expected), readRows(actual));
+    }
+
+    @Test
+    public void testDirectWriteWithoutRows() throws Exception {
+        RequestContext context = getContext(temp + "/empty/", true, null);
+        ParquetFileAccessor accessor = new ParquetFileAccessor(TASK_EXECUTOR);
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        assertTrue(accessor.openForWrite());
+        accessor.closeForWrite();
+
+        Path file = new Path(HcfsType.FILE.getUriForWrite(context) + ".snappy.parquet");
+        assertEquals(0, readFooter(file).getBlocks().size());
+        assertEquals(0, readRows(file).size());
+    }
+
+    @Test
+    public void testDirectWriteIsDisabledForParquetV2() {
+        RequestContext context = getContext(temp + "/v2/", true, null);
+        assertTrue(ParquetDirectWriter.isEnabled(context));
+        context.addOption("PARQUET_VERSION", "v2");
+        assertFalse(ParquetDirectWriter.isEnabled(context));
+    }
+
+    private Path writeFile(String path, boolean direct, String rowGroupSize) throws Exception {
+        RequestContext context = getContext(path, direct, rowGroupSize);
+
+        ParquetFileAccessor accessor = new ParquetFileAccessor(TASK_EXECUTOR);
+        ParquetResolver resolver = new ParquetResolver();
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        assertTrue(accessor.openForWrite());
+        for (int i = 0; i < NUM_ROWS; i++) {
+            OneRow row = resolver.setFields(getRecord(i));
+            assertEquals(direct, row.getData() instanceof Object[]);
+            assertTrue(accessor.writeNextObject(row));
+        }
+        accessor.closeForWrite();
+
+        return new Path(HcfsType.FILE.getUriForWrite(context) + ".snappy.parquet");
+    }
+
+    private List<OneField> getRecord(int i) {
+        List<OneField> record = new ArrayList<>();
+        // every seventh row is all nulls
+        boolean isNull = i % 7 == 3;
+        record.add(new OneField(DataType.INTEGER.getOID(), isNull ? null : i));
+        record.add(new OneField(DataType.TEXT.getOID(), isNull ? null : "name-" + (i % 50)));
+        record.add(new OneField(DataType.BIGINT.getOID(), isNull ? null : i * 100000000L));
+        record.add(new OneField(DataType.FLOAT8.getOID(), isNull ? null : i * 1.5));
+        record.add(new OneField(DataType.REAL.getOID(), isNull ? null : i * 0.5f));
+        record.add(new OneField(DataType.BOOLEAN.getOID(), isNull ? null : i % 2 == 0));
+        record.add(new OneField(DataType.SMALLINT.getOID(), isNull ? null : (short) (i % 1000)));
+        record.add(new OneField(DataType.DATE.getOID(), isNull ? null : String.format("2020-01-%02d", i % 28 + 1)));
+        record.add(new OneField(DataType.NUMERIC.getOID(), isNull ? null : String.format("%d.%02d", i % 1000, i % 100)));
+        record.add(new OneField(DataType.TIMESTAMP.getOID(), isNull ? null : String.format("2013-07-14 04:%02d:00", i % 60)));
+        record.add(new OneField(DataType.BYTEA.getOID(), isNull ? null : new byte[]{(byte) i, (byte) (i >> 8)}));
+        record.add(new OneField(DataType.BPCHAR.getOID(), isNull ? null : "a  "));
+        return record;
+    }
+
+    private RequestContext getContext(String path, boolean direct, String rowGroupSize) {
+        Configuration configuration = new Configuration();
+        configuration.set("pxf.fs.basePath", "/");
+        configuration.setBoolean(ParquetDirectWriter.PXF_PARQUET_WRITE_DIRECT_ENABLED_PROPERTY, direct);
+
+        RequestContext context = new RequestContext();
+        context.setConfig("fakeConfig");
+        context.setServerName("fakeServerName");
+        context.setUser("fakeUser");
+        context.setSegmentId(4);
+        context.setTransactionId("XID-XYZ-123456");
+        context.setRequestType(RequestContext.RequestType.WRITE_BRIDGE);
+        context.setTupleDescription(columnDescriptors);
+        context.setConfiguration(configuration);
+        context.setDataSource(path);
+        if (rowGroupSize != null) {
+            context.addOption("ROWGROUP_SIZE", rowGroupSize);
+            context.addOption("PAGE_SIZE", "8192");
+        }
+        return context;
+    }
+
+    private List<String> readRows(Path file) throws IOException {
+        List<String> rows = new ArrayList<>();
+        try (ParquetReader<Group> reader = ParquetReader.builder(new GroupReadSupport(), file)
+                .withConf(new Configuration())
+                .build()) {
+            Group group;
+            while ((group = reader.read()) != null) {
+                rows.add(group.toString());
+            }
+        }
+        return rows;
+    }
+
+    private ParquetMetadata readFooter(Path file) throws IOException {
+        try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(file, new Configuration()))) {
+            return reader.getFooter();
+        }
+    }
+}
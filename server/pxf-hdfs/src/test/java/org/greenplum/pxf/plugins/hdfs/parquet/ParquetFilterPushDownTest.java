@@ -8,11 +8,13 @@ import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.model.Resolver;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
 import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
 import org.greenplum.pxf.plugins.hdfs.ParquetFileAccessor;
 import org.greenplum.pxf.plugins.hdfs.ParquetResolver;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
 
 import java.math.BigDecimal;
 import java.sql.Date;
@@ -30,6 +32,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ParquetFilterPushDownTest extends ParquetBaseTest {
 
+    private static final PluginTaskExecutor TASK_EXECUTOR = new PluginTaskExecutor(4, DataSize.ofMegabytes(512));
+
     // From resources/parquet/parquet_types.csv
     private static final int[] COL1 = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25};
     private static final String[] COL2 = {"row1", "row2", "row3", "row4", "row5", "row6", "row7", "row8", "row9", "row10", "row11", "row12_text_null", "row13_int_null", "row14_double_null", "row15_decimal_null", "row16_timestamp_null", "row17_real_null", "row18_bigint_null", "row19_bool_null", "row20", "row21_smallint_null", "row22_date_null", "row23_varchar_null", "row24_char_null", "row25_binary_null"};
@@ -58,7 +62,7 @@ public class ParquetFilterPushDownTest extends ParquetBaseTest {
     public void setup() throws Exception {
         super.setup();
 
-        accessor = new ParquetFileAccessor();
+        accessor = new ParquetFileAccessor(TASK_EXECUTOR);
         resolver = new ParquetResolver();
         context = new RequestContext();
 
@@ -0,0 +1,190 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.ParquetFileAccessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParquetFragmenterTest {
+
+    private static final PluginTaskExecutor TASK_EXECUTOR = new PluginTaskExecutor(4, DataSize.ofMegabytes(512));
+
+    private static final int NUM_ROWS = 1000;
+
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("message test {\n" +
+            "  optional int32 id;\n" +
+            "  optional binary name (UTF8);\n" +
+            "}");
+
+    @TempDir
+    static File tempDir;
+
+    private RequestContext context;
+    private String path;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        path = tempDir.getAbsolutePath() + "/ids.parquet";
+        if (!new File(path).exists()) {
+            writeFile(path);
+        }
+
+        List<ColumnDescriptor> columnDescriptors = new ArrayList<>();
+        columnDescriptors.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        columnDescriptors.add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null));
+
+        Configuration configuration = new Configuration();
+        configuration.set("pxf.fs.basePath", "/");
+
+        context = new RequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource(path);
+        context.setTupleDescription(columnDescriptors);
+        context.setConfiguration(configuration);
+    }
+
+    @Test
+    public void testSingleFragmentForSmallFile() throws Exception {
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+
+        assertEquals(1, fragments.size());
+        assertEquals(NUM_ROWS, readRows(fragments));
+    }
+
+    @Test
+    public void testFragmentPerRowGroup() throws Exception {
+        context.addOption("FRAGMENT_SIZE", "1");
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+
+        assertTrue(fragments.size() > 1, "expected multiple row groups in the file");
+        assertEquals(NUM_ROWS, readRows(fragments));
+
+        // fragments are contiguous and don't overlap
+        long expectedStart = ((HcfsFragmentMetadata) fragments.get(0).getMetadata()).getStart();
+        for (Fragment fragment : fragments) {
+            HcfsFragmentMetadata metadata = (HcfsFragmentMetadata) fragment.getMetadata();
+            assertEquals(expectedStart, metadata.getStart());
+            expectedStart = metadata.getStart() + metadata.getLength();
+        }
+    }
+
+    @Test
+    public void testRowGroupsArePrunedWithFilter() throws Exception {
+        context.addOption("FRAGMENT_SIZE", "1");
+        int allFragments = getFragmenter(context).getFragments().size();
+
+        // id > 990
+        context.setFilterString("a0c23s3d990o2");
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+
+        assertEquals(1, fragments.size());
+        assertTrue(allFragments > fragments.size());
+        assertTrue(readRows(fragments) < NUM_ROWS);
+    }
+
+    @Test
+    public void testAllRowGroupsPrunedWithFilter() throws Exception {
+        // id < 0
+        context.setFilterString("a0c23s1d0o1");
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+
+        assertEquals(0, fragments.size());
+    }
+
+    @Test
+    public void testUnsupportedFilterDoesNotPrune() throws Exception {
+        context.addOption("FRAGMENT_SIZE", "1");
+        int allFragments = getFragmenter(context).getFragments().size();
+
+        // name LIKE 'name%' is not supported by the parquet filter
+        context.setFilterString("a1c25s5dname%o7");
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+
+        assertEquals(allFragments, fragments.size());
+    }
+
+    @Test
+    public void testFragmentsCombineRowGroupsUpToTargetSize() throws Exception {
+        context.addOption("FRAGMENT_SIZE", "1");
+        List<Fragment> perRowGroup = getFragmenter(context).getFragments();
+        HcfsFragmentMetadata first = (HcfsFragmentMetadata) perRowGroup.get(0).getMetadata();
+        HcfsFragmentMetadata second = (HcfsFragmentMetadata) perRowGroup.get(1).getMetadata();
+
+        // large enough for two row groups
+        context.addOption("FRAGMENT_SIZE", String.valueOf(first.getLength() + second.getLength()));
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+
+        assertTrue(fragments.size() < perRowGroup.size());
+        assertEquals(first.getLength() + second.getLength(),
+                ((HcfsFragmentMetadata) fragments.get(0).getMetadata()).getLength());
+        assertEquals(NUM_ROWS, readRows(fragments));
+    }
+
+    private int readRows(List<Fragment> fragments) throws Exception {
+        int rows = 0;
+        for (Fragment fragment : fragments) {
+            context.setFragmentMetadata(fragment.getMetadata());
+            context.setFilterString(null);
+            context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+            Accessor accessor = new ParquetFileAccessor(TASK_EXECUTOR);
+            accessor.setRequestContext(context);
+            accessor.afterPropertiesSet();
+            accessor.openForRead();
+            OneRow row;
+            while ((row = accessor.readNextObject()) != null) {
+                assertTrue(row.getData() != null);
+                rows++;
+            }
+            accessor.closeForRead();
+        }
+        return rows;
+    }
+
+    private ParquetFragmenter getFragmenter(RequestContext context) {
+        ParquetFragmenter fragmenter = new ParquetFragmenter();
+        fragmenter.setRequestContext(context);
+        fragmenter.afterPropertiesSet();
+        return fragmenter;
+    }
+
+    private void writeFile(String path) throws Exception {
+        SimpleGroupFactory factory = new SimpleGroupFactory(SCHEMA);
+        try (ParquetWriter<org.apache.parquet.example.data.Group> writer = ExampleParquetWriter
+                .builder(new Path(path))
+                .withType(SCHEMA)
+                .withRowGroupSize(1024)
+                .withPageSize(512)
+                .withDictionaryEncoding(false)
+                .build()) {
+            for (int i = 1; i <= NUM_ROWS; i++) {
+                writer.write(factory.newGroup()
+                        .append("id", i)
+                        .append("name", "name-" + i));
+            }
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.PluginTaskExecutor;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.ParquetFileAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.parquet.hadoop.api.ReadSupport.PARQUET_READ_SCHEMA;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrefetchingInputFileTest {
+
+    private static final int NUM_ROWS = 2000;
+
+    private static final MessageType SCHEMA = MessageTypeParser.parseMessageType("message test {\n" +
+            "  optional int32 id;\n" +
+            "  optional binary name (UTF8);\n" +
+            "  optional double amt;\n" +
+            "}");
+
+    private static final MessageType PROJECTED_SCHEMA = MessageTypeParser.parseMessageType("message test {\n" +
+            "  optional int32 id;\n" +
+            "  optional double amt;\n" +
+            "}");
+
+    @TempDir
+    static File tempDir;
+
+    private Configuration configuration;
+    private Path path;
+    private PluginTaskExecutor taskExecutor;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        path = new Path(tempDir.getAbsolutePath() + "/prefetch.parquet");
+        if (!new File(path.toString()).exists()) {
+            writeFile(path);
+        }
+        configuration = new Configuration();
+        taskExecutor = new PluginTaskExecutor(4, DataSize.ofMegabytes(512));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        taskExecutor.destroy();
+    }
+
+    @Test
+    public void testCoalesceProjectedColumnChunks() throws Exception {
+        List<BlockMetaData> blocks = getBlocks();
+        BlockMetaData block = blocks.get(0);
+
+        // all columns are adjacent in the file, they become a single range
+        List<PrefetchingInputFile.Range> ranges = PrefetchingInputFile.coalesce(block, SCHEMA, 0);
+        assertEquals(1, ranges.size());
+        assertEquals(block.getStartingPos(), ranges.get(0).offset);
+        assertEquals(block.getCompressedSize(), ranges.get(0).length);
+
+        // the name column between id and amt is not projected
+        ranges = PrefetchingInputFile.coalesce(block, PROJECTED_SCHEMA, 0);
+        assertEquals(2, ranges.size());
+
+        // the gap left by the name column is small enough to be read through
+        ranges = PrefetchingInputFile.coalesce(block, PROJECTED_SCHEMA, Long.MAX_VALUE);
+        assertEquals(1, ranges.size());
+        assertEquals(block.getCompressedSize(), ranges.get(0).length);
+    }
+
+    @Test
+    public void testReadWithPrefetch() throws Exception {
+        List<BlockMetaData> blocks = getBlocks();
+        assertTrue(blocks.size() > 2, "expected multiple row groups in the file");
+
+        List<String> expected = readRows(HadoopInputFile.fromPath(path, configuration), PROJECTED_SCHEMA);
+
+        LatencyInputFile latencyInputFile = new LatencyInputFile(HadoopInputFile.fromPath(path, configuration), 5);
+        PrefetchingInputFile inputFile = new PrefetchingInputFile(
+                latencyInputFile, blocks, PROJECTED_SCHEMA, 1024 * 1024, Long.MAX_VALUE, taskExecutor, 4);
+        List<String> actual = readRows(inputFile, PROJECTED_SCHEMA);
+        inputFile.close();
+
+        assertEquals(NUM_ROWS, actual.size());
+        assertEquals(expected, actual);
+        // the column chunks are served from prefetched ranges, with one
+        // request per row group, only the footer is read directly
+        assertTrue(inputFile.getPrefetchedReads() >= blocks.size());
+        assertTrue(latencyInputFile.requests.get() <= blocks.size() + inputFile.getDirectReads());
+    }
+
+    @Test
+    public void testReadWithPrefetchOverMemoryBudget() throws Exception {
+        List<BlockMetaData> blocks = getBlocks();
+
+        List<String> expected = readRows(HadoopInputFile.fromPath(path, configuration), SCHEMA);
+
+        // no row group fits in the budget, all reads go to the file
+        PrefetchingInputFile inputFile = new PrefetchingInputFile(
+                HadoopInputFile.fromPath(path, configuration), blocks, SCHEMA, 0, 1, taskExecutor, 4);
+        List<String> actual = readRows(inputFile, SCHEMA);
+        inputFile.close();
+
+        assertEquals(expected, actual);
+        assertEquals(0, inputFile.getPrefetchedReads());
+    }
+
+    @Test
+    public void testReadWithPrefetchOverSharedMemoryBudget() throws Exception {
+        List<BlockMetaData> blocks = getBlocks();
+
+        List<String> expected = readRows(HadoopInputFile.fromPath(path, configuration), SCHEMA);
+
+        // the budget of the reader has room, but the budget shared by all the readers is exhausted
+        PluginTaskExecutor exhaustedTaskExecutor = new PluginTaskExecutor(4, DataSize.ofBytes(1));
+        PrefetchingInputFile inputFile = new PrefetchingInputFile(
+                HadoopInputFile.fromPath(path, configuration), blocks, SCHEMA, 0, Long.MAX_VALUE, exhaustedTaskExecutor, 4);
+        List<String> actual = readRows(inputFile, SCHEMA);
+        inputFile.close();
+        exhaustedTaskExecutor.destroy();
+
+        assertEquals(expected, actual);
+        assertEquals(0, inputFile.getPrefetchedReads());
+    }
+
+    @Test
+    public void testCloseReleasesSharedMemory() throws Exception {
+        List<BlockMetaData> blocks = getBlocks();
+
+        PrefetchingInputFile inputFile = new PrefetchingInputFile(
+                HadoopInputFile.fromPath(path, configuration), blocks, SCHEMA, 0, Long.MAX_VALUE, taskExecutor, 4);
+        readRows(inputFile, SCHEMA);
+        assertTrue(taskExecutor.getReservedMemory() > 0);
+        inputFile.close();
+
+        assertEquals(0, taskExecutor.getReservedMemory());
+    }
+
+    @Test
+    public void testAccessorWithPrefetch() throws Exception {
+        assertEquals(readRowsWithAccessor(false), readRowsWithAccessor(true));
+    }
+
+    private List<String> readRowsWithAccessor(boolean prefetch) throws Exception {
+        List<ColumnDescriptor> columnDescriptors = new ArrayList<>();
+        columnDescriptors.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        columnDescriptors.add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null));
+        columnDescriptors.add(new ColumnDescriptor("amt", DataType.FLOAT8.getOID(), 2, "float8", null));
+        columnDescriptors.get(1).setProjected(false);
+
+        Configuration configuration = new Configuration();
+        configuration.set("pxf.fs.basePath", "/");
+        configuration.setBoolean(ParquetFileAccessor.PXF_PARQUET_PREFETCH_ENABLED_PROPERTY, prefetch);
+
+        RequestContext context = new RequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource(path.toString());
+        context.setTupleDescription(columnDescriptors);
+        context.setConfiguration(configuration);
+        context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, new File(path.toString()).length()));
+        // id > 1000
+        context.setFilterString("a0c23s4d1000o2");
+
+        Accessor accessor = new ParquetFileAccessor(taskExecutor);
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+        List<String> rows = new ArrayList<>();
+        OneRow row;
+        while ((row = accessor.readNextObject()) != null) {
+            rows.add(row.getData().toString());
+        }
+        accessor.closeForRead();
+        return rows;
+    }
+
+    private List<String> readRows(InputFile inputFile, MessageType readSchema) throws IOException {
+        Configuration conf = new Configuration(configuration);
+        conf.set(PARQUET_READ_SCHEMA, readSchema.toString());
+
+        List<String> rows = new ArrayList<>();
+        try (ParquetReader<Group> reader = new ParquetReader.Builder<Group>(inputFile) {
+            @Override
+            protected ReadSupport<Group> getReadSupport() {
+                return new GroupReadSupport();
+            }
+        }.withConf(conf).build()) {
+            Group group;
+            while ((group = reader.read()) != null) {
+                rows.add(group.toString());
+            }
+        }
+        return rows;
+    }
+
+    private List<BlockMetaData> getBlocks() throws IOException {
+        try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(path, configuration))) {
+            return reader.getFooter().getBlocks();
+        }
+    }
+
+    private void writeFile(Path path) throws Exception {
+        SimpleGroupFactory factory = new SimpleGroupFactory(SCHEMA);
+        try (ParquetWriter<Group> writer = ExampleParquetWriter
+                .builder(path)
+                .withType(SCHEMA)
+                .withRowGroupSize(4096)
+                .withPageSize(1024)
+                .withDictionaryEncoding(false)
+                .build()) {
+            for (int i = 1; i <= NUM_ROWS; i++) {
+                writer.write(factory.newGroup()
+                        .append("id", i)
+                        .append("name", "name-" + i)
+                        .append("amt", i * 1.5));
+            }
+        }
+    }
+
+    /**
+     * An input file that simulates the latency of an object store: every
+     * positioned read of a stream sleeps before being served, and requests
+     * are counted.
+     */
+    private static class LatencyInputFile implements InputFile {
+
+        private final InputFile delegate;
+        private final long latencyMillis;
+        private final AtomicInteger requests = new AtomicInteger();
+
+        LatencyInputFile(InputFile delegate, long latencyMillis) {
+            this.delegate = delegate;
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public long getLength() throws IOException {
+            return delegate.getLength();
+        }
+
+        @Override
+        public SeekableInputStream newStream() throws IOException {
+            return new LatencyInputStream(delegate.newStream());
+        }
+
+        /**
+         * A new request is issued by the first read after a seek
+         */
+        private class LatencyInputStream extends SeekableInputStream {
+
+            private final SeekableInputStream stream;
+            private boolean seeked = true;
+
+            LatencyInputStream(SeekableInputStream stream) {
+                this.stream = stream;
+            }
+
+            @Override
+            public long getPos() throws IOException {
+                return stream.getPos();
+            }
+
+            @Override
+            public void seek(long newPos) throws IOException {
+                if (newPos != stream.getPos()) {
+                    seeked = true;
+                }
+                stream.seek(newPos);
+            }
+
+            @Override
+            public int read() throws IOException {
+                request();
+                return stream.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                request();
+                return stream.read(b, off, len);
+            }
+
+            @Override
+            public void readFully(byte[] bytes) throws IOException {
+                request();
+                stream.readFully(bytes);
+            }
+
+            @Override
+            public void readFully(byte[] bytes, int start, int len) throws IOException {
+                request();
+                stream.readFully(bytes, start, len);
+            }
+
+            @Override
+            public int read(ByteBuffer buf) throws IOException {
+                request();
+                return stream.read(buf);
+            }
+
+            @Override
+            public void readFully(ByteBuffer buf) throws IOException {
+                request();
+                stream.readFully(buf);
+            }
+
+            @Override
+            public void close() throws IOException {
+                stream.close();
+            }
+
+            private void request() {
+                if (!seeked) {
+                    return;
+                }
+                seeked = false;
+                requests.incrementAndGet();
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -64,7 +64,9 @@ public class HiveORCAccessor extends HiveAccessor implements StatsAccessor {
     @Override
     public void afterPropertiesSet() {
         super.afterPropertiesSet();
-        useStats = Utilities.aggregateOptimizationsSupported(context);
+        // only COUNT can be answered from the file-level statistics
+        useStats = Utilities.aggregateOptimizationsSupported(context)
+                && context.getAggType() == EnumAggregationType.COUNT;
     }
 
     @Override
@@ -88,9 +90,9 @@ public class HiveORCAccessor extends HiveAccessor implements StatsAccessor {
      * Fetches file-level statistics from an ORC file.
      */
     @Override
-    public void retrieveStats() throws Exception {
+    public boolean retrieveStats() throws Exception {
         if (!this.useStats) {
-            throw new IllegalStateException("Accessor is not using statistics in current context.");
+            return false;
         }
         /*
          * We are using file-level stats therefore if file has multiple splits,
@@ -102,6 +104,7 @@ public class HiveORCAccessor extends HiveAccessor implements StatsAccessor {
             rowToEmitCount = readNextObject();
         }
         statsInitialized = true;
+        return true;
     }
 
     /**
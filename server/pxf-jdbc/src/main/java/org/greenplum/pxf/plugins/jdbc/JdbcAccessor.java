@@ -22,10 +22,13 @@ package org.greenplum.pxf.plugins.jdbc;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.greenplum.pxf.api.OneRow;
-import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.StatsAccessor;
 import org.greenplum.pxf.api.model.ConfigurationFactory;
 import org.greenplum.pxf.api.security.SecureLogin;
+import org.greenplum.pxf.api.utilities.Utilities;
+import org.greenplum.pxf.plugins.jdbc.utils.AdaptiveFetchSize;
 import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
 import org.greenplum.pxf.plugins.jdbc.writercallable.WriterCallable;
 import org.greenplum.pxf.plugins.jdbc.writercallable.WriterCallableFactory;
 import org.slf4j.Logger;
@@ -51,15 +54,29 @@ import java.util.concurrent.Future;
  * <p>
  * The SELECT queries are processed by {@link java.sql.Statement}
  * <p>
+ * The MIN, MAX and SUM aggregates of the request, grouped or not, are computed
+ * by the external database when it supports them, the accessor then emits the
+ * rows of the partial aggregates of the fragment
+ * <p>
  * The INSERT queries are processed by {@link java.sql.PreparedStatement} and
  * built-in JDBC batches of arbitrary size
  */
-public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
+public class JdbcAccessor extends JdbcBasePlugin implements StatsAccessor {
 
     private static final Logger LOG = LoggerFactory.getLogger(JdbcAccessor.class);
 
+    private static final String JDBC_PUSHDOWN_AGGREGATE_ENABLED_PROPERTY_NAME = "jdbc.pushdown.aggregate.enabled";
+
     private Statement statementRead = null;
     private ResultSet resultSetRead = null;
+    private AdaptiveFetchSize adaptiveFetchSize = null;
+
+    // whether the aggregate of the request can be computed by the external database
+    private boolean aggregatePushdown = false;
+    // whether the result set holds the aggregate computed by the external database
+    private boolean aggregateRead = false;
+    // the key of the current group
+    private long aggregateKey = 0;
 
     private PreparedStatement statementWrite = null;
     private WriterCallableFactory writerCallableFactory = null;
@@ -84,6 +101,14 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
         super(connectionManager, secureLogin);
     }
 
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+
+        aggregatePushdown = configuration.getBoolean(JDBC_PUSHDOWN_AGGREGATE_ENABLED_PROPERTY_NAME, true) &&
+                Utilities.aggregateOptimizationsSupported(context, true);
+    }
+
     /**
      * openForRead() implementation
      * Create query, open JDBC connection, execute query and store the result into resultSet
@@ -107,19 +132,42 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
         } else if (quoteColumns) {
             sqlQueryBuilder.forceSetQuoteString();
         }
-        // Read variables
-        String queryRead = sqlQueryBuilder.buildSelectQuery();
+        // Read variables, the aggregate is computed by the external database when it can be
+        String queryRead = aggregatePushdown ? sqlQueryBuilder.buildAggregateQuery() : null;
+        aggregateRead = queryRead != null;
+        if (!aggregateRead) {
+            queryRead = sqlQueryBuilder.buildSelectQuery();
+        }
         LOG.trace("Select query: {}", queryRead);
 
-        // Execute queries
-        statementRead = connection.createStatement();
+        // Execute queries, with the values of the IN lists of the filter as bind parameters
+        List<Object> queryParameters = sqlQueryBuilder.getQueryParameters();
+        PreparedStatement preparedStatementRead = null;
+        if (queryParameters.isEmpty()) {
+            statementRead = connection.createStatement();
+        } else {
+            preparedStatementRead = connection.prepareStatement(queryRead);
+            for (int i = 0; i < queryParameters.size(); i++) {
+                preparedStatementRead.setObject(i + 1, queryParameters.get(i));
+            }
+            statementRead = preparedStatementRead;
+        }
         statementRead.setFetchSize(fetchSize);
 
+        // Configure the driver to stream the rows rather than buffer them all
+        DbProduct dbProduct = DbProduct.getDbProduct(connection.getMetaData().getDatabaseProductName());
+        boolean fetchesInBatches = dbProduct.prepareStreaming(connection, statementRead, connectionConfiguration);
+        if (fetchesInBatches && fetchSizeIsAdaptive) {
+            adaptiveFetchSize = new AdaptiveFetchSize(fetchSize, fetchSizeTargetBytes, maxFetchSize);
+        }
+
         if (queryTimeout != null) {
             LOG.debug("Setting query timeout to {} seconds", queryTimeout);
             statementRead.setQueryTimeout(queryTimeout);
         }
-        resultSetRead = statementRead.executeQuery(queryRead);
+        resultSetRead = preparedStatementRead != null ?
+                preparedStatementRead.executeQuery() :
+                statementRead.executeQuery(queryRead);
 
         return true;
     }
@@ -133,12 +181,45 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
      */
     @Override
     public OneRow readNextObject() throws SQLException {
+        if (aggregateRead) {
+            // the rows of the aggregate stand for the rows of the fragment
+            return emitAggObject();
+        }
         if (resultSetRead.next()) {
+            if (adaptiveFetchSize != null) {
+                adaptiveFetchSize.onRow(resultSetRead);
+            }
             return new OneRow(resultSetRead);
         }
         return null;
     }
 
+    /**
+     * retrieveStats() implementation
+     *
+     * @return true if the aggregate of the request is computed by the external database
+     */
+    @Override
+    public boolean retrieveStats() {
+        return aggregateRead;
+    }
+
+    /**
+     * emitAggObject() implementation
+     * Returns the row of the partial aggregate of the next group, every group
+     * has its own key.
+     *
+     * @return row, or null when all the groups were emitted
+     * @throws SQLException if a problem in resultSet occurs
+     */
+    @Override
+    public OneRow emitAggObject() throws SQLException {
+        if (!resultSetRead.next()) {
+            return null;
+        }
+        return new OneRow(++aggregateKey, resultSetRead);
+    }
+
     /**
      * closeForRead() implementation
      */
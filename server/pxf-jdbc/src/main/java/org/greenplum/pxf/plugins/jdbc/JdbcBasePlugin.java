@@ -62,6 +62,9 @@ public class JdbcBasePlugin extends BasePlugin {
     // MySQL fetches all data in memory first unless streaming is enabled by setting fetchSize to Integer.MIN_VALUE
     // see https://dev.mysql.com/doc/connector-j/8.0/en/connector-j-reference-implementation-notes.html
     private static final int DEFAULT_MYSQL_FETCH_SIZE = Integer.MIN_VALUE;
+    // a batch of fetched rows of the adaptive fetch size uses about this much memory
+    private static final long DEFAULT_FETCH_SIZE_TARGET_BYTES = 16 * 1024 * 1024;
+    private static final int DEFAULT_MAX_FETCH_SIZE = 100000;
     private static final int DEFAULT_POOL_SIZE = 1;
 
     // configuration parameter names
@@ -78,6 +81,9 @@ public class JdbcBasePlugin extends BasePlugin {
     // statement properties
     private static final String JDBC_STATEMENT_BATCH_SIZE_PROPERTY_NAME = "jdbc.statement.batchSize";
     private static final String JDBC_STATEMENT_FETCH_SIZE_PROPERTY_NAME = "jdbc.statement.fetchSize";
+    private static final String JDBC_STATEMENT_FETCH_SIZE_ADAPTIVE_PROPERTY_NAME = "jdbc.statement.fetchSize.adaptive";
+    private static final String JDBC_STATEMENT_FETCH_SIZE_TARGET_BYTES_PROPERTY_NAME = "jdbc.statement.fetchSize.targetBytes";
+    private static final String JDBC_STATEMENT_FETCH_SIZE_MAX_PROPERTY_NAME = "jdbc.statement.fetchSize.max";
     private static final String JDBC_STATEMENT_QUERY_TIMEOUT_PROPERTY_NAME = "jdbc.statement.queryTimeout";
 
     // connection pool properties
@@ -132,6 +138,11 @@ public class JdbcBasePlugin extends BasePlugin {
     // Read batch size
     protected int fetchSize;
 
+    // Whether the read batch size is adapted to the width of the rows, up to maxFetchSize rows of about fetchSizeTargetBytes
+    protected boolean fetchSizeIsAdaptive;
+    protected long fetchSizeTargetBytes;
+    protected int maxFetchSize;
+
     // Thread pool size
     protected int poolSize;
 
@@ -244,6 +255,23 @@ public class JdbcBasePlugin extends BasePlugin {
         fetchSize = configuration.getInt(JDBC_STATEMENT_FETCH_SIZE_PROPERTY_NAME, defaultFetchSize);
         LOG.debug("Will be using fetchSize {}", fetchSize);
 
+        // the fetch size set by the user is kept as is, unless adaptive fetch size is explicitly enabled
+        fetchSizeIsAdaptive = configuration.getBoolean(JDBC_STATEMENT_FETCH_SIZE_ADAPTIVE_PROPERTY_NAME,
+                configuration.get(JDBC_STATEMENT_FETCH_SIZE_PROPERTY_NAME) == null);
+        if (fetchSizeIsAdaptive) {
+            fetchSizeTargetBytes = configuration.getLongBytes(JDBC_STATEMENT_FETCH_SIZE_TARGET_BYTES_PROPERTY_NAME, DEFAULT_FETCH_SIZE_TARGET_BYTES);
+            maxFetchSize = configuration.getInt(JDBC_STATEMENT_FETCH_SIZE_MAX_PROPERTY_NAME, DEFAULT_MAX_FETCH_SIZE);
+            if (fetchSizeTargetBytes <= 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Property %s has incorrect value %s : must be a positive number of bytes", JDBC_STATEMENT_FETCH_SIZE_TARGET_BYTES_PROPERTY_NAME, fetchSizeTargetBytes));
+            }
+            if (maxFetchSize <= 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Property %s has incorrect value %s : must be a positive integer", JDBC_STATEMENT_FETCH_SIZE_MAX_PROPERTY_NAME, maxFetchSize));
+            }
+            LOG.debug("Will be adapting fetchSize to fetch about {} bytes, up to {} rows", fetchSizeTargetBytes, maxFetchSize);
+        }
+
         poolSize = context.getOption("POOL_SIZE", DEFAULT_POOL_SIZE);
 
         String queryTimeoutString = configuration.get(JDBC_STATEMENT_QUERY_TIMEOUT_PROPERTY_NAME);
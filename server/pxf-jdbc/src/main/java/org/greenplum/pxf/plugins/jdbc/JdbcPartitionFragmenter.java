@@ -19,37 +19,116 @@ package org.greenplum.pxf.plugins.jdbc;
  * under the License.
  */
 
+import org.apache.commons.lang.StringUtils;
 import org.greenplum.pxf.api.model.BaseFragmenter;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.FragmentStats;
+import org.greenplum.pxf.api.security.SecureLogin;
 import org.greenplum.pxf.plugins.jdbc.partitioning.JdbcFragmentMetadata;
 import org.greenplum.pxf.plugins.jdbc.partitioning.PartitionType;
+import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
 import java.util.List;
 
 /**
  * JDBC fragmenter
  * <p>
  * Splits the query to allow multiple simultaneous SELECTs
+ * <p>
+ * The partitions are either specified by the user with the PARTITION_BY,
+ * RANGE and INTERVAL options, or computed automatically from the minimum and
+ * maximum values of an integer column of the table and the number of rows
+ * estimated by the statistics of the database catalog.
+ * The automatic partitioning is requested with PARTITION_BY=&lt;column_name&gt;:auto
+ * or PARTITION_BY=auto, or enabled for all the tables of a server without
+ * PARTITION_BY with the jdbc.partition.auto.enabled property. When the
+ * column is not given, the single-column integer primary key of the table is
+ * used. When the table is small, or has no such key, it is read by a single
+ * fragment.
  */
 public class JdbcPartitionFragmenter extends BaseFragmenter {
 
+    static final String AUTO_PARTITION_ENABLED_PROPERTY_NAME = "jdbc.partition.auto.enabled";
+    static final String AUTO_PARTITION_ROWS_PROPERTY_NAME = "jdbc.partition.auto.rows-per-fragment";
+    static final String AUTO_PARTITION_MAX_FRAGMENTS_PROPERTY_NAME = "jdbc.partition.auto.max-fragments";
+
+    private static final long DEFAULT_AUTO_PARTITION_ROWS = 1000000;
+    private static final int DEFAULT_AUTO_PARTITION_MAX_FRAGMENTS = 32;
+    private static final String AUTO_PARTITION_TYPE = "auto";
+
+    private final ConnectionManager connectionManager;
+    private final SecureLogin secureLogin;
+
     private PartitionType partitionType;
     private String column;
     private String range;
     private String interval;
+    private boolean autoPartitioning;
+    private long rowsPerFragment;
+    private int maxFragments;
+
+    /**
+     * Creates a new instance, the automatic partitioning connects to the
+     * external database with the default (singleton) instances of
+     * ConnectionManager and SecureLogin.
+     */
+    public JdbcPartitionFragmenter() {
+        this(null, null);
+    }
+
+    /**
+     * Creates a new instance, the automatic partitioning connects to the
+     * external database with the given ConnectionManager and SecureLogin.
+     *
+     * @param connectionManager connection manager instance
+     * @param secureLogin       secure login instance
+     */
+    JdbcPartitionFragmenter(ConnectionManager connectionManager, SecureLogin secureLogin) {
+        this.connectionManager = connectionManager;
+        this.secureLogin = secureLogin;
+    }
 
     @Override
     public void afterPropertiesSet() {
         String partitionByOption = context.getOption("PARTITION_BY");
-        if (partitionByOption == null) return;
+        if (partitionByOption == null) {
+            autoPartitioning = configuration != null && configuration.getBoolean(AUTO_PARTITION_ENABLED_PROPERTY_NAME, false);
+        } else if (AUTO_PARTITION_TYPE.equalsIgnoreCase(partitionByOption)) {
+            autoPartitioning = true;
+        } else {
+            try {
+                String[] partitionBy = partitionByOption.split(":");
+                column = partitionBy[0];
+                if (AUTO_PARTITION_TYPE.equalsIgnoreCase(partitionBy[1])) {
+                    autoPartitioning = true;
+                } else {
+                    partitionType = PartitionType.of(partitionBy[1]);
+                }
+            } catch (ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("The parameter 'PARTITION_BY' has incorrect format. The correct format is '<column_name>:{int|date|enum|auto}'");
+            }
+        }
 
-        try {
-            String[] partitionBy = partitionByOption.split(":");
-            column = partitionBy[0];
-            partitionType = PartitionType.of(partitionBy[1]);
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new IllegalArgumentException("The parameter 'PARTITION_BY' has incorrect format. The correct format is '<column_name>:{int|date|enum}'");
+        if (autoPartitioning) {
+            rowsPerFragment = configuration.getLong(AUTO_PARTITION_ROWS_PROPERTY_NAME, DEFAULT_AUTO_PARTITION_ROWS);
+            maxFragments = configuration.getInt(AUTO_PARTITION_MAX_FRAGMENTS_PROPERTY_NAME, DEFAULT_AUTO_PARTITION_MAX_FRAGMENTS);
+            if (rowsPerFragment <= 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Property %s has incorrect value %s : must be a positive integer", AUTO_PARTITION_ROWS_PROPERTY_NAME, rowsPerFragment));
+            }
+            if (maxFragments <= 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Property %s has incorrect value %s : must be a positive integer", AUTO_PARTITION_MAX_FRAGMENTS_PROPERTY_NAME, maxFragments));
+            }
+            return;
         }
 
         range = context.getOption("RANGE");
@@ -61,13 +140,20 @@ public class JdbcPartitionFragmenter extends BaseFragmenter {
      * Note that all partitionType parameters must be verified before calling this procedure.
      *
      * @return a list of getFragmentsMetadata to be passed to PXF segments
+     * @throws SQLException if the statistics of the table cannot be queried for the automatic partitioning
      */
     @Override
-    public List<Fragment> getFragments() {
-        if (partitionType == null) {
+    public List<Fragment> getFragments() throws SQLException {
+        List<JdbcFragmentMetadata> fragmentsMetadata = null;
+        if (autoPartitioning) {
+            fragmentsMetadata = getAutoFragmentsMetadata();
+        } else if (partitionType != null) {
+            fragmentsMetadata = partitionType.getFragmentsMetadata(column, range, interval);
+        }
+
+        if (fragmentsMetadata == null) {
             fragments.add(new Fragment(context.getDataSource()));
         } else {
-            List<JdbcFragmentMetadata> fragmentsMetadata = partitionType.getFragmentsMetadata(column, range, interval);
             for (JdbcFragmentMetadata fragmentMetadata : fragmentsMetadata) {
                 fragments.add(new Fragment(context.getDataSource(), fragmentMetadata));
             }
@@ -83,4 +169,228 @@ public class JdbcPartitionFragmenter extends BaseFragmenter {
     public FragmentStats getFragmentStats() throws UnsupportedOperationException {
         throw new UnsupportedOperationException("ANALYZE for JDBC plugin is not supported");
     }
+
+    /**
+     * Computes the partitions of the table from the minimum and maximum values
+     * of the partition column, and from the number of rows of the table given
+     * by the statistics of the database catalog. The rows are not counted, a
+     * table without statistics is assumed to have a row for every value of
+     * the range of the column.
+     *
+     * @return the partitions, or null when the table is to be read by a single fragment
+     * @throws SQLException if a database access error occurs
+     */
+    private List<JdbcFragmentMetadata> getAutoFragmentsMetadata() throws SQLException {
+        JdbcBasePlugin plugin = (connectionManager == null) ?
+                new JdbcBasePlugin() : new JdbcBasePlugin(connectionManager, secureLogin);
+        plugin.setRequestContext(context);
+        plugin.afterPropertiesSet();
+
+        String tableName = plugin.tableName;
+        if (tableName == null) {
+            if (column != null) {
+                throw new IllegalArgumentException("The automatic partitioning is not supported for queries, the parameter 'PARTITION_BY' must specify the partition type");
+            }
+            LOG.debug("Automatic partitioning is not supported for query {}, using a single fragment", plugin.queryName);
+            return null;
+        }
+
+        Connection connection = plugin.getConnection();
+        PreparedStatement statement = null;
+        try {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String partitionColumn = (column != null) ? column : getPrimaryKeyColumn(metaData, tableName);
+            if (partitionColumn == null) {
+                LOG.info("Table {} has no single-column integer primary key, using a single fragment", tableName);
+                return null;
+            }
+
+            long rowCount = getCatalogRowCount(connection, metaData, tableName);
+            String query = String.format("SELECT MIN(%1$s), MAX(%1$s) FROM %2$s", partitionColumn, tableName);
+            LOG.debug("Querying the statistics of the partition column with {}", query);
+            statement = plugin.getPreparedStatement(connection, query);
+
+            long min, max;
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+                if (!isIntegerType(resultSetMetaData.getColumnType(1), resultSetMetaData.getScale(1))) {
+                    throw new IllegalArgumentException(String.format(
+                            "The automatic partitioning requires an integer column, column '%s' is of type %s",
+                            partitionColumn, resultSetMetaData.getColumnTypeName(1)));
+                }
+                resultSet.next();
+                min = resultSet.getLong(1);
+                if (resultSet.wasNull()) {
+                    LOG.info("Column {} of table {} has no values, using a single fragment", partitionColumn, tableName);
+                    return null;
+                }
+                max = resultSet.getLong(2);
+            }
+            if (rowCount < 0) {
+                // like the values of a sequence, the range saturates when it doesn't fit in a long
+                rowCount = (max - min >= 0 && max - min < Long.MAX_VALUE) ? max - min + 1 : Long.MAX_VALUE;
+                LOG.info("Table {} has no statistics, assuming {} rows from the range of column {}",
+                        tableName, rowCount, partitionColumn);
+            }
+
+            return getAutoFragmentsMetadata(partitionColumn, min, max, rowCount);
+        } finally {
+            if (statement != null) {
+                JdbcBasePlugin.closeStatementAndConnection(statement);
+            } else {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Splits the [min, max] range of the partition column in ranges of about
+     * rowsPerFragment rows, at most maxFragments of them. Like for the INT
+     * partitions specified by the user, the values out of the range and the
+     * NULL values have their own partitions, so that the rows inserted after
+     * the statistics were queried are read too.
+     *
+     * @param partitionColumn the partition column
+     * @param min             the minimum value of the column
+     * @param max             the maximum value of the column
+     * @param rowCount        the number of rows of the table
+     * @return the partitions, or null when the table is to be read by a single fragment
+     */
+    List<JdbcFragmentMetadata> getAutoFragmentsMetadata(String partitionColumn, long min, long max, long rowCount) {
+        long fragmentCount = Math.min(maxFragments,
+                rowCount / rowsPerFragment + (rowCount % rowsPerFragment == 0 ? 0 : 1));
+        if (fragmentCount < 2 || min >= max) {
+            LOG.debug("Table has {} rows in range [{}, {}], using a single fragment", rowCount, min, max);
+            return null;
+        }
+
+        // compute in double to not overflow for the widest ranges
+        long rangeInterval = Math.max(1, (long) Math.ceil(((double) max - min) / fragmentCount));
+        LOG.debug("Partitioning {} rows in range [{}, {}] of column {} by intervals of {}",
+                rowCount, min, max, partitionColumn, rangeInterval);
+        return PartitionType.INT.getFragmentsMetadata(partitionColumn, min + ":" + max, Long.toString(rangeInterval));
+    }
+
+    /**
+     * @return the name of the column of the single-column primary key of the
+     * table when it is of an integer type, null otherwise
+     */
+    private String getPrimaryKeyColumn(DatabaseMetaData metaData, String tableName) throws SQLException {
+        String[] schemaAndTable = splitTableName(metaData, tableName);
+        String keyColumn = null;
+        try (ResultSet keys = metaData.getPrimaryKeys(null, schemaAndTable[0], schemaAndTable[1])) {
+            while (keys.next()) {
+                if (keyColumn != null) {
+                    return null;
+                }
+                keyColumn = keys.getString("COLUMN_NAME");
+            }
+        }
+        if (keyColumn == null) {
+            return null;
+        }
+        try (ResultSet columns = metaData.getColumns(null, schemaAndTable[0], schemaAndTable[1], keyColumn)) {
+            return (columns.next() && isIntegerType(columns.getInt("DATA_TYPE"), columns.getInt("DECIMAL_DIGITS"))) ? keyColumn : null;
+        }
+    }
+
+    /**
+     * @return the number of rows of the table from the statistics of the
+     * database catalog, queried with the query of the database product or
+     * reported by the JDBC driver, or -1 when the database has no such
+     * statistics
+     */
+    private long getCatalogRowCount(Connection connection, DatabaseMetaData metaData, String tableName) {
+        String[] schemaAndTable = splitTableName(metaData, tableName);
+        try {
+            String query = DbProduct.getDbProduct(metaData.getDatabaseProductName()).getRowCountEstimateQuery();
+            if (query != null) {
+                LOG.debug("Querying the number of rows of table {} with {}", tableName, query);
+                try (PreparedStatement statement = connection.prepareStatement(query)) {
+                    statement.setString(1, schemaAndTable[0]);
+                    statement.setString(2, schemaAndTable[1]);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        // the statistics of a table that was never analyzed are empty
+                        long rowCount = resultSet.next() ? resultSet.getLong(1) : 0;
+                        return rowCount > 0 ? rowCount : -1;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            LOG.debug("Failed to query the statistics of table {}: {}", tableName, e.getMessage());
+            rollback(connection);
+            return -1;
+        }
+
+        try (ResultSet indexInfo = metaData.getIndexInfo(null, schemaAndTable[0], schemaAndTable[1], false, true)) {
+            while (indexInfo.next()) {
+                if (indexInfo.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) {
+                    long cardinality = indexInfo.getLong("CARDINALITY");
+                    // the statistics of a table that was never analyzed are empty
+                    return cardinality > 0 ? cardinality : -1;
+                }
+            }
+        } catch (SQLException e) {
+            LOG.debug("Failed to read the statistics of table {} from the catalog: {}", tableName, e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Rolls back the transaction of the connection, so that the queries that
+     * follow a failed query can run
+     */
+    private void rollback(Connection connection) {
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            LOG.debug("Failed to roll back the transaction of connection {}: {}", connection, e.getMessage());
+        }
+    }
+
+    /**
+     * Splits the table name in its schema and table parts, converted to the
+     * case the database stores the unquoted identifiers in
+     */
+    private String[] splitTableName(DatabaseMetaData metaData, String tableName) {
+        String[] schemaAndTable = new String[2];
+        int dot = tableName.lastIndexOf('.');
+        schemaAndTable[0] = (dot < 0) ? null : toStoredCase(metaData, tableName.substring(0, dot));
+        schemaAndTable[1] = toStoredCase(metaData, tableName.substring(dot + 1));
+        return schemaAndTable;
+    }
+
+    private String toStoredCase(DatabaseMetaData metaData, String identifier) {
+        try {
+            if (metaData.storesUpperCaseIdentifiers()) {
+                return StringUtils.upperCase(identifier);
+            } else if (metaData.storesLowerCaseIdentifiers()) {
+                return StringUtils.lowerCase(identifier);
+            }
+        } catch (SQLException e) {
+            LOG.debug("Failed to read how the database stores identifiers: {}", e.getMessage());
+        }
+        return identifier;
+    }
+
+    /**
+     * @return whether a column of the given SQL type and scale holds integers,
+     * like the NUMBER(p) columns of Oracle do
+     */
+    private static boolean isIntegerType(int sqlType, int scale) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return true;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return scale == 0;
+            default:
+                return false;
+        }
+    }
 }
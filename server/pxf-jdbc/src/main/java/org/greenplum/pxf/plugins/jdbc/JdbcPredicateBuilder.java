@@ -20,13 +20,20 @@ package org.greenplum.pxf.plugins.jdbc;
  */
 
 import org.apache.commons.lang.StringUtils;
+import org.greenplum.pxf.api.filter.CollectionOperandNode;
 import org.greenplum.pxf.api.filter.ColumnPredicateBuilder;
 import org.greenplum.pxf.api.filter.Node;
+import org.greenplum.pxf.api.filter.OperandNode;
+import org.greenplum.pxf.api.filter.Operator;
+import org.greenplum.pxf.api.filter.OperatorNode;
 import org.greenplum.pxf.api.filter.ToStringTreeVisitor;
 import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
 
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -35,10 +42,18 @@ import java.util.List;
  * target {@link DbProduct}.
  * This class extends {@link ToStringTreeVisitor} and overrides the required
  * methods.
+ * <p>
+ * The values of IN lists are bind parameters of the predicate, up to the
+ * maximum number of bind parameters of the {@link DbProduct}, and the lists
+ * longer than the maximum size of an IN list of the {@link DbProduct} are
+ * split into several IN lists.
  */
 public class JdbcPredicateBuilder extends ColumnPredicateBuilder {
 
     private final DbProduct dbProduct;
+    private final List<Object> parameters = new ArrayList<>();
+    // the position in the predicate of the current IN operation
+    private int inStart;
 
     public JdbcPredicateBuilder(DbProduct dbProduct,
                                 List<ColumnDescriptor> tupleDescription) {
@@ -52,6 +67,64 @@ public class JdbcPredicateBuilder extends ColumnPredicateBuilder {
         this.dbProduct = dbProduct;
     }
 
+    /**
+     * Returns the values of the bind parameters of the predicate, in the
+     * order of their placeholders
+     *
+     * @return the values of the bind parameters
+     */
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public Node before(Node node, int level) {
+        if (node instanceof OperatorNode && ((OperatorNode) node).getOperator() == Operator.IN) {
+            if (!(node.getRight() instanceof CollectionOperandNode)) {
+                throw new UnsupportedOperationException("IN operation requires a list of values");
+            }
+            inStart = getStringBuilder().length();
+        }
+        return super.before(node, level);
+    }
+
+    @Override
+    protected String getNodeValue(OperandNode operandNode) {
+        if (!(operandNode instanceof CollectionOperandNode)) {
+            return super.getNodeValue(operandNode);
+        }
+
+        DataType type = getColumnDescriptors().get(lastIndex).getDataType();
+        List<String> values = ((CollectionOperandNode) operandNode).getData();
+        if (values.isEmpty()) {
+            throw new UnsupportedOperationException("IN operation requires a non-empty list of values");
+        }
+
+        // the column and the operator, repeated for every IN list
+        StringBuilder sb = getStringBuilder();
+        String inPrefix = sb.substring(inStart);
+        int maxInListSize = dbProduct.getMaxInListSize();
+        StringBuilder listValue = new StringBuilder("(");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                listValue.append(i % maxInListSize == 0 ? ") OR " + inPrefix + "(" : ",");
+            }
+            if (parameters.size() < dbProduct.getMaxBindParameters()) {
+                parameters.add(toParameter(type, values.get(i)));
+                listValue.append("?");
+            } else {
+                listValue.append(serializeValue(type, values.get(i)));
+            }
+        }
+        listValue.append(")");
+
+        if (values.size() > maxInListSize) {
+            sb.insert(inStart, "(");
+            listValue.append(")");
+        }
+        return listValue.toString();
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = getStringBuilder();
@@ -85,4 +158,37 @@ public class JdbcPredicateBuilder extends ColumnPredicateBuilder {
                         "Unsupported column type for filtering '%s' ", type.getOID()));
         }
     }
+
+    /**
+     * Converts the value to the object of a bind parameter
+     *
+     * @param type  the value type
+     * @param value the value
+     * @return the object of the bind parameter
+     */
+    protected Object toParameter(DataType type, String value) {
+        switch (type) {
+            case SMALLINT:
+                return Short.valueOf(value);
+            case INTEGER:
+                return Integer.valueOf(value);
+            case BIGINT:
+                return Long.valueOf(value);
+            case FLOAT8:
+                return Double.valueOf(value);
+            case REAL:
+                return Float.valueOf(value);
+            case BOOLEAN:
+                return Boolean.valueOf(value);
+            case TEXT:
+                return value;
+            case DATE:
+                return Date.valueOf(value);
+            case TIMESTAMP:
+                return Timestamp.valueOf(value);
+            default:
+                throw new UnsupportedOperationException(String.format(
+                        "Unsupported column type for filtering '%s' ", type.getOID()));
+        }
+    }
 }
@@ -23,7 +23,9 @@ import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.security.SecureLogin;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,9 +38,11 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.text.ParseException;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.EnumSet;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -61,10 +65,57 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
             DataType.DATE
     );
 
+    // the extractors of the values of the columns, by the type of the column
+    private static final Map<DataType, ColumnValueExtractor> EXTRACTORS = new EnumMap<>(DataType.class);
+
+    static {
+        EXTRACTORS.put(DataType.INTEGER, ResultSet::getInt);
+        EXTRACTORS.put(DataType.FLOAT8, ResultSet::getDouble);
+        EXTRACTORS.put(DataType.REAL, ResultSet::getFloat);
+        EXTRACTORS.put(DataType.BIGINT, ResultSet::getLong);
+        EXTRACTORS.put(DataType.SMALLINT, ResultSet::getShort);
+        EXTRACTORS.put(DataType.BOOLEAN, ResultSet::getBoolean);
+        EXTRACTORS.put(DataType.BYTEA, ResultSet::getBytes);
+        EXTRACTORS.put(DataType.VARCHAR, ResultSet::getString);
+        EXTRACTORS.put(DataType.BPCHAR, ResultSet::getString);
+        EXTRACTORS.put(DataType.TEXT, ResultSet::getString);
+        EXTRACTORS.put(DataType.NUMERIC, ResultSet::getString);
+        EXTRACTORS.put(DataType.DATE, ResultSet::getDate);
+        EXTRACTORS.put(DataType.TIMESTAMP, ResultSet::getTimestamp);
+    }
+
     private static final Logger LOG = LoggerFactory.getLogger(JdbcResolver.class);
 
+    // the result set the column indexes were resolved for
+    private ResultSet resolvedResultSet;
+    // the index of every column in the result set, 0 for the columns that are not projected
+    private int[] columnIndexes;
+    private ColumnValueExtractor[] extractors;
+    // the fields of the row, reused from one row to the next
+    private OneField[] fields;
+    private List<OneField> fieldList;
+
+    /**
+     * Creates a new instance of the JdbcResolver
+     */
+    public JdbcResolver() {
+        super();
+    }
+
     /**
-     * getFields() implementation
+     * Creates a new instance of resolver with provided connection manager.
+     *
+     * @param connectionManager connection manager
+     * @param secureLogin       the instance of the secure login
+     */
+    JdbcResolver(ConnectionManager connectionManager, SecureLogin secureLogin) {
+        super(connectionManager, secureLogin);
+    }
+
+    /**
+     * getFields() implementation. The indexes of the columns in the result
+     * set are resolved by name once per result set, and the values of the
+     * columns are read by index into fields that are reused for every row.
      *
      * @param row one row
      * @throws SQLException if the provided {@link OneRow} object is invalid
@@ -72,66 +123,53 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
     @Override
     public List<OneField> getFields(OneRow row) throws SQLException {
         ResultSet result = (ResultSet) row.getData();
-        LinkedList<OneField> fields = new LinkedList<>();
-
-        for (ColumnDescriptor column : columns) {
-            String colName = column.columnName();
-            Object value;
-
-            OneField oneField = new OneField();
-            oneField.type = column.columnTypeCode();
-
-            fields.add(oneField);
+        if (result != resolvedResultSet) {
+            resolveColumns(result);
+        }
 
+        for (int i = 0; i < columnIndexes.length; i++) {
+            int index = columnIndexes[i];
             /*
              * Non-projected columns get null values
              */
+            if (index == 0) continue;
+
+            Object value = extractors[i].extract(result, index);
+            fields[i].val = result.wasNull() ? null : value;
+        }
+        return fieldList;
+    }
+
+    /**
+     * Resolves the indexes of the columns in the given result set, and the
+     * extractors of their values.
+     *
+     * @param result the result set
+     * @throws SQLException if a column is missing from the result set
+     */
+    private void resolveColumns(ResultSet result) throws SQLException {
+        int size = columns.size();
+        columnIndexes = new int[size];
+        extractors = new ColumnValueExtractor[size];
+        fields = new OneField[size];
+
+        for (int i = 0; i < size; i++) {
+            ColumnDescriptor column = columns.get(i);
+            fields[i] = new OneField(column.columnTypeCode(), null);
+
             if (!column.isProjected()) continue;
 
-            switch (DataType.get(oneField.type)) {
-                case INTEGER:
-                    value = result.getInt(colName);
-                    break;
-                case FLOAT8:
-                    value = result.getDouble(colName);
-                    break;
-                case REAL:
-                    value = result.getFloat(colName);
-                    break;
-                case BIGINT:
-                    value = result.getLong(colName);
-                    break;
-                case SMALLINT:
-                    value = result.getShort(colName);
-                    break;
-                case BOOLEAN:
-                    value = result.getBoolean(colName);
-                    break;
-                case BYTEA:
-                    value = result.getBytes(colName);
-                    break;
-                case VARCHAR:
-                case BPCHAR:
-                case TEXT:
-                case NUMERIC:
-                    value = result.getString(colName);
-                    break;
-                case DATE:
-                    value = result.getDate(colName);
-                    break;
-                case TIMESTAMP:
-                    value = result.getTimestamp(colName);
-                    break;
-                default:
-                    throw new UnsupportedOperationException(
-                            String.format("Field type '%s' (column '%s') is not supported",
-                                    DataType.get(oneField.type),
-                                    column));
+            DataType type = DataType.get(column.columnTypeCode());
+            extractors[i] = EXTRACTORS.get(type);
+            if (extractors[i] == null) {
+                throw new UnsupportedOperationException(
+                        String.format("Field type '%s' (column '%s') is not supported",
+                                type, column));
             }
-
-            oneField.val = result.wasNull() ? null : value;
+            columnIndexes[i] = result.findColumn(column.columnName());
         }
-        return fields;
+        fieldList = Arrays.asList(fields);
+        resolvedResultSet = result;
     }
 
     /**
@@ -326,4 +364,12 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
             }
         }
     }
+
+    /**
+     * Reads the value of a column from the current row of a result set
+     */
+    @FunctionalInterface
+    private interface ColumnValueExtractor {
+        Object extract(ResultSet result, int columnIndex) throws SQLException;
+    }
 }
@@ -6,8 +6,10 @@ import org.greenplum.pxf.api.filter.Operator;
 import org.greenplum.pxf.api.filter.SupportedOperatorPruner;
 import org.greenplum.pxf.api.filter.TreeTraverser;
 import org.greenplum.pxf.api.filter.TreeVisitor;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
 import org.greenplum.pxf.plugins.jdbc.partitioning.JdbcFragmentMetadata;
 import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
 import org.slf4j.Logger;
@@ -15,6 +17,7 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -58,8 +61,7 @@ public class SQLQueryBuilder {
                     Operator.EQUALS,
                     Operator.LIKE,
                     Operator.NOT_EQUALS,
-                    // TODO: In is not supported?
-                    // Operator.IN,
+                    Operator.IN,
                     Operator.IS_NULL,
                     Operator.IS_NOT_NULL,
                     Operator.NOOP,
@@ -68,6 +70,26 @@ public class SQLQueryBuilder {
                     Operator.OR
             );
     private static final TreeVisitor PRUNER = new SupportedOperatorPruner(SUPPORTED_OPERATORS);
+
+    // the types that MIN and MAX compare the same way in Greenplum and in the databases
+    private static final EnumSet<DataType> MIN_MAX_TYPES =
+            EnumSet.of(
+                    DataType.SMALLINT,
+                    DataType.INTEGER,
+                    DataType.BIGINT,
+                    DataType.REAL,
+                    DataType.FLOAT8,
+                    DataType.NUMERIC,
+                    DataType.DATE,
+                    DataType.TIMESTAMP
+            );
+    // the types whose partial sums fit in the type, integer sums can overflow it
+    private static final EnumSet<DataType> SUM_TYPES =
+            EnumSet.of(
+                    DataType.REAL,
+                    DataType.FLOAT8,
+                    DataType.NUMERIC
+            );
     private static final TreeTraverser TRAVERSER = new TreeTraverser();
 
     protected final RequestContext context;
@@ -78,6 +100,7 @@ public class SQLQueryBuilder {
     private final String source;
     private String quoteString;
     private boolean subQueryUsed = false;
+    private List<Object> queryParameters = Collections.emptyList();
 
     /**
      * Construct a new SQLQueryBuilder
@@ -142,6 +165,60 @@ public class SQLQueryBuilder {
         return sb.toString();
     }
 
+    /**
+     * Build SELECT query computing the aggregate of the request in the
+     * database (with partition constraints), grouped by the columns the
+     * aggregate is grouped by. The query selects the projected columns: the
+     * grouping columns, and the partial aggregate named after the aggregated
+     * column. COUNT(*) is not computed by the database: Greenplum counts the
+     * rows it receives, so the count of a group would have to be sent back as
+     * that many rows.
+     *
+     * @return SQL query, or null if the database can't compute the aggregate
+     */
+    public String buildAggregateQuery() {
+        EnumAggregationType aggType = context.getAggType();
+        if (aggType == null || !aggType.isColumnAggregate() || context.hasFilter()) {
+            return null;
+        }
+
+        List<Integer> groupBy = context.getAggGroupBy();
+        queryParameters = Collections.emptyList();
+        StringBuilder sb = new StringBuilder("SELECT ");
+        String fieldDivisor = "";
+        for (ColumnDescriptor column : columns) {
+            if (!column.isProjected()) continue;
+
+            DataType type = column.getDataType();
+            String columnName = quoteString + column.columnName() + quoteString;
+            sb.append(fieldDivisor);
+            fieldDivisor = ", ";
+            if (groupBy.contains(column.columnIndex())) {
+                if (!dbProduct.groupsLikeGreenplum(type)) {
+                    LOG.debug("Aggregate is not pushed down, grouping by column '{}' of type {} is not supported", column.columnName(), type);
+                    return null;
+                }
+                sb.append(columnName);
+            } else if (isAggregateSupported(aggType, column)) {
+                sb.append(aggType.name()).append("(").append(columnName).append(") AS ").append(columnName);
+            } else {
+                LOG.debug("Aggregate is not pushed down, {} of column '{}' of type {} is not supported", aggType, column.columnName(), type);
+                return null;
+            }
+        }
+        sb.append(" FROM ").append(getSource());
+
+        // Insert partition constraints, the aggregate of every partition is partial
+        buildFragmenterSql(context, dbProduct, quoteString, sb);
+
+        if (!groupBy.isEmpty()) {
+            sb.append(" GROUP BY ").append(groupBy.stream()
+                    .map(index -> quoteString + columns.get(index).columnName() + quoteString)
+                    .collect(Collectors.joining(", ")));
+        }
+        return sb.toString();
+    }
+
     /**
      * Build INSERT query template (field values are replaced by placeholders '?')
      *
@@ -178,6 +255,17 @@ public class SQLQueryBuilder {
         return sb.toString();
     }
 
+    /**
+     * Returns the values of the bind parameters of the last query built, in
+     * the order of their placeholders. The query is run as a
+     * {@link java.sql.PreparedStatement} when there are some.
+     *
+     * @return the values of the bind parameters, empty if the query has none
+     */
+    public List<Object> getQueryParameters() {
+        return queryParameters;
+    }
+
     /**
      * Check whether column names must be quoted and set quoteString if so.
      * <p>
@@ -249,6 +337,28 @@ public class SQLQueryBuilder {
                 .collect(Collectors.joining(", "));
     }
 
+    /**
+     * Checks whether the database computes the given aggregate of a column
+     * the same way as Greenplum does
+     *
+     * @param aggType the aggregate
+     * @param column  the aggregated column
+     * @return true if the aggregate can be computed by the database
+     */
+    private boolean isAggregateSupported(EnumAggregationType aggType, ColumnDescriptor column) {
+        switch (aggType) {
+            case MIN:
+            case MAX:
+                return MIN_MAX_TYPES.contains(column.getDataType());
+            case SUM:
+                // a partial sum of a numeric with a precision may not fit the precision
+                return SUM_TYPES.contains(column.getDataType()) &&
+                        (column.columnTypeModifiers() == null || column.columnTypeModifiers().length == 0);
+            default:
+                return false;
+        }
+    }
+
     /**
      * Returns the source table for the SELECT query
      *
@@ -287,6 +397,7 @@ public class SQLQueryBuilder {
      * @param query SQL query to insert constraints to. The query may may contain other WHERE statements
      */
     private void buildWhereSQL(StringBuilder query) {
+        queryParameters = Collections.emptyList();
         if (!context.hasFilter()) return;
 
         JdbcPredicateBuilder jdbcPredicateBuilder = getPredicateBuilder();
@@ -299,6 +410,7 @@ public class SQLQueryBuilder {
             TRAVERSER.traverse(root, getPruner(), jdbcPredicateBuilder);
             // No exceptions were thrown, change the provided query
             query.append(jdbcPredicateBuilder.toString());
+            queryParameters = jdbcPredicateBuilder.getParameters();
         } catch (Exception e) {
             LOG.debug("WHERE clause is omitted: " + e.toString());
             // Silence the exception and do not insert constraints
@@ -314,7 +426,7 @@ public class SQLQueryBuilder {
      * @param query       SQL query to insert constraints to. The query may may contain other WHERE statements
      */
     public void buildFragmenterSql(RequestContext context, DbProduct dbProduct, String quoteString, StringBuilder query) {
-        if (context.getOption("PARTITION_BY") == null || context.getFragmentMetadata() == null) {
+        if (context.getFragmentMetadata() == null) {
             return;
         }
 
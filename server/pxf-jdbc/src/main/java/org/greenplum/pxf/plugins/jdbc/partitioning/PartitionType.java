@@ -53,7 +53,10 @@ public enum PartitionType {
 
         @Override
         Object next(Object start, Object end, Interval interval) {
-            return Math.min((long) start + interval.getValue(), (long) end);
+            // the distance between start < end fits in an unsigned long, comparing it
+            // to the interval doesn't overflow for the ranges near the limits of long
+            return Long.compareUnsigned((long) end - (long) start, interval.getValue()) <= 0 ?
+                    end : (long) start + interval.getValue();
         }
 
         @Override
@@ -0,0 +1,140 @@
+package org.greenplum.pxf.plugins.jdbc.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Adapts the fetch size of a result set to the width of its rows, so that a
+ * batch of fetched rows uses about a target amount of memory.
+ * <p>
+ * The width of the first rows, and then of one row of every batch, is
+ * estimated from the values of the row. The fetch size is changed when the
+ * size computed from the average width differs from the current one by more
+ * than a quarter, the new size applies from the next batch that the driver
+ * fetches.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class AdaptiveFetchSize {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveFetchSize.class);
+
+    // the number of first rows that are all sampled
+    static final int INITIAL_SAMPLE_ROWS = 100;
+    // the estimated overhead of a row and of a value in the memory of the driver
+    private static final int ROW_OVERHEAD = 32;
+    private static final int VALUE_OVERHEAD = 16;
+
+    private final long targetBytes;
+    private final int maxFetchSize;
+    private int fetchSize;
+    private int columnCount;
+    private long rowCount;
+    private double averageRowWidth;
+    private boolean disabled;
+
+    /**
+     * @param fetchSize    the fetch size the result set was created with
+     * @param targetBytes  the target size in bytes of a batch of fetched rows
+     * @param maxFetchSize the maximum fetch size
+     */
+    public AdaptiveFetchSize(int fetchSize, long targetBytes, int maxFetchSize) {
+        this.fetchSize = fetchSize;
+        this.targetBytes = targetBytes;
+        this.maxFetchSize = maxFetchSize;
+    }
+
+    /**
+     * Called for every row read from the result set, when the result set is
+     * positioned on the row. Samples the width of the row when it is due and
+     * adapts the fetch size of the result set. Failures to sample the rows
+     * stop the adaptation, they don't fail the read.
+     *
+     * @param resultSet the result set
+     */
+    public void onRow(ResultSet resultSet) {
+        if (disabled) {
+            return;
+        }
+        rowCount++;
+        boolean initialSample = rowCount <= INITIAL_SAMPLE_ROWS;
+        if (!initialSample && rowCount % fetchSize != 0) {
+            return;
+        }
+
+        long rowWidth;
+        try {
+            rowWidth = estimateRowWidth(resultSet);
+        } catch (SQLException e) {
+            LOG.debug("Failed to estimate the width of row {}, not adapting the fetch size anymore: {}", rowCount, e.getMessage());
+            disabled = true;
+            return;
+        }
+
+        if (initialSample) {
+            // the average of the first rows
+            averageRowWidth += (rowWidth - averageRowWidth) / rowCount;
+            if (rowCount < INITIAL_SAMPLE_ROWS) {
+                return;
+            }
+        } else {
+            // then a moving average, that follows the changes of the width of the rows
+            averageRowWidth += (rowWidth - averageRowWidth) / 8;
+        }
+        adapt(resultSet);
+    }
+
+    /**
+     * @return the current fetch size
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    private void adapt(ResultSet resultSet) {
+        int advisedFetchSize = (int) Math.max(1, Math.min(maxFetchSize, targetBytes / Math.max(1, averageRowWidth)));
+        if (Math.abs(advisedFetchSize - fetchSize) * 4 <= fetchSize) {
+            return;
+        }
+        try {
+            resultSet.setFetchSize(advisedFetchSize);
+            LOG.debug("Changed the fetch size from {} to {} for an average row width of {} bytes after {} rows",
+                    fetchSize, advisedFetchSize, (long) averageRowWidth, rowCount);
+            fetchSize = advisedFetchSize;
+        } catch (SQLException e) {
+            LOG.debug("Failed to change the fetch size, not adapting it anymore: {}", e.getMessage());
+            disabled = true;
+        }
+    }
+
+    private long estimateRowWidth(ResultSet resultSet) throws SQLException {
+        if (columnCount == 0) {
+            columnCount = resultSet.getMetaData().getColumnCount();
+        }
+        long width = ROW_OVERHEAD;
+        for (int i = 1; i <= columnCount; i++) {
+            width += VALUE_OVERHEAD + estimateValueWidth(resultSet.getObject(i));
+        }
+        return width;
+    }
+
+    /**
+     * @return an estimate of the memory used by a value, as a Java object
+     */
+    static long estimateValueWidth(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof String) {
+            return 24 + 2L * ((String) value).length();
+        } else if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        } else if (value instanceof BigDecimal) {
+            return 32 + ((BigDecimal) value).precision() / 2;
+        }
+        return 16;
+    }
+}
@@ -19,9 +19,16 @@ package org.greenplum.pxf.plugins.jdbc.utils;
  * under the License.
  */
 
+import org.apache.commons.lang.StringUtils;
+import org.greenplum.pxf.api.io.DataType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
 /**
  * A tool class to change PXF-JDBC plugin behaviour for certain external databases
  */
@@ -36,6 +43,44 @@ public enum DbProduct {
         public String buildSessionQuery(String key, String value) {
             return String.format("SET %s %s", key, value);
         }
+
+        /**
+         * The driver reads the rows as the application consumes them, unless
+         * the responseBuffering connection property is set to full. The fetch
+         * size only applies to the server cursors of selectMethod=cursor.
+         */
+        @Override
+        public boolean prepareStreaming(Connection connection, Statement statement, Properties connectionConfiguration) throws SQLException {
+            if ("full".equalsIgnoreCase(connectionConfiguration.getProperty("responseBuffering"))) {
+                LOG.warn("The driver buffers the whole result set in memory with responseBuffering=full, consider the default responseBuffering=adaptive");
+            }
+            return "cursor".equalsIgnoreCase(connectionConfiguration.getProperty("selectMethod")) && statement.getFetchSize() > 0;
+        }
+
+        /**
+         * A request has at most 2100 parameters, keep some for the driver.
+         */
+        @Override
+        public int getMaxBindParameters() {
+            return 2000;
+        }
+
+        @Override
+        public String getRowCountEstimateQuery() {
+            return "SELECT SUM(p.rows) FROM sys.partitions p " +
+                    "JOIN sys.tables t ON t.object_id = p.object_id " +
+                    "JOIN sys.schemas s ON s.schema_id = t.schema_id " +
+                    "WHERE s.name = COALESCE(?, SCHEMA_NAME()) AND t.name = ? AND p.index_id IN (0, 1)";
+        }
+
+        /**
+         * The default collations compare the strings ignoring the case and
+         * the trailing spaces, grouping by them merges the groups of Greenplum.
+         */
+        @Override
+        public boolean groupsLikeGreenplum(DataType type) {
+            return !isText(type);
+        }
     },
 
     MYSQL {
@@ -43,6 +88,46 @@ public enum DbProduct {
         public String wrapDate(Object val) {
             return "DATE('" + val + "')";
         }
+
+        /**
+         * The driver fetches the rows in batches of the fetch size only with
+         * the useCursorFetch connection property. Otherwise, it buffers the
+         * whole result set in memory, unless the fetch size is
+         * Integer.MIN_VALUE, which streams the rows one by one and is the
+         * default fetch size for the MySQL driver. A fetch size set by the
+         * user is kept.
+         */
+        @Override
+        public boolean prepareStreaming(Connection connection, Statement statement, Properties connectionConfiguration) throws SQLException {
+            boolean useCursorFetch = Boolean.parseBoolean(connectionConfiguration.getProperty("useCursorFetch")) ||
+                    StringUtils.containsIgnoreCase(connection.getMetaData().getURL(), "useCursorFetch=true");
+            if (useCursorFetch) {
+                return statement.getFetchSize() > 0;
+            }
+            if (statement.getFetchSize() != Integer.MIN_VALUE) {
+                LOG.warn("The driver buffers the whole result set in memory with fetch size {} and without useCursorFetch=true, " +
+                        "consider setting useCursorFetch=true or the fetch size to {}", statement.getFetchSize(), Integer.MIN_VALUE);
+            }
+            return false;
+        }
+
+        /**
+         * The number of rows of InnoDB tables is an estimate.
+         */
+        @Override
+        public String getRowCountEstimateQuery() {
+            return "SELECT TABLE_ROWS FROM information_schema.TABLES " +
+                    "WHERE TABLE_SCHEMA = COALESCE(?, DATABASE()) AND TABLE_NAME = ?";
+        }
+
+        /**
+         * The default collations compare the strings ignoring the case and
+         * the trailing spaces, grouping by them merges the groups of Greenplum.
+         */
+        @Override
+        public boolean groupsLikeGreenplum(DataType type) {
+            return !isText(type);
+        }
     },
 
     ORACLE {
@@ -60,6 +145,29 @@ public enum DbProduct {
         public String buildSessionQuery(String key, String value) {
             return String.format("ALTER SESSION SET %s = %s", key, value);
         }
+
+        /**
+         * An IN list has at most 1000 expressions (ORA-01795).
+         */
+        @Override
+        public int getMaxInListSize() {
+            return 1000;
+        }
+
+        @Override
+        public String getRowCountEstimateQuery() {
+            return "SELECT NUM_ROWS FROM ALL_TABLES " +
+                    "WHERE OWNER = COALESCE(?, SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA')) AND TABLE_NAME = ?";
+        }
+
+        /**
+         * Empty strings are NULL, grouping by strings merges the groups of
+         * Greenplum.
+         */
+        @Override
+        public boolean groupsLikeGreenplum(DataType type) {
+            return !isText(type);
+        }
     },
 
     POSTGRES {
@@ -67,6 +175,51 @@ public enum DbProduct {
         public String wrapDate(Object val) {
             return "date'" + val + "'";
         }
+
+        /**
+         * The driver fetches the rows with a cursor, in batches of the fetch
+         * size, only when autocommit is off, as the connections of the
+         * databases that support transactions are prepared.
+         */
+        @Override
+        public boolean prepareStreaming(Connection connection, Statement statement, Properties connectionConfiguration) throws SQLException {
+            if (connection.getAutoCommit()) {
+                LOG.debug("The driver buffers the whole result set in memory with autoCommit on connection {}", connection);
+                return false;
+            }
+            return statement.getFetchSize() > 0;
+        }
+
+        @Override
+        public String getRowCountEstimateQuery() {
+            return "SELECT CAST(c.reltuples AS BIGINT) FROM pg_catalog.pg_class c " +
+                    "JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace " +
+                    "WHERE n.nspname = COALESCE(?, current_schema()) AND c.relname = ?";
+        }
+    },
+
+    H2 {
+        @Override
+        public String wrapDate(Object val) {
+            return "DATE '" + val + "'";
+        }
+
+        @Override
+        public String buildSessionQuery(String key, String value) {
+            return String.format("SET %s %s", key, value);
+        }
+
+        /**
+         * The database computes the whole result of a query before returning
+         * its first row, unless the lazy query execution is enabled.
+         */
+        @Override
+        public boolean prepareStreaming(Connection connection, Statement statement, Properties connectionConfiguration) throws SQLException {
+            try (Statement sessionStatement = connection.createStatement()) {
+                sessionStatement.execute(buildSessionQuery("LAZY_QUERY_EXECUTION", "TRUE"));
+            }
+            return statement.getFetchSize() > 0;
+        }
     },
 
     S3_SELECT {
@@ -79,6 +232,24 @@ public enum DbProduct {
         public String wrapTimestamp(Object val) {
             return "TO_TIMESTAMP('" + val + "')";
         }
+
+        @Override
+        public boolean prepareStreaming(Connection connection, Statement statement, Properties connectionConfiguration) {
+            return false;
+        }
+
+        @Override
+        public boolean groupsLikeGreenplum(DataType type) {
+            return false;
+        }
+
+        /**
+         * The queries are not prepared statements, the values are inlined.
+         */
+        @Override
+        public int getMaxBindParameters() {
+            return 0;
+        }
     };
 
     /**
@@ -110,6 +281,70 @@ public enum DbProduct {
         return String.format("SET %s = %s", key, value);
     }
 
+    /**
+     * Prepare a connection and a read statement created on it to stream the
+     * rows of the query, instead of having the driver buffer the whole result
+     * set in memory
+     *
+     * @param connection              the connection
+     * @param statement               the statement, with the configured fetch size
+     * @param connectionConfiguration the properties the connection was opened with
+     * @return true if the driver then fetches the rows in batches of the fetch
+     * size of the result set, which can be changed while the rows are read
+     * @throws SQLException if a database access error occurs
+     */
+    public boolean prepareStreaming(Connection connection, Statement statement, Properties connectionConfiguration) throws SQLException {
+        return statement.getFetchSize() > 0;
+    }
+
+    /**
+     * Whether grouping the rows by a column of the given type in the database
+     * forms the same groups as Greenplum does
+     *
+     * @param type the type of the column
+     * @return true if the rows can be grouped by the column in the database
+     */
+    public boolean groupsLikeGreenplum(DataType type) {
+        return true;
+    }
+
+    /**
+     * Returns the maximum number of bind parameters of a query, the values of
+     * the IN lists of the query beyond it are inlined in the query. The
+     * default is the limit of the PostgreSQL driver.
+     *
+     * @return the maximum number of bind parameters
+     */
+    public int getMaxBindParameters() {
+        return Short.MAX_VALUE;
+    }
+
+    /**
+     * Returns a query of the number of rows of a table estimated by the
+     * statistics of the database catalog. The parameters of the query are the
+     * schema of the table, null for the current schema, and the name of the
+     * table, in the case the catalog stores them in.
+     *
+     * @return the query, or null when the database has no such statistics
+     */
+    public String getRowCountEstimateQuery() {
+        return null;
+    }
+
+    /**
+     * Returns the maximum number of values of an IN list, longer lists are
+     * split into several IN lists
+     *
+     * @return the maximum number of values of an IN list
+     */
+    public int getMaxInListSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    private static boolean isText(DataType type) {
+        return type == DataType.TEXT || type == DataType.VARCHAR || type == DataType.BPCHAR;
+    }
+
     /**
      * Get DbProduct for database by database name
      *
@@ -131,6 +366,8 @@ public enum DbProduct {
             result = DbProduct.ORACLE;
         else if (dbName.contains("S3 SELECT"))
             result = DbProduct.S3_SELECT;
+        else if (dbName.equals("H2"))
+            result = DbProduct.H2;
         else
             result = DbProduct.POSTGRES;
 
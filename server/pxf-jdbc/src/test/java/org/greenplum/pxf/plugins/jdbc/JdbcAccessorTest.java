@@ -1,8 +1,12 @@
 package org.greenplum.pxf.plugins.jdbc;
 
 import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.security.SecureLogin;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
 import org.greenplum.pxf.plugins.jdbc.partitioning.IntPartition;
 import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,14 +19,27 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -258,6 +275,187 @@ public class JdbcAccessorTest {
         assertEquals(expected, queryPassed.getValue());
     }
 
+    @Test
+    public void testReadAdaptsFetchSizeToTheWidthOfTheRows() throws Exception {
+        configuration.set("jdbc.statement.fetchSize.targetBytes", "8000");
+        when(mockStatement.executeQuery(any())).thenReturn(mockResultSet);
+        when(mockStatement.getFetchSize()).thenReturn(1000);
+        wireMocksForReadWithCreateStatement();
+        ResultSetMetaData mockResultSetMetaData = mock(ResultSetMetaData.class);
+        when(mockResultSetMetaData.getColumnCount()).thenReturn(1);
+        when(mockResultSet.getMetaData()).thenReturn(mockResultSetMetaData);
+        when(mockResultSet.next()).thenReturn(true);
+        // rows of 32 + 16 + 52 = 100 bytes
+        when(mockResultSet.getObject(1)).thenReturn(new byte[52]);
+
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+        for (int i = 0; i < 100; i++) {
+            accessor.readNextObject();
+        }
+
+        verify(mockStatement).setFetchSize(1000);
+        verify(mockResultSet).setFetchSize(80);
+    }
+
+    @Test
+    public void testReadDoesNotAdaptFetchSizeSetByUser() throws Exception {
+        configuration.set("jdbc.statement.fetchSize", "500");
+        when(mockStatement.executeQuery(any())).thenReturn(mockResultSet);
+        when(mockStatement.getFetchSize()).thenReturn(500);
+        wireMocksForReadWithCreateStatement();
+        when(mockResultSet.next()).thenReturn(true);
+
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+        for (int i = 0; i < 100; i++) {
+            accessor.readNextObject();
+        }
+
+        verify(mockStatement).setFetchSize(500);
+        verify(mockResultSet, never()).getObject(anyInt());
+        verify(mockResultSet, never()).setFetchSize(anyInt());
+    }
+
+    @Test
+    public void testReadFromMySQLKeepsTheFetchSize() throws Exception {
+        when(mockStatement.executeQuery(any())).thenReturn(mockResultSet);
+        when(mockStatement.getFetchSize()).thenReturn(1000);
+        wireMocksForRead();
+        when(mockConnection.createStatement()).thenReturn(mockStatement);
+        when(mockMetaData.getDatabaseProductName()).thenReturn("MySQL");
+        when(mockMetaData.getExtraNameCharacters()).thenReturn("");
+        when(mockResultSet.next()).thenReturn(true);
+
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+        for (int i = 0; i < 100; i++) {
+            accessor.readNextObject();
+        }
+
+        // the fetch size is not the one that streams the rows, but the driver doesn't fetch the rows in batches
+        verify(mockStatement).setFetchSize(1000);
+        verify(mockStatement, never()).setFetchSize(Integer.MIN_VALUE);
+        verify(mockResultSet, never()).setFetchSize(anyInt());
+    }
+
+    @Test
+    public void testReadWithInFilterBindsTheValues() throws Exception {
+        PreparedStatement mockPreparedStatement = mock(PreparedStatement.class);
+        ArgumentCaptor<String> queryPassed = ArgumentCaptor.forClass(String.class);
+        wireMocksForRead();
+        when(mockConnection.prepareStatement(queryPassed.capture())).thenReturn(mockPreparedStatement);
+        when(mockMetaData.getDatabaseProductName()).thenReturn("Greenplum");
+        when(mockMetaData.getExtraNameCharacters()).thenReturn("");
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        context.setTupleDescription(Collections.singletonList(
+                new ColumnDescriptor("id", DataType.BIGINT.getOID(), 0, "int8", null)));
+        // id IN (1, 2)
+        context.setFilterString("a0m1016s1d1s1d2o10");
+
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+
+        assertEquals("SELECT id FROM test-table WHERE id IN (?,?)", queryPassed.getValue());
+        verify(mockPreparedStatement).setObject(1, 1L);
+        verify(mockPreparedStatement).setObject(2, 2L);
+        verify(mockPreparedStatement).setFetchSize(1000);
+        verify(mockPreparedStatement).executeQuery();
+        verify(mockConnection, never()).createStatement();
+    }
+
+    @Test
+    public void testReadGroupedColumnAggregateFromTheDatabase() throws Exception {
+        ArgumentCaptor<String> queryPassed = ArgumentCaptor.forClass(String.class);
+        when(mockStatement.executeQuery(queryPassed.capture())).thenReturn(mockResultSet);
+        wireMocksForReadWithCreateStatement();
+        when(mockResultSet.next()).thenReturn(true, true, false);
+        setAggregate(EnumAggregationType.MIN, 0);
+        context.getTupleDescription().get(1).setProjected(true);
+        context.setNumAttrsProjected(2);
+        context.setAggGroupBy(Collections.singletonList(1));
+
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+
+        assertEquals("SELECT MIN(id) AS id, grade FROM test-table GROUP BY grade", queryPassed.getValue());
+        assertTrue(accessor.retrieveStats());
+        // one row per group, every group has its own key
+        assertEquals(1L, accessor.emitAggObject().getKey());
+        OneRow row = accessor.emitAggObject();
+        assertEquals(2L, row.getKey());
+        assertSame(mockResultSet, row.getData());
+        assertNull(accessor.emitAggObject());
+    }
+
+    @Test
+    public void testReadCountWithoutAggregatePushdown() throws Exception {
+        ArgumentCaptor<String> queryPassed = ArgumentCaptor.forClass(String.class);
+        when(mockStatement.executeQuery(queryPassed.capture())).thenReturn(mockResultSet);
+        wireMocksForReadWithCreateStatement();
+        setAggregate(EnumAggregationType.COUNT, 1);
+
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+
+        // Greenplum counts the rows of the groups it receives
+        assertEquals("SELECT grade FROM test-table", queryPassed.getValue());
+        assertFalse(accessor.retrieveStats());
+    }
+
+    @Test
+    public void testReadColumnAggregateFromTheDatabase() throws Exception {
+        ArgumentCaptor<String> queryPassed = ArgumentCaptor.forClass(String.class);
+        when(mockStatement.executeQuery(queryPassed.capture())).thenReturn(mockResultSet);
+        wireMocksForReadWithCreateStatement();
+        when(mockResultSet.next()).thenReturn(true, false);
+        setAggregate(EnumAggregationType.MAX, 0);
+
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+
+        assertEquals("SELECT MAX(id) AS id FROM test-table", queryPassed.getValue());
+        // a bridge that reads the rows reads the aggregate too
+        assertEquals(1L, accessor.readNextObject().getKey());
+        assertNull(accessor.readNextObject());
+    }
+
+    @Test
+    public void testReadWithAggregatePushdownDisabled() throws Exception {
+        configuration.set("jdbc.pushdown.aggregate.enabled", "false");
+        ArgumentCaptor<String> queryPassed = ArgumentCaptor.forClass(String.class);
+        when(mockStatement.executeQuery(queryPassed.capture())).thenReturn(mockResultSet);
+        wireMocksForReadWithCreateStatement();
+        setAggregate(EnumAggregationType.MAX, 0);
+
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+
+        assertEquals("SELECT id FROM test-table", queryPassed.getValue());
+        assertFalse(accessor.retrieveStats());
+    }
+
+    private void setAggregate(EnumAggregationType aggType, int projectedColumn) {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null, projectedColumn == 0));
+        columns.add(new ColumnDescriptor("grade", DataType.TEXT.getOID(), 1, "text", null, projectedColumn == 1));
+        context.setTupleDescription(columns);
+        context.setNumAttrsProjected(1);
+        context.setAccessor(JdbcAccessor.class.getName());
+        context.setAggType(aggType);
+        if (!aggType.isColumnAggregate()) {
+            context.setAggGroupBy(Collections.singletonList(projectedColumn));
+        }
+    }
+
     private void wireMocksForReadWithCreateStatement() throws SQLException {
         wireMocksForRead();
         when(mockConnection.createStatement()).thenReturn(mockStatement);
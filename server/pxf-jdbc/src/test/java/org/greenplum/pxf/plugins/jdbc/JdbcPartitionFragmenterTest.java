@@ -23,19 +23,58 @@ import org.apache.hadoop.conf.Configuration;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.Fragmenter;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.security.SecureLogin;
+import org.greenplum.pxf.plugins.jdbc.partitioning.IntPartition;
+import org.greenplum.pxf.plugins.jdbc.partitioning.JdbcFragmentMetadata;
+import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
 import java.util.List;
+import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+@ExtendWith(MockitoExtension.class)
 public class JdbcPartitionFragmenterTest {
 
     private Configuration configuration;
     private RequestContext context;
 
+    @Mock
+    private ConnectionManager mockConnectionManager;
+    @Mock
+    private SecureLogin mockSecureLogin;
+    @Mock
+    private Connection mockConnection;
+    @Mock
+    private DatabaseMetaData mockMetaData;
+    @Mock
+    private PreparedStatement mockStatement;
+    @Mock
+    private ResultSet mockResultSet;
+    @Mock
+    private ResultSetMetaData mockResultSetMetaData;
+
     @BeforeEach
     public void setUp() {
         configuration = new Configuration();
@@ -43,10 +82,14 @@ public class JdbcPartitionFragmenterTest {
         context.setConfig("default");
         context.setDataSource("table");
         context.setUser("test-user");
+        context.setConfiguration(configuration);
+
+        configuration.set("jdbc.driver", "org.greenplum.pxf.plugins.jdbc.FakeJdbcDriver");
+        configuration.set("jdbc.url", "test-url");
     }
 
     @Test
-    public void testNoPartition() {
+    public void testNoPartition() throws SQLException {
 
         JdbcPartitionFragmenter fragment = new JdbcPartitionFragmenter();
         fragment.setRequestContext(context);
@@ -71,4 +114,173 @@ public class JdbcPartitionFragmenterTest {
         fragmenter.setRequestContext(context);
         assertThrows(IllegalArgumentException.class, fragmenter::afterPropertiesSet);
     }
+
+    @Test
+    public void testAutoPartitionByColumn() throws SQLException {
+        context.addOption("PARTITION_BY", "id:auto");
+        configuration.setLong("jdbc.partition.auto.rows-per-fragment", 250);
+        wireMocksForStatistics("SELECT MIN(id), MAX(id) FROM table", Types.BIGINT, 1, 1001);
+        when(mockMetaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        PreparedStatement rowCountStatement = mock(PreparedStatement.class);
+        ResultSet rowCount = mock(ResultSet.class);
+        when(rowCount.next()).thenReturn(true);
+        when(rowCount.getLong(1)).thenReturn(1000L);
+        when(rowCountStatement.executeQuery()).thenReturn(rowCount);
+        when(mockConnection.prepareStatement(DbProduct.POSTGRES.getRowCountEstimateQuery())).thenReturn(rowCountStatement);
+
+        List<Fragment> fragments = getFragments();
+
+        // 4 ranges, the ranges out of [min, max] and the NULL values
+        assertEquals(7, fragments.size());
+        assertEquals("id < 1", toSql(fragments.get(0)));
+        assertEquals("id >= 1001", toSql(fragments.get(1)));
+        assertEquals("id >= 1 AND id < 251", toSql(fragments.get(2)));
+        assertEquals("id >= 751 AND id < 1001", toSql(fragments.get(5)));
+        assertEquals("id IS NULL", toSql(fragments.get(6)));
+        fragments.forEach(f -> assertEquals("table", f.getSourceName()));
+        verify(rowCountStatement).setString(1, null);
+        verify(rowCountStatement).setString(2, "table");
+    }
+
+    @Test
+    public void testAutoPartitionWithoutStatisticsUsesTheRangeOfTheColumn() throws SQLException {
+        context.addOption("PARTITION_BY", "id:auto");
+        configuration.setLong("jdbc.partition.auto.rows-per-fragment", 250);
+        wireMocksForStatistics("SELECT MIN(id), MAX(id) FROM table", Types.BIGINT, 1, 1000);
+        when(mockMetaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        PreparedStatement rowCountStatement = mock(PreparedStatement.class);
+        when(rowCountStatement.executeQuery()).thenThrow(new SQLException("permission denied"));
+        when(mockConnection.prepareStatement(DbProduct.POSTGRES.getRowCountEstimateQuery())).thenReturn(rowCountStatement);
+
+        List<Fragment> fragments = getFragments();
+
+        // 1000 values in 4 ranges, the ranges out of [min, max] and the NULL values
+        assertEquals(7, fragments.size());
+        assertEquals("id >= 1 AND id < 251", toSql(fragments.get(2)));
+        assertEquals("id >= 751 AND id < 1000", toSql(fragments.get(5)));
+        verify(mockConnection).rollback();
+    }
+
+    @Test
+    public void testAutoPartitionDiscoversPrimaryKeyAndUsesCatalogStatistics() throws SQLException {
+        configuration.setBoolean("jdbc.partition.auto.enabled", true);
+        configuration.setLong("jdbc.partition.auto.rows-per-fragment", 100);
+        context.setDataSource("sales.orders");
+        when(mockMetaData.storesLowerCaseIdentifiers()).thenReturn(true);
+        ResultSet primaryKeys = mock(ResultSet.class);
+        when(primaryKeys.next()).thenReturn(true, false);
+        when(primaryKeys.getString("COLUMN_NAME")).thenReturn("order_id");
+        when(mockMetaData.getPrimaryKeys(null, "sales", "orders")).thenReturn(primaryKeys);
+        ResultSet keyColumn = mock(ResultSet.class);
+        when(keyColumn.next()).thenReturn(true);
+        when(keyColumn.getInt("DATA_TYPE")).thenReturn(Types.NUMERIC);
+        when(keyColumn.getInt("DECIMAL_DIGITS")).thenReturn(0);
+        when(mockMetaData.getColumns(null, "sales", "orders", "order_id")).thenReturn(keyColumn);
+        ResultSet indexInfo = mock(ResultSet.class);
+        when(indexInfo.next()).thenReturn(true);
+        when(indexInfo.getShort("TYPE")).thenReturn(DatabaseMetaData.tableIndexStatistic);
+        when(indexInfo.getLong("CARDINALITY")).thenReturn(300L);
+        when(mockMetaData.getIndexInfo(null, "sales", "orders", false, true)).thenReturn(indexInfo);
+        when(mockMetaData.getDatabaseProductName()).thenReturn("H2");
+        wireMocksForStatistics("SELECT MIN(order_id), MAX(order_id) FROM sales.orders", Types.NUMERIC, 0, 600);
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(6, fragments.size());
+        assertEquals("order_id >= 0 AND order_id < 200", toSql(fragments.get(2)));
+        assertEquals("order_id >= 400 AND order_id < 600", toSql(fragments.get(4)));
+    }
+
+    @Test
+    public void testAutoPartitionWithoutPrimaryKeyUsesSingleFragment() throws SQLException {
+        context.addOption("PARTITION_BY", "auto");
+        when(mockConnectionManager.getConnection(any(), any(), any(), anyBoolean(), any(), any())).thenReturn(mockConnection);
+        when(mockConnection.getMetaData()).thenReturn(mockMetaData);
+        when(mockMetaData.getPrimaryKeys(null, null, "table")).thenReturn(mock(ResultSet.class));
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(1, fragments.size());
+        assertNull(fragments.get(0).getMetadata());
+        verify(mockConnection).close();
+    }
+
+    @Test
+    public void testAutoPartitionOfNonIntegerColumnFails() throws SQLException {
+        context.addOption("PARTITION_BY", "name:auto");
+        wireMocksForStatistics("SELECT MIN(name), MAX(name) FROM table", Types.VARCHAR, null, null);
+        when(mockResultSetMetaData.getColumnTypeName(1)).thenReturn("varchar");
+        when(mockMetaData.getDatabaseProductName()).thenReturn("H2");
+        when(mockMetaData.getIndexInfo(null, null, "table", false, true)).thenReturn(mock(ResultSet.class));
+
+        Exception e = assertThrows(IllegalArgumentException.class, this::getFragments);
+        assertEquals("The automatic partitioning requires an integer column, column 'name' is of type varchar", e.getMessage());
+    }
+
+    @Test
+    public void testAutoPartitionOfQueryFails() {
+        context.addOption("PARTITION_BY", "id:auto");
+        context.setDataSource("query:report");
+
+        Exception e = assertThrows(IllegalArgumentException.class, this::getFragments);
+        assertEquals("The automatic partitioning is not supported for queries, the parameter 'PARTITION_BY' must specify the partition type", e.getMessage());
+    }
+
+    @Test
+    public void testAutoFragmentsMetadataSizing() {
+        context.addOption("PARTITION_BY", "id:auto");
+        configuration.setLong("jdbc.partition.auto.rows-per-fragment", 1000);
+        configuration.setInt("jdbc.partition.auto.max-fragments", 8);
+        JdbcPartitionFragmenter fragmenter = new JdbcPartitionFragmenter(mockConnectionManager, mockSecureLogin);
+        fragmenter.setRequestContext(context);
+        fragmenter.afterPropertiesSet();
+
+        // a small table, or a single value, is read by a single fragment
+        assertNull(fragmenter.getAutoFragmentsMetadata("id", 0, 100000, 1000));
+        assertNull(fragmenter.getAutoFragmentsMetadata("id", 5, 5, 1000000));
+
+        // rounded up to fragments of at most 1000 rows
+        List<JdbcFragmentMetadata> metadata = fragmenter.getAutoFragmentsMetadata("id", 0, 3000, 3001);
+        assertEquals(4 + 3, metadata.size());
+
+        // capped by the maximum number of fragments
+        metadata = fragmenter.getAutoFragmentsMetadata("id", Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(8 + 3, metadata.size());
+        assertArrayEquals(new Long[]{Long.MIN_VALUE, Long.MIN_VALUE + 2305843009213693952L},
+                ((IntPartition) metadata.get(2)).getBoundaries());
+    }
+
+    @Test
+    public void testAutoPartitionPropertyInvalid() {
+        context.addOption("PARTITION_BY", "id:auto");
+        configuration.setInt("jdbc.partition.auto.max-fragments", 0);
+        Fragmenter fragmenter = new JdbcPartitionFragmenter();
+        fragmenter.setRequestContext(context);
+        assertThrows(IllegalArgumentException.class, fragmenter::afterPropertiesSet);
+    }
+
+    private List<Fragment> getFragments() throws SQLException {
+        JdbcPartitionFragmenter fragmenter = new JdbcPartitionFragmenter(mockConnectionManager, mockSecureLogin);
+        fragmenter.setRequestContext(context);
+        fragmenter.afterPropertiesSet();
+        return fragmenter.getFragments();
+    }
+
+    private void wireMocksForStatistics(String query, int type, Integer min, Integer max) throws SQLException {
+        when(mockConnectionManager.getConnection(any(), any(), any(), anyBoolean(), any(), any())).thenReturn(mockConnection);
+        when(mockConnection.getMetaData()).thenReturn(mockMetaData);
+        when(mockConnection.prepareStatement(query)).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.getMetaData()).thenReturn(mockResultSetMetaData);
+        when(mockResultSetMetaData.getColumnType(1)).thenReturn(type);
+        if (min != null) {
+            when(mockResultSet.next()).thenReturn(true);
+            when(mockResultSet.getLong(1)).thenReturn((long) min);
+            when(mockResultSet.getLong(2)).thenReturn((long) max);
+        }
+    }
+
+    private String toSql(Fragment fragment) {
+        return ((JdbcFragmentMetadata) fragment.getMetadata()).toSqlConstraint("", DbProduct.POSTGRES);
+    }
 }
@@ -0,0 +1,134 @@
+package org.greenplum.pxf.plugins.jdbc;
+
+import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.security.SecureLogin;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class JdbcResolverTest {
+
+    private JdbcResolver resolver;
+    private RequestContext context;
+    private List<ColumnDescriptor> columns;
+
+    @Mock
+    private ConnectionManager mockConnectionManager;
+    @Mock
+    private SecureLogin mockSecureLogin;
+    @Mock
+    private ResultSet mockResultSet;
+
+    @BeforeEach
+    public void setup() {
+        resolver = new JdbcResolver(mockConnectionManager, mockSecureLogin);
+        Configuration configuration = new Configuration();
+        configuration.set("jdbc.driver", "org.greenplum.pxf.plugins.jdbc.FakeJdbcDriver");
+        configuration.set("jdbc.url", "test-url");
+
+        context = new RequestContext();
+        context.setConfig("default");
+        context.setDataSource("test-table");
+        context.setUser("test-user");
+        context.setConfiguration(configuration);
+
+        columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        columns.add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null));
+        columns.add(new ColumnDescriptor("skipped", DataType.FLOAT8.getOID(), 2, "float8", null, false));
+        columns.add(new ColumnDescriptor("day", DataType.DATE.getOID(), 3, "date", null));
+        context.setTupleDescription(columns);
+    }
+
+    @Test
+    public void testGetFieldsReadsColumnsByIndex() throws SQLException {
+        when(mockResultSet.findColumn("id")).thenReturn(1);
+        when(mockResultSet.findColumn("name")).thenReturn(2);
+        when(mockResultSet.findColumn("day")).thenReturn(3);
+        when(mockResultSet.getInt(1)).thenReturn(7, 0);
+        when(mockResultSet.getString(2)).thenReturn("seven", "eight");
+        when(mockResultSet.getDate(3)).thenReturn(Date.valueOf("2020-01-02"), (Date) null);
+        when(mockResultSet.wasNull()).thenReturn(false, false, false, true, false, true);
+
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        List<OneField> fields = resolver.getFields(new OneRow(mockResultSet));
+        assertEquals(4, fields.size());
+        assertField(DataType.INTEGER, 7, fields.get(0));
+        assertField(DataType.TEXT, "seven", fields.get(1));
+        assertField(DataType.FLOAT8, null, fields.get(2));
+        assertField(DataType.DATE, Date.valueOf("2020-01-02"), fields.get(3));
+
+        fields = resolver.getFields(new OneRow(mockResultSet));
+        assertEquals(4, fields.size());
+        assertField(DataType.INTEGER, null, fields.get(0));
+        assertField(DataType.TEXT, "eight", fields.get(1));
+        assertField(DataType.FLOAT8, null, fields.get(2));
+        assertField(DataType.DATE, null, fields.get(3));
+
+        // the columns are resolved once per result set, by index
+        verify(mockResultSet, times(1)).findColumn("id");
+        verify(mockResultSet, never()).findColumn("skipped");
+        verify(mockResultSet, never()).getInt(anyString());
+        verify(mockResultSet, never()).getString(anyString());
+    }
+
+    @Test
+    public void testGetFieldsResolvesColumnsOfEveryResultSet() throws SQLException {
+        columns.subList(1, columns.size()).clear();
+        when(mockResultSet.findColumn("id")).thenReturn(1);
+        when(mockResultSet.getInt(1)).thenReturn(7);
+        ResultSet otherResultSet = mock(ResultSet.class);
+        when(otherResultSet.findColumn("id")).thenReturn(2);
+        when(otherResultSet.getInt(2)).thenReturn(8);
+
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        assertField(DataType.INTEGER, 7, resolver.getFields(new OneRow(mockResultSet)).get(0));
+        assertField(DataType.INTEGER, 8, resolver.getFields(new OneRow(otherResultSet)).get(0));
+    }
+
+    @Test
+    public void testGetFieldsFailsForUnsupportedType() {
+        columns.add(new ColumnDescriptor("ts", DataType.TIMESTAMP_WITH_TIME_ZONE.getOID(), 4, "timestamptz", null));
+
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        Exception e = assertThrows(UnsupportedOperationException.class,
+                () -> resolver.getFields(new OneRow(mockResultSet)));
+        assertTrue(e.getMessage().startsWith("Field type 'TIMESTAMP_WITH_TIME_ZONE' (column "));
+    }
+
+    private void assertField(DataType type, Object value, OneField field) {
+        assertEquals(type.getOID(), field.type);
+        assertEquals(value, field.val);
+    }
+}
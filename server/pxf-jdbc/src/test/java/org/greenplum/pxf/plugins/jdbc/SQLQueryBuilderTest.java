@@ -24,6 +24,7 @@ import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.Fragmenter;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -31,10 +32,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.DatabaseMetaData;
+import java.sql.Date;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -532,6 +538,161 @@ public class SQLQueryBuilderTest {
         assertEquals("SELECT id, cdate, amt, grade, b FROM sales WHERE NOT (b)", builder.buildSelectQuery());
     }
 
+    @Test
+    public void testInFilterWithBindParameters() throws Exception {
+        when(mockMetaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        when(mockMetaData.getExtraNameCharacters()).thenReturn("");
+
+        // id IN (194, 82756)
+        context.setFilterString("a0m1007s3d194s5d82756o10");
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.autoSetQuoteString();
+        assertEquals(SQL + " WHERE id IN (?,?)", builder.buildSelectQuery());
+        assertEquals(Arrays.asList(194, 82756), builder.getQueryParameters());
+
+        // NOT (cdate IN ('2008-02-01', '2008-12-01')) AND amt > 1200
+        context.setFilterString("a1m1182s10d2008-02-01s10d2008-12-01o10l2a2c20s4d1200o2l0");
+        builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.autoSetQuoteString();
+        assertEquals(SQL + " WHERE (NOT (cdate IN (?,?)) AND amt > 1200)", builder.buildSelectQuery());
+        assertEquals(Arrays.asList(Date.valueOf("2008-02-01"), Date.valueOf("2008-12-01")), builder.getQueryParameters());
+
+        // a query without IN lists has no bind parameters
+        context.setFilterString("a0c20s1d1o5");
+        builder.buildSelectQuery();
+        assertTrue(builder.getQueryParameters().isEmpty());
+    }
+
+    @Test
+    public void testInFilterIsSplitIntoListsOfMaximumSize() throws Exception {
+        when(mockMetaData.getDatabaseProductName()).thenReturn("Oracle");
+        when(mockMetaData.getExtraNameCharacters()).thenReturn("");
+        context.setFilterString(inFilter(2500));
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.autoSetQuoteString();
+        String placeholders1000 = String.join(",", Collections.nCopies(1000, "?"));
+        String placeholders500 = String.join(",", Collections.nCopies(500, "?"));
+        assertEquals(SQL + " WHERE (id IN (" + placeholders1000 + ") OR id IN (" + placeholders1000 + ") OR id IN (" + placeholders500 + "))",
+                builder.buildSelectQuery());
+        assertEquals(2500, builder.getQueryParameters().size());
+        assertEquals(2499, builder.getQueryParameters().get(2499));
+    }
+
+    @Test
+    public void testInFilterInlinesValuesBeyondMaximumBindParameters() throws Exception {
+        when(mockMetaData.getDatabaseProductName()).thenReturn("Microsoft SQL Server");
+        when(mockMetaData.getExtraNameCharacters()).thenReturn("");
+        context.setFilterString(inFilter(2003));
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.autoSetQuoteString();
+        assertEquals(SQL + " WHERE id IN (" + String.join(",", Collections.nCopies(2000, "?")) + ",2000,2001,2002)",
+                builder.buildSelectQuery());
+        assertEquals(2000, builder.getQueryParameters().size());
+    }
+
+    /* -------------- AGGREGATE TESTS --------------- */
+    @Test
+    public void testCountAggregateIsNotPushedDown() throws Exception {
+        when(mockMetaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        // COUNT(*) projects the first column
+        project(0);
+        context.setAggType(EnumAggregationType.COUNT);
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        assertNull(builder.buildAggregateQuery());
+
+        project(3);
+        context.setAggGroupBy(Collections.singletonList(3));
+        assertNull(builder.buildAggregateQuery());
+    }
+
+    @Test
+    public void testGroupedAggregateWithPartition() throws Exception {
+        context.addOption("PARTITION_BY", "id:int");
+        context.addOption("RANGE", "1:10");
+        context.addOption("INTERVAL", "5");
+        when(mockMetaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        project(1, 2, 3);
+        context.setAggType(EnumAggregationType.MAX);
+        context.setAggGroupBy(Arrays.asList(3, 1));
+
+        List<Fragment> fragments = getFragmenter(context).getFragments();
+        context.setFragmentMetadata(fragments.get(2).getMetadata());
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        assertEquals("SELECT cdate, MAX(amt) AS amt, grade FROM sales WHERE id >= 1 AND id < 6 GROUP BY grade, cdate",
+                builder.buildAggregateQuery());
+    }
+
+    @Test
+    public void testColumnAggregates() throws Exception {
+        when(mockMetaData.getDatabaseProductName()).thenReturn("mysql");
+        when(mockMetaData.getIdentifierQuoteString()).thenReturn("`");
+        project(1, 2);
+        context.setAggGroupBy(Collections.singletonList(1));
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData, NAMED_QUERY);
+        builder.forceSetQuoteString();
+        context.setAggType(EnumAggregationType.MIN);
+        assertEquals("SELECT `cdate`, MIN(`amt`) AS `amt` FROM (SELECT a, b FROM c) pxfsubquery GROUP BY `cdate`",
+                builder.buildAggregateQuery());
+        context.setAggType(EnumAggregationType.MAX);
+        assertEquals("SELECT `cdate`, MAX(`amt`) AS `amt` FROM (SELECT a, b FROM c) pxfsubquery GROUP BY `cdate`",
+                builder.buildAggregateQuery());
+        context.setAggType(EnumAggregationType.SUM);
+        assertEquals("SELECT `cdate`, SUM(`amt`) AS `amt` FROM (SELECT a, b FROM c) pxfsubquery GROUP BY `cdate`",
+                builder.buildAggregateQuery());
+    }
+
+    @Test
+    public void testUnsupportedAggregates() throws Exception {
+        when(mockMetaData.getDatabaseProductName()).thenReturn("mysql");
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        assertNull(builder.buildAggregateQuery());
+
+        // the integer sums can overflow the integer column
+        project(0);
+        context.setAggType(EnumAggregationType.SUM);
+        assertNull(builder.buildAggregateQuery());
+
+        // the strings are not compared the same way
+        project(3);
+        context.setAggType(EnumAggregationType.MAX);
+        assertNull(builder.buildAggregateQuery());
+
+        // MySQL doesn't group the strings the same way
+        project(2, 3);
+        context.setAggGroupBy(Collections.singletonList(3));
+        assertNull(builder.buildAggregateQuery());
+        context.setAggGroupBy(Collections.emptyList());
+
+        // the filter would be applied to the aggregate
+        project(2);
+        assertEquals("SELECT MAX(amt) AS amt FROM sales", builder.buildAggregateQuery());
+        context.setFilterString("a0c20s1d1o5");
+        assertNull(builder.buildAggregateQuery());
+    }
+
+    private String inFilter(int size) {
+        // id IN (0, 1, ..., size - 1)
+        StringBuilder filter = new StringBuilder("a0m1007");
+        for (int i = 0; i < size; i++) {
+            String value = String.valueOf(i);
+            filter.append("s").append(value.length()).append("d").append(value);
+        }
+        return filter.append("o10").toString();
+    }
+
+    private void project(Integer... indexes) {
+        List<Integer> projected = Arrays.asList(indexes);
+        for (ColumnDescriptor column : context.getTupleDescription()) {
+            column.setProjected(projected.contains(column.columnIndex()));
+        }
+        context.setNumAttrsProjected(indexes.length);
+    }
+
     private Fragmenter getFragmenter(RequestContext context) {
         JdbcPartitionFragmenter fragmenter = new JdbcPartitionFragmenter();
         fragmenter.setRequestContext(context);
@@ -0,0 +1,120 @@
+package org.greenplum.pxf.plugins.jdbc.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AdaptiveFetchSizeTest {
+
+    @Mock
+    private ResultSet mockResultSet;
+    @Mock
+    private ResultSetMetaData mockMetaData;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        lenient().when(mockResultSet.getMetaData()).thenReturn(mockMetaData);
+        lenient().when(mockMetaData.getColumnCount()).thenReturn(2);
+    }
+
+    @Test
+    public void testWideRowsLowerTheFetchSize() throws SQLException {
+        // rows of 32 + 2 * 16 + 24 + 2 * 4968 + 16 = 10040 bytes
+        when(mockResultSet.getObject(1)).thenReturn(new String(new char[4968]));
+        when(mockResultSet.getObject(2)).thenReturn(1);
+        AdaptiveFetchSize adaptiveFetchSize = new AdaptiveFetchSize(1000, 1004000, 100000);
+
+        readRows(adaptiveFetchSize, AdaptiveFetchSize.INITIAL_SAMPLE_ROWS - 1);
+        verify(mockResultSet, never()).setFetchSize(anyInt());
+
+        readRows(adaptiveFetchSize, 1);
+        verify(mockResultSet).setFetchSize(100);
+        assertEquals(100, adaptiveFetchSize.getFetchSize());
+    }
+
+    @Test
+    public void testNarrowRowsRaiseTheFetchSizeUpToTheMaximum() throws SQLException {
+        when(mockResultSet.getObject(1)).thenReturn(1L);
+        when(mockResultSet.getObject(2)).thenReturn(null);
+        AdaptiveFetchSize adaptiveFetchSize = new AdaptiveFetchSize(1000, 16 * 1024 * 1024, 5000);
+
+        readRows(adaptiveFetchSize, AdaptiveFetchSize.INITIAL_SAMPLE_ROWS);
+        verify(mockResultSet).setFetchSize(5000);
+        assertEquals(5000, adaptiveFetchSize.getFetchSize());
+    }
+
+    @Test
+    public void testFetchSizeFollowsTheWidthOfTheRows() throws SQLException {
+        when(mockResultSet.getObject(1)).thenReturn(new byte[936]);
+        when(mockResultSet.getObject(2)).thenReturn(null);
+        // rows of 1000 bytes
+        AdaptiveFetchSize adaptiveFetchSize = new AdaptiveFetchSize(100, 100000, 100000);
+
+        readRows(adaptiveFetchSize, 10000);
+        // the fetch size is right, no row is sampled beyond the first ones and one per batch
+        verify(mockResultSet, never()).setFetchSize(anyInt());
+        verify(mockResultSet, times(AdaptiveFetchSize.INITIAL_SAMPLE_ROWS + 99)).getObject(1);
+
+        // the rows get 100 times wider
+        when(mockResultSet.getObject(1)).thenReturn(new byte[99936]);
+        readRows(adaptiveFetchSize, 10000);
+        assertEquals(1, adaptiveFetchSize.getFetchSize());
+    }
+
+    @Test
+    public void testSmallChangesDoNotChangeTheFetchSize() throws SQLException {
+        when(mockResultSet.getObject(1)).thenReturn(new byte[936]);
+        when(mockResultSet.getObject(2)).thenReturn(null);
+        // advises 1200 rows of 1000 bytes
+        AdaptiveFetchSize adaptiveFetchSize = new AdaptiveFetchSize(1000, 1200000, 100000);
+
+        readRows(adaptiveFetchSize, 5000);
+        verify(mockResultSet, never()).setFetchSize(anyInt());
+        assertEquals(1000, adaptiveFetchSize.getFetchSize());
+    }
+
+    @Test
+    public void testFailureStopsTheAdaptation() throws SQLException {
+        when(mockResultSet.getObject(1)).thenReturn(1L);
+        when(mockResultSet.getObject(2)).thenReturn(1L);
+        doThrow(new SQLException("not supported")).when(mockResultSet).setFetchSize(anyInt());
+        AdaptiveFetchSize adaptiveFetchSize = new AdaptiveFetchSize(10, 1024 * 1024, 100000);
+
+        readRows(adaptiveFetchSize, 1000);
+        verify(mockResultSet, times(1)).setFetchSize(anyInt());
+        verify(mockResultSet, times(AdaptiveFetchSize.INITIAL_SAMPLE_ROWS)).getObject(1);
+        assertEquals(10, adaptiveFetchSize.getFetchSize());
+    }
+
+    @Test
+    public void testEstimateValueWidth() {
+        assertEquals(0, AdaptiveFetchSize.estimateValueWidth(null));
+        assertEquals(24 + 2 * 5, AdaptiveFetchSize.estimateValueWidth("hello"));
+        assertEquals(100, AdaptiveFetchSize.estimateValueWidth(new byte[100]));
+        assertEquals(32 + 10, AdaptiveFetchSize.estimateValueWidth(new BigDecimal("12345678901234567890")));
+        assertEquals(16, AdaptiveFetchSize.estimateValueWidth(1.5));
+    }
+
+    private void readRows(AdaptiveFetchSize adaptiveFetchSize, int rows) {
+        for (int i = 0; i < rows; i++) {
+            adaptiveFetchSize.onRow(mockResultSet);
+        }
+    }
+}
@@ -19,14 +19,28 @@ package org.greenplum.pxf.plugins.jdbc.utils;
  * under the License.
  */
 
+import org.greenplum.pxf.api.io.DataType;
 import org.junit.jupiter.api.Test;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Properties;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 
 public class DbProductTest {
@@ -134,4 +148,118 @@ public class DbProductTest {
             assertEquals(expected[i], dbProduct.wrapDate(DATES[i]));
         }
     }
+
+    @Test
+    public void testMySQLKeepsFetchSizeWithoutCursorFetch() throws SQLException {
+        Connection connection = mockConnection("jdbc:mysql://localhost/db");
+        Statement statement = mock(Statement.class);
+        when(statement.getFetchSize()).thenReturn(1000, Integer.MIN_VALUE);
+
+        DbProduct dbProduct = DbProduct.getDbProduct(DB_NAME_MYSQL);
+
+        assertFalse(dbProduct.prepareStreaming(connection, statement, new Properties()));
+        assertFalse(dbProduct.prepareStreaming(connection, statement, new Properties()));
+        verify(statement, never()).setFetchSize(anyInt());
+    }
+
+    @Test
+    public void testMySQLFetchesInBatchesWithCursorFetch() throws SQLException {
+        Connection connection = mockConnection("jdbc:mysql://localhost/db?useCursorFetch=true");
+        Statement statement = mock(Statement.class);
+        when(statement.getFetchSize()).thenReturn(1000);
+
+        DbProduct dbProduct = DbProduct.getDbProduct(DB_NAME_MYSQL);
+
+        assertTrue(dbProduct.prepareStreaming(connection, statement, new Properties()));
+        Properties connectionConfiguration = new Properties();
+        connectionConfiguration.setProperty("useCursorFetch", "true");
+        assertTrue(dbProduct.prepareStreaming(mockConnection("jdbc:mysql://localhost/db"), statement, connectionConfiguration));
+        verify(statement, never()).setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Test
+    public void testPostgresFetchesWithCursorWithoutAutoCommit() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.getAutoCommit()).thenReturn(false, true);
+        Statement statement = mock(Statement.class);
+        when(statement.getFetchSize()).thenReturn(1000);
+
+        DbProduct dbProduct = DbProduct.getDbProduct("PostgreSQL");
+
+        assertTrue(dbProduct.prepareStreaming(connection, statement, new Properties()));
+        assertFalse(dbProduct.prepareStreaming(connection, statement, new Properties()));
+        verify(connection, never()).setAutoCommit(anyBoolean());
+    }
+
+    @Test
+    public void testMicrosoftFetchesInBatchesWithServerCursors() throws SQLException {
+        Statement statement = mock(Statement.class);
+        when(statement.getFetchSize()).thenReturn(1000);
+        Properties connectionConfiguration = new Properties();
+
+        DbProduct dbProduct = DbProduct.getDbProduct(DB_NAME_MICROSOFT);
+
+        assertFalse(dbProduct.prepareStreaming(mock(Connection.class), statement, connectionConfiguration));
+        connectionConfiguration.setProperty("selectMethod", "cursor");
+        assertTrue(dbProduct.prepareStreaming(mock(Connection.class), statement, connectionConfiguration));
+    }
+
+    private static final String DB_NAME_H2 = "H2";
+
+    @Test
+    public void testH2Dates() {
+        DbProduct dbProduct = DbProduct.getDbProduct(DB_NAME_H2);
+
+        assertEquals(DbProduct.H2, dbProduct);
+        assertEquals("DATE '2001-01-01'", dbProduct.wrapDate(DATES[0]));
+    }
+
+    @Test
+    public void testH2EnablesLazyQueryExecution() throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement sessionStatement = mock(Statement.class);
+        when(connection.createStatement()).thenReturn(sessionStatement);
+        Statement statement = mock(Statement.class);
+        when(statement.getFetchSize()).thenReturn(1000);
+
+        DbProduct dbProduct = DbProduct.getDbProduct(DB_NAME_H2);
+
+        assertTrue(dbProduct.prepareStreaming(connection, statement, new Properties()));
+        verify(sessionStatement).execute("SET LAZY_QUERY_EXECUTION TRUE");
+        verify(sessionStatement).close();
+    }
+
+    @Test
+    public void testGroupsLikeGreenplum() {
+        for (DbProduct dbProduct : new DbProduct[]{DbProduct.POSTGRES, DbProduct.H2}) {
+            assertTrue(dbProduct.groupsLikeGreenplum(DataType.TEXT));
+            assertTrue(dbProduct.groupsLikeGreenplum(DataType.INTEGER));
+        }
+        // the strings are grouped differently
+        for (DbProduct dbProduct : new DbProduct[]{DbProduct.MYSQL, DbProduct.MICROSOFT, DbProduct.ORACLE}) {
+            assertFalse(dbProduct.groupsLikeGreenplum(DataType.TEXT));
+            assertFalse(dbProduct.groupsLikeGreenplum(DataType.VARCHAR));
+            assertFalse(dbProduct.groupsLikeGreenplum(DataType.BPCHAR));
+            assertTrue(dbProduct.groupsLikeGreenplum(DataType.INTEGER));
+            assertTrue(dbProduct.groupsLikeGreenplum(DataType.DATE));
+        }
+        assertFalse(DbProduct.S3_SELECT.groupsLikeGreenplum(DataType.INTEGER));
+    }
+
+    @Test
+    public void testInListLimits() {
+        assertEquals(Short.MAX_VALUE, DbProduct.POSTGRES.getMaxBindParameters());
+        assertEquals(Integer.MAX_VALUE, DbProduct.POSTGRES.getMaxInListSize());
+        assertEquals(1000, DbProduct.ORACLE.getMaxInListSize());
+        assertEquals(2000, DbProduct.MICROSOFT.getMaxBindParameters());
+        assertEquals(0, DbProduct.S3_SELECT.getMaxBindParameters());
+    }
+
+    private Connection mockConnection(String url) throws SQLException {
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getURL()).thenReturn(url);
+        return connection;
+    }
 }
@@ -19,14 +19,22 @@ package org.greenplum.pxf.plugins.json;
  * under the License.
  */
 
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.LineRecordReader;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.plugins.hdfs.HcfsType;
 import org.greenplum.pxf.plugins.hdfs.HdfsSplittableDataAccessor;
+import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.net.URI;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
 
@@ -38,12 +46,15 @@ import static org.apache.commons.lang.StringUtils.isEmpty;
  * <p>
  * When provided the <b>IDENTIFIER</b> indicates the member name used to determine the encapsulating json object to
  * return.
+ * <p>
+ * On write, the accessor writes the JSON objects generated by the {@link JsonResolver} to a new file, one object per
+ * line, optionally compressed with the codec set by the <b>COMPRESSION_CODEC</b> parameter.
  */
 public class JsonAccessor extends HdfsSplittableDataAccessor {
 
     public static final String IDENTIFIER_PARAM = "IDENTIFIER";
     public static final String RECORD_MAX_LENGTH_PARAM = "MAXLENGTH";
-    private static final String UNSUPPORTED_ERR_MESSAGE = "JSON accessor does not support write operation.";
+    private static final String COMPRESSION_CODEC_OPTION = "COMPRESSION_CODEC";
 
     /**
      * If provided indicates the member name which will be used to determine the encapsulating json object to return.
@@ -57,6 +68,10 @@ public class JsonAccessor extends HdfsSplittableDataAccessor {
      */
     private int maxRecordLength = Integer.MAX_VALUE;
 
+    private DataOutputStream dos;
+    private FSDataOutputStream fsdos;
+    private Path file;
+
     public JsonAccessor() {
         // Because HdfsSplittableDataAccessor doesn't use the InputFormat we set it to null.
         super(null);
@@ -89,35 +104,52 @@ public class JsonAccessor extends HdfsSplittableDataAccessor {
     }
 
     /**
-     * Opens the resource for write.
+     * Opens the file for write.
      *
      * @return true if the resource is successfully opened
-     * @throws Exception if opening the resource failed
+     * @throws IOException if opening the resource failed
      */
     @Override
-    public boolean openForWrite() {
-        throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+    public boolean openForWrite() throws IOException {
+        String compressCodec = context.getOption(COMPRESSION_CODEC_OPTION);
+        CompressionCodec codec = compressCodec != null ? getCodec(compressCodec) : null;
+        String fileName = HcfsType.getHcfsType(context).getUriForWrite(context, codec);
+
+        file = new Path(fileName);
+        FileSystem fs = FileSystem.get(URI.create(fileName), configuration);
+        HdfsUtilities.validateFile(file, fs);
+
+        // do not allow overwriting existing file
+        fsdos = fs.create(file, false);
+        dos = codec != null ? new DataOutputStream(codec.createOutputStream(fsdos)) : fsdos;
+        return true;
     }
 
     /**
-     * Writes the next object.
+     * Writes the JSON object of the row.
      *
      * @param onerow the object to be written
      * @return true if the write succeeded
-     * @throws Exception writing to the resource failed
+     * @throws IOException writing to the resource failed
      */
     @Override
-    public boolean writeNextObject(OneRow onerow) {
-        throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+    public boolean writeNextObject(OneRow onerow) throws IOException {
+        dos.write((byte[]) onerow.getData());
+        return true;
     }
 
     /**
-     * Closes the resource for write.
+     * Closes the output stream after done writing.
      *
-     * @throws Exception if closing the resource failed
+     * @throws IOException if closing the resource failed
      */
     @Override
-    public void closeForWrite() {
-        throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+    public void closeForWrite() throws IOException {
+        if ((dos != null) && (fsdos != null)) {
+            LOG.debug("Closing writing stream for path {}", file);
+            dos.flush();
+            fsdos.hsync();
+            dos.close();
+        }
     }
 }
@@ -0,0 +1,105 @@
+package org.greenplum.pxf.plugins.json;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The tree of the JSON paths the columns of the table refer to. Every node of
+ * the tree is a member of a JSON object, reached from the root of the record
+ * by the names on the path to the node. A column is attached to the node its
+ * normalized projection ends at; for array element columns (e.g. "a.b[2]")
+ * that is the node of the array.
+ * <p>
+ * The resolver walks the tokens of a record along the tree: members that have
+ * no node in the tree are skipped without being materialized, and the value
+ * of a node with columns attached is materialized once for all the columns of
+ * its subtree. On write, the resolver generates the members of every record
+ * in the order of the tree, which is the order of the columns of the table.
+ */
+class JsonProjectionTree {
+
+    private final Node root = new Node(0);
+
+    /**
+     * Adds the path of a column to the tree
+     *
+     * @param columnIndex the index of the column
+     * @param path        the normalized projection of the column
+     */
+    void addColumn(int columnIndex, String[] path) {
+        Node node = root;
+        node.subtreeColumns.add(columnIndex);
+        for (String name : path) {
+            Node parent = node;
+            node = parent.children.computeIfAbsent(name, k -> new Node(parent.depth + 1));
+            node.subtreeColumns.add(columnIndex);
+        }
+        node.columns.add(columnIndex);
+    }
+
+    /**
+     * @return the root of the tree, the record itself
+     */
+    Node getRoot() {
+        return root;
+    }
+
+    /**
+     * A member of the JSON record that at least one column refers to
+     */
+    static class Node {
+        private final int depth;
+        private final Map<String, Node> children = new LinkedHashMap<>();
+        private final List<Integer> columns = new ArrayList<>();
+        private final List<Integer> subtreeColumns = new ArrayList<>();
+
+        private Node(int depth) {
+            this.depth = depth;
+        }
+
+        /**
+         * @return the number of names on the path from the root to this node
+         */
+        int getDepth() {
+            return depth;
+        }
+
+        /**
+         * @param name the name of a member of this node
+         * @return the node of the member, or null if no column refers to it
+         */
+        Node getChild(String name) {
+            return children.get(name);
+        }
+
+        /**
+         * @return the nodes of the members of this node, by name, in the order they were added
+         */
+        Map<String, Node> getChildren() {
+            return children;
+        }
+
+        /**
+         * @return true if a column refers to the value of this node itself
+         */
+        boolean hasColumns() {
+            return !columns.isEmpty();
+        }
+
+        /**
+         * @return the columns that refer to the value of this node itself
+         */
+        List<Integer> getColumns() {
+            return columns;
+        }
+
+        /**
+         * @return the columns that refer to this node or to one of its descendants
+         */
+        List<Integer> getSubtreeColumns() {
+            return subtreeColumns;
+        }
+    }
+}
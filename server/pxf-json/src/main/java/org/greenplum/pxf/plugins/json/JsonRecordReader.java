@@ -31,11 +31,10 @@ import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.RecordReader;
-import org.greenplum.pxf.plugins.json.parser.PartitionedJsonParser;
+import org.greenplum.pxf.plugins.json.parser.JsonObjectScanner;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 
 /**
  * Multi-line json object reader. JsonRecordReader uses a member name (set by the <b>IDENTIFIER</b> PXF parameter) to
@@ -43,21 +42,23 @@ import java.nio.charset.StandardCharsets;
  * <p>
  * JsonRecordReader supports compressed input files as well.
  * <p>
- * As a safe guard set the optional <b>MAXLENGTH</b> parameter to limit the max size of a record.
+ * The objects are found by a {@link JsonObjectScanner} over the bytes of the file, and are copied to the value as
+ * UTF-8 bytes, without being decoded to strings.
+ * <p>
+ * As a safe guard set the optional <b>MAXLENGTH</b> parameter to limit the max size of a record, in bytes.
  */
 public class JsonRecordReader implements RecordReader<LongWritable, Text> {
 
     public static final String RECORD_MEMBER_IDENTIFIER = "json.input.format.record.identifier";
     public static final String RECORD_MAX_LENGTH = "multilinejsonrecordreader.maxlength";
     private static final Log LOG = LogFactory.getLog(JsonRecordReader.class);
-    private final String jsonMemberName;
     private CompressionCodecFactory compressionCodecs = null;
     private long start;
     private long pos;
     private long end;
     private int maxObjectLength;
     private InputStream is;
-    private PartitionedJsonParser parser;
+    private JsonObjectScanner scanner;
 
     /**
      * Create new multi-line json object reader.
@@ -68,7 +69,6 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
      */
     public JsonRecordReader(JobConf conf, FileSplit split) throws IOException {
 
-        this.jsonMemberName = conf.get(RECORD_MEMBER_IDENTIFIER);
         this.maxObjectLength = conf.getInt(RECORD_MAX_LENGTH, Integer.MAX_VALUE);
 
         start = split.getStart();
@@ -90,7 +90,7 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
             }
             is = fileIn;
         }
-        parser = new PartitionedJsonParser(is);
+        scanner = new JsonObjectScanner(is, conf.get(RECORD_MEMBER_IDENTIFIER));
         this.pos = start;
     }
 
@@ -102,24 +102,25 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
 
         while (pos < end) {
 
-            String json = parser.nextObjectContainingMember(jsonMemberName);
-            pos = start + parser.getBytesRead();
-            if (json == null) {
+            boolean found = scanner.nextObject();
+            pos = start + scanner.getBytesRead();
+            if (!found) {
                 return false;
             }
 
-            long jsonStart = pos - json.getBytes(StandardCharsets.UTF_8).length;
+            long jsonStart = start + scanner.getObjectPosition();
 
             // if the "begin-object" position is after the end of our split, we should ignore it
             if (jsonStart >= end) {
                 return false;
             }
 
-            if (json.length() > maxObjectLength) {
-                LOG.warn("Skipped JSON object of size " + json.length() + " at pos " + jsonStart);
+            int jsonLength = scanner.getObjectLength();
+            if (jsonLength > maxObjectLength) {
+                LOG.warn("Skipped JSON object of size " + jsonLength + " at pos " + jsonStart);
             } else {
                 key.set(jsonStart);
-                value.set(json);
+                value.set(scanner.getBuffer(), scanner.getObjectOffset(), jsonLength);
                 return true;
             }
         }
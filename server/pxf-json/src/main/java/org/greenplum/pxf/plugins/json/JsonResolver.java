@@ -19,12 +19,19 @@ package org.greenplum.pxf.plugins.json;
  * under the License.
  */
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import org.apache.hadoop.io.Text;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.error.BadRecordException;
+import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.model.Resolver;
@@ -33,15 +40,24 @@ import org.greenplum.pxf.api.utilities.SpringContext;
 import org.greenplum.pxf.plugins.hdfs.utilities.PgUtilities;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
+import java.util.stream.Collectors;
 
 /**
- * This JSON resolver for PXF will decode a given object from the {@link JsonAccessor} into a row for GPDB. It will
- * decode this data into a JsonNode and walk the tree for each column. It supports normal value mapping via projections
- * and JSON array indexing.
+ * This JSON resolver for PXF will decode a given object from the {@link JsonAccessor} into a row for GPDB. It walks
+ * the tokens of the record once, skipping the members that no projected column refers to, and only decodes the
+ * values of the referenced members into JsonNodes. It supports normal value mapping via projections and JSON array
+ * indexing.
+ * <p>
+ * On write, every row is generated as a single line JSON object with a streaming {@link JsonGenerator}. Column names
+ * with dots are written as nested objects (e.g. the columns "user.id" and "user.name" are written as the members of
+ * the "user" object), and Greenplum arrays are written as JSON arrays.
  */
 public class JsonResolver extends BasePlugin implements Resolver {
 
@@ -51,6 +67,14 @@ public class JsonResolver extends BasePlugin implements Resolver {
 
     private ArrayList<OneField> oneFieldList;
     private ColumnDescriptorCache[] columnDescriptorCache;
+    private JsonProjectionTree projectionTree;
+    // the JSON value of every column in the current record, null when the record has no such member
+    private JsonNode[] columnValues;
+
+    // the members of the written objects, created on the first write
+    private JsonProjectionTree writeTree;
+    private ByteArrayBuilder writeBuffer;
+    private JsonGenerator generator;
 
     public JsonResolver() {
         this(SpringContext.getBean(PgUtilities.class));
@@ -66,10 +90,16 @@ public class JsonResolver extends BasePlugin implements Resolver {
 
         // Precompute the column metadata. The metadata is used for mapping column names to json nodes.
         columnDescriptorCache = new ColumnDescriptorCache[context.getColumns()];
+        projectionTree = new JsonProjectionTree();
         for (int i = 0; i < context.getColumns(); ++i) {
             ColumnDescriptor cd = context.getColumn(i);
             columnDescriptorCache[i] = new ColumnDescriptorCache(cd);
+            // only the members referred to by projected columns are decoded
+            if (cd.isProjected()) {
+                projectionTree.addColumn(i, columnDescriptorCache[i].getNormalizedProjections());
+            }
         }
+        columnValues = new JsonNode[context.getColumns()];
     }
 
     @Override
@@ -79,20 +109,22 @@ public class JsonResolver extends BasePlugin implements Resolver {
         if (row == null || row.getData() == null) {
             throw new BadRecordException("json record is null");
         }
-        String jsonRecordAsText = row.getData().toString();
+        Object data = row.getData();
 
-        JsonNode root;
-        try {
-            root = MAPPER.readTree(jsonRecordAsText);
+        Arrays.fill(columnValues, null);
+        try (JsonParser parser = createParser(data)) {
+            if (parser.nextToken() != null) {
+                readValue(parser, projectionTree.getRoot());
+            }
         } catch (IOException e) {
             throw new BadRecordException(
-                    String.format("error while parsing json record '%s'. invalid JSON record\n%s", e.getMessage(), jsonRecordAsText), e);
+                    String.format("error while parsing json record '%s'. invalid JSON record\n%s", e.getMessage(), data), e);
         }
 
         // Iterate through the column definition and fetch our JSON data
-        for (ColumnDescriptorCache columnMetadata : columnDescriptorCache) {
-
-            JsonNode node = getChildJsonNode(root, columnMetadata.getNormalizedProjections());
+        for (int i = 0; i < columnDescriptorCache.length; i++) {
+            ColumnDescriptorCache columnMetadata = columnDescriptorCache[i];
+            JsonNode node = columnValues[i];
 
             // If this node is null or missing, add a null value here
             if (node == null || node.isMissingNode()) {
@@ -115,30 +147,261 @@ public class JsonResolver extends BasePlugin implements Resolver {
     }
 
     /**
-     * Constructs and sets the fields of a {@link OneRow}.
+     * Constructs a {@link OneRow} with the JSON object of the fields, as UTF-8 bytes terminated by a new line.
      *
      * @param record list of {@link OneField}
      * @return the constructed {@link OneRow}
-     * @throws UnsupportedOperationException if constructing a row from the fields failed
+     * @throws IOException if the JSON object can't be generated
      */
     @Override
-    public OneRow setFields(List<OneField> record) throws UnsupportedOperationException {
-        throw new UnsupportedOperationException("JSON resolver does not support write operation.");
+    public OneRow setFields(List<OneField> record) throws IOException {
+        if (generator == null) {
+            writeTree = buildWriteTree();
+            writeBuffer = new ByteArrayBuilder();
+            generator = MAPPER.getFactory().createGenerator(writeBuffer);
+            // the objects are separated by new lines
+            generator.setRootValueSeparator(null);
+        }
+        if (record.size() != columnDescriptorCache.length) {
+            throw new PxfRuntimeException(String.format("Expected %d fields in the record, but got %d",
+                    columnDescriptorCache.length, record.size()));
+        }
+
+        writeObject(writeTree.getRoot(), record);
+        generator.writeRaw('\n');
+        generator.flush();
+
+        byte[] json = writeBuffer.toByteArray();
+        writeBuffer.reset();
+        return new OneRow(null, json);
+    }
+
+    /**
+     * Builds the tree of the members of the written objects from the names of all the columns. Every column must
+     * refer to its own member: a column can't refer to an array element, or to an object that other columns refer
+     * to the members of.
+     *
+     * @return the tree of the members
+     */
+    private JsonProjectionTree buildWriteTree() {
+        JsonProjectionTree tree = new JsonProjectionTree();
+        for (int i = 0; i < columnDescriptorCache.length; i++) {
+            ColumnDescriptorCache columnMetadata = columnDescriptorCache[i];
+            if (columnMetadata.isArray()) {
+                throw new PxfRuntimeException(String.format("Column '%s' refers to an array element, which is not supported for write",
+                        columnMetadata.getColumnName()),
+                        "Use a Greenplum array column to write the JSON array.");
+            }
+            tree.addColumn(i, columnMetadata.getNormalizedProjections());
+        }
+        validateWriteTree(tree.getRoot());
+        return tree;
+    }
+
+    private void validateWriteTree(JsonProjectionTree.Node node) {
+        for (JsonProjectionTree.Node child : node.getChildren().values()) {
+            if (child.hasColumns() && child.getSubtreeColumns().size() > 1) {
+                throw new PxfRuntimeException(String.format("Columns %s refer to the same JSON member, which is not supported for write",
+                        child.getSubtreeColumns().stream()
+                                .map(i -> "'" + columnDescriptorCache[i].getColumnName() + "'")
+                                .collect(Collectors.joining(", "))));
+            }
+            validateWriteTree(child);
+        }
+    }
+
+    /**
+     * Generates the object of a node of the write tree, with the members of the node in the order of the columns
+     *
+     * @param node   the node of the object
+     * @param record the fields of the row
+     * @throws IOException if the object can't be generated
+     */
+    private void writeObject(JsonProjectionTree.Node node, List<OneField> record) throws IOException {
+        generator.writeStartObject();
+        for (Map.Entry<String, JsonProjectionTree.Node> member : node.getChildren().entrySet()) {
+            generator.writeFieldName(member.getKey());
+            JsonProjectionTree.Node child = member.getValue();
+            if (child.hasColumns()) {
+                int index = child.getColumns().get(0);
+                writeValue(columnDescriptorCache[index].getColumnType(), record.get(index).val);
+            } else {
+                writeObject(child, record);
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Generates the JSON value of a field. Numbers and booleans are written as JSON numbers and booleans, bytea as
+     * base64 encoded strings, arrays as JSON arrays and all other types as strings.
+     *
+     * @param type the Greenplum type of the column
+     * @param val  the value of the field
+     * @throws IOException if the value can't be generated
+     */
+    private void writeValue(DataType type, Object val) throws IOException {
+        if (val == null) {
+            generator.writeNull();
+            return;
+        }
+
+        switch (type) {
+            case BOOLEAN:
+                generator.writeBoolean((Boolean) val);
+                break;
+            case SMALLINT:
+            case INTEGER:
+                generator.writeNumber(((Number) val).intValue());
+                break;
+            case BIGINT:
+                generator.writeNumber(((Number) val).longValue());
+                break;
+            case REAL:
+                generator.writeNumber(((Number) val).floatValue());
+                break;
+            case FLOAT8:
+                generator.writeNumber(((Number) val).doubleValue());
+                break;
+            case NUMERIC:
+                writeNumberText(val.toString());
+                break;
+            case BYTEA:
+                generator.writeBinary((byte[]) val);
+                break;
+            default:
+                if (type.isArrayType()) {
+                    writeArray(type.getTypeElem(), val.toString());
+                } else {
+                    generator.writeString(val.toString());
+                }
+        }
+    }
+
+    /**
+     * Generates the JSON array of a one-dimensional Greenplum array
+     *
+     * @param elementType the Greenplum type of the elements of the array
+     * @param value       the text representation of the Greenplum array
+     * @throws IOException if the array can't be generated
+     */
+    private void writeArray(DataType elementType, String value) throws IOException {
+        generator.writeStartArray();
+        if (!"{}".equals(value)) {
+            for (String element : pgUtilities.splitArray(value)) {
+                if (element == null) {
+                    generator.writeNull();
+                    continue;
+                }
+                switch (elementType) {
+                    case BOOLEAN:
+                        generator.writeBoolean(pgUtilities.parseBoolLiteral(element));
+                        break;
+                    case SMALLINT:
+                    case INTEGER:
+                    case BIGINT:
+                    case REAL:
+                    case FLOAT8:
+                    case NUMERIC:
+                        writeNumberText(element);
+                        break;
+                    case BYTEA:
+                        ByteBuffer bytes = pgUtilities.parseByteaLiteral(element);
+                        generator.writeBinary(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+                        break;
+                    default:
+                        generator.writeString(element);
+                }
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Generates the text of a Greenplum number as a JSON number, or as a string for the values that are not valid
+     * JSON numbers (NaN and the infinities)
+     */
+    private void writeNumberText(String number) throws IOException {
+        char first = number.charAt(0);
+        if (Character.isDigit(first) || (first == '-' && number.length() > 1 && Character.isDigit(number.charAt(1)))) {
+            generator.writeNumber(number);
+        } else {
+            generator.writeString(number);
+        }
+    }
+
+    /**
+     * Creates a parser for the record. Records read by the {@link JsonAccessor} are parsed from their UTF-8 bytes,
+     * without decoding them into a String first.
+     *
+     * @param data the record
+     * @return the parser of the record
+     * @throws IOException when the parser can't be created
+     */
+    private JsonParser createParser(Object data) throws IOException {
+        if (data instanceof Text) {
+            Text text = (Text) data;
+            return MAPPER.getFactory().createParser(text.getBytes(), 0, text.getLength());
+        }
+        return MAPPER.getFactory().createParser(data.toString());
+    }
+
+    /**
+     * Reads the value the parser is positioned at, for the given node of the projection tree. When columns refer to
+     * the value itself, the value is decoded into a JsonNode, and the values of all the columns of the subtree are
+     * taken from it. Otherwise, only the members of the value that have a node in the tree are read, the other
+     * members are skipped. When the method returns, the parser is positioned at the last token of the value.
+     *
+     * @param parser   the parser, positioned at the first token of the value
+     * @param treeNode the node of the projection tree for the value
+     * @throws IOException when the value is not valid JSON
+     */
+    private void readValue(JsonParser parser, JsonProjectionTree.Node treeNode) throws IOException {
+        // a member that appears more than once takes the last value, like in a decoded tree
+        for (int column : treeNode.getSubtreeColumns()) {
+            columnValues[column] = null;
+        }
+
+        if (treeNode.hasColumns()) {
+            JsonNode value = MAPPER.readTree(parser);
+            if (value == null) {
+                value = NullNode.getInstance();
+            }
+            for (int column : treeNode.getSubtreeColumns()) {
+                columnValues[column] = getChildJsonNode(value, columnDescriptorCache[column].getNormalizedProjections(), treeNode.getDepth());
+            }
+            return;
+        }
+
+        // members of arrays and scalars are missing, the same as on a decoded tree
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            JsonProjectionTree.Node child = treeNode.getChild(parser.getCurrentName());
+            parser.nextToken();
+            if (child == null) {
+                parser.skipChildren();
+            } else {
+                readValue(parser, child);
+            }
+        }
     }
 
     /**
-     * Iterates down the root node to the child JSON node defined by the projs path.
+     * Iterates down the given node to the child JSON node defined by the projs path.
      *
-     * @param root  node to to start the traversal from.
+     * @param node  node to to start the traversal from.
      * @param projs defines the path from the root to the desired child node.
-     * @return Returns the child node defined by the root and projs path.
+     * @param start the index in projs of the first step from the given node.
+     * @return Returns the child node defined by the node and projs path.
      */
-    private JsonNode getChildJsonNode(JsonNode root, String[] projs) {
+    private JsonNode getChildJsonNode(JsonNode node, String[] projs, int start) {
 
         // Iterate through all the tokens to the desired JSON node
-        JsonNode node = root;
-        for (String proj : projs) {
-            node = node.path(proj);
+        for (int i = start; i < projs.length; i++) {
+            node = node.path(projs[i]);
         }
 
         return node;
@@ -0,0 +1,342 @@
+package org.greenplum.pxf.plugins.json.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A byte oriented scanner that finds the JSON objects containing a given member in JSON text, starting from an
+ * arbitrary position inside the text. The outermost object that has the member is returned, the objects nested in
+ * it are not searched. The input is not decoded to characters: the structural bytes of JSON (quotes, braces,
+ * escapes and the name separator) are all ASCII, and never appear inside the encoding of a multi-byte UTF-8
+ * character.
+ * <p>
+ * The input is read into a buffer that is reused from one object to the next; the buffer only grows when a single
+ * object doesn't fit in it. The objects are returned as slices of the buffer, that are valid until the next call to
+ * {@link #nextObject()}.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class JsonObjectScanner {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final byte QUOTE = '"';
+    private static final byte BACKSLASH = '\\';
+    private static final byte START_BRACE = '{';
+    private static final byte END_BRACE = '}';
+    private static final byte NAME_SEPARATOR = ':';
+
+    private enum MemberSearchState {
+        SEARCHING,
+
+        FOUND_STRING_NAME,
+
+        IN_MATCHING_OBJECT
+    }
+
+    private final InputStream in;
+    private final byte[] memberName;
+
+    private byte[] buffer;
+    // the position in the stream of the first byte of the buffer
+    private long bufferPosition;
+    // the number of bytes in the buffer
+    private int limit;
+    // the index in the buffer of the next byte to scan
+    private int next;
+    private boolean endOfStream;
+
+    // the positions in the stream of the begin-objects enclosing the scanned byte
+    private long[] objectStack = new long[16];
+    private int objectStackSize;
+    private boolean insideString;
+    private boolean escaped;
+    private long stringStart;
+
+    private int objectOffset;
+    private int objectLength;
+    private long objectPosition;
+
+    /**
+     * Creates a scanner with a buffer of the default size
+     *
+     * @param in         the stream to read the JSON text from
+     * @param memberName the name of the member the returned objects contain
+     */
+    public JsonObjectScanner(InputStream in, String memberName) {
+        this(in, memberName, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a scanner
+     *
+     * @param in         the stream to read the JSON text from
+     * @param memberName the name of the member the returned objects contain
+     * @param bufferSize the initial size of the buffer
+     */
+    public JsonObjectScanner(InputStream in, String memberName, int bufferSize) {
+        this.in = in;
+        this.memberName = memberName.getBytes(StandardCharsets.UTF_8);
+        this.buffer = new byte[Math.max(1, bufferSize)];
+    }
+
+    /**
+     * Finds the next JSON object that contains a member with the name of the scanner. When a member is found inside
+     * nested objects, the innermost object that contains it is returned.
+     *
+     * @return true if an object was found, false if the end of the stream was reached
+     * @throws IOException when the stream can't be read
+     */
+    public boolean nextObject() throws IOException {
+        if (endOfStream || !scanToFirstBeginObject()) {
+            return false;
+        }
+
+        // the position in the stream of the first byte of the current object
+        long objectStart = position(next - 1);
+        objectStackSize = 0;
+        push(objectStart);
+        insideString = false;
+        escaped = false;
+        MemberSearchState memberState = MemberSearchState.SEARCHING;
+        int objectCount = 0;
+
+        while (true) {
+            if (next == limit) {
+                boolean keep = memberState != MemberSearchState.SEARCHING || objectStackSize > 0;
+                if (!fill(keep ? objectStart : -1)) {
+                    return false;
+                }
+            }
+
+            if (insideString) {
+                if (scanString() && memberState == MemberSearchState.SEARCHING
+                        && objectStackSize > 0 && isMemberName(stringStart, position(next - 1))) {
+                    memberState = MemberSearchState.FOUND_STRING_NAME;
+                }
+                continue;
+            }
+
+            byte b = buffer[next++];
+
+            if (memberState == MemberSearchState.FOUND_STRING_NAME) {
+                // keep skipping whitespaces until we hit a different token
+                if (isWhitespace(b)) {
+                    continue;
+                }
+                if (b == NAME_SEPARATOR) {
+                    // found our member, the object is the innermost one that contains it
+                    memberState = MemberSearchState.IN_MATCHING_OBJECT;
+                    objectStart = objectStack[objectStackSize - 1];
+                    objectStackSize = 0;
+                    objectCount = 0;
+                    continue;
+                }
+                // the string wasn't a member name, keep searching from this token
+                memberState = MemberSearchState.SEARCHING;
+            }
+
+            switch (b) {
+                case QUOTE:
+                    insideString = true;
+                    stringStart = position(next);
+                    break;
+                case START_BRACE:
+                    if (memberState == MemberSearchState.IN_MATCHING_OBJECT) {
+                        objectCount++;
+                    } else {
+                        if (objectStackSize == 0) {
+                            objectStart = position(next - 1);
+                        }
+                        push(position(next - 1));
+                    }
+                    break;
+                case END_BRACE:
+                    if (memberState == MemberSearchState.IN_MATCHING_OBJECT) {
+                        if (--objectCount < 0) {
+                            // we reached the "}" at the same level as the member we found
+                            objectPosition = objectStart;
+                            objectOffset = (int) (objectStart - bufferPosition);
+                            objectLength = next - objectOffset;
+                            return true;
+                        }
+                    } else if (objectStackSize > 0) {
+                        objectStackSize--;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return the buffer that holds the last object found
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the offset in the buffer of the last object found
+     */
+    public int getObjectOffset() {
+        return objectOffset;
+    }
+
+    /**
+     * @return the length in bytes of the last object found
+     */
+    public int getObjectLength() {
+        return objectLength;
+    }
+
+    /**
+     * @return the number of bytes read from the stream before the last object found
+     */
+    public long getObjectPosition() {
+        return objectPosition;
+    }
+
+    /**
+     * @return the number of bytes scanned from the stream, up to the end of the last object found
+     */
+    public long getBytesRead() {
+        return position(next);
+    }
+
+    /**
+     * @return true if the end of the stream has been reached and false otherwise
+     */
+    public boolean isEndOfStream() {
+        return endOfStream;
+    }
+
+    /**
+     * Skips the bytes up to and including the first begin-object. The scanner doesn't know whether it starts inside
+     * a string, so it only skips the begin-objects that follow a backslash.
+     *
+     * @return true if a begin-object was found, false if the end of the stream was reached
+     */
+    private boolean scanToFirstBeginObject() throws IOException {
+        byte prev = next > 0 ? buffer[next - 1] : 0;
+        while (true) {
+            if (next == limit) {
+                if (!fill(-1)) {
+                    return false;
+                }
+            }
+            byte[] buf = buffer;
+            int i = next;
+            int n = limit;
+            while (i < n) {
+                byte b = buf[i++];
+                if (b == START_BRACE && prev != BACKSLASH) {
+                    next = i;
+                    return true;
+                }
+                prev = b;
+            }
+            next = i;
+        }
+    }
+
+    /**
+     * Skips the bytes of the current string up to and including its end quote, or up to the end of the buffer.
+     *
+     * @return true if the end of the string was reached
+     */
+    private boolean scanString() {
+        byte[] buf = buffer;
+        int i = next;
+        int n = limit;
+        if (escaped) {
+            escaped = false;
+            i++;
+        }
+        while (i < n) {
+            byte b = buf[i++];
+            if (b == QUOTE) {
+                next = i;
+                insideString = false;
+                return true;
+            }
+            if (b == BACKSLASH) {
+                if (i < n) {
+                    i++;
+                } else {
+                    escaped = true;
+                }
+            }
+        }
+        next = i;
+        return false;
+    }
+
+    /**
+     * Compares the raw bytes of a string, without its quotes, to the member name
+     *
+     * @param start the position in the stream of the first byte of the string
+     * @param end   the position in the stream of the end quote of the string
+     */
+    private boolean isMemberName(long start, long end) {
+        if (end - start != memberName.length || start < bufferPosition) {
+            return false;
+        }
+        int from = (int) (start - bufferPosition);
+        for (int i = 0; i < memberName.length; i++) {
+            if (buffer[from + i] != memberName[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads more bytes from the stream into the buffer. The bytes from the given position on are kept in the buffer,
+     * the buffer grows when they fill it.
+     *
+     * @param keepFrom the position in the stream of the first byte to keep, or -1 to keep nothing
+     * @return true if bytes were read, false if the end of the stream was reached
+     */
+    private boolean fill(long keepFrom) throws IOException {
+        int keep = keepFrom < 0 ? next : (int) (keepFrom - bufferPosition);
+        if (keep > 0) {
+            System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+            bufferPosition += keep;
+            limit -= keep;
+            next -= keep;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        int read;
+        do {
+            read = in.read(buffer, limit, buffer.length - limit);
+        } while (read == 0);
+
+        if (read < 0) {
+            endOfStream = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    private void push(long position) {
+        if (objectStackSize == objectStack.length) {
+            objectStack = Arrays.copyOf(objectStack, objectStackSize * 2);
+        }
+        objectStack[objectStackSize++] = position;
+    }
+
+    private long position(int index) {
+        return bufferPosition + index;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b >= 0 && b <= ' ' && Character.isWhitespace(b);
+    }
+}
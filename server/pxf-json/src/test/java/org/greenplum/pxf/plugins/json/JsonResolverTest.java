@@ -1,6 +1,8 @@
 package org.greenplum.pxf.plugins.json;
 
+import org.apache.hadoop.io.Text;
 import org.greenplum.pxf.api.error.BadRecordException;
+import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.io.DataType;
@@ -10,7 +12,10 @@ import org.greenplum.pxf.plugins.hdfs.utilities.PgUtilities;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
@@ -403,16 +408,151 @@ public class JsonResolverTest {
     }
 
     @Test
-    public void testSetFieldsShouldFail() throws UnsupportedOperationException {
+    public void testGetFieldsFromNestedPaths() throws Exception {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("user.id", DataType.BIGINT.getOID(), 0, "int8", null, true));
+        columns.add(new ColumnDescriptor("user.name", DataType.TEXT.getOID(), 1, "text", null, true));
+        columns.add(new ColumnDescriptor("payload.tags[1]", DataType.TEXT.getOID(), 2, "text", null, true));
+        columns.add(new ColumnDescriptor("payload", DataType.TEXT.getOID(), 3, "text", null, false));
+        columns.add(new ColumnDescriptor("user", DataType.TEXT.getOID(), 4, "text", null, true));
+        columns.add(new ColumnDescriptor("missing.path", DataType.INTEGER.getOID(), 5, "int4", null, true));
+        initializeResolver(columns);
 
-        context.setMetadata(null);
+        //language=JSON
+        String jsonStr = "{" +
+                "\"payload\":{\"deep\":{\"deeper\":[1,{\"a\":[true,null]}]},\"tags\":[\"x\",\"y\",\"z\"]}," +
+                "\"user\":{\"id\":42,\"name\":\"jane\"}," +
+                "\"missing\":17" +
+                "}";
+        List<OneField> fields = assertRow(new OneRow(123, new Text(jsonStr)), 6);
+
+        assertField(fields, 0, 42L, DataType.BIGINT);
+        assertField(fields, 1, "jane", DataType.TEXT);
+        assertField(fields, 2, "y", DataType.TEXT);
+        // columns that are not projected are not read
+        assertField(fields, 3, null, DataType.TEXT);
+        assertField(fields, 4, "{\"id\":42,\"name\":\"jane\"}", DataType.TEXT);
+        // members of scalars are missing
+        assertField(fields, 5, null, DataType.INTEGER);
+    }
+
+    @Test
+    public void testGetFieldsWithDuplicateMembers() throws Exception {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("a.b", DataType.INTEGER.getOID(), 0, "int4", null, true));
+        columns.add(new ColumnDescriptor("a.c", DataType.INTEGER.getOID(), 1, "int4", null, true));
+        initializeResolver(columns);
+
+        // the last value of a member wins
+        String jsonStr = "{\"a\":{\"b\":1},\"a\":{\"c\":2}}";
+        List<OneField> fields = assertRow(new OneRow(123, jsonStr), 2);
+
+        assertField(fields, 0, null, DataType.INTEGER);
+        assertField(fields, 1, 2, DataType.INTEGER);
+    }
+
+    @Test
+    public void testGetFieldsShouldFailOnMalformedSkippedMember() {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null, true));
+        initializeResolver(columns);
+
+        String jsonStr = "{\"skipped\":{\"a\":[1,2}},\"id\":1}";
+
+        BadRecordException e = assertThrows(BadRecordException.class,
+                () -> resolver.getFields(new OneRow(123, jsonStr)));
+        assertTrue(e.getMessage().startsWith("error while parsing json record 'Unexpected close marker '}'"));
+    }
+
+    @Test
+    public void testSetFields() throws Exception {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("id", DataType.BIGINT.getOID(), 0, "int8", null));
+        columns.add(new ColumnDescriptor("user.name", DataType.TEXT.getOID(), 1, "text", null));
+        columns.add(new ColumnDescriptor("user.active", DataType.BOOLEAN.getOID(), 2, "bool", null));
+        columns.add(new ColumnDescriptor("score", DataType.FLOAT8.getOID(), 3, "float8", null));
+        columns.add(new ColumnDescriptor("ratio", DataType.REAL.getOID(), 4, "float4", null));
+        columns.add(new ColumnDescriptor("amount", DataType.NUMERIC.getOID(), 5, "numeric", null));
+        columns.add(new ColumnDescriptor("user.address.zip", DataType.INTEGER.getOID(), 6, "int4", null));
+        columns.add(new ColumnDescriptor("tags", DataType.TEXTARRAY.getOID(), 7, "_text", null));
+        columns.add(new ColumnDescriptor("counts", DataType.INT4ARRAY.getOID(), 8, "_int4", null));
+        columns.add(new ColumnDescriptor("flags", DataType.BOOLARRAY.getOID(), 9, "_bool", null));
+        columns.add(new ColumnDescriptor("data", DataType.BYTEA.getOID(), 10, "bytea", null));
+        columns.add(new ColumnDescriptor("created", DataType.TIMESTAMP.getOID(), 11, "timestamp", null));
+        columns.add(new ColumnDescriptor("comment", DataType.TEXT.getOID(), 12, "text", null));
+        context.setTupleDescription(columns);
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        List<OneField> record = new ArrayList<>();
+        record.add(new OneField(DataType.BIGINT.getOID(), 42L));
+        record.add(new OneField(DataType.TEXT.getOID(), "jane \"jj\" doe"));
+        record.add(new OneField(DataType.BOOLEAN.getOID(), true));
+        record.add(new OneField(DataType.FLOAT8.getOID(), 1.5));
+        record.add(new OneField(DataType.REAL.getOID(), 0.25f));
+        record.add(new OneField(DataType.TEXT.getOID(), "12345678901234567890.123"));
+        record.add(new OneField(DataType.INTEGER.getOID(), 94105));
+        record.add(new OneField(DataType.TEXT.getOID(), "{a,\"b c\",NULL}"));
+        record.add(new OneField(DataType.TEXT.getOID(), "{1,-2,3}"));
+        record.add(new OneField(DataType.TEXT.getOID(), "{t,f}"));
+        record.add(new OneField(DataType.BYTEA.getOID(), new byte[]{1, 2, 3}));
+        record.add(new OneField(DataType.TEXT.getOID(), "2021-01-01 10:11:12"));
+        record.add(new OneField(DataType.TEXT.getOID(), null));
+
+        OneRow row = resolver.setFields(record);
+
+        assertEquals("{\"id\":42,\"user\":{\"name\":\"jane \\\"jj\\\" doe\",\"active\":true,\"address\":{\"zip\":94105}}," +
+                        "\"score\":1.5,\"ratio\":0.25,\"amount\":12345678901234567890.123," +
+                        "\"tags\":[\"a\",\"b c\",null],\"counts\":[1,-2,3],\"flags\":[true,false]," +
+                        "\"data\":\"AQID\",\"created\":\"2021-01-01 10:11:12\",\"comment\":null}\n",
+                new String((byte[]) row.getData(), StandardCharsets.UTF_8));
+
+        // the buffer of the generator is reused for the next row
+        record.set(0, new OneField(DataType.BIGINT.getOID(), 43L));
+        record.set(5, new OneField(DataType.TEXT.getOID(), "NaN"));
+        record.set(7, new OneField(DataType.TEXT.getOID(), "{}"));
+        row = resolver.setFields(record);
+
+        String json = new String((byte[]) row.getData(), StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("{\"id\":43,"));
+        assertTrue(json.contains("\"amount\":\"NaN\",\"tags\":[],"));
+        assertTrue(json.endsWith("}\n"));
+    }
+
+    @Test
+    public void testSetFieldsArrayElementColumnIsNotSupported() {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("tags[0]", DataType.TEXT.getOID(), 0, "text", null));
+        context.setTupleDescription(columns);
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        List<OneField> record = Collections.singletonList(new OneField(DataType.TEXT.getOID(), "a"));
+        Exception e = assertThrows(PxfRuntimeException.class, () -> resolver.setFields(record));
+        assertEquals("Column 'tags[0]' refers to an array element, which is not supported for write", e.getMessage());
+    }
+
+    @Test
+    public void testSetFieldsColumnsOfTheSameMemberAreNotSupported() {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("user", DataType.TEXT.getOID(), 0, "text", null));
+        columns.add(new ColumnDescriptor("user.name", DataType.TEXT.getOID(), 1, "text", null));
+        context.setTupleDescription(columns);
         resolver.setRequestContext(context);
         resolver.afterPropertiesSet();
-        Exception e = assertThrows(UnsupportedOperationException.class, () -> resolver.setFields(null));
-        assertEquals("JSON resolver does not support write operation.", e.getMessage());
+
+        List<OneField> record = Arrays.asList(new OneField(DataType.TEXT.getOID(), "a"), new OneField(DataType.TEXT.getOID(), "b"));
+        Exception e = assertThrows(PxfRuntimeException.class, () -> resolver.setFields(record));
+        assertEquals("Columns 'user', 'user.name' refer to the same JSON member, which is not supported for write", e.getMessage());
     }
 
     // helper functions for testing
+    private void initializeResolver(List<ColumnDescriptor> columns) {
+        context.setTupleDescription(columns);
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+    }
+
     private List<OneField> assertRow(OneRow row, int numFields) throws Exception {
         List<OneField> fields = resolver.getFields(row);
         assertEquals(numFields, fields.size());
@@ -0,0 +1,100 @@
+package org.greenplum.pxf.plugins.json;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.compress.GzipCodec;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hdfs.utilities.PgUtilities;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonWriteTest {
+
+    private Accessor accessor;
+    private Resolver resolver;
+    private RequestContext context;
+
+    @TempDir
+    File temp; // must be non-private
+
+    @BeforeEach
+    public void setup() {
+        List<ColumnDescriptor> columnDescriptors = new ArrayList<>();
+        columnDescriptors.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        columnDescriptors.add(new ColumnDescriptor("user.name", DataType.TEXT.getOID(), 1, "text", null));
+
+        accessor = new JsonAccessor();
+        resolver = new JsonResolver(new PgUtilities());
+        context = new RequestContext();
+        Configuration configuration = new Configuration();
+        configuration.set("pxf.fs.basePath", "/");
+
+        context.setConfig("fakeConfig");
+        context.setServerName("fakeServerName");
+        context.setUser("fakeUser");
+        context.setSegmentId(4);
+        context.setTransactionId("XID-XYZ-123456");
+        context.setRequestType(RequestContext.RequestType.WRITE_BRIDGE);
+        context.setTupleDescription(columnDescriptors);
+        context.setConfiguration(configuration);
+        context.setDataSource(temp + "/out/");
+    }
+
+    @Test
+    public void testWriteNewlineDelimitedJson() throws Exception {
+        writeRows();
+
+        File file = new File(temp, "out/XID-XYZ-123456_4");
+        assertTrue(file.exists());
+        try (InputStream in = new FileInputStream(file)) {
+            assertEquals("{\"id\":1,\"user\":{\"name\":\"jane\"}}\n{\"id\":2,\"user\":{\"name\":null}}\n",
+                    IOUtils.toString(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testWriteCompressedJson() throws Exception {
+        context.addOption("COMPRESSION_CODEC", GzipCodec.class.getName());
+        writeRows();
+
+        File file = new File(temp, "out/XID-XYZ-123456_4.gz");
+        assertTrue(file.exists());
+        try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+            assertEquals("{\"id\":1,\"user\":{\"name\":\"jane\"}}\n{\"id\":2,\"user\":{\"name\":null}}\n",
+                    IOUtils.toString(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeRows() throws Exception {
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        assertTrue(accessor.openForWrite());
+        List<OneField> record = Arrays.asList(new OneField(DataType.INTEGER.getOID(), 1), new OneField(DataType.TEXT.getOID(), "jane"));
+        assertTrue(accessor.writeNextObject(resolver.setFields(record)));
+        record = Arrays.asList(new OneField(DataType.INTEGER.getOID(), 2), new OneField(DataType.TEXT.getOID(), null));
+        assertTrue(accessor.writeNextObject(resolver.setFields(record)));
+        accessor.closeForWrite();
+    }
+}
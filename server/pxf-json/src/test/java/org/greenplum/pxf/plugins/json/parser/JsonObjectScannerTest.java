@@ -0,0 +1,153 @@
+package org.greenplum.pxf.plugins.json.parser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonObjectScannerTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 16, 64 * 1024})
+    public void testNoSeek(int bufferSize) throws IOException {
+        File testsDir = new File("src/test/resources/parser-tests/noseek");
+        File[] jsonFiles = testsDir.listFiles((file, s) -> s.endsWith(".json") && !s.contains("expected"));
+        assertNotNull(jsonFiles);
+
+        for (File jsonFile : jsonFiles) {
+            File[] expectedFiles = testsDir.listFiles((file, s) -> s.contains(jsonFile.getName()) && s.contains("expected"));
+            assertNotNull(expectedFiles);
+            Arrays.sort(expectedFiles);
+
+            try (InputStream jsonInputStream = new FileInputStream(jsonFile)) {
+                assertObjects(new JsonObjectScanner(jsonInputStream, "name", bufferSize), expectedFiles, jsonFile.getName());
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 16, 64 * 1024})
+    public void testSeek(int bufferSize) throws IOException {
+        File[] dirs = new File("src/test/resources/parser-tests/seek").listFiles();
+        assertNotNull(dirs);
+
+        for (File jsonDir : dirs) {
+            File[] expectedFiles = jsonDir.listFiles((file, s) -> s.contains("expected"));
+            assertNotNull(expectedFiles);
+            Arrays.sort(expectedFiles);
+
+            byte[] input = FileUtils.readFileToByteArray(new File(jsonDir, "input.json"));
+            int seek = new String(input, StandardCharsets.UTF_8).indexOf("<SEEK>") + "<SEEK>".length();
+            try (InputStream jsonInputStream = new ByteArrayInputStream(input, seek, input.length - seek)) {
+                assertObjects(new JsonObjectScanner(jsonInputStream, "name", bufferSize), expectedFiles, jsonDir.getName());
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 64 * 1024})
+    public void testOutermostObjectsContainingMember(int bufferSize) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        for (String name : new String[]{"tweets-pp.json", "tweets-pp-with-delete.json", "variable-size-objects.json"}) {
+            File file = new File("src/test/resources/" + name);
+            List<JsonNode> expected = new ArrayList<>();
+            try (MappingIterator<JsonNode> values = mapper.readerFor(JsonNode.class).readValues(file)) {
+                while (values.hasNext()) {
+                    collectObjectsContainingMember(values.next(), "created_at", expected);
+                }
+            }
+
+            List<JsonNode> actual = new ArrayList<>();
+            try (InputStream jsonInputStream = new FileInputStream(file)) {
+                JsonObjectScanner scanner = new JsonObjectScanner(jsonInputStream, "created_at", bufferSize);
+                while (scanner.nextObject()) {
+                    actual.add(mapper.readTree(objectAsString(scanner)));
+                }
+                assertTrue(scanner.isEndOfStream());
+                assertEquals(file.length(), scanner.getBytesRead());
+            }
+
+            assertEquals(expected, actual, name);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 64 * 1024})
+    public void testPositionsAreInBytes(int bufferSize) throws IOException {
+        String json = "[{\"ïd\":\"ä\"}, {\"ïd\":\"b\\\"}\"}]";
+        JsonObjectScanner scanner = new JsonObjectScanner(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "ïd", bufferSize);
+
+        assertTrue(scanner.nextObject());
+        assertEquals("{\"ïd\":\"ä\"}", objectAsString(scanner));
+        assertEquals(1, scanner.getObjectPosition());
+        assertEquals(13, scanner.getBytesRead());
+
+        assertTrue(scanner.nextObject());
+        assertEquals("{\"ïd\":\"b\\\"}\"}", objectAsString(scanner));
+        assertEquals(15, scanner.getObjectPosition());
+        assertEquals(29, scanner.getBytesRead());
+
+        assertFalse(scanner.nextObject());
+        assertEquals(30, scanner.getBytesRead());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 64 * 1024})
+    public void testMemberNameAsValueIsNotMatched(int bufferSize) throws IOException {
+        String json = "{\"child\":{\"a\":\"id\"},\"id\":1,\"other\":{\"id\":2}}";
+        JsonObjectScanner scanner = new JsonObjectScanner(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "id", bufferSize);
+
+        assertTrue(scanner.nextObject());
+        assertEquals(json, objectAsString(scanner));
+        assertFalse(scanner.nextObject());
+    }
+
+    private void assertObjects(JsonObjectScanner scanner, File[] expectedFiles, String name) throws IOException {
+        for (File expectedFile : expectedFiles) {
+            String expected = trimWhitespaces(FileUtils.readFileToString(expectedFile, Charset.defaultCharset()));
+            assertTrue(scanner.nextObject(), name + "/" + expectedFile.getName());
+            assertEquals(expected, trimWhitespaces(objectAsString(scanner)), name + "/" + expectedFile.getName());
+        }
+        assertFalse(scanner.nextObject(), name);
+    }
+
+    /**
+     * Collects the objects that have the member, in document order, without
+     * descending into the objects that were collected.
+     */
+    private void collectObjectsContainingMember(JsonNode node, String member, List<JsonNode> objects) {
+        if (node.isObject() && node.has(member)) {
+            objects.add(node);
+            return;
+        }
+        for (JsonNode child : node) {
+            collectObjectsContainingMember(child, member, objects);
+        }
+    }
+
+    private String objectAsString(JsonObjectScanner scanner) {
+        return new String(scanner.getBuffer(), scanner.getObjectOffset(), scanner.getObjectLength(), StandardCharsets.UTF_8);
+    }
+
+    private String trimWhitespaces(String s) {
+        return s.replaceAll("[\\n\\t\\r \\t]+", " ").trim();
+    }
+}
@@ -119,6 +119,13 @@ public class HttpRequestParser implements RequestParser<MultiValueMap<String, St
         context.setAccessor(params.removeUserProperty("ACCESSOR"));
         context.setAggType(EnumAggregationType.getAggregationType(params.removeOptionalProperty("AGG-TYPE")));
 
+        String aggGroupBy = params.removeOptionalProperty("AGG-GROUP-BY");
+        if (StringUtils.isNotBlank(aggGroupBy)) {
+            for (String index : aggGroupBy.split(",")) {
+                context.getAggGroupBy().add(parsePositiveIntOrError(index.trim(), "AGG-GROUP-BY"));
+            }
+        }
+
         context.setDataSource(params.removeProperty("DATA-DIR"));
 
         String filterString = params.removeOptionalProperty("FILTER");
@@ -21,22 +21,28 @@ package org.greenplum.pxf.service.bridge;
 
 import org.apache.commons.collections.map.LRUMap;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.ReadVectorizedResolver;
 import org.greenplum.pxf.api.StatsAccessor;
 import org.greenplum.pxf.api.io.Writable;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.service.utilities.BasePluginFactory;
 import org.greenplum.pxf.service.utilities.GSSFailureHandler;
 
-import java.util.LinkedList;
+import java.util.Deque;
 
 /**
- * Bridge class optimized for aggregate queries.
+ * Bridge class optimized for aggregate queries. The accessor answers the
+ * aggregate from the statistics of the data source; when the statistics of
+ * the split can't answer it, the split is read like in a {@link ReadBridge}.
  */
 public class AggBridge extends ReadBridge implements Bridge {
 
     /* Avoid resolving rows with the same key twice */
     private LRUMap outputCache;
 
+    /* True if the accessor answers the aggregate from statistics */
+    private boolean useStats;
+
     public AggBridge(BasePluginFactory pluginFactory, RequestContext context, GSSFailureHandler failureHandler) {
         super(pluginFactory, context, failureHandler);
     }
@@ -46,11 +52,15 @@ public class AggBridge extends ReadBridge implements Bridge {
      */
     @Override
     public boolean beginIteration() throws Exception {
-        // TODO: enhance with failureHandler, for now this bridge is not actually used
+        // TODO: enhance with failureHandler
         /* Initialize LRU cache with 100 items*/
         outputCache = new LRUMap();
         boolean openForReadStatus = accessor.openForRead();
-        ((StatsAccessor) accessor).retrieveStats();
+        useStats = ((StatsAccessor) accessor).retrieveStats();
+        if (!useStats) {
+            LOG.debug("Statistics can't answer the {} aggregate for fragment {} of resource {}, reading the fragment",
+                    context.getAggType(), context.getFragmentIndex(), context.getDataSource());
+        }
         return openForReadStatus;
     }
 
@@ -60,8 +70,12 @@ public class AggBridge extends ReadBridge implements Bridge {
     @Override
     @SuppressWarnings("unchecked")
     public Writable getNext() throws Exception {
+        if (!useStats) {
+            return super.getNext();
+        }
+
         Writable output = null;
-        LinkedList<Writable> cachedOutput;
+        Deque<Writable> cachedOutput;
         OneRow onerow;
 
         if (!outputQueue.isEmpty()) {
@@ -74,9 +88,9 @@ public class AggBridge extends ReadBridge implements Bridge {
                 if (onerow == null) {
                     break;
                 }
-                cachedOutput = (LinkedList<Writable>) outputCache.get(onerow.getKey());
+                cachedOutput = (Deque<Writable>) outputCache.get(onerow.getKey());
                 if (cachedOutput == null) {
-                    cachedOutput = outputBuilder.makeOutput(resolver.getFields(onerow));
+                    cachedOutput = makeOutput(onerow);
                     outputCache.put(onerow.getKey(), cachedOutput);
                 }
                 outputQueue.addAll(cachedOutput);
@@ -91,4 +105,16 @@ public class AggBridge extends ReadBridge implements Bridge {
         }
         return output;
     }
+
+    /**
+     * Resolves rows with the vectorized resolver when the resolver is
+     * vectorized, every row is then a batch of rows.
+     */
+    @Override
+    protected Deque<Writable> makeOutput(OneRow oneRow) throws Exception {
+        if (resolver instanceof ReadVectorizedResolver) {
+            return outputBuilder.makeVectorizedOutput(((ReadVectorizedResolver) resolver).getFieldsForBatch(oneRow));
+        }
+        return super.makeOutput(oneRow);
+    }
 }
@@ -19,9 +19,15 @@ package org.greenplum.pxf.service.bridge;
  * under the License.
  */
 
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.error.BadRecordException;
+import org.greenplum.pxf.api.filter.RowFilterEvaluator;
 import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.GreenplumCSV;
+import org.greenplum.pxf.api.model.OutputFormat;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.service.BridgeOutputBuilder;
 import org.greenplum.pxf.service.utilities.BasePluginFactory;
@@ -33,8 +39,10 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.UTFDataFormatException;
 import java.nio.charset.CharacterCodingException;
+import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.zip.ZipException;
 
 /**
@@ -44,15 +52,26 @@ import java.util.zip.ZipException;
  * again using the output conversion class. <br>
  * The class handles BadRecordException and other exception type and marks the
  * record as invalid for GPDB.
+ * <p>
+ * When the {@code pxf.filter.residual.enabled} property is set, the filter of
+ * the query is also evaluated against the resolved rows, and rows that
+ * Greenplum would discard are dropped before they are serialized.
  */
 public class ReadBridge extends BaseBridge {
 
     protected BridgeOutputBuilder outputBuilder;
     protected Deque<Writable> outputQueue = new LinkedList<>();
+    protected RowFilterEvaluator rowFilter;
+    // returned for the rows dropped by the residual filter, it is never added to
+    private final Deque<Writable> emptyOutput = new ArrayDeque<>(0);
+    private TextLineSplitter lineSplitter;
+    private long rowsEvaluated;
+    private long rowsDropped;
 
     public ReadBridge(BasePluginFactory pluginFactory, RequestContext context, GSSFailureHandler failureHandler) {
         super(pluginFactory, context, failureHandler);
         this.outputBuilder = new BridgeOutputBuilder(context);
+        initRowFilter();
     }
 
     /**
@@ -65,7 +84,59 @@ public class ReadBridge extends BaseBridge {
     }
 
     protected Deque<Writable> makeOutput(OneRow oneRow) throws Exception {
-        return outputBuilder.makeOutput(resolver.getFields(oneRow));
+        List<OneField> fields = resolver.getFields(oneRow);
+        if (rowFilter != null && !keepRow(fields)) {
+            return emptyOutput;
+        }
+        return outputBuilder.makeOutput(fields);
+    }
+
+    /**
+     * Evaluates the residual filter against the resolved fields of a row.
+     * Rows with one field per column are evaluated directly; a single line of
+     * text, as passed through by text resolvers, is split according to the
+     * format of the table first. Rows that can't be evaluated are kept.
+     *
+     * @param fields the resolved fields of the row
+     * @return false when the row is rejected by the filter
+     */
+    protected boolean keepRow(List<OneField> fields) {
+        List<OneField> values = fields;
+        if (lineSplitter != null && fields.size() == 1) {
+            Object val = fields.get(0).val;
+            if (!(val instanceof String || val instanceof org.apache.hadoop.io.Text)) {
+                return true;
+            }
+            values = lineSplitter.split(val.toString());
+            if (values == null) {
+                return true;
+            }
+        }
+
+        rowsEvaluated++;
+        if (rowFilter.test(values)) {
+            return true;
+        }
+        rowsDropped++;
+        return false;
+    }
+
+    /**
+     * Returns the number of rows the residual filter was evaluated against
+     *
+     * @return the number of evaluated rows
+     */
+    public long getRowsEvaluated() {
+        return rowsEvaluated;
+    }
+
+    /**
+     * Returns the number of rows dropped by the residual filter
+     *
+     * @return the number of dropped rows
+     */
+    public long getRowsDropped() {
+        return rowsDropped;
     }
 
     /**
@@ -145,6 +216,39 @@ public class ReadBridge extends BaseBridge {
                 || ex instanceof UTFDataFormatException || ex instanceof ZipException);
     }
 
+    /**
+     * Compiles the filter of the query when residual filtering is enabled for
+     * the request. Text resolvers pass lines through when the output format is
+     * TEXT, those lines are split according to the format of the table.
+     */
+    private void initRowFilter() {
+        Configuration configuration = context.getConfiguration();
+        if (!context.hasFilter() || configuration == null ||
+                !configuration.getBoolean(RowFilterEvaluator.PXF_FILTER_RESIDUAL_ENABLED_PROPERTY, false)) {
+            return;
+        }
+
+        try {
+            rowFilter = new RowFilterEvaluator(context.getTupleDescription(), context.getFilterString());
+        } catch (Exception e) {
+            LOG.warn("Unable to compile filter for residual filtering: {}", e.getMessage());
+            return;
+        }
+        if (rowFilter.isEmpty()) {
+            LOG.debug("No predicate of the filter can be evaluated, residual filtering is disabled");
+            rowFilter = null;
+            return;
+        }
+
+        if (context.getOutputFormat() == OutputFormat.TEXT) {
+            GreenplumCSV greenplumCSV = context.getGreenplumCSV();
+            Character escape = greenplumCSV.getEscape();
+            boolean csv = StringUtils.equalsIgnoreCase(context.getFormat(), "csv") ||
+                    (escape != null && escape != '\\');
+            lineSplitter = new TextLineSplitter(greenplumCSV, csv, context.getTupleDescription().size(), rowFilter);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -28,7 +28,9 @@ import org.greenplum.pxf.service.utilities.BasePluginFactory;
 import org.greenplum.pxf.service.utilities.GSSFailureHandler;
 
 import java.util.Deque;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class ReadVectorizedBridge extends ReadBridge {
 
@@ -41,8 +43,20 @@ public class ReadVectorizedBridge extends ReadBridge {
      */
     @Override
     protected Deque<Writable> makeOutput(OneRow oneRow) throws Exception {
+        // rows have to be resolved for the residual filter to evaluate them
+        if (rowFilter == null) {
+            Writable serializedBatch = ((ReadVectorizedResolver) resolver).serializeBatch(oneRow);
+            if (serializedBatch != null) {
+                Deque<Writable> output = new LinkedList<>();
+                output.add(serializedBatch);
+                return output;
+            }
+        }
         List<List<OneField>> resolvedBatch = ((ReadVectorizedResolver) resolver).
                 getFieldsForBatch(oneRow);
+        if (rowFilter != null && resolvedBatch != null) {
+            resolvedBatch = resolvedBatch.stream().filter(this::keepRow).collect(Collectors.toList());
+        }
         return outputBuilder.makeVectorizedOutput(resolvedBatch);
     }
 }
@@ -31,7 +31,7 @@ public class SimpleBridgeFactory implements BridgeFactory {
             throw new UnsupportedOperationException("Current Operation is not supported");
         } else if (context.getStatsSampleRatio() > 0) {
             bridge = new ReadSamplingBridge(pluginFactory, context, failureHandler);
-        } else if (Utilities.aggregateOptimizationsSupported(context)) {
+        } else if (Utilities.aggregateOptimizationsSupported(context, true)) {
             bridge = new AggBridge(pluginFactory, context, failureHandler);
         } else if (useVectorization(context)) {
             bridge = new ReadVectorizedBridge(pluginFactory, context, failureHandler);
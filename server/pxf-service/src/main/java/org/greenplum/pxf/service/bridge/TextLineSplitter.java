@@ -0,0 +1,194 @@
+package org.greenplum.pxf.service.bridge;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.filter.RowFilterEvaluator;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.GreenplumCSV;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a line of delimited text, as passed through by text resolvers, into
+ * fields so that the line can be evaluated by a {@link RowFilterEvaluator}.
+ * Lines are split following the rules of the Greenplum TEXT or CSV formats;
+ * only the fields referenced by the filter are unescaped, the others are
+ * returned as nulls.
+ * <p>
+ * The splitter returns null whenever it isn't certain that it splits the
+ * line the way Greenplum would (unbalanced quotes, octal or hexadecimal
+ * escapes, carriage returns, a number of fields that doesn't match the
+ * table), in which case the line is kept.
+ */
+class TextLineSplitter {
+
+    private static final char BACKSLASH = '\\';
+
+    private final boolean csv;
+    private final Character delimiter;
+    private final char quote;
+    private final Character escape;
+    private final String valueOfNull;
+    private final int columnCount;
+    private final RowFilterEvaluator evaluator;
+
+    /**
+     * Creates a splitter for the format of the table
+     *
+     * @param greenplumCSV the format options of the table
+     * @param csv          true for the CSV format, false for the TEXT format
+     * @param columnCount  the number of columns of the table
+     * @param evaluator    the evaluator that tells which fields are needed
+     */
+    TextLineSplitter(GreenplumCSV greenplumCSV, boolean csv, int columnCount, RowFilterEvaluator evaluator) {
+        this.csv = csv;
+        this.delimiter = greenplumCSV.getDelimiter();
+        this.quote = greenplumCSV.getQuote();
+        this.escape = greenplumCSV.getEscape();
+        this.valueOfNull = greenplumCSV.getValueOfNull();
+        this.columnCount = columnCount;
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Splits the line into fields
+     *
+     * @param line the line, without the line terminator
+     * @return the fields of the line, or null when the line can't be split
+     */
+    List<OneField> split(String line) {
+        if (line.indexOf('\r') >= 0 || (delimiter == null && columnCount != 1)) {
+            return null;
+        }
+        return csv ? splitCsv(line) : splitText(line);
+    }
+
+    private List<OneField> splitText(String line) {
+        if (escape != null && escape != BACKSLASH) {
+            return null;
+        }
+
+        List<OneField> fields = new ArrayList<>(columnCount);
+        StringBuilder value = new StringBuilder();
+        int length = line.length();
+        int start = 0;
+        while (true) {
+            boolean needed = evaluator.isColumnReferenced(fields.size());
+            value.setLength(0);
+            int i = start;
+            for (; i < length; i++) {
+                char c = line.charAt(i);
+                if (delimiter != null && c == delimiter) {
+                    break;
+                } else if (escape != null && c == BACKSLASH) {
+                    if (++i == length) {
+                        return null;
+                    }
+                    char escaped = unescape(line.charAt(i));
+                    if (escaped == 0) {
+                        return null;
+                    }
+                    value.append(escaped);
+                } else {
+                    value.append(c);
+                }
+            }
+
+            if (fields.size() == columnCount) {
+                return null;
+            }
+            // the null marker is compared with the raw field
+            boolean isNull = line.regionMatches(start, valueOfNull, 0, valueOfNull.length()) &&
+                    i - start == valueOfNull.length();
+            fields.add(new OneField(DataType.TEXT.getOID(), needed && !isNull ? value.toString() : null));
+
+            if (i == length) {
+                break;
+            }
+            start = i + 1;
+        }
+        return fields.size() == columnCount ? fields : null;
+    }
+
+    private List<OneField> splitCsv(String line) {
+        List<OneField> fields = new ArrayList<>(columnCount);
+        StringBuilder value = new StringBuilder();
+        int length = line.length();
+        int i = 0;
+        while (true) {
+            boolean needed = evaluator.isColumnReferenced(fields.size());
+            boolean isNull = false;
+            value.setLength(0);
+
+            if (i < length && line.charAt(i) == quote) {
+                // quoted value, never null
+                boolean closed = false;
+                for (i++; i < length; i++) {
+                    char c = line.charAt(i);
+                    if (escape != null && c == escape && i + 1 < length &&
+                            (line.charAt(i + 1) == quote || line.charAt(i + 1) == escape)) {
+                        value.append(line.charAt(++i));
+                    } else if (c == quote) {
+                        closed = true;
+                        i++;
+                        break;
+                    } else {
+                        value.append(c);
+                    }
+                }
+                if (!closed || (i < length && (delimiter == null || line.charAt(i) != delimiter))) {
+                    return null;
+                }
+            } else {
+                int start = i;
+                for (; i < length; i++) {
+                    char c = line.charAt(i);
+                    if (delimiter != null && c == delimiter) {
+                        break;
+                    } else if (c == quote) {
+                        return null;
+                    }
+                }
+                value.append(line, start, i);
+                isNull = value.length() == valueOfNull.length() && value.toString().equals(valueOfNull);
+            }
+
+            if (fields.size() == columnCount) {
+                return null;
+            }
+            fields.add(new OneField(DataType.TEXT.getOID(), needed && !isNull ? value.toString() : null));
+
+            if (i == length) {
+                break;
+            }
+            // skip the delimiter
+            i++;
+        }
+        return fields.size() == columnCount ? fields : null;
+    }
+
+    /**
+     * Returns the character for a backslash escape sequence of the TEXT
+     * format, or 0 for octal and hexadecimal escapes
+     */
+    private char unescape(char c) {
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'v':
+                return '\u000B';
+            case 'x':
+                return 0;
+            default:
+                return c >= '0' && c <= '7' ? 0 : c;
+        }
+    }
+}
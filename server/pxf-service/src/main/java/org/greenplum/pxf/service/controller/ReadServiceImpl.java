@@ -13,6 +13,7 @@ import org.greenplum.pxf.service.FragmenterService;
 import org.greenplum.pxf.service.MetricsReporter;
 import org.greenplum.pxf.service.bridge.Bridge;
 import org.greenplum.pxf.service.bridge.BridgeFactory;
+import org.greenplum.pxf.service.bridge.ReadBridge;
 import org.greenplum.pxf.service.security.SecurityService;
 import org.springframework.stereotype.Service;
 
@@ -184,7 +185,29 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
             log.debug("Finished processing fragment {} of resource {} in {} ms, wrote {} records and {} bytes.",
                     context.getFragmentIndex(), context.getDataSource(), duration.toMillis(), fragmentStats.getRecordCount(), fragmentStats.getByteCount());
             metricsReporter.reportTimer(MetricsReporter.PxfMetric.FRAGMENTS_SENT, duration, context, success);
+            if (bridge instanceof ReadBridge) {
+                reportResidualFilterStats((ReadBridge) bridge, context);
+            }
+        }
+    }
+
+    /**
+     * Reports the number of rows the residual filter of the bridge evaluated
+     * and dropped while processing a fragment.
+     *
+     * @param bridge  the bridge that processed the fragment
+     * @param context request context
+     */
+    private void reportResidualFilterStats(ReadBridge bridge, RequestContext context) {
+        long rowsEvaluated = bridge.getRowsEvaluated();
+        if (rowsEvaluated == 0) {
+            return;
         }
+        long rowsDropped = bridge.getRowsDropped();
+        log.debug("Residual filter dropped {} out of {} evaluated rows for fragment {} of resource {}",
+                rowsDropped, rowsEvaluated, context.getFragmentIndex(), context.getDataSource());
+        metricsReporter.reportCounter(MetricsReporter.PxfMetric.RECORDS_FILTER_EVALUATED, rowsEvaluated, context);
+        metricsReporter.reportCounter(MetricsReporter.PxfMetric.RECORDS_FILTER_DROPPED, rowsDropped, context);
     }
 
     private void updateProfile(RequestContext context, String profile) {
@@ -28,6 +28,7 @@ import org.greenplum.pxf.api.model.ProtocolHandler;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.model.RequestContext.RequestType;
 import org.greenplum.pxf.api.utilities.CharsetUtils;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
 import org.greenplum.pxf.api.utilities.FragmentMetadata;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -637,6 +638,39 @@ public class HttpRequestParserTest {
         assertEquals("Property RESOLVER has no value in the current request", e.getMessage());
     }
 
+    @Test
+    public void testAggregateGroupBy() {
+        RequestContext context = parser.parseRequest(parameters, RequestType.READ_BRIDGE);
+        assertNull(context.getAggType());
+        assertTrue(context.getAggGroupBy().isEmpty());
+
+        parameters.add("X-GP-AGG-TYPE", "max");
+        parameters.add("X-GP-AGG-GROUP-BY", "2,0");
+        context = parser.parseRequest(parameters, RequestType.READ_BRIDGE);
+        assertEquals(EnumAggregationType.MAX, context.getAggType());
+        assertEquals(Arrays.asList(2, 0), context.getAggGroupBy());
+    }
+
+    @Test
+    public void testAggregateGroupByNotAnInteger() {
+        parameters.add("X-GP-AGG-TYPE", "max");
+        parameters.add("X-GP-AGG-GROUP-BY", "2,a");
+
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> parser.parseRequest(parameters, RequestType.READ_BRIDGE));
+        assertEquals("AGG-GROUP-BY must be an integer", e.getMessage());
+    }
+
+    @Test
+    public void testAggregateGroupByNegative() {
+        parameters.add("X-GP-AGG-TYPE", "max");
+        parameters.add("X-GP-AGG-GROUP-BY", "-1");
+
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> parser.parseRequest(parameters, RequestType.READ_BRIDGE));
+        assertEquals("AGG-GROUP-BY must be a positive integer", e.getMessage());
+    }
+
     @Test
     public void testPxfApiVersion() {
         RequestContext context = parser.parseRequest(parameters, RequestType.READ_BRIDGE);
@@ -0,0 +1,118 @@
+package org.greenplum.pxf.service.bridge;
+
+import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.ReadVectorizedResolver;
+import org.greenplum.pxf.api.StatsAccessor;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
+import org.greenplum.pxf.service.utilities.BasePluginFactory;
+import org.greenplum.pxf.service.utilities.GSSFailureHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@ExtendWith(MockitoExtension.class)
+public class AggBridgeTest {
+
+    private RequestContext context;
+
+    @Mock
+    private BasePluginFactory mockPluginFactory;
+    @Mock
+    private StatsAccessor mockAccessor;
+    @Mock
+    private Resolver mockResolver;
+
+    @BeforeEach
+    public void setup() {
+        context = new RequestContext();
+        context.setConfiguration(new Configuration());
+        context.setAccessor("org.greenplum.pxf.api.StatsAccessor");
+        context.setResolver("org.greenplum.pxf.api.model.Resolver");
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.setAggType(EnumAggregationType.COUNT);
+        context.setTupleDescription(Collections.singletonList(
+                new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null)));
+    }
+
+    @Test
+    public void testRowsFromStatisticsAreResolvedOnce() throws Exception {
+        when(mockPluginFactory.getPlugin(context, context.getAccessor())).thenReturn(mockAccessor);
+        when(mockPluginFactory.getPlugin(context, context.getResolver())).thenReturn(mockResolver);
+        when(mockAccessor.retrieveStats()).thenReturn(true);
+        OneRow row = new OneRow("key", "data");
+        when(mockAccessor.emitAggObject()).thenReturn(row, row, row, null);
+        when(mockResolver.getFields(any())).thenReturn(Collections.singletonList(new OneField(DataType.INTEGER.getOID(), null)));
+
+        AggBridge bridge = new AggBridge(mockPluginFactory, context, new GSSFailureHandler());
+        bridge.beginIteration();
+        assertNotNull(bridge.getNext());
+        assertNotNull(bridge.getNext());
+        assertNotNull(bridge.getNext());
+        assertNull(bridge.getNext());
+
+        verify(mockResolver, times(1)).getFields(row);
+        verify(mockAccessor, never()).readNextObject();
+    }
+
+    @Test
+    public void testFragmentIsReadWhenStatisticsCantAnswer() throws Exception {
+        when(mockPluginFactory.getPlugin(context, context.getAccessor())).thenReturn(mockAccessor);
+        when(mockPluginFactory.getPlugin(context, context.getResolver())).thenReturn(mockResolver);
+        when(mockAccessor.retrieveStats()).thenReturn(false);
+        when(mockAccessor.readNextObject()).thenReturn(new OneRow(1), new OneRow(2), null);
+        when(mockResolver.getFields(any())).thenAnswer(invocation -> Collections.singletonList(
+                new OneField(DataType.INTEGER.getOID(), ((OneRow) invocation.getArgument(0)).getData())));
+
+        AggBridge bridge = new AggBridge(mockPluginFactory, context, new GSSFailureHandler());
+        bridge.beginIteration();
+        assertNotNull(bridge.getNext());
+        assertNotNull(bridge.getNext());
+        assertNull(bridge.getNext());
+
+        verify(mockResolver, times(2)).getFields(any());
+        verify(mockAccessor, never()).emitAggObject();
+    }
+
+    @Test
+    public void testBatchesAreResolvedWithVectorizedResolver() throws Exception {
+        Resolver vectorizedResolver = mock(Resolver.class, withSettings().extraInterfaces(ReadVectorizedResolver.class));
+        when(mockPluginFactory.getPlugin(context, context.getAccessor())).thenReturn(mockAccessor);
+        when(mockPluginFactory.getPlugin(context, context.getResolver())).thenReturn(vectorizedResolver);
+        when(mockAccessor.retrieveStats()).thenReturn(true);
+        OneRow batch = new OneRow(2L, "batch");
+        when(mockAccessor.emitAggObject()).thenReturn(batch, (OneRow) null);
+        when(((ReadVectorizedResolver) vectorizedResolver).getFieldsForBatch(batch)).thenReturn(Arrays.asList(
+                Collections.singletonList(new OneField(DataType.INTEGER.getOID(), null)),
+                Collections.singletonList(new OneField(DataType.INTEGER.getOID(), null))));
+
+        AggBridge bridge = new AggBridge(mockPluginFactory, context, new GSSFailureHandler());
+        bridge.beginIteration();
+        assertNotNull(bridge.getNext());
+        assertNotNull(bridge.getNext());
+        assertNull(bridge.getNext());
+
+        verify(vectorizedResolver, never()).getFields(any());
+    }
+}
@@ -1,8 +1,15 @@
 package org.greenplum.pxf.service.bridge;
 
 import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.filter.RowFilterEvaluator;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.model.OutputFormat;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.service.utilities.BasePluginFactory;
 import org.greenplum.pxf.service.utilities.GSSFailureHandler;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,10 +20,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -39,6 +51,8 @@ public class ReadBridgeTest {
     private Accessor mockAccessor2;
     @Mock
     private Accessor mockAccessor3;
+    @Mock
+    private Resolver mockResolver;
 
     @BeforeEach
     public void setup() {
@@ -147,4 +161,37 @@ public class ReadBridgeTest {
         Exception e = assertThrows(UnsupportedOperationException.class, () -> bridge.setNext(null));
         assertEquals("Write operation is not supported.", e.getMessage());
     }
+
+    @Test
+    public void testResidualFilterDropsTextLines() throws Exception {
+        configuration.setBoolean(RowFilterEvaluator.PXF_FILTER_RESIDUAL_ENABLED_PROPERTY, true);
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.setFormat("csv");
+        context.setTupleDescription(Arrays.asList(
+                new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null),
+                new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null)));
+        // id > 5
+        context.setFilterString("a0c23s1d5o2");
+
+        when(mockPluginFactory.getPlugin(context, context.getAccessor())).thenReturn(mockAccessor1);
+        when(mockPluginFactory.getPlugin(context, context.getResolver())).thenReturn(mockResolver);
+        when(mockAccessor1.readNextObject()).thenReturn(
+                new OneRow("1,a"),
+                new OneRow("6,\"b,c\""),
+                new OneRow("\"7\",c"),
+                new OneRow("8,\"unbalanced"),
+                null);
+        when(mockResolver.getFields(any())).thenAnswer(invocation -> Collections.singletonList(
+                new OneField(DataType.TEXT.getOID(), ((OneRow) invocation.getArgument(0)).getData())));
+
+        bridge = new ReadBridge(mockPluginFactory, context, handler);
+        // 6, 7 and the line that can't be split are kept
+        assertNotNull(bridge.getNext());
+        assertNotNull(bridge.getNext());
+        assertNotNull(bridge.getNext());
+        assertNull(bridge.getNext());
+
+        assertEquals(3, bridge.getRowsEvaluated());
+        assertEquals(1, bridge.getRowsDropped());
+    }
 }
@@ -0,0 +1,70 @@
+package org.greenplum.pxf.service.bridge;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.filter.RowFilterEvaluator;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.GreenplumCSV;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TextLineSplitterTest {
+
+    private RowFilterEvaluator evaluator;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        List<ColumnDescriptor> columns = Arrays.asList(
+                new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null),
+                new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null),
+                new ColumnDescriptor("other", DataType.TEXT.getOID(), 2, "text", null));
+        // id > 5 AND name = 'a'
+        evaluator = new RowFilterEvaluator(columns, "a0c23s1d5o2a1c25s1dao5l0");
+    }
+
+    @Test
+    public void testSplitText() {
+        GreenplumCSV greenplumCSV = new GreenplumCSV()
+                .withDelimiter("|")
+                .withEscapeChar("\\")
+                .withValueOfNull("\\N");
+        TextLineSplitter splitter = new TextLineSplitter(greenplumCSV, false, 3, evaluator);
+
+        assertValues(splitter.split("1|a\\|b\\tc|x"), "1", "a|b\tc", null);
+        assertValues(splitter.split("\\N||x"), null, "", null);
+        // octal escapes are not unescaped
+        assertNull(splitter.split("1|\\101|x"));
+        // wrong number of fields
+        assertNull(splitter.split("1|a"));
+        assertNull(splitter.split("1|a|b|c"));
+        assertNull(splitter.split("1|a\\"));
+    }
+
+    @Test
+    public void testSplitCsv() {
+        TextLineSplitter splitter = new TextLineSplitter(new GreenplumCSV(), true, 3, evaluator);
+
+        assertValues(splitter.split("1,\"a,\"\"b\"\"\",x"), "1", "a,\"b\"", null);
+        // an empty quoted value is not null
+        assertValues(splitter.split(",\"\",x"), null, "", null);
+        assertValues(splitter.split("1,a,"), "1", "a", null);
+        // unbalanced quotes
+        assertNull(splitter.split("1,\"a,x"));
+        assertNull(splitter.split("1,a\"b,x"));
+        assertNull(splitter.split("1,\"a\"b,x"));
+        assertNull(splitter.split("1,a\r,x"));
+    }
+
+    private void assertValues(List<OneField> fields, Object... expected) {
+        assertEquals(expected.length, fields.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], fields.get(i).val);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.greenplum.pxf.service.FragmenterService;
 import org.greenplum.pxf.service.MetricsReporter;
 import org.greenplum.pxf.service.bridge.Bridge;
 import org.greenplum.pxf.service.bridge.BridgeFactory;
+import org.greenplum.pxf.service.bridge.ReadBridge;
 import org.greenplum.pxf.service.security.SecurityService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -59,6 +60,8 @@ public class ReadServiceImplTest {
     @Mock
     private Bridge mockBridge1, mockBridge2;
     @Mock
+    private ReadBridge mockReadBridge;
+    @Mock
     private Writable mockRecord1, mockRecord2, mockRecord3;
     @Mock
     private RequestContext mockContext;
@@ -98,6 +101,30 @@ public class ReadServiceImplTest {
         inOrder.verifyNoMoreInteractions();
     }
 
+    @Test
+    public void testReadDataReportsResidualFilterStats() throws Exception {
+        when(mockMetricReporter.getReportFrequency()).thenReturn(1L);
+        when(mockFragmentList.size()).thenReturn(1);
+        when(mockFragmentList.get(0)).thenReturn(mockFragment1);
+        when(mockBridgeFactory.getBridge(mockContext)).thenReturn(mockReadBridge);
+        when(mockReadBridge.beginIteration()).thenReturn(true);
+        when(mockReadBridge.getNext()).thenReturn(mockRecord1).thenReturn(null);
+        when(mockReadBridge.getRowsEvaluated()).thenReturn(3L);
+        when(mockReadBridge.getRowsDropped()).thenReturn(2L);
+        doAnswer(writeTestData("hello")).when(mockRecord1).write(any(DataOutputStream.class));
+
+        readService.readData(mockContext, mockOutputStream);
+
+        InOrder inOrder = inOrder(mockOutputStream, mockMetricReporter);
+        inOrder.verify(mockOutputStream).write("hello".getBytes(StandardCharsets.UTF_8), 0, 5);
+        inOrder.verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_SENT, 1, mockContext);
+        inOrder.verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.BYTES_SENT, 5, mockContext);
+        inOrder.verify(mockMetricReporter).reportTimer(same(MetricsReporter.PxfMetric.FRAGMENTS_SENT), any(Duration.class), same(mockContext), eq(true));
+        inOrder.verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_FILTER_EVALUATED, 3, mockContext);
+        inOrder.verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_FILTER_DROPPED, 2, mockContext);
+        inOrder.verifyNoMoreInteractions();
+    }
+
     @Test
     public void testReadDataOneFragMultiRecordsReportBatch() throws Exception {
         when(mockMetricReporter.getReportFrequency()).thenReturn(2L);